@@ -1,3 +1,5 @@
+-- Initial schema
+
 CREATE TABLE Clients (
     id TEXT PRIMARY KEY,
     company TEXT NOT NULL,
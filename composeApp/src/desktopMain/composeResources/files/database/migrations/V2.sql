@@ -0,0 +1,21 @@
+-- Indexes on foreign keys and time entry creation dates
+
+CREATE INDEX IF NOT EXISTS idx_projects_client_id ON Projects (client_id);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_project_id ON Tasks (project_id);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_task_status_id ON Tasks (task_status_id);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_task_type_id ON Tasks (task_type_id);
+
+CREATE INDEX IF NOT EXISTS idx_project_time_entries_project_id_created_at
+    ON Project_Time_Entries (project_id, created_at);
+
+CREATE INDEX IF NOT EXISTS idx_project_time_entries_created_at
+    ON Project_Time_Entries (created_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_task_time_entries_task_id_created_at
+    ON Task_Time_Entries (task_id, created_at);
+
+CREATE INDEX IF NOT EXISTS idx_task_time_entries_created_at
+    ON Task_Time_Entries (created_at, id);
@@ -0,0 +1,5 @@
+-- Indexes for keyset pagination, newest first
+
+CREATE INDEX IF NOT EXISTS idx_projects_created_at ON Projects (created_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_created_at ON Tasks (created_at, id);
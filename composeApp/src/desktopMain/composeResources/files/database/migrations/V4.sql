@@ -0,0 +1,173 @@
+-- Daily totals of the time entries, kept up to date by triggers. A day is a UTC day, the
+-- number of days since the epoch (created_at / 86400000).
+
+CREATE TABLE Daily_Task_Totals (
+    day INTEGER NOT NULL,
+    task_id TEXT NOT NULL,
+    seconds INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, task_id)
+) WITHOUT ROWID;
+
+CREATE INDEX idx_daily_task_totals_task_id ON Daily_Task_Totals (task_id, day);
+
+CREATE TABLE Daily_Project_Totals (
+    day INTEGER NOT NULL,
+    project_id TEXT NOT NULL,
+    billable_seconds INTEGER NOT NULL DEFAULT 0,
+    non_billable_seconds INTEGER NOT NULL DEFAULT 0,
+    task_seconds INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, project_id)
+) WITHOUT ROWID;
+
+CREATE INDEX idx_daily_project_totals_project_id ON Daily_Project_Totals (project_id, day);
+
+CREATE TRIGGER trg_task_time_entries_insert
+AFTER INSERT ON Task_Time_Entries
+BEGIN
+    INSERT OR IGNORE INTO Daily_Task_Totals (day, task_id)
+    VALUES (NEW.created_at / 86400000, NEW.task_id);
+    UPDATE Daily_Task_Totals SET seconds = seconds + NEW.duration
+    WHERE day = NEW.created_at / 86400000 AND task_id = NEW.task_id;
+    INSERT OR IGNORE INTO Daily_Project_Totals (day, project_id)
+    VALUES (NEW.created_at / 86400000, (SELECT project_id FROM Tasks WHERE id = NEW.task_id));
+    UPDATE Daily_Project_Totals SET task_seconds = task_seconds + NEW.duration
+    WHERE day = NEW.created_at / 86400000
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = NEW.task_id);
+END;
+
+CREATE TRIGGER trg_task_time_entries_delete
+AFTER DELETE ON Task_Time_Entries
+BEGIN
+    UPDATE Daily_Task_Totals SET seconds = seconds - OLD.duration
+    WHERE day = OLD.created_at / 86400000 AND task_id = OLD.task_id;
+    UPDATE Daily_Project_Totals SET task_seconds = task_seconds - OLD.duration
+    WHERE day = OLD.created_at / 86400000
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = OLD.task_id);
+    DELETE FROM Daily_Task_Totals
+    WHERE day = OLD.created_at / 86400000 AND task_id = OLD.task_id AND seconds = 0;
+    DELETE FROM Daily_Project_Totals
+    WHERE day = OLD.created_at / 86400000
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = OLD.task_id)
+        AND billable_seconds = 0 AND non_billable_seconds = 0 AND task_seconds = 0;
+END;
+
+CREATE TRIGGER trg_task_time_entries_update
+AFTER UPDATE OF task_id, duration, created_at ON Task_Time_Entries
+BEGIN
+    UPDATE Daily_Task_Totals SET seconds = seconds - OLD.duration
+    WHERE day = OLD.created_at / 86400000 AND task_id = OLD.task_id;
+    UPDATE Daily_Project_Totals SET task_seconds = task_seconds - OLD.duration
+    WHERE day = OLD.created_at / 86400000
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = OLD.task_id);
+    DELETE FROM Daily_Task_Totals
+    WHERE day = OLD.created_at / 86400000 AND task_id = OLD.task_id AND seconds = 0;
+    DELETE FROM Daily_Project_Totals
+    WHERE day = OLD.created_at / 86400000
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = OLD.task_id)
+        AND billable_seconds = 0 AND non_billable_seconds = 0 AND task_seconds = 0;
+    INSERT OR IGNORE INTO Daily_Task_Totals (day, task_id)
+    VALUES (NEW.created_at / 86400000, NEW.task_id);
+    UPDATE Daily_Task_Totals SET seconds = seconds + NEW.duration
+    WHERE day = NEW.created_at / 86400000 AND task_id = NEW.task_id;
+    INSERT OR IGNORE INTO Daily_Project_Totals (day, project_id)
+    VALUES (NEW.created_at / 86400000, (SELECT project_id FROM Tasks WHERE id = NEW.task_id));
+    UPDATE Daily_Project_Totals SET task_seconds = task_seconds + NEW.duration
+    WHERE day = NEW.created_at / 86400000
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = NEW.task_id);
+END;
+
+CREATE TRIGGER trg_project_time_entries_insert
+AFTER INSERT ON Project_Time_Entries
+BEGIN
+    INSERT OR IGNORE INTO Daily_Project_Totals (day, project_id)
+    VALUES (NEW.created_at / 86400000, NEW.project_id);
+    UPDATE Daily_Project_Totals
+    SET billable_seconds = billable_seconds +
+            CASE WHEN NEW.is_billable THEN NEW.duration ELSE 0 END,
+        non_billable_seconds = non_billable_seconds +
+            CASE WHEN NEW.is_billable THEN 0 ELSE NEW.duration END
+    WHERE day = NEW.created_at / 86400000 AND project_id = NEW.project_id;
+END;
+
+CREATE TRIGGER trg_project_time_entries_delete
+AFTER DELETE ON Project_Time_Entries
+BEGIN
+    UPDATE Daily_Project_Totals
+    SET billable_seconds = billable_seconds -
+            CASE WHEN OLD.is_billable THEN OLD.duration ELSE 0 END,
+        non_billable_seconds = non_billable_seconds -
+            CASE WHEN OLD.is_billable THEN 0 ELSE OLD.duration END
+    WHERE day = OLD.created_at / 86400000 AND project_id = OLD.project_id;
+    DELETE FROM Daily_Project_Totals
+    WHERE day = OLD.created_at / 86400000 AND project_id = OLD.project_id
+        AND billable_seconds = 0 AND non_billable_seconds = 0 AND task_seconds = 0;
+END;
+
+CREATE TRIGGER trg_project_time_entries_update
+AFTER UPDATE OF project_id, duration, created_at, is_billable ON Project_Time_Entries
+BEGIN
+    UPDATE Daily_Project_Totals
+    SET billable_seconds = billable_seconds -
+            CASE WHEN OLD.is_billable THEN OLD.duration ELSE 0 END,
+        non_billable_seconds = non_billable_seconds -
+            CASE WHEN OLD.is_billable THEN 0 ELSE OLD.duration END
+    WHERE day = OLD.created_at / 86400000 AND project_id = OLD.project_id;
+    DELETE FROM Daily_Project_Totals
+    WHERE day = OLD.created_at / 86400000 AND project_id = OLD.project_id
+        AND billable_seconds = 0 AND non_billable_seconds = 0 AND task_seconds = 0;
+    INSERT OR IGNORE INTO Daily_Project_Totals (day, project_id)
+    VALUES (NEW.created_at / 86400000, NEW.project_id);
+    UPDATE Daily_Project_Totals
+    SET billable_seconds = billable_seconds +
+            CASE WHEN NEW.is_billable THEN NEW.duration ELSE 0 END,
+        non_billable_seconds = non_billable_seconds +
+            CASE WHEN NEW.is_billable THEN 0 ELSE NEW.duration END
+    WHERE day = NEW.created_at / 86400000 AND project_id = NEW.project_id;
+END;
+
+-- Moving a task to another project moves its totals with it
+CREATE TRIGGER trg_tasks_update_project
+AFTER UPDATE OF project_id ON Tasks
+WHEN OLD.project_id <> NEW.project_id
+BEGIN
+    UPDATE Daily_Project_Totals
+    SET task_seconds = task_seconds - (
+        SELECT seconds FROM Daily_Task_Totals
+        WHERE task_id = NEW.id AND day = Daily_Project_Totals.day
+    )
+    WHERE project_id = OLD.project_id
+        AND day IN (SELECT day FROM Daily_Task_Totals WHERE task_id = NEW.id);
+    DELETE FROM Daily_Project_Totals
+    WHERE project_id = OLD.project_id
+        AND billable_seconds = 0 AND non_billable_seconds = 0 AND task_seconds = 0;
+    INSERT OR IGNORE INTO Daily_Project_Totals (day, project_id)
+    SELECT day, NEW.project_id FROM Daily_Task_Totals WHERE task_id = NEW.id;
+    UPDATE Daily_Project_Totals
+    SET task_seconds = task_seconds + (
+        SELECT seconds FROM Daily_Task_Totals
+        WHERE task_id = NEW.id AND day = Daily_Project_Totals.day
+    )
+    WHERE project_id = NEW.project_id
+        AND day IN (SELECT day FROM Daily_Task_Totals WHERE task_id = NEW.id);
+END;
+
+-- Totals of the entries saved before this migration
+INSERT INTO Daily_Task_Totals (day, task_id, seconds)
+SELECT created_at / 86400000, task_id, SUM(duration)
+FROM Task_Time_Entries
+GROUP BY created_at / 86400000, task_id;
+
+INSERT INTO Daily_Project_Totals (day, project_id, billable_seconds, non_billable_seconds)
+SELECT created_at / 86400000, project_id,
+    SUM(CASE WHEN is_billable THEN duration ELSE 0 END),
+    SUM(CASE WHEN is_billable THEN 0 ELSE duration END)
+FROM Project_Time_Entries
+GROUP BY created_at / 86400000, project_id;
+
+INSERT INTO Daily_Project_Totals (day, project_id, task_seconds)
+SELECT day, t.project_id, SUM(d.seconds)
+FROM Daily_Task_Totals d
+JOIN Tasks t ON t.id = d.task_id
+WHERE true
+GROUP BY day, t.project_id
+ON CONFLICT (day, project_id) DO UPDATE SET task_seconds = excluded.task_seconds;
@@ -0,0 +1,357 @@
+-- Ids stored as 16-byte blobs instead of 36-character text: the most significant half of the
+-- UUID then the least significant half, big endian, which sorts like the text form.
+-- SQLite cannot change the type of a column, so each table is rebuilt: created under a new
+-- name, filled from the old one, then renamed. The triggers refer to the tables and are
+-- dropped first, then created again once every table is rebuilt.
+
+DROP TRIGGER trg_task_time_entries_insert;
+DROP TRIGGER trg_task_time_entries_delete;
+DROP TRIGGER trg_task_time_entries_update;
+DROP TRIGGER trg_project_time_entries_insert;
+DROP TRIGGER trg_project_time_entries_delete;
+DROP TRIGGER trg_project_time_entries_update;
+DROP TRIGGER trg_tasks_update_project;
+
+-- unhex() turns an id that is not a UUID into NULL, which would lose the row or its reference
+-- without notice: the migration fails on such an id instead, before anything is copied.
+CREATE TABLE Malformed_Ids (table_name TEXT NOT NULL, id TEXT);
+
+CREATE TRIGGER trg_malformed_ids
+BEFORE INSERT ON Malformed_Ids
+BEGIN
+    SELECT RAISE(ABORT, 'An id is not a UUID of 32 hexadecimal digits and dashes');
+END;
+
+INSERT INTO Malformed_Ids (table_name, id)
+SELECT table_name, id FROM (
+    SELECT 'Clients' AS table_name, id FROM Clients
+    UNION ALL SELECT 'Projects', id FROM Projects
+    UNION ALL SELECT 'Projects', client_id FROM Projects
+    UNION ALL SELECT 'Task_Statuses', id FROM Task_Statuses
+    UNION ALL SELECT 'Task_Types', id FROM Task_Types
+    UNION ALL SELECT 'Tasks', id FROM Tasks
+    UNION ALL SELECT 'Tasks', project_id FROM Tasks
+    UNION ALL SELECT 'Tasks', task_status_id FROM Tasks
+    UNION ALL SELECT 'Tasks', task_type_id FROM Tasks
+    UNION ALL SELECT 'Project_Time_Entries', id FROM Project_Time_Entries
+    UNION ALL SELECT 'Project_Time_Entries', project_id FROM Project_Time_Entries
+    UNION ALL SELECT 'Task_Time_Entries', id FROM Task_Time_Entries
+    UNION ALL SELECT 'Task_Time_Entries', task_id FROM Task_Time_Entries
+    UNION ALL SELECT 'Daily_Task_Totals', task_id FROM Daily_Task_Totals
+    UNION ALL SELECT 'Daily_Project_Totals', project_id FROM Daily_Project_Totals
+)
+WHERE id IS NOT NULL
+    AND NOT (length(replace(id, '-', '')) = 32 AND unhex(replace(id, '-', '')) IS NOT NULL);
+
+DROP TABLE Malformed_Ids;
+
+CREATE TABLE new_Clients (
+    id BLOB PRIMARY KEY,
+    company TEXT NOT NULL,
+    name TEXT NOT NULL,
+    email TEXT NOT NULL,
+    phone_number TEXT NOT NULL,
+    timezone TEXT NOT NULL
+);
+
+INSERT INTO new_Clients (id, company, name, email, phone_number, timezone)
+SELECT unhex(replace(id, '-', '')), company, name, email, phone_number, timezone FROM Clients;
+
+DROP TABLE Clients;
+
+ALTER TABLE new_Clients RENAME TO Clients;
+
+CREATE TABLE new_Projects (
+    id BLOB PRIMARY KEY,
+    client_id BLOB,
+    name TEXT NOT NULL,
+    description TEXT NOT NULL,
+    estimated_time INTEGER,
+    hourly_rate REAL,
+    fixed_price REAL,
+    created_at INTEGER NOT NULL,
+    deadline INTEGER,
+    FOREIGN KEY (client_id) REFERENCES Clients(id)
+);
+
+INSERT INTO new_Projects (id, client_id, name, description, estimated_time, hourly_rate,
+    fixed_price, created_at, deadline)
+SELECT unhex(replace(id, '-', '')), unhex(replace(client_id, '-', '')), name, description,
+    estimated_time, hourly_rate, fixed_price, created_at, deadline
+FROM Projects;
+
+DROP TABLE Projects;
+
+ALTER TABLE new_Projects RENAME TO Projects;
+
+CREATE INDEX idx_projects_client_id ON Projects (client_id);
+
+CREATE INDEX idx_projects_created_at ON Projects (created_at, id);
+
+CREATE TABLE new_Task_Statuses (
+    id BLOB PRIMARY KEY,
+    label TEXT NOT NULL
+);
+
+INSERT INTO new_Task_Statuses (id, label)
+SELECT unhex(replace(id, '-', '')), label FROM Task_Statuses;
+
+DROP TABLE Task_Statuses;
+
+ALTER TABLE new_Task_Statuses RENAME TO Task_Statuses;
+
+CREATE TABLE new_Task_Types (
+    id BLOB PRIMARY KEY,
+    label TEXT NOT NULL
+);
+
+INSERT INTO new_Task_Types (id, label)
+SELECT unhex(replace(id, '-', '')), label FROM Task_Types;
+
+DROP TABLE Task_Types;
+
+ALTER TABLE new_Task_Types RENAME TO Task_Types;
+
+CREATE TABLE new_Tasks (
+    id BLOB PRIMARY KEY,
+    project_id BLOB NOT NULL,
+    task_status_id BLOB,
+    task_type_id BLOB,
+    name TEXT NOT NULL,
+    description TEXT NOT NULL,
+    estimated_time INTEGER,
+    created_at INTEGER NOT NULL,
+    FOREIGN KEY (project_id) REFERENCES Projects(id),
+    FOREIGN KEY (task_status_id) REFERENCES Task_Statuses(id),
+    FOREIGN KEY (task_type_id) REFERENCES Task_Types(id)
+);
+
+INSERT INTO new_Tasks (id, project_id, task_status_id, task_type_id, name, description,
+    estimated_time, created_at)
+SELECT unhex(replace(id, '-', '')), unhex(replace(project_id, '-', '')),
+    unhex(replace(task_status_id, '-', '')), unhex(replace(task_type_id, '-', '')), name,
+    description, estimated_time, created_at
+FROM Tasks;
+
+DROP TABLE Tasks;
+
+ALTER TABLE new_Tasks RENAME TO Tasks;
+
+CREATE INDEX idx_tasks_project_id ON Tasks (project_id);
+
+CREATE INDEX idx_tasks_task_status_id ON Tasks (task_status_id);
+
+CREATE INDEX idx_tasks_task_type_id ON Tasks (task_type_id);
+
+CREATE INDEX idx_tasks_created_at ON Tasks (created_at, id);
+
+CREATE TABLE new_Project_Time_Entries (
+    id BLOB PRIMARY KEY,
+    project_id BLOB NOT NULL,
+    duration INTEGER NOT NULL,
+    created_at INTEGER NOT NULL,
+    is_billable INTEGER NOT NULL,
+    FOREIGN KEY (project_id) REFERENCES Projects(id)
+);
+
+INSERT INTO new_Project_Time_Entries (id, project_id, duration, created_at, is_billable)
+SELECT unhex(replace(id, '-', '')), unhex(replace(project_id, '-', '')), duration,
+    created_at, is_billable
+FROM Project_Time_Entries;
+
+DROP TABLE Project_Time_Entries;
+
+ALTER TABLE new_Project_Time_Entries RENAME TO Project_Time_Entries;
+
+CREATE INDEX idx_project_time_entries_project_id_created_at
+    ON Project_Time_Entries (project_id, created_at);
+
+CREATE INDEX idx_project_time_entries_created_at ON Project_Time_Entries (created_at, id);
+
+CREATE TABLE new_Task_Time_Entries (
+    id BLOB PRIMARY KEY,
+    task_id BLOB NOT NULL,
+    duration INTEGER NOT NULL,
+    created_at INTEGER NOT NULL,
+    FOREIGN KEY (task_id) REFERENCES Tasks(id)
+);
+
+INSERT INTO new_Task_Time_Entries (id, task_id, duration, created_at)
+SELECT unhex(replace(id, '-', '')), unhex(replace(task_id, '-', '')), duration, created_at
+FROM Task_Time_Entries;
+
+DROP TABLE Task_Time_Entries;
+
+ALTER TABLE new_Task_Time_Entries RENAME TO Task_Time_Entries;
+
+CREATE INDEX idx_task_time_entries_task_id_created_at
+    ON Task_Time_Entries (task_id, created_at);
+
+CREATE INDEX idx_task_time_entries_created_at ON Task_Time_Entries (created_at, id);
+
+CREATE TABLE new_Daily_Task_Totals (
+    day INTEGER NOT NULL,
+    task_id BLOB NOT NULL,
+    seconds INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, task_id)
+) WITHOUT ROWID;
+
+INSERT INTO new_Daily_Task_Totals (day, task_id, seconds)
+SELECT day, unhex(replace(task_id, '-', '')), seconds FROM Daily_Task_Totals;
+
+DROP TABLE Daily_Task_Totals;
+
+ALTER TABLE new_Daily_Task_Totals RENAME TO Daily_Task_Totals;
+
+CREATE INDEX idx_daily_task_totals_task_id ON Daily_Task_Totals (task_id, day);
+
+CREATE TABLE new_Daily_Project_Totals (
+    day INTEGER NOT NULL,
+    project_id BLOB NOT NULL,
+    billable_seconds INTEGER NOT NULL DEFAULT 0,
+    non_billable_seconds INTEGER NOT NULL DEFAULT 0,
+    task_seconds INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, project_id)
+) WITHOUT ROWID;
+
+INSERT INTO new_Daily_Project_Totals (day, project_id, billable_seconds, non_billable_seconds,
+    task_seconds)
+SELECT day, unhex(replace(project_id, '-', '')), billable_seconds, non_billable_seconds,
+    task_seconds
+FROM Daily_Project_Totals;
+
+DROP TABLE Daily_Project_Totals;
+
+ALTER TABLE new_Daily_Project_Totals RENAME TO Daily_Project_Totals;
+
+CREATE INDEX idx_daily_project_totals_project_id ON Daily_Project_Totals (project_id, day);
+
+CREATE TRIGGER trg_task_time_entries_insert
+AFTER INSERT ON Task_Time_Entries
+BEGIN
+    INSERT OR IGNORE INTO Daily_Task_Totals (day, task_id)
+    VALUES (NEW.created_at / 86400000, NEW.task_id);
+    UPDATE Daily_Task_Totals SET seconds = seconds + NEW.duration
+    WHERE day = NEW.created_at / 86400000 AND task_id = NEW.task_id;
+    INSERT OR IGNORE INTO Daily_Project_Totals (day, project_id)
+    VALUES (NEW.created_at / 86400000, (SELECT project_id FROM Tasks WHERE id = NEW.task_id));
+    UPDATE Daily_Project_Totals SET task_seconds = task_seconds + NEW.duration
+    WHERE day = NEW.created_at / 86400000
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = NEW.task_id);
+END;
+
+CREATE TRIGGER trg_task_time_entries_delete
+AFTER DELETE ON Task_Time_Entries
+BEGIN
+    UPDATE Daily_Task_Totals SET seconds = seconds - OLD.duration
+    WHERE day = OLD.created_at / 86400000 AND task_id = OLD.task_id;
+    UPDATE Daily_Project_Totals SET task_seconds = task_seconds - OLD.duration
+    WHERE day = OLD.created_at / 86400000
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = OLD.task_id);
+    DELETE FROM Daily_Task_Totals
+    WHERE day = OLD.created_at / 86400000 AND task_id = OLD.task_id AND seconds = 0;
+    DELETE FROM Daily_Project_Totals
+    WHERE day = OLD.created_at / 86400000
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = OLD.task_id)
+        AND billable_seconds = 0 AND non_billable_seconds = 0 AND task_seconds = 0;
+END;
+
+CREATE TRIGGER trg_task_time_entries_update
+AFTER UPDATE OF task_id, duration, created_at ON Task_Time_Entries
+BEGIN
+    UPDATE Daily_Task_Totals SET seconds = seconds - OLD.duration
+    WHERE day = OLD.created_at / 86400000 AND task_id = OLD.task_id;
+    UPDATE Daily_Project_Totals SET task_seconds = task_seconds - OLD.duration
+    WHERE day = OLD.created_at / 86400000
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = OLD.task_id);
+    DELETE FROM Daily_Task_Totals
+    WHERE day = OLD.created_at / 86400000 AND task_id = OLD.task_id AND seconds = 0;
+    DELETE FROM Daily_Project_Totals
+    WHERE day = OLD.created_at / 86400000
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = OLD.task_id)
+        AND billable_seconds = 0 AND non_billable_seconds = 0 AND task_seconds = 0;
+    INSERT OR IGNORE INTO Daily_Task_Totals (day, task_id)
+    VALUES (NEW.created_at / 86400000, NEW.task_id);
+    UPDATE Daily_Task_Totals SET seconds = seconds + NEW.duration
+    WHERE day = NEW.created_at / 86400000 AND task_id = NEW.task_id;
+    INSERT OR IGNORE INTO Daily_Project_Totals (day, project_id)
+    VALUES (NEW.created_at / 86400000, (SELECT project_id FROM Tasks WHERE id = NEW.task_id));
+    UPDATE Daily_Project_Totals SET task_seconds = task_seconds + NEW.duration
+    WHERE day = NEW.created_at / 86400000
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = NEW.task_id);
+END;
+
+CREATE TRIGGER trg_project_time_entries_insert
+AFTER INSERT ON Project_Time_Entries
+BEGIN
+    INSERT OR IGNORE INTO Daily_Project_Totals (day, project_id)
+    VALUES (NEW.created_at / 86400000, NEW.project_id);
+    UPDATE Daily_Project_Totals
+    SET billable_seconds = billable_seconds +
+            CASE WHEN NEW.is_billable THEN NEW.duration ELSE 0 END,
+        non_billable_seconds = non_billable_seconds +
+            CASE WHEN NEW.is_billable THEN 0 ELSE NEW.duration END
+    WHERE day = NEW.created_at / 86400000 AND project_id = NEW.project_id;
+END;
+
+CREATE TRIGGER trg_project_time_entries_delete
+AFTER DELETE ON Project_Time_Entries
+BEGIN
+    UPDATE Daily_Project_Totals
+    SET billable_seconds = billable_seconds -
+            CASE WHEN OLD.is_billable THEN OLD.duration ELSE 0 END,
+        non_billable_seconds = non_billable_seconds -
+            CASE WHEN OLD.is_billable THEN 0 ELSE OLD.duration END
+    WHERE day = OLD.created_at / 86400000 AND project_id = OLD.project_id;
+    DELETE FROM Daily_Project_Totals
+    WHERE day = OLD.created_at / 86400000 AND project_id = OLD.project_id
+        AND billable_seconds = 0 AND non_billable_seconds = 0 AND task_seconds = 0;
+END;
+
+CREATE TRIGGER trg_project_time_entries_update
+AFTER UPDATE OF project_id, duration, created_at, is_billable ON Project_Time_Entries
+BEGIN
+    UPDATE Daily_Project_Totals
+    SET billable_seconds = billable_seconds -
+            CASE WHEN OLD.is_billable THEN OLD.duration ELSE 0 END,
+        non_billable_seconds = non_billable_seconds -
+            CASE WHEN OLD.is_billable THEN 0 ELSE OLD.duration END
+    WHERE day = OLD.created_at / 86400000 AND project_id = OLD.project_id;
+    DELETE FROM Daily_Project_Totals
+    WHERE day = OLD.created_at / 86400000 AND project_id = OLD.project_id
+        AND billable_seconds = 0 AND non_billable_seconds = 0 AND task_seconds = 0;
+    INSERT OR IGNORE INTO Daily_Project_Totals (day, project_id)
+    VALUES (NEW.created_at / 86400000, NEW.project_id);
+    UPDATE Daily_Project_Totals
+    SET billable_seconds = billable_seconds +
+            CASE WHEN NEW.is_billable THEN NEW.duration ELSE 0 END,
+        non_billable_seconds = non_billable_seconds +
+            CASE WHEN NEW.is_billable THEN 0 ELSE NEW.duration END
+    WHERE day = NEW.created_at / 86400000 AND project_id = NEW.project_id;
+END;
+
+-- Moving a task to another project moves its totals with it
+CREATE TRIGGER trg_tasks_update_project
+AFTER UPDATE OF project_id ON Tasks
+WHEN OLD.project_id <> NEW.project_id
+BEGIN
+    UPDATE Daily_Project_Totals
+    SET task_seconds = task_seconds - (
+        SELECT seconds FROM Daily_Task_Totals
+        WHERE task_id = NEW.id AND day = Daily_Project_Totals.day
+    )
+    WHERE project_id = OLD.project_id
+        AND day IN (SELECT day FROM Daily_Task_Totals WHERE task_id = NEW.id);
+    DELETE FROM Daily_Project_Totals
+    WHERE project_id = OLD.project_id
+        AND billable_seconds = 0 AND non_billable_seconds = 0 AND task_seconds = 0;
+    INSERT OR IGNORE INTO Daily_Project_Totals (day, project_id)
+    SELECT day, NEW.project_id FROM Daily_Task_Totals WHERE task_id = NEW.id;
+    UPDATE Daily_Project_Totals
+    SET task_seconds = task_seconds + (
+        SELECT seconds FROM Daily_Task_Totals
+        WHERE task_id = NEW.id AND day = Daily_Project_Totals.day
+    )
+    WHERE project_id = NEW.project_id
+        AND day IN (SELECT day FROM Daily_Task_Totals WHERE task_id = NEW.id);
+END;
@@ -0,0 +1,132 @@
+-- Days of the daily totals rounded down instead of toward zero, so that an entry created before
+-- 1970 counts on its own UTC day, like in TimeEntryStore: the day of an entry is
+-- created_at / 86400000 - (created_at % 86400000 < 0). The triggers computing the day are
+-- created again and the totals recomputed.
+
+DROP TRIGGER trg_task_time_entries_insert;
+DROP TRIGGER trg_task_time_entries_delete;
+DROP TRIGGER trg_task_time_entries_update;
+DROP TRIGGER trg_project_time_entries_insert;
+DROP TRIGGER trg_project_time_entries_delete;
+DROP TRIGGER trg_project_time_entries_update;
+
+CREATE TRIGGER trg_task_time_entries_insert
+AFTER INSERT ON Task_Time_Entries
+BEGIN
+    INSERT OR IGNORE INTO Daily_Task_Totals (day, task_id)
+    VALUES (NEW.created_at / 86400000 - (NEW.created_at % 86400000 < 0), NEW.task_id);
+    UPDATE Daily_Task_Totals SET seconds = seconds + NEW.duration
+    WHERE day = NEW.created_at / 86400000 - (NEW.created_at % 86400000 < 0)
+        AND task_id = NEW.task_id;
+    INSERT OR IGNORE INTO Daily_Project_Totals (day, project_id)
+    VALUES (NEW.created_at / 86400000 - (NEW.created_at % 86400000 < 0),
+        (SELECT project_id FROM Tasks WHERE id = NEW.task_id));
+    UPDATE Daily_Project_Totals SET task_seconds = task_seconds + NEW.duration
+    WHERE day = NEW.created_at / 86400000 - (NEW.created_at % 86400000 < 0)
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = NEW.task_id);
+END;
+
+CREATE TRIGGER trg_task_time_entries_delete
+AFTER DELETE ON Task_Time_Entries
+BEGIN
+    UPDATE Daily_Task_Totals SET seconds = seconds - OLD.duration
+    WHERE day = OLD.created_at / 86400000 - (OLD.created_at % 86400000 < 0)
+        AND task_id = OLD.task_id;
+    UPDATE Daily_Project_Totals SET task_seconds = task_seconds - OLD.duration
+    WHERE day = OLD.created_at / 86400000 - (OLD.created_at % 86400000 < 0)
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = OLD.task_id);
+    DELETE FROM Daily_Task_Totals
+    WHERE day = OLD.created_at / 86400000 - (OLD.created_at % 86400000 < 0)
+        AND task_id = OLD.task_id AND seconds = 0;
+    DELETE FROM Daily_Project_Totals
+    WHERE day = OLD.created_at / 86400000 - (OLD.created_at % 86400000 < 0)
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = OLD.task_id)
+        AND billable_seconds = 0 AND non_billable_seconds = 0 AND task_seconds = 0;
+END;
+
+CREATE TRIGGER trg_task_time_entries_update
+AFTER UPDATE OF task_id, duration, created_at ON Task_Time_Entries
+BEGIN
+    UPDATE Daily_Task_Totals SET seconds = seconds - OLD.duration
+    WHERE day = OLD.created_at / 86400000 - (OLD.created_at % 86400000 < 0)
+        AND task_id = OLD.task_id;
+    UPDATE Daily_Project_Totals SET task_seconds = task_seconds - OLD.duration
+    WHERE day = OLD.created_at / 86400000 - (OLD.created_at % 86400000 < 0)
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = OLD.task_id);
+    DELETE FROM Daily_Task_Totals
+    WHERE day = OLD.created_at / 86400000 - (OLD.created_at % 86400000 < 0)
+        AND task_id = OLD.task_id AND seconds = 0;
+    DELETE FROM Daily_Project_Totals
+    WHERE day = OLD.created_at / 86400000 - (OLD.created_at % 86400000 < 0)
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = OLD.task_id)
+        AND billable_seconds = 0 AND non_billable_seconds = 0 AND task_seconds = 0;
+    INSERT OR IGNORE INTO Daily_Task_Totals (day, task_id)
+    VALUES (NEW.created_at / 86400000 - (NEW.created_at % 86400000 < 0), NEW.task_id);
+    UPDATE Daily_Task_Totals SET seconds = seconds + NEW.duration
+    WHERE day = NEW.created_at / 86400000 - (NEW.created_at % 86400000 < 0)
+        AND task_id = NEW.task_id;
+    INSERT OR IGNORE INTO Daily_Project_Totals (day, project_id)
+    VALUES (NEW.created_at / 86400000 - (NEW.created_at % 86400000 < 0),
+        (SELECT project_id FROM Tasks WHERE id = NEW.task_id));
+    UPDATE Daily_Project_Totals SET task_seconds = task_seconds + NEW.duration
+    WHERE day = NEW.created_at / 86400000 - (NEW.created_at % 86400000 < 0)
+        AND project_id = (SELECT project_id FROM Tasks WHERE id = NEW.task_id);
+END;
+
+CREATE TRIGGER trg_project_time_entries_insert
+AFTER INSERT ON Project_Time_Entries
+BEGIN
+    INSERT OR IGNORE INTO Daily_Project_Totals (day, project_id)
+    VALUES (NEW.created_at / 86400000 - (NEW.created_at % 86400000 < 0), NEW.project_id);
+    UPDATE Daily_Project_Totals
+    SET billable_seconds = billable_seconds +
+            CASE WHEN NEW.is_billable THEN NEW.duration ELSE 0 END,
+        non_billable_seconds = non_billable_seconds +
+            CASE WHEN NEW.is_billable THEN 0 ELSE NEW.duration END
+    WHERE day = NEW.created_at / 86400000 - (NEW.created_at % 86400000 < 0)
+        AND project_id = NEW.project_id;
+END;
+
+CREATE TRIGGER trg_project_time_entries_delete
+AFTER DELETE ON Project_Time_Entries
+BEGIN
+    UPDATE Daily_Project_Totals
+    SET billable_seconds = billable_seconds -
+            CASE WHEN OLD.is_billable THEN OLD.duration ELSE 0 END,
+        non_billable_seconds = non_billable_seconds -
+            CASE WHEN OLD.is_billable THEN 0 ELSE OLD.duration END
+    WHERE day = OLD.created_at / 86400000 - (OLD.created_at % 86400000 < 0)
+        AND project_id = OLD.project_id;
+    DELETE FROM Daily_Project_Totals
+    WHERE day = OLD.created_at / 86400000 - (OLD.created_at % 86400000 < 0)
+        AND project_id = OLD.project_id
+        AND billable_seconds = 0 AND non_billable_seconds = 0 AND task_seconds = 0;
+END;
+
+CREATE TRIGGER trg_project_time_entries_update
+AFTER UPDATE OF project_id, duration, created_at, is_billable ON Project_Time_Entries
+BEGIN
+    UPDATE Daily_Project_Totals
+    SET billable_seconds = billable_seconds -
+            CASE WHEN OLD.is_billable THEN OLD.duration ELSE 0 END,
+        non_billable_seconds = non_billable_seconds -
+            CASE WHEN OLD.is_billable THEN 0 ELSE OLD.duration END
+    WHERE day = OLD.created_at / 86400000 - (OLD.created_at % 86400000 < 0)
+        AND project_id = OLD.project_id;
+    DELETE FROM Daily_Project_Totals
+    WHERE day = OLD.created_at / 86400000 - (OLD.created_at % 86400000 < 0)
+        AND project_id = OLD.project_id
+        AND billable_seconds = 0 AND non_billable_seconds = 0 AND task_seconds = 0;
+    INSERT OR IGNORE INTO Daily_Project_Totals (day, project_id)
+    VALUES (NEW.created_at / 86400000 - (NEW.created_at % 86400000 < 0), NEW.project_id);
+    UPDATE Daily_Project_Totals
+    SET billable_seconds = billable_seconds +
+            CASE WHEN NEW.is_billable THEN NEW.duration ELSE 0 END,
+        non_billable_seconds = non_billable_seconds +
+            CASE WHEN NEW.is_billable THEN 0 ELSE NEW.duration END
+    WHERE day = NEW.created_at / 86400000 - (NEW.created_at % 86400000 < 0)
+        AND project_id = NEW.project_id;
+END;
+
+-- Totals of the entries saved before this migration, shared with RollupDao.rebuild()
+.read files/database/rollups.sql
@@ -0,0 +1,27 @@
+-- Recomputes every daily total from the time entries, run by migration V6 and by
+-- RollupDao.rebuild(). The day of an entry is created_at / 86400000 rounded down, also for the
+-- entries before 1970 that the division alone would round toward zero.
+
+DELETE FROM Daily_Task_Totals;
+
+DELETE FROM Daily_Project_Totals;
+
+INSERT INTO Daily_Task_Totals (day, task_id, seconds)
+SELECT created_at / 86400000 - (created_at % 86400000 < 0) AS day, task_id, SUM(duration)
+FROM Task_Time_Entries
+GROUP BY day, task_id;
+
+INSERT INTO Daily_Project_Totals (day, project_id, billable_seconds, non_billable_seconds)
+SELECT created_at / 86400000 - (created_at % 86400000 < 0) AS day, project_id,
+    SUM(CASE WHEN is_billable THEN duration ELSE 0 END),
+    SUM(CASE WHEN is_billable THEN 0 ELSE duration END)
+FROM Project_Time_Entries
+GROUP BY day, project_id;
+
+INSERT INTO Daily_Project_Totals (day, project_id, task_seconds)
+SELECT day, t.project_id, SUM(d.seconds)
+FROM Daily_Task_Totals d
+JOIN Tasks t ON t.id = d.task_id
+WHERE true
+GROUP BY day, t.project_id
+ON CONFLICT (day, project_id) DO UPDATE SET task_seconds = excluded.task_seconds;
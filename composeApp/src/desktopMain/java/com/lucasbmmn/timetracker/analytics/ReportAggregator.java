@@ -0,0 +1,270 @@
+package com.lucasbmmn.timetracker.analytics;
+
+import com.lucasbmmn.timetracker.model.DailyProjectTotal;
+import com.lucasbmmn.timetracker.model.ProjectTimeSummary;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.io.Serial;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Aggregates the time entries of a {@link TimeEntryStore} for reports, using every core.
+ *
+ * <p>The rows of the store are split in ranges summed by the tasks of a {@link ForkJoinPool},
+ * each into its own array of partial sums, and the partial sums are added pairwise as the tasks
+ * join. Sums are exact {@code long} seconds, so the result does not depend on the number of
+ * threads nor on the order the ranges complete in.</p>
+ *
+ * <p>Ranges hold at least {@value #MIN_CHUNK_ROWS} rows, below which splitting costs more than
+ * it saves, and there are about four per worker thread so that busy threads can steal the work
+ * of slower ones.</p>
+ *
+ * <p>Daily totals are summed in an array of three sums per project and day, so a period may
+ * cover at most {@value #MAX_DAILY_SUMS} of them: about ten years of 380 projects.</p>
+ */
+public final class ReportAggregator {
+    static final int MIN_CHUNK_ROWS = 16_384;
+    /** The most sums of a daily aggregation, 32 MiB per array of partial sums. */
+    static final int MAX_DAILY_SUMS = 1 << 22;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final TimeEntryStore store;
+    private final ForkJoinPool pool;
+    private final int minChunkRows;
+
+    /**
+     * Constructs a new {@code ReportAggregator} object running on the common pool.
+     *
+     * @param store the store to aggregate; must not be {@code null}
+     * @throws NullPointerException if {@code store} is {@code null}
+     */
+    public ReportAggregator(@NotNull TimeEntryStore store) {
+        this(store, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new {@code ReportAggregator} object running on the given pool.
+     *
+     * @param store the store to aggregate; must not be {@code null}
+     * @param pool  the pool running the aggregations; must not be {@code null}
+     * @throws NullPointerException if {@code store} or {@code pool} is {@code null}
+     */
+    public ReportAggregator(@NotNull TimeEntryStore store, @NotNull ForkJoinPool pool) {
+        this(store, pool, MIN_CHUNK_ROWS);
+    }
+
+    /**
+     * Constructs a new {@code ReportAggregator} object splitting the rows in smaller ranges, to
+     * test the splitting on few rows.
+     *
+     * @param minChunkRows the minimum number of rows of a range, must be positive
+     */
+    ReportAggregator(@NotNull TimeEntryStore store, @NotNull ForkJoinPool pool,
+                     int minChunkRows) {
+        Objects.requireNonNull(store, "store must not be null");
+        Objects.requireNonNull(pool, "pool must not be null");
+        this.store = store;
+        this.pool = pool;
+        this.minChunkRows = minChunkRows;
+    }
+
+    /**
+     * Sums the time logged on each project in the given time range, see
+     * {@link TimeEntryStore#summarizeProjects(Instant, Instant)}.
+     *
+     * @param from the start of the range, inclusive; must not be {@code null}
+     * @param to   the end of the range, exclusive; must not be {@code null}
+     * @return a summary per project with time logged in the range, ordered by project id;
+     * never {@code null}
+     * @throws NullPointerException if {@code from} or {@code to} is {@code null}
+     * @throws IllegalArgumentException if {@code to} is before {@code from}
+     */
+    public @NotNull List<ProjectTimeSummary> summarizeProjects(@NotNull Instant from,
+                                                               @NotNull Instant to) {
+        TimeEntryStore.checkRange(from, to);
+        long start = TimeEntryStore.toSeconds(from);
+        long end = TimeEntryStore.toSeconds(to);
+
+        Lock readLock = this.store.readLock();
+        readLock.lock();
+        try {
+            long[] sums = this.aggregate(TimeEntryStore.KINDS * this.store.projectCount(),
+                    (fromRow, toRow, partialSums) ->
+                            this.store.sumByProject(fromRow, toRow, start, end, partialSums));
+            return this.store.projectSummaries(sums);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Sums the time logged on each task in the given time range, see
+     * {@link TimeEntryStore#summarizeTasks(Instant, Instant)}.
+     *
+     * @param from the start of the range, inclusive; must not be {@code null}
+     * @param to   the end of the range, exclusive; must not be {@code null}
+     * @return the time logged on each task with time logged in the range, by task id; never
+     * {@code null}
+     * @throws NullPointerException if {@code from} or {@code to} is {@code null}
+     * @throws IllegalArgumentException if {@code to} is before {@code from}
+     */
+    public @NotNull Map<UUID, Duration> summarizeTasks(@NotNull Instant from,
+                                                       @NotNull Instant to) {
+        TimeEntryStore.checkRange(from, to);
+        long start = TimeEntryStore.toSeconds(from);
+        long end = TimeEntryStore.toSeconds(to);
+
+        Lock readLock = this.store.readLock();
+        readLock.lock();
+        try {
+            long[] sums = this.aggregate(this.store.taskCount(),
+                    (fromRow, toRow, partialSums) ->
+                            this.store.sumByTask(fromRow, toRow, start, end, partialSums));
+            return this.store.taskTotals(sums);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Sums the time logged on each project on each UTC day between two days, like the
+     * {@link com.lucasbmmn.timetracker.data.dao.RollupDao} reads from the database.
+     *
+     * @param from the first day, inclusive; must not be {@code null}
+     * @param to   the last day, inclusive; must not be {@code null}
+     * @return the totals ordered by day then project id; never {@code null}, a day without
+     * entry for a project has no total
+     * @throws NullPointerException if {@code from} or {@code to} is {@code null}
+     * @throws IllegalArgumentException if {@code to} is before {@code from}, or the period has
+     * too many days for the number of projects, see {@link #MAX_DAILY_SUMS}
+     */
+    public @NotNull List<DailyProjectTotal> dailyProjectTotals(@NotNull LocalDate from,
+                                                               @NotNull LocalDate to) {
+        Objects.requireNonNull(from, "from must not be null");
+        Objects.requireNonNull(to, "to must not be null");
+        if (to.isBefore(from))
+            throw new IllegalArgumentException("The end of the period must not be before its " +
+                    "start: " + from + " > " + to);
+        long start = from.toEpochDay() * TimeEntryStore.SECONDS_PER_DAY;
+        long end = (to.toEpochDay() + 1) * TimeEntryStore.SECONDS_PER_DAY;
+
+        Lock readLock = this.store.readLock();
+        readLock.lock();
+        try {
+            int projectCount = this.store.projectCount();
+            long dayCount = to.toEpochDay() - from.toEpochDay() + 1;
+            if (dayCount > MAX_DAILY_SUMS / (TimeEntryStore.KINDS * Math.max(projectCount, 1)))
+                throw new IllegalArgumentException("The period is too long to aggregate: " +
+                        from + " - " + to);
+            int days = (int) dayCount;
+            int width = days * TimeEntryStore.KINDS * projectCount;
+
+            long[] sums = this.aggregate(width, (fromRow, toRow, partialSums) ->
+                    this.store.sumByProjectAndDay(fromRow, toRow, start, end, projectCount,
+                            partialSums));
+
+            // Ordered by project id within a day, like the project_id column
+            Integer[] codes = new Integer[projectCount];
+            for (int code = 0; code < projectCount; code++) codes[code] = code;
+            Arrays.sort(codes,
+                    Comparator.comparing(code -> this.store.projectId(code).toString()));
+
+            List<DailyProjectTotal> totals = new ArrayList<>();
+            for (int day = 0; day < days; day++) {
+                int offset = day * TimeEntryStore.KINDS * projectCount;
+                for (int code : codes) {
+                    long tasks = sums[offset + TimeEntryStore.TASK * projectCount + code];
+                    long billable = sums[offset + TimeEntryStore.BILLABLE * projectCount + code];
+                    long nonBillable =
+                            sums[offset + TimeEntryStore.NON_BILLABLE * projectCount + code];
+                    if (tasks != 0 || billable != 0 || nonBillable != 0)
+                        totals.add(new DailyProjectTotal(from.plusDays(day),
+                                this.store.projectId(code), Duration.ofSeconds(billable),
+                                Duration.ofSeconds(nonBillable), Duration.ofSeconds(tasks)));
+                }
+            }
+            return totals;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Runs a kernel over every row of the store and returns the sum of its partial sums. The
+     * caller holds the read lock of the store, which the worker threads rely on.
+     *
+     * <p>Each chunk allocates and merges its own array of {@code width} sums, so a chunk has at
+     * least {@code width} rows: the arrays of all the chunks then take no more than the rows
+     * they sum, however many days and projects a report covers.</p>
+     */
+    private long[] aggregate(int width, Kernel kernel) {
+        int rowCount = this.store.rowCount();
+        int chunkRows = Math.max(Math.max(this.minChunkRows, width),
+                rowCount / (this.pool.getParallelism() * CHUNKS_PER_THREAD));
+        if (rowCount <= chunkRows) {
+            // Not worth a task
+            long[] sums = new long[width];
+            kernel.sum(0, rowCount, sums);
+            return sums;
+        }
+        return this.pool.invoke(new Aggregation(kernel, width, chunkRows, 0, rowCount));
+    }
+
+    /**
+     * Sums the rows {@code [fromRow, toRow)} into {@code sums}.
+     */
+    @FunctionalInterface
+    private interface Kernel {
+        void sum(int fromRow, int toRow, long[] sums);
+    }
+
+    /**
+     * Sums a range of rows, splitting it in halves down to chunks of at most {@code chunkRows}
+     * rows.
+     */
+    private static final class Aggregation extends RecursiveTask<long[]> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        // Never serialized, the task only lives for one aggregation
+        private final transient Kernel kernel;
+        private final int width;
+        private final int chunkRows;
+        private final int fromRow;
+        private final int toRow;
+
+        private Aggregation(Kernel kernel, int width, int chunkRows, int fromRow, int toRow) {
+            this.kernel = kernel;
+            this.width = width;
+            this.chunkRows = chunkRows;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (this.toRow - this.fromRow <= this.chunkRows) {
+                long[] sums = new long[this.width];
+                this.kernel.sum(this.fromRow, this.toRow, sums);
+                return sums;
+            }
+
+            int middle = (this.fromRow + this.toRow) >>> 1;
+            Aggregation left = new Aggregation(this.kernel, this.width, this.chunkRows,
+                    this.fromRow, middle);
+            Aggregation right = new Aggregation(this.kernel, this.width, this.chunkRows, middle,
+                    this.toRow);
+            left.fork();
+            long[] sums = right.compute();
+            long[] leftSums = left.join();
+            for (int i = 0; i < sums.length; i++) sums[i] += leftSums[i];
+            return sums;
+        }
+    }
+}
@@ -0,0 +1,614 @@
+package com.lucasbmmn.timetracker.analytics;
+
+import com.lucasbmmn.timetracker.data.dao.DaoListener;
+import com.lucasbmmn.timetracker.data.dao.ProjectTimeEntryDao;
+import com.lucasbmmn.timetracker.data.dao.TaskDao;
+import com.lucasbmmn.timetracker.data.dao.TaskTimeEntryDao;
+import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.data.database.Uuids;
+import com.lucasbmmn.timetracker.model.ProjectTimeEntry;
+import com.lucasbmmn.timetracker.model.ProjectTimeSummary;
+import com.lucasbmmn.timetracker.model.Task;
+import com.lucasbmmn.timetracker.model.TaskTimeEntry;
+import org.intellij.lang.annotations.Language;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory, column-oriented copy of every {@link TaskTimeEntry} and {@link ProjectTimeEntry},
+ * for analytics over millions of entries.
+ *
+ * <p>Each entry is a row of primitive arrays: its creation time in epoch seconds, its duration
+ * in seconds, its kind (task, billable or non-billable) and the dictionary codes of its project
+ * and task. The rows of a task are also linked together, so that moving a task to another
+ * project only visits its own rows. A row costs under 80 bytes with its index entry, instead
+ * of the several hundred of the entity objects, and the aggregations are plain loops over the
+ * arrays that the JIT can unroll and vectorize.</p>
+ *
+ * <p>The store is loaded from the database by {@link #open()} and then follows the entries
+ * written through {@link TaskTimeEntryDao}, {@link ProjectTimeEntryDao} and the task moves
+ * written through {@link TaskDao}, once they are committed. Changes made another way, such as a
+ * database reset, require a {@link #reload()}. Times are truncated to the second.</p>
+ *
+ * <pre>{@code
+ * try (TimeEntryStore store = TimeEntryStore.open()) {
+ *     List<ProjectTimeSummary> summaries = store.summarizeProjects(from, to);
+ * }
+ * }</pre>
+ */
+public final class TimeEntryStore implements AutoCloseable {
+    @Language("SQL")
+    private static final String LOAD_SQL = """
+        SELECT e.id, t.project_id, e.task_id, e.duration, e.created_at, NULL AS is_billable
+        FROM Task_Time_Entries e
+        JOIN Tasks t ON t.id = e.task_id
+        UNION ALL
+        SELECT id, project_id, NULL, duration, created_at, is_billable
+        FROM Project_Time_Entries
+        """;
+
+    static final byte TASK = 0;
+    static final byte BILLABLE = 1;
+    static final byte NON_BILLABLE = 2;
+    static final int KINDS = 3;
+    static final long SECONDS_PER_DAY = 86_400;
+    private static final int NO_TASK = -1;
+    private static final int NO_ROW = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final UuidIndex rows = new UuidIndex();
+    private final Dictionary projects = new Dictionary();
+    private final Dictionary tasks = new Dictionary();
+
+    private long[] idMsbs = new long[INITIAL_CAPACITY];
+    private long[] idLsbs = new long[INITIAL_CAPACITY];
+    private long[] createdAt = new long[INITIAL_CAPACITY];
+    private int[] durations = new int[INITIAL_CAPACITY];
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int[] projectCodes = new int[INITIAL_CAPACITY];
+    private int[] taskCodes = new int[INITIAL_CAPACITY];
+    /** The rows of each task, as a doubly linked list of rows starting at its first row. */
+    private int[] nextTaskRows = new int[INITIAL_CAPACITY];
+    private int[] previousTaskRows = new int[INITIAL_CAPACITY];
+    private int[] firstTaskRows = newFirstRows(new int[0], INITIAL_CAPACITY);
+    private int size;
+
+    private final DaoListener<TaskTimeEntry> taskEntryListener = new DaoListener<>() {
+        @Override
+        public void inserted(@NotNull Collection<TaskTimeEntry> entities) {
+            TimeEntryStore.this.putTaskEntries(entities);
+        }
+
+        @Override
+        public void updated(@NotNull Collection<TaskTimeEntry> entities) {
+            TimeEntryStore.this.putTaskEntries(entities);
+        }
+
+        @Override
+        public void deleted(@NotNull Collection<TaskTimeEntry> entities) {
+            TimeEntryStore.this.removeAll(entities.stream().map(TaskTimeEntry::getUuid));
+        }
+    };
+
+    private final DaoListener<ProjectTimeEntry> projectEntryListener = new DaoListener<>() {
+        @Override
+        public void inserted(@NotNull Collection<ProjectTimeEntry> entities) {
+            TimeEntryStore.this.putProjectEntries(entities);
+        }
+
+        @Override
+        public void updated(@NotNull Collection<ProjectTimeEntry> entities) {
+            TimeEntryStore.this.putProjectEntries(entities);
+        }
+
+        @Override
+        public void deleted(@NotNull Collection<ProjectTimeEntry> entities) {
+            TimeEntryStore.this.removeAll(entities.stream().map(ProjectTimeEntry::getUuid));
+        }
+    };
+
+    private final DaoListener<Task> taskListener = new DaoListener<>() {
+        @Override
+        public void updated(@NotNull Collection<Task> entities) {
+            TimeEntryStore.this.moveTasks(entities);
+        }
+    };
+
+    private TimeEntryStore() {
+    }
+
+    /**
+     * Loads every time entry of the database into a new store that follows the later writes
+     * made through the DAOs.
+     *
+     * @return the store; must be closed to stop following the writes
+     * @throws RuntimeException if a {@link java.sql.SQLException} occurs
+     */
+    public static @NotNull TimeEntryStore open() {
+        TimeEntryStore store = new TimeEntryStore();
+        // Listening first so no write is missed, replaying a write already loaded is harmless
+        TaskTimeEntryDao.addListener(store.taskEntryListener);
+        ProjectTimeEntryDao.addListener(store.projectEntryListener);
+        TaskDao.addListener(store.taskListener);
+        try {
+            store.reload();
+        } catch (RuntimeException e) {
+            store.close();
+            throw e;
+        }
+        return store;
+    }
+
+    /**
+     * Replaces the content of the store with the time entries of the database.
+     *
+     * @throws RuntimeException if a {@link java.sql.SQLException} occurs
+     */
+    public void reload() {
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            this.rows.clear();
+            Arrays.fill(this.firstTaskRows, NO_ROW);
+            this.size = 0;
+            try (Stream<LoadedRow> loadedRows = new DatabaseManager().streamQuery(LOAD_SQL,
+                    rs -> {
+                        Object billable = rs.getObject("is_billable");
+                        byte kind = billable == null ? TASK
+                                : rs.getBoolean("is_billable") ? BILLABLE : NON_BILLABLE;
+                        return new LoadedRow(Uuids.read(rs, "id"), Uuids.read(rs, "project_id"),
+                                Uuids.read(rs, "task_id"), rs.getLong("created_at"),
+                                rs.getLong("duration"), kind);
+                    })) {
+                loadedRows.forEach(row -> this.put(row.id(), row.projectId(), row.taskId(),
+                        row.createdAt(), row.duration(), row.kind()));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Stops following the writes made through the DAOs. The content of the store stays readable.
+     */
+    @Override
+    public void close() {
+        TaskTimeEntryDao.removeListener(this.taskEntryListener);
+        ProjectTimeEntryDao.removeListener(this.projectEntryListener);
+        TaskDao.removeListener(this.taskListener);
+    }
+
+    /**
+     * Returns the number of time entries in the store.
+     *
+     * @return the number of task and project time entries
+     */
+    public int size() {
+        Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            return this.size;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Sums the duration of every time entry created in the given time range.
+     *
+     * @param from the start of the range, inclusive; must not be {@code null}
+     * @param to   the end of the range, exclusive; must not be {@code null}
+     * @return the time logged in the range; never {@code null}
+     * @throws NullPointerException if {@code from} or {@code to} is {@code null}
+     * @throws IllegalArgumentException if {@code to} is before {@code from}
+     */
+    public @NotNull Duration total(@NotNull Instant from, @NotNull Instant to) {
+        checkRange(from, to);
+        long start = toSeconds(from);
+        long end = toSeconds(to);
+
+        Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            long[] createdAt = this.createdAt;
+            int[] durations = this.durations;
+            long total = 0;
+            for (int i = 0; i < this.size; i++) {
+                long time = createdAt[i];
+                if (time >= start && time < end) total += durations[i];
+            }
+            return Duration.ofSeconds(total);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Sums the time logged on each project in the given time range.
+     *
+     * @param from the start of the range, inclusive; must not be {@code null}
+     * @param to   the end of the range, exclusive; must not be {@code null}
+     * @return a summary per project with time logged in the range, ordered by project id;
+     * never {@code null}
+     * @throws NullPointerException if {@code from} or {@code to} is {@code null}
+     * @throws IllegalArgumentException if {@code to} is before {@code from}
+     */
+    public @NotNull List<ProjectTimeSummary> summarizeProjects(@NotNull Instant from,
+                                                               @NotNull Instant to) {
+        checkRange(from, to);
+        long start = toSeconds(from);
+        long end = toSeconds(to);
+
+        Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            long[] sums = new long[KINDS * this.projects.size()];
+            this.sumByProject(0, this.size, start, end, sums);
+            return this.projectSummaries(sums);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Sums the time logged on each task in the given time range.
+     *
+     * @param from the start of the range, inclusive; must not be {@code null}
+     * @param to   the end of the range, exclusive; must not be {@code null}
+     * @return the time logged on each task with time logged in the range, by task id; never
+     * {@code null}
+     * @throws NullPointerException if {@code from} or {@code to} is {@code null}
+     * @throws IllegalArgumentException if {@code to} is before {@code from}
+     */
+    public @NotNull Map<UUID, Duration> summarizeTasks(@NotNull Instant from,
+                                                       @NotNull Instant to) {
+        checkRange(from, to);
+        long start = toSeconds(from);
+        long end = toSeconds(to);
+
+        Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            long[] sums = new long[this.tasks.size()];
+            this.sumByTask(0, this.size, start, end, sums);
+            return this.taskTotals(sums);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the lock to hold while reading the columns.
+     */
+    Lock readLock() {
+        return this.lock.readLock();
+    }
+
+    /**
+     * Returns the number of rows. The caller holds the read lock.
+     */
+    int rowCount() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of project codes, the width of a {@link #sumByProject} row. The caller
+     * holds the read lock.
+     */
+    int projectCount() {
+        return this.projects.size();
+    }
+
+    /**
+     * Returns the number of task codes, the size of the {@link #sumByTask} sums. The caller
+     * holds the read lock.
+     */
+    int taskCount() {
+        return this.tasks.size();
+    }
+
+    /**
+     * Returns the uuid of a project code. The caller holds the read lock.
+     */
+    UUID projectId(int code) {
+        return this.projects.decode(code);
+    }
+
+    /**
+     * Adds the durations of the rows {@code [fromRow, toRow)} created in {@code [start, end)}
+     * to {@code sums}, indexed by {@code kind * projectCount + projectCode}. The caller holds
+     * the read lock.
+     */
+    void sumByProject(int fromRow, int toRow, long start, long end, long[] sums) {
+        int projectCount = sums.length / KINDS;
+        long[] createdAt = this.createdAt;
+        int[] durations = this.durations;
+        byte[] kinds = this.kinds;
+        int[] projectCodes = this.projectCodes;
+        for (int i = fromRow; i < toRow; i++) {
+            long time = createdAt[i];
+            if (time >= start && time < end)
+                sums[kinds[i] * projectCount + projectCodes[i]] += durations[i];
+        }
+    }
+
+    /**
+     * Adds the durations of the task entries of the rows {@code [fromRow, toRow)} created in
+     * {@code [start, end)} to {@code sums}, indexed by task code. The caller holds the read
+     * lock.
+     */
+    void sumByTask(int fromRow, int toRow, long start, long end, long[] sums) {
+        long[] createdAt = this.createdAt;
+        int[] durations = this.durations;
+        int[] taskCodes = this.taskCodes;
+        for (int i = fromRow; i < toRow; i++) {
+            long time = createdAt[i];
+            int task = taskCodes[i];
+            if (task != NO_TASK && time >= start && time < end) sums[task] += durations[i];
+        }
+    }
+
+    /**
+     * Adds the durations of the rows {@code [fromRow, toRow)} created in {@code [start, end)}
+     * to {@code sums}, indexed by {@code (day * KINDS + kind) * projectCount + projectCode}
+     * where {@code day} counts the days since {@code start}. The caller holds the read lock.
+     */
+    void sumByProjectAndDay(int fromRow, int toRow, long start, long end, int projectCount,
+                            long[] sums) {
+        long[] createdAt = this.createdAt;
+        int[] durations = this.durations;
+        byte[] kinds = this.kinds;
+        int[] projectCodes = this.projectCodes;
+        for (int i = fromRow; i < toRow; i++) {
+            long time = createdAt[i];
+            if (time >= start && time < end) {
+                int day = (int) ((time - start) / SECONDS_PER_DAY);
+                sums[(day * KINDS + kinds[i]) * projectCount + projectCodes[i]] += durations[i];
+            }
+        }
+    }
+
+    /**
+     * Converts the sums of {@link #sumByProject} to summaries, ordered by project id. The caller
+     * holds the read lock.
+     */
+    List<ProjectTimeSummary> projectSummaries(long[] sums) {
+        int projectCount = sums.length / KINDS;
+        List<ProjectTimeSummary> summaries = new ArrayList<>();
+        for (int code = 0; code < projectCount; code++) {
+            long tasks = sums[TASK * projectCount + code];
+            long billable = sums[BILLABLE * projectCount + code];
+            long nonBillable = sums[NON_BILLABLE * projectCount + code];
+            if (tasks != 0 || billable != 0 || nonBillable != 0)
+                summaries.add(new ProjectTimeSummary(this.projects.decode(code),
+                        Duration.ofSeconds(billable), Duration.ofSeconds(nonBillable),
+                        Duration.ofSeconds(tasks)));
+        }
+        // Same order as the project_id column
+        summaries.sort(Comparator.comparing(summary -> summary.projectId().toString()));
+        return summaries;
+    }
+
+    /**
+     * Converts the sums of {@link #sumByTask} to durations by task id. The caller holds the
+     * read lock.
+     */
+    Map<UUID, Duration> taskTotals(long[] sums) {
+        Map<UUID, Duration> totals = new HashMap<>();
+        for (int code = 0; code < sums.length; code++)
+            if (sums[code] != 0)
+                totals.put(this.tasks.decode(code), Duration.ofSeconds(sums[code]));
+        return totals;
+    }
+
+    private void putTaskEntries(Collection<TaskTimeEntry> entries) {
+        // Resolved before locking, loading a lazy task is a query the readers must not wait for
+        List<UUID> projectIds = new ArrayList<>(entries.size());
+        for (TaskTimeEntry entry : entries) projectIds.add(entry.getTask().getProjectId());
+
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            Iterator<UUID> projectId = projectIds.iterator();
+            for (TaskTimeEntry entry : entries)
+                this.put(entry.getUuid(), projectId.next(), entry.getTaskId(),
+                        entry.getCreatedAt().getTime(), entry.getDuration().getSeconds(), TASK);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void putProjectEntries(Collection<ProjectTimeEntry> entries) {
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            for (ProjectTimeEntry entry : entries)
+                this.put(entry.getUuid(), entry.getProjectId(), null,
+                        entry.getCreatedAt().getTime(), entry.getDuration().getSeconds(),
+                        entry.isBillable() ? BILLABLE : NON_BILLABLE);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void removeAll(Stream<UUID> ids) {
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            ids.forEach(this::remove);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void moveTasks(Collection<Task> movedTasks) {
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            for (Task task : movedTasks) {
+                int taskCode = this.tasks.find(task.getUuid());
+                if (taskCode == UuidIndex.ABSENT) continue;
+
+                int projectCode = this.projects.encode(task.getProjectId());
+                for (int row = this.firstTaskRows[taskCode]; row != NO_ROW;
+                     row = this.nextTaskRows[row])
+                    this.projectCodes[row] = projectCode;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Inserts or replaces the row of an entry. The caller holds the write lock.
+     */
+    private void put(UUID id, UUID projectId, UUID taskId, long createdAtMillis,
+                     long durationSeconds, byte kind) {
+        int row = this.rows.get(id);
+        if (row == UuidIndex.ABSENT) {
+            if (this.size == this.createdAt.length) this.grow();
+            row = this.size++;
+            this.rows.put(id, row);
+            this.idMsbs[row] = id.getMostSignificantBits();
+            this.idLsbs[row] = id.getLeastSignificantBits();
+        } else {
+            this.unlinkTaskRow(row);
+        }
+        this.createdAt[row] = Math.floorDiv(createdAtMillis, 1000);
+        this.durations[row] = Math.toIntExact(durationSeconds);
+        this.kinds[row] = kind;
+        this.projectCodes[row] = this.projects.encode(projectId);
+        this.taskCodes[row] = taskId == null ? NO_TASK : this.tasks.encode(taskId);
+        this.linkTaskRow(row);
+    }
+
+    /**
+     * Removes the row of an entry by moving the last row in its place. The caller holds the
+     * write lock.
+     */
+    private void remove(UUID id) {
+        int row = this.rows.remove(id);
+        if (row == UuidIndex.ABSENT) return;
+
+        this.unlinkTaskRow(row);
+        int last = --this.size;
+        if (row != last) {
+            this.unlinkTaskRow(last);
+            this.idMsbs[row] = this.idMsbs[last];
+            this.idLsbs[row] = this.idLsbs[last];
+            this.createdAt[row] = this.createdAt[last];
+            this.durations[row] = this.durations[last];
+            this.kinds[row] = this.kinds[last];
+            this.projectCodes[row] = this.projectCodes[last];
+            this.taskCodes[row] = this.taskCodes[last];
+            this.linkTaskRow(row);
+            this.rows.put(new UUID(this.idMsbs[row], this.idLsbs[row]), row);
+        }
+    }
+
+    /**
+     * Adds a row to the rows of its task, if it has one. The caller holds the write lock.
+     */
+    private void linkTaskRow(int row) {
+        int taskCode = this.taskCodes[row];
+        if (taskCode == NO_TASK) return;
+        if (taskCode >= this.firstTaskRows.length)
+            this.firstTaskRows = newFirstRows(this.firstTaskRows,
+                    Math.max(2 * this.firstTaskRows.length, taskCode + 1));
+
+        int next = this.firstTaskRows[taskCode];
+        this.nextTaskRows[row] = next;
+        this.previousTaskRows[row] = NO_ROW;
+        if (next != NO_ROW) this.previousTaskRows[next] = row;
+        this.firstTaskRows[taskCode] = row;
+    }
+
+    /**
+     * Removes a row from the rows of its task, if it has one. The caller holds the write lock.
+     */
+    private void unlinkTaskRow(int row) {
+        int taskCode = this.taskCodes[row];
+        if (taskCode == NO_TASK) return;
+
+        int previous = this.previousTaskRows[row];
+        int next = this.nextTaskRows[row];
+        if (previous == NO_ROW) this.firstTaskRows[taskCode] = next;
+        else this.nextTaskRows[previous] = next;
+        if (next != NO_ROW) this.previousTaskRows[next] = previous;
+    }
+
+    private void grow() {
+        int capacity = 2 * this.createdAt.length;
+        this.idMsbs = Arrays.copyOf(this.idMsbs, capacity);
+        this.idLsbs = Arrays.copyOf(this.idLsbs, capacity);
+        this.createdAt = Arrays.copyOf(this.createdAt, capacity);
+        this.durations = Arrays.copyOf(this.durations, capacity);
+        this.kinds = Arrays.copyOf(this.kinds, capacity);
+        this.projectCodes = Arrays.copyOf(this.projectCodes, capacity);
+        this.taskCodes = Arrays.copyOf(this.taskCodes, capacity);
+        this.nextTaskRows = Arrays.copyOf(this.nextTaskRows, capacity);
+        this.previousTaskRows = Arrays.copyOf(this.previousTaskRows, capacity);
+    }
+
+    private static int[] newFirstRows(int[] firstRows, int capacity) {
+        int[] grown = Arrays.copyOf(firstRows, capacity);
+        Arrays.fill(grown, firstRows.length, capacity, NO_ROW);
+        return grown;
+    }
+
+    static long toSeconds(Instant instant) {
+        // Rounded up, an entry is in the range if its second is
+        return instant.getNano() == 0 ? instant.getEpochSecond() : instant.getEpochSecond() + 1;
+    }
+
+    static void checkRange(Instant from, Instant to) {
+        Objects.requireNonNull(from, "from must not be null");
+        Objects.requireNonNull(to, "to must not be null");
+        if (to.isBefore(from))
+            throw new IllegalArgumentException("The end of the range must not be before its " +
+                    "start: " + from + " > " + to);
+    }
+
+    private record LoadedRow(UUID id, UUID projectId, UUID taskId, long createdAt,
+                             long duration, byte kind) {
+    }
+
+    /**
+     * Dense codes given to the project or task ids, in order of appearance. Codes are never
+     * reused, so a code stays valid for the lifetime of the store.
+     */
+    private static final class Dictionary {
+        private final UuidIndex codes = new UuidIndex();
+        private final List<UUID> ids = new ArrayList<>();
+
+        int size() {
+            return this.ids.size();
+        }
+
+        int find(UUID id) {
+            return this.codes.get(id);
+        }
+
+        int encode(UUID id) {
+            int code = this.codes.get(id);
+            if (code == UuidIndex.ABSENT) {
+                code = this.ids.size();
+                this.codes.put(id, code);
+                this.ids.add(id);
+            }
+            return code;
+        }
+
+        UUID decode(int code) {
+            return this.ids.get(code);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.lucasbmmn.timetracker.analytics;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Open-addressing hash map from {@link UUID} to non-negative {@code int}, storing the two halves
+ * of each key in {@code long} arrays instead of one object per entry.
+ *
+ * <p>Collisions are resolved by linear probing and removals shift the following keys back, so
+ * there are no tombstones. The table is kept at most half full.</p>
+ */
+final class UuidIndex {
+    static final int ABSENT = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] msbs;
+    private long[] lsbs;
+    private int[] values;
+    private int size;
+
+    UuidIndex() {
+        this.allocate(MIN_CAPACITY);
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the value of the given key.
+     *
+     * @return the value, or {@link #ABSENT} if the key is not in the index
+     */
+    int get(UUID key) {
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        int mask = this.values.length - 1;
+
+        for (int slot = slot(msb, lsb, mask); ; slot = (slot + 1) & mask) {
+            int value = this.values[slot];
+            if (value == ABSENT || (this.msbs[slot] == msb && this.lsbs[slot] == lsb)) return value;
+        }
+    }
+
+    /**
+     * Associates a value with the given key, replacing its previous value.
+     *
+     * @param value the value, must not be negative
+     */
+    void put(UUID key, int value) {
+        if (2 * (this.size + 1) > this.values.length) this.resize(2 * this.values.length);
+        if (this.insert(key.getMostSignificantBits(), key.getLeastSignificantBits(), value))
+            this.size++;
+    }
+
+    /**
+     * Removes the given key.
+     *
+     * @return the value of the key, or {@link #ABSENT} if it was not in the index
+     */
+    int remove(UUID key) {
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        int mask = this.values.length - 1;
+
+        int slot = slot(msb, lsb, mask);
+        while (this.values[slot] != ABSENT &&
+                (this.msbs[slot] != msb || this.lsbs[slot] != lsb)) slot = (slot + 1) & mask;
+        int removed = this.values[slot];
+        if (removed == ABSENT) return ABSENT;
+
+        // Shift back the following keys that can no longer be reached from their home slot
+        int hole = slot;
+        for (int next = (hole + 1) & mask; this.values[next] != ABSENT; next = (next + 1) & mask) {
+            int home = slot(this.msbs[next], this.lsbs[next], mask);
+            boolean reachable = hole < next ? home > hole && home <= next
+                    : home > hole || home <= next;
+            if (!reachable) {
+                this.msbs[hole] = this.msbs[next];
+                this.lsbs[hole] = this.lsbs[next];
+                this.values[hole] = this.values[next];
+                hole = next;
+            }
+        }
+        this.values[hole] = ABSENT;
+        this.size--;
+        return removed;
+    }
+
+    void clear() {
+        this.allocate(MIN_CAPACITY);
+        this.size = 0;
+    }
+
+    private boolean insert(long msb, long lsb, int value) {
+        int mask = this.values.length - 1;
+
+        for (int slot = slot(msb, lsb, mask); ; slot = (slot + 1) & mask) {
+            if (this.values[slot] == ABSENT) {
+                this.msbs[slot] = msb;
+                this.lsbs[slot] = lsb;
+                this.values[slot] = value;
+                return true;
+            }
+            if (this.msbs[slot] == msb && this.lsbs[slot] == lsb) {
+                this.values[slot] = value;
+                return false;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldMsbs = this.msbs;
+        long[] oldLsbs = this.lsbs;
+        int[] oldValues = this.values;
+
+        this.allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++)
+            if (oldValues[i] != ABSENT) this.insert(oldMsbs[i], oldLsbs[i], oldValues[i]);
+    }
+
+    private void allocate(int capacity) {
+        this.msbs = new long[capacity];
+        this.lsbs = new long[capacity];
+        this.values = new int[capacity];
+        Arrays.fill(this.values, ABSENT);
+    }
+
+    private static int slot(long msb, long lsb, int mask) {
+        long hash = (msb ^ Long.rotateLeft(lsb, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,236 @@
+package com.lucasbmmn.timetracker.billing;
+
+import com.lucasbmmn.timetracker.analytics.TimeEntryStore;
+import com.lucasbmmn.timetracker.data.dao.ProjectDao;
+import com.lucasbmmn.timetracker.data.dao.ProjectTimeEntryDao;
+import com.lucasbmmn.timetracker.model.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Computes what clients owe for their projects over a period.
+ *
+ * <p>The period is a range of days, and each client is billed on the days of its own timezone,
+ * or on UTC days if its offset is beyond the ±18:00 a timezone can have.
+ * The time entries of the period are read in a single streaming pass, oldest first, and summed
+ * per project in whole seconds; the amounts are then computed once per project with
+ * {@link BigDecimal}, rounded half-even to two decimal places, so no rounding error builds up
+ * with the number of entries.</p>
+ *
+ * <p>Given a {@link TimeEntryStore}, the engine sums the entries in memory instead, with one
+ * scan of the store per distinct timezone of the billed clients.</p>
+ */
+public class BillingEngine {
+    private static final int SCALE = 2;
+    private static final BigDecimal SECONDS_PER_HOUR = BigDecimal.valueOf(3600);
+    /** Largest offset of a timezone, the range read covers the period in every timezone. */
+    private static final Duration MAX_OFFSET = Duration.ofHours(18);
+
+    private final ProjectDao projectDao;
+    private final ProjectTimeEntryDao entryDao;
+    private final TimeEntryStore store;
+
+    /**
+     * Constructs a new {@code BillingEngine} object reading the time entries from the database.
+     */
+    public BillingEngine() {
+        this.projectDao = new ProjectDao();
+        this.entryDao = new ProjectTimeEntryDao();
+        this.store = null;
+    }
+
+    /**
+     * Constructs a new {@code BillingEngine} object reading the time entries from the given
+     * store.
+     *
+     * @param store the store of the time entries; must not be {@code null}
+     * @throws NullPointerException if {@code store} is {@code null}
+     */
+    public BillingEngine(@NotNull TimeEntryStore store) {
+        Objects.requireNonNull(store, "store must not be null");
+        this.projectDao = new ProjectDao();
+        this.entryDao = null;
+        this.store = store;
+    }
+
+    /**
+     * Bills every client over a period.
+     *
+     * @param from the first day of the period, inclusive; must not be {@code null}
+     * @param to   the last day of the period, inclusive; must not be {@code null}
+     * @return an invoice per client with something to bill, the projects without client being
+     * grouped in an invoice without client; never {@code null}
+     * @throws NullPointerException if {@code from} or {@code to} is {@code null}
+     * @throws IllegalArgumentException if {@code to} is before {@code from}
+     */
+    public @NotNull List<ClientInvoice> bill(@NotNull LocalDate from, @NotNull LocalDate to) {
+        return this.bill(this.projectDao.getAll(), from, to);
+    }
+
+    /**
+     * Bills a client over a period.
+     *
+     * @param client the client to bill; must not be {@code null}
+     * @param from   the first day of the period, inclusive; must not be {@code null}
+     * @param to     the last day of the period, inclusive; must not be {@code null}
+     * @return the invoice of the client; never {@code null}, without project if there is
+     * nothing to bill
+     * @throws NullPointerException if {@code client}, {@code from} or {@code to} is
+     * {@code null}
+     * @throws IllegalArgumentException if {@code to} is before {@code from}
+     */
+    public @NotNull ClientInvoice bill(@NotNull Client client, @NotNull LocalDate from,
+                                       @NotNull LocalDate to) {
+        Objects.requireNonNull(client, "client must not be null");
+
+        List<Project> projects = new ArrayList<>();
+        for (Project project : this.projectDao.getAll()) {
+            Client projectClient = project.getClient();
+            if (projectClient != null && projectClient.getUuid().equals(client.getUuid()))
+                projects.add(project);
+        }
+
+        List<ClientInvoice> invoices = this.bill(projects, from, to);
+        return invoices.isEmpty() ? new ClientInvoice(client, from, to, List.of())
+                : invoices.getFirst();
+    }
+
+    private List<ClientInvoice> bill(List<Project> projects, LocalDate from, LocalDate to) {
+        Objects.requireNonNull(from, "from must not be null");
+        Objects.requireNonNull(to, "to must not be null");
+        if (to.isBefore(from))
+            throw new IllegalArgumentException("The end of the period must not be before its " +
+                    "start: " + from + " > " + to);
+
+        Map<UUID, Account> accounts = new HashMap<>();
+        for (Project project : projects)
+            accounts.put(project.getUuid(), new Account(project, from, to));
+
+        if (this.store != null) {
+            this.sumFromStore(accounts.values(), from, to);
+        } else if (!accounts.isEmpty()) {
+            Instant start = from.atStartOfDay(ZoneOffset.UTC).toInstant().minus(MAX_OFFSET);
+            Instant end = to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().plus(MAX_OFFSET);
+            try (Stream<ProjectTimeEntry> entries = this.entryDao.findBetween(start, end)) {
+                entries.forEach(entry -> {
+                    Account account = accounts.get(entry.getProjectId());
+                    if (account != null) account.add(entry);
+                });
+            }
+        }
+
+        // Group by client, keeping the order of the projects
+        Map<UUID, List<ProjectInvoice>> invoicesByClient = new LinkedHashMap<>();
+        Map<UUID, Client> clients = new HashMap<>();
+        for (Project project : projects) {
+            ProjectInvoice invoice = accounts.get(project.getUuid()).toInvoice();
+            if (invoice == null) continue;
+
+            Client client = project.getClient();
+            UUID clientId = client == null ? null : client.getUuid();
+            clients.putIfAbsent(clientId, client);
+            invoicesByClient.computeIfAbsent(clientId, k -> new ArrayList<>()).add(invoice);
+        }
+
+        List<ClientInvoice> invoices = new ArrayList<>(invoicesByClient.size());
+        invoicesByClient.forEach((clientId, projectInvoices) ->
+                invoices.add(new ClientInvoice(clients.get(clientId), from, to, projectInvoices)));
+        return invoices;
+    }
+
+    private void sumFromStore(Collection<Account> accounts, LocalDate from, LocalDate to) {
+        Map<ZoneOffset, List<Account>> accountsByZone = new HashMap<>();
+        for (Account account : accounts)
+            accountsByZone.computeIfAbsent(account.zone, k -> new ArrayList<>()).add(account);
+
+        accountsByZone.forEach((zone, zoneAccounts) -> {
+            Instant start = from.atStartOfDay(zone).toInstant();
+            Instant end = to.plusDays(1).atStartOfDay(zone).toInstant();
+            Map<UUID, ProjectTimeSummary> summaries = new HashMap<>();
+            for (ProjectTimeSummary summary : this.store.summarizeProjects(start, end))
+                summaries.put(summary.projectId(), summary);
+
+            for (Account account : zoneAccounts) {
+                ProjectTimeSummary summary = summaries.get(account.project.getUuid());
+                if (summary != null) account.add(summary.billable().getSeconds(),
+                        summary.nonBillable().getSeconds());
+            }
+        });
+    }
+
+    /**
+     * Running totals of a project, in seconds, over the period in the timezone of its client.
+     */
+    private static final class Account {
+        private final Project project;
+        private final ZoneOffset zone;
+        private final long start;
+        private final long end;
+        private long billableSeconds;
+        private long nonBillableSeconds;
+
+        private Account(Project project, LocalDate from, LocalDate to) {
+            Client client = project.getClient();
+            this.project = project;
+            this.zone = client == null ? ZoneOffset.UTC : zone(client.getTimezone());
+            this.start = from.atStartOfDay(this.zone).toInstant().toEpochMilli();
+            this.end = to.plusDays(1).atStartOfDay(this.zone).toInstant().toEpochMilli();
+        }
+
+        private static ZoneOffset zone(String timezone) {
+            try {
+                return ZoneOffset.of(timezone);
+            } catch (DateTimeException e) {
+                // Client accepts offsets up to ±19:59, one of them must not fail every invoice
+                return ZoneOffset.UTC;
+            }
+        }
+
+        private boolean contains(Date date) {
+            long time = date.getTime();
+            return time >= this.start && time < this.end;
+        }
+
+        private void add(ProjectTimeEntry entry) {
+            if (!this.contains(entry.getCreatedAt())) return;
+
+            if (entry.isBillable()) this.billableSeconds += entry.getDuration().getSeconds();
+            else this.nonBillableSeconds += entry.getDuration().getSeconds();
+        }
+
+        private void add(long billableSeconds, long nonBillableSeconds) {
+            this.billableSeconds += billableSeconds;
+            this.nonBillableSeconds += nonBillableSeconds;
+        }
+
+        /**
+         * Returns the invoice of the project, or {@code null} if there is nothing to bill.
+         */
+        private ProjectInvoice toInvoice() {
+            Date due = this.project.getDeadline() != null ? this.project.getDeadline()
+                    : this.project.getCreatedAt();
+            boolean fixedPriceDue = this.project.getFixedPrice() > 0 && this.contains(due);
+            if (this.billableSeconds == 0 && this.nonBillableSeconds == 0 && !fixedPriceDue)
+                return null;
+
+            BigDecimal hourlyAmount = BigDecimal.valueOf(this.project.getHourlyRate())
+                    .multiply(BigDecimal.valueOf(this.billableSeconds))
+                    .divide(SECONDS_PER_HOUR, SCALE, RoundingMode.HALF_EVEN);
+            BigDecimal fixedAmount = fixedPriceDue
+                    ? BigDecimal.valueOf(this.project.getFixedPrice())
+                    .setScale(SCALE, RoundingMode.HALF_EVEN)
+                    : BigDecimal.ZERO.setScale(SCALE);
+            return new ProjectInvoice(this.project, Duration.ofSeconds(this.billableSeconds),
+                    Duration.ofSeconds(this.nonBillableSeconds), hourlyAmount, fixedAmount);
+        }
+    }
+}
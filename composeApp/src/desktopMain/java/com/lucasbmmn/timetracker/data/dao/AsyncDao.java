@@ -0,0 +1,203 @@
+package com.lucasbmmn.timetracker.data.dao;
+
+import com.lucasbmmn.timetracker.data.database.WriteQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous facade over a {@link Dao}, so that a user interface never waits on the database.
+ *
+ * <p>Each call returns at once with a {@link CompletableFuture} completed with the result of the
+ * wrapped DAO, or completed exceptionally with its exception. Reads each run on their own virtual
+ * thread and may run concurrently, up to the readers of the connection pool. Writes go to the
+ * default {@link WriteQueue}, shared by every {@code AsyncDao}, which runs them one at a time in
+ * the order they were submitted, as SQLite only has one writer, and commits them in groups.</p>
+ *
+ * <p>A read is not ordered after the writes submitted before it: to read what was written, chain
+ * the read on the future of the write. The calls run on other threads, so they do not join the
+ * {@link DaoSession} of the caller.</p>
+ *
+ * @param <T> the type of the entity the wrapped DAO manages
+ */
+public final class AsyncDao<T> {
+    private static final ExecutorService READERS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("dao-reader-", 0).factory());
+
+    private final Dao<T> dao;
+
+    /**
+     * Constructs a new {@code AsyncDao} object running the calls of the given DAO.
+     *
+     * @param dao the DAO to run the calls of; must not be {@code null}
+     * @throws NullPointerException if {@code dao} is {@code null}
+     */
+    public AsyncDao(@NotNull Dao<T> dao) {
+        Objects.requireNonNull(dao, "dao must not be null");
+        this.dao = dao;
+    }
+
+    /**
+     * Returns the DAO this facade runs the calls of.
+     *
+     * @return the wrapped DAO; never {@code null}
+     */
+    public @NotNull Dao<T> getDao() {
+        return this.dao;
+    }
+
+    /**
+     * Retrieves all entities, see {@link Dao#getAll()}.
+     *
+     * @return a future of all the entities
+     */
+    public @NotNull CompletableFuture<List<T>> getAll() {
+        return read(this.dao::getAll);
+    }
+
+    /**
+     * Retrieves one page of entities, see {@link Dao#getPage(int, String)}.
+     *
+     * @param pageSize  the maximum number of entities of the page; must be positive
+     * @param pageToken the token of the previous page, or {@code null} for the first page
+     * @return a future of the page, completed with an {@link IllegalArgumentException} if
+     * {@code pageSize} is not positive or {@code pageToken} is not a token of the DAO
+     */
+    public @NotNull CompletableFuture<Page<T>> getPage(int pageSize, String pageToken) {
+        return read(() -> this.dao.getPage(pageSize, pageToken));
+    }
+
+    /**
+     * Estimates the number of entities, see {@link Dao#estimateCount()}.
+     *
+     * @return a future of the estimated number of entities
+     */
+    public @NotNull CompletableFuture<Long> estimateCount() {
+        return read(this.dao::estimateCount);
+    }
+
+    /**
+     * Retrieves an entity by its unique identifier, see {@link Dao#getById(String)}.
+     *
+     * @param uuid the unique identifier of the entity
+     * @return a future of the entity, or of {@code null} if none found or {@code uuid} is not a
+     * valid UUID
+     */
+    public @NotNull CompletableFuture<T> getById(String uuid) {
+        return read(() -> this.dao.getById(uuid));
+    }
+
+    /**
+     * Retrieves an entity by its unique identifier, see {@link Dao#getById(UUID)}.
+     *
+     * @param uuid the unique identifier of the entity
+     * @return a future of the entity, or of {@code null} if none found
+     */
+    public @NotNull CompletableFuture<T> getById(UUID uuid) {
+        return read(() -> this.dao.getById(uuid));
+    }
+
+    /**
+     * Retrieves the entities with the given unique identifiers, see
+     * {@link Dao#getByIds(Collection)}.
+     *
+     * @param uuids the unique identifiers of the entities; must not be {@code null}
+     * @return a future of the entities found by identifier
+     * @throws NullPointerException if {@code uuids} is {@code null}
+     */
+    public @NotNull CompletableFuture<Map<UUID, T>> getByIds(@NotNull Collection<UUID> uuids) {
+        Objects.requireNonNull(uuids, "uuids must not be null");
+        return read(() -> this.dao.getByIds(uuids));
+    }
+
+    /**
+     * Inserts a new entity, see {@link Dao#insert(Object)}.
+     *
+     * @param entity the entity to insert; must not be {@code null}
+     * @return a future completed once the entity is inserted
+     * @throws NullPointerException if {@code entity} is {@code null}
+     */
+    public @NotNull CompletableFuture<Void> insert(@NotNull T entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return write(() -> this.dao.insert(entity));
+    }
+
+    /**
+     * Deletes an existing entity, see {@link Dao#delete(Object)}.
+     *
+     * @param entity the entity to delete; must not be {@code null}
+     * @return a future completed once the entity is deleted
+     * @throws NullPointerException if {@code entity} is {@code null}
+     */
+    public @NotNull CompletableFuture<Void> delete(@NotNull T entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return write(() -> this.dao.delete(entity));
+    }
+
+    /**
+     * Updates an existing entity, see {@link Dao#update(Object)}.
+     *
+     * @param entity the entity to update; must not be {@code null}
+     * @return a future completed once the entity is updated
+     * @throws NullPointerException if {@code entity} is {@code null}
+     */
+    public @NotNull CompletableFuture<Void> update(@NotNull T entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return write(() -> this.dao.update(entity));
+    }
+
+    /**
+     * Inserts new entities in a single transaction, see {@link Dao#insertAll(Collection)}.
+     *
+     * @param entities the entities to insert; must not be {@code null}
+     * @return a future completed once the entities are inserted, with a
+     * {@link NullPointerException} if one of the entities is {@code null}
+     * @throws NullPointerException if {@code entities} is {@code null}
+     */
+    public @NotNull CompletableFuture<Void> insertAll(@NotNull Collection<T> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+        return write(() -> this.dao.insertAll(entities));
+    }
+
+    /**
+     * Deletes existing entities in a single transaction, see {@link Dao#deleteAll(Collection)}.
+     *
+     * @param entities the entities to delete; must not be {@code null}
+     * @return a future completed once the entities are deleted, with a
+     * {@link NullPointerException} if one of the entities is {@code null}
+     * @throws NullPointerException if {@code entities} is {@code null}
+     */
+    public @NotNull CompletableFuture<Void> deleteAll(@NotNull Collection<T> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+        return write(() -> this.dao.deleteAll(entities));
+    }
+
+    /**
+     * Updates existing entities in a single transaction, see {@link Dao#updateAll(Collection)}.
+     *
+     * @param entities the entities to update; must not be {@code null}
+     * @return a future completed once the entities are updated, with a
+     * {@link NullPointerException} if one of the entities is {@code null}
+     * @throws NullPointerException if {@code entities} is {@code null}
+     */
+    public @NotNull CompletableFuture<Void> updateAll(@NotNull Collection<T> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+        return write(() -> this.dao.updateAll(entities));
+    }
+
+    private static <R> CompletableFuture<R> read(Supplier<R> query) {
+        return CompletableFuture.supplyAsync(query, READERS);
+    }
+
+    private static CompletableFuture<Void> write(Runnable mutation) {
+        return WriteQueue.getDefault().execute(mutation);
+    }
+}
@@ -1,22 +1,55 @@
 package com.lucasbmmn.timetracker.data.dao;
 
 import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.data.database.Uuids;
 import com.lucasbmmn.timetracker.model.Client;
-import com.lucasbmmn.timetracker.model.TaskStatus;
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.NotNull;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object that provides CRUD (Create, Read, Update, Delete) operations for
  * {@link Client}.
  */
 public class ClientDao implements Dao<Client> {
+    @Language("SQL")
+    private static final String SELECT_SQL = "SELECT " + EntityRowMapper.CLIENT_COLUMNS +
+            " FROM Clients c";
+
+    @Language("SQL")
+    private static final String INSERT_SQL =
+            "INSERT INTO Clients (id, company, name, email, phone_number, timezone) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Language("SQL")
+    private static final String INSERT_IF_ABSENT_SQL = INSERT_SQL + " ON CONFLICT(id) DO NOTHING";
+
+    @Language("SQL")
+    private static final String UPDATE_SQL = """
+        UPDATE Clients
+        SET company = ?,
+            name = ?,
+            email = ?,
+            phone_number = ?,
+            timezone = ?
+        WHERE id = ?
+        """;
+
+    @Language("SQL")
+    private static final String DELETE_SQL = "DELETE FROM Clients WHERE id=?";
+
+    private static final KeysetPager<Client> PAGER = KeysetPager.byId(
+            "Clients", SELECT_SQL, "c", Client::getUuid);
+    private static final IdBatchLoader<Client> LOADER = new IdBatchLoader<>(SELECT_SQL,
+            "c.id", Client::getUuid);
+
     private final DatabaseManager dbManager;
 
     /**
@@ -27,34 +60,66 @@ public class ClientDao implements Dao<Client> {
     }
 
     /**
-     * Retrieves all {@code Client} from the data source.
+     * Retrieves all {@code Client} from the data source. The rows come from the query cache
+     * while the clients are unchanged, and are mapped to new entities on each call.
      *
      * @return a list of all {@code Client}; never {@code null}, may be empty
      */
     @Override
     public @NotNull List<Client> getAll() {
-        @Language("SQL")
-        String sql = "SELECT * FROM Clients";
-        return dbManager.executeQuery(sql, this::mapRow);
+        EntityRowMapper mapper = new EntityRowMapper();
+        List<Client> clients = new ArrayList<>();
+        for (EntityRowMapper.ClientRow row : dbManager.executeCachedQuery(SELECT_SQL,
+                EntityRowMapper::clientRow))
+            clients.add(mapper.client(row));
+        return clients;
+    }
+
+    /**
+     * Retrieves all {@code Client} from the data source lazily, see {@link Dao#streamAll()}.
+     *
+     * @return a stream of all {@code Client}; never {@code null}, must be closed after use
+     */
+    @Override
+    public @NotNull Stream<Client> streamAll() {
+        return dbManager.streamQuery(SELECT_SQL, new EntityRowMapper()::client);
+    }
+
+    /**
+     * Retrieves one page of {@code Client}, ordered by id, see {@link Dao#getPage(int, String)}.
+     *
+     * @param pageSize  the maximum number of {@code Client} of the page; must be positive
+     * @param pageToken the token of the previous page, or {@code null} for the first page
+     * @return the page; never {@code null}
+     * @throws IllegalArgumentException if {@code pageSize} is not positive or {@code pageToken}
+     * is invalid
+     */
+    @Override
+    public @NotNull Page<Client> getPage(int pageSize, String pageToken) {
+        return PAGER.getPage(dbManager, new EntityRowMapper()::client, pageSize, pageToken);
+    }
+
+    /**
+     * Returns a fast estimate of the number of {@code Client} in the data source.
+     *
+     * @return the estimated number of {@code Client}
+     */
+    @Override
+    public long estimateCount() {
+        return PAGER.estimateCount(dbManager);
     }
 
     /**
      * Retrieves an {@code Client} by its unique identifier represented as a String.
      *
      * @param uuid the unique identifier of the {@code Client}
-     * @return the {@code Client} matching the given UUID, or {@code null} if none found
+     * @return the {@code Client} matching the given UUID, or {@code null} if none found or
+     * {@code uuid} is not a valid UUID
      */
     @Override
     public Client getById(String uuid) {
         Client res = null;
-
-        if (uuid != null) {
-            @Language("SQL")
-            String sql = "SELECT * FROM Clients WHERE id=?";
-            List<Client> clients = dbManager.executeQuery(sql, this::mapRow, uuid);
-
-            if (!clients.isEmpty()) res = clients.getFirst();
-        }
+        if (uuid != null) res = this.getById(Uuids.parseOrNull(uuid));
         return res;
     }
 
@@ -67,10 +132,31 @@ public class ClientDao implements Dao<Client> {
     @Override
     public Client getById(UUID uuid) {
         Client res = null;
-        if (uuid != null) res = this.getById(uuid.toString());
+
+        if (uuid != null) {
+            @Language("SQL")
+            String sql = SELECT_SQL + " WHERE c.id=?";
+            List<Client> clients = dbManager.executeQuery(sql,
+                    new EntityRowMapper()::client, uuid);
+
+            if (!clients.isEmpty()) res = clients.getFirst();
+        }
         return res;
     }
 
+    /**
+     * Retrieves the {@code Client} with the given unique identifiers, see
+     * {@link Dao#getByIds(Collection)}.
+     *
+     * @param uuids the unique identifiers of the {@code Client}; must not be {@code null}
+     * @return the {@code Client} found by id, in the order of the given ids; never {@code null}
+     * @throws NullPointerException if {@code uuids} is {@code null}
+     */
+    @Override
+    public @NotNull Map<UUID, Client> getByIds(@NotNull Collection<UUID> uuids) {
+        return LOADER.load(dbManager, new EntityRowMapper()::client, uuids);
+    }
+
     /**
      * Inserts a new {@code Client} into the data source.
      *
@@ -81,18 +167,8 @@ public class ClientDao implements Dao<Client> {
     public void insert(@NotNull Client entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        @Language("SQL")
-        String sql = "INSERT INTO Clients (id, company, name, email, phone_number, timezone) " +
-                "VALUES (?, ?, ?, ?, ?, ?)";
-        dbManager.executeUpdate(
-                sql,
-                entity.getUuid(),
-                entity.getCompany(),
-                entity.getName(),
-                entity.getEmail(),
-                entity.getPhoneNumber(),
-                entity.getTimezone()
-        );
+        dbManager.executeUpdate(INSERT_SQL, this.insertParams(entity));
+        DaoSession.attach(Client.class, entity.getUuid(), entity);
     }
 
     /**
@@ -105,9 +181,8 @@ public class ClientDao implements Dao<Client> {
     public void delete(@NotNull Client entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        @Language("SQL")
-        String sql = "DELETE FROM Clients WHERE id=?";
-        dbManager.executeUpdate(sql, entity.getUuid());
+        dbManager.executeUpdate(DELETE_SQL, entity.getUuid());
+        DaoSession.detach(Client.class, entity.getUuid());
     }
 
     /**
@@ -120,49 +195,110 @@ public class ClientDao implements Dao<Client> {
     public void update(@NotNull Client entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        @Language("SQL")
-        String sql = """
-            UPDATE Clients
-            SET company = ?,
-                name = ?,
-                email = ?,
-                phone_number = ?,
-                timezone = ?
-            WHERE id = ?
-            """;
-        dbManager.executeUpdate(
-                sql,
+        dbManager.executeUpdate(UPDATE_SQL, this.updateParams(entity));
+        DaoSession.attach(Client.class, entity.getUuid(), entity);
+    }
+
+    /**
+     * Inserts new {@code Client} into the data source in a single transaction.
+     *
+     * @param entities the {@code Client} to insert; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void insertAll(@NotNull Collection<Client> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.executeBatch(INSERT_SQL, entities.stream().map(this::insertParams).toList());
+        for (Client entity : entities) DaoSession.attach(Client.class, entity.getUuid(), entity);
+    }
+
+    /**
+     * Deletes existing {@code Client} from the data source in a single transaction.
+     *
+     * @param entities the {@code Client} to delete; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void deleteAll(@NotNull Collection<Client> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.executeBatch(DELETE_SQL, entities.stream()
+                .map(entity -> new Object[]{
+                        Objects.requireNonNull(entity, "entity must not be null").getUuid()
+                })
+                .toList());
+        for (Client entity : entities) DaoSession.detach(Client.class, entity.getUuid());
+    }
+
+    /**
+     * Updates existing {@code Client} in the data source in a single transaction.
+     *
+     * @param entities the {@code Client} to update; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void updateAll(@NotNull Collection<Client> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.executeBatch(UPDATE_SQL, entities.stream().map(this::updateParams).toList());
+        for (Client entity : entities) DaoSession.attach(Client.class, entity.getUuid(), entity);
+    }
+
+    /**
+     * Inserts the given {@code Client} that are not in the data source yet and leaves the
+     * existing ones untouched, without reading them first. Used to save the
+     * parents of other entities.
+     *
+     * @param entities the {@code Client} to insert; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    void insertIfAbsent(@NotNull Collection<Client> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.executeBatch(INSERT_IF_ABSENT_SQL,
+                entities.stream().map(this::insertParams).toList());
+    }
+
+    /**
+     * Returns the parameters of {@link #INSERT_SQL} for the given {@code Client}.
+     *
+     * @param entity the {@code Client} to insert; must not be {@code null}
+     * @return the parameters of the insert statement
+     * @throws NullPointerException if {@code entity} is {@code null}
+     */
+    private Object[] insertParams(@NotNull Client entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return new Object[]{
+                entity.getUuid(),
                 entity.getCompany(),
                 entity.getName(),
                 entity.getEmail(),
                 entity.getPhoneNumber(),
-                entity.getTimezone(),
-                entity.getUuid()
-        );
+                entity.getTimezone()
+        };
     }
 
     /**
-     * Maps the current row of the given {@link ResultSet} to a {@link Client} object.
-     *
-     * <p>This method reads the relevant columns from the {@code ResultSet} and constructs
-     * a new {@code Client} instance with the retrieved data.</p>
+     * Returns the parameters of {@link #UPDATE_SQL} for the given {@code Client}.
      *
-     * @param rs the {@code ResultSet} positioned at the current row; must not be {@code null}
-     * @return a {@code Client} object populated with data from the current row of the result set
-     * @throws RuntimeException if a {@link SQLException} occurs while accessing the result set
+     * @param entity the {@code Client} to update; must not be {@code null}
+     * @return the parameters of the update statement
+     * @throws NullPointerException if {@code entity} is {@code null}
      */
-    private Client mapRow(ResultSet rs) {
-        try {
-            return new Client(
-                    UUID.fromString(rs.getString("id")),
-                    rs.getString("company"),
-                    rs.getString("name"),
-                    rs.getString("email"),
-                    rs.getString("phone_number"),
-                    rs.getString("timezone")
-            );
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+    private Object[] updateParams(@NotNull Client entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return new Object[]{
+                entity.getCompany(),
+                entity.getName(),
+                entity.getEmail(),
+                entity.getPhoneNumber(),
+                entity.getTimezone(),
+                entity.getUuid()
+        };
     }
-}
+}
\ No newline at end of file
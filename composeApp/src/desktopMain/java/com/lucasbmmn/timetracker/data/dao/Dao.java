@@ -2,8 +2,11 @@ package com.lucasbmmn.timetracker.data.dao;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Generic Data Access Object (DAO) interface defining standard CRUD operations.
@@ -20,11 +23,44 @@ public interface Dao<T> {
     @NotNull
     List<T> getAll();
 
+    /**
+     * Retrieves all entities from the data source lazily, mapping each row only when the stream
+     * reaches it. The stream holds a database connection until it is closed, so it must be
+     * consumed in a try-with-resources block on the calling thread.
+     *
+     * @return a stream of all entities; never {@code null}, must be closed after use
+     */
+    @NotNull
+    Stream<T> streamAll();
+
+    /**
+     * Retrieves one page of entities, newest first for entities with a creation date and by id
+     * for the others. Pages are read by key instead of by offset, so any page costs the same.
+     *
+     * @param pageSize  the maximum number of entities of the page; must be positive
+     * @param pageToken the {@link Page#nextPageToken()} of the previous page, or {@code null} for
+     *                  the first page
+     * @return the page; never {@code null}
+     * @throws IllegalArgumentException if {@code pageSize} is not positive or {@code pageToken}
+     * is not a token returned by this DAO
+     */
+    @NotNull
+    Page<T> getPage(int pageSize, String pageToken);
+
+    /**
+     * Returns a fast estimate of the number of entities in the data source, without counting
+     * them. It may be higher than the real count after deletions.
+     *
+     * @return the estimated number of entities
+     */
+    long estimateCount();
+
     /**
      * Retrieves an entity by its unique identifier represented as a String.
      *
      * @param uuid the unique identifier of the entity
-     * @return the entity matching the given UUID, or {@code null} if none found
+     * @return the entity matching the given UUID, or {@code null} if none found or {@code uuid}
+     * is not a valid UUID
      */
     T getById(String uuid);
 
@@ -36,6 +72,17 @@ public interface Dao<T> {
      */
     T getById(UUID uuid);
 
+    /**
+     * Retrieves the entities with the given unique identifiers, in a few queries whatever their
+     * number. Null and repeated identifiers are ignored.
+     *
+     * @param uuids the unique identifiers of the entities; must not be {@code null}
+     * @return the entities found by identifier, in the order of the given identifiers; never
+     * {@code null}, identifiers not found have no entry
+     * @throws NullPointerException if {@code uuids} is {@code null}
+     */
+    Map<UUID, T> getByIds(@NotNull Collection<UUID> uuids);
+
     /**
      * Inserts a new entity into the data source.
      *
@@ -60,4 +107,28 @@ public interface Dao<T> {
      * @throws NullPointerException if {@code entity} is {@code null}
      */
     void update(@NotNull T entity);
+
+    /**
+     * Inserts new entities into the data source in a single transaction.
+     *
+     * @param entities the entities to insert; must not be {@code null} nor contain {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    void insertAll(@NotNull Collection<T> entities);
+
+    /**
+     * Deletes existing entities from the data source in a single transaction.
+     *
+     * @param entities the entities to delete; must not be {@code null} nor contain {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    void deleteAll(@NotNull Collection<T> entities);
+
+    /**
+     * Updates existing entities in the data source in a single transaction.
+     *
+     * @param entities the entities to update; must not be {@code null} nor contain {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    void updateAll(@NotNull Collection<T> entities);
 }
@@ -0,0 +1,41 @@
+package com.lucasbmmn.timetracker.data.dao;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * Listener notified of the entities written through a DAO, to keep data derived from the
+ * database up to date without reading it again.
+ *
+ * <p>Listeners are called on the writing thread once the write is committed, never for a write
+ * that is rolled back. Only the writes made through the DAO are seen: a listener must be
+ * refreshed from the database after the tables are changed another way.</p>
+ *
+ * @param <T> the type of the entities
+ */
+public interface DaoListener<T> {
+    /**
+     * Called after entities are inserted.
+     *
+     * @param entities the inserted entities; never {@code null}
+     */
+    default void inserted(@NotNull Collection<T> entities) {
+    }
+
+    /**
+     * Called after entities are updated.
+     *
+     * @param entities the updated entities; never {@code null}
+     */
+    default void updated(@NotNull Collection<T> entities) {
+    }
+
+    /**
+     * Called after entities are deleted.
+     *
+     * @param entities the deleted entities; never {@code null}
+     */
+    default void deleted(@NotNull Collection<T> entities) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.lucasbmmn.timetracker.data.dao;
+
+import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * The {@link DaoListener} registered on a DAO, notified once each write is committed.
+ *
+ * @param <T> the type of the entities
+ */
+final class DaoListeners<T> {
+    private final List<DaoListener<T>> listeners = new CopyOnWriteArrayList<>();
+
+    void add(@NotNull DaoListener<T> listener) {
+        Objects.requireNonNull(listener, "listener must not be null");
+        this.listeners.add(listener);
+    }
+
+    void remove(DaoListener<T> listener) {
+        this.listeners.remove(listener);
+    }
+
+    void fireInserted(DatabaseManager dbManager, Collection<T> entities) {
+        this.fire(dbManager, entities, DaoListener::inserted);
+    }
+
+    void fireUpdated(DatabaseManager dbManager, Collection<T> entities) {
+        this.fire(dbManager, entities, DaoListener::updated);
+    }
+
+    void fireDeleted(DatabaseManager dbManager, Collection<T> entities) {
+        this.fire(dbManager, entities, DaoListener::deleted);
+    }
+
+    private void fire(DatabaseManager dbManager, Collection<T> entities,
+                      BiConsumer<DaoListener<T>, Collection<T>> event) {
+        if (this.listeners.isEmpty() || entities.isEmpty()) return;
+
+        // The caller may change its collection before the transaction commits
+        List<T> written = List.copyOf(entities);
+        dbManager.afterCommit(() -> {
+            for (DaoListener<T> listener : this.listeners) event.accept(listener, written);
+        });
+    }
+}
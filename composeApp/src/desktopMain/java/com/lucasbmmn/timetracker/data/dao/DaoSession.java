@@ -0,0 +1,125 @@
+package com.lucasbmmn.timetracker.data.dao;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Unit of work that guarantees a single instance per entity UUID across every {@link Dao}
+ * used by the current thread while the session is open.
+ *
+ * <p>Without a session, each DAO query only shares instances among its own rows. Inside a
+ * session, loading the same project from {@link ProjectDao}, {@link TaskDao} or
+ * {@link TaskTimeEntryDao} returns the same {@code Project} object, which saves memory on large
+ * timesheets and skips mapping rows whose entity is already loaded. Entities inserted or
+ * updated through a DAO replace the loaded instance and deleted ones are forgotten.</p>
+ *
+ * <p>Sessions are bound to the thread that opens them and can be nested, the session is only
+ * closed when the outermost one is:</p>
+ * <pre>{@code
+ * try (DaoSession session = DaoSession.open()) {
+ *     List<TaskTimeEntry> entries = new TaskTimeEntryDao().getAll();
+ *     List<Project> projects = new ProjectDao().getAll();
+ * }
+ * }</pre>
+ */
+public final class DaoSession implements AutoCloseable {
+    private static final ThreadLocal<DaoSession> CURRENT = new ThreadLocal<>();
+
+    private final IdentityMap identityMap;
+    private int depth;
+
+    private DaoSession() {
+        this.identityMap = new IdentityMap();
+    }
+
+    /**
+     * Opens a session on the current thread, or joins the session already open on it.
+     *
+     * @return the session of the current thread
+     */
+    public static @NotNull DaoSession open() {
+        DaoSession session = CURRENT.get();
+        if (session == null) {
+            session = new DaoSession();
+            CURRENT.set(session);
+        }
+        session.depth++;
+        return session;
+    }
+
+    /**
+     * Indicates whether a session is open on the current thread.
+     *
+     * @return {@code true} if a session is open, {@code false} otherwise
+     */
+    public static boolean isOpen() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Returns the number of entities loaded in this session.
+     *
+     * @return the number of entities held by the session
+     */
+    public int size() {
+        return this.identityMap.size();
+    }
+
+    /**
+     * Forgets every entity loaded in this session, so they are read again from the database.
+     */
+    public void clear() {
+        this.identityMap.clear();
+    }
+
+    /**
+     * Closes this session. The session stays open until the outermost {@code open()} is closed.
+     *
+     * @throws IllegalStateException if the session is not open on the current thread
+     */
+    @Override
+    public void close() {
+        if (CURRENT.get() != this)
+            throw new IllegalStateException("The session is not open on the current thread");
+        if (--this.depth == 0) {
+            CURRENT.remove();
+            this.identityMap.clear();
+        }
+    }
+
+    /**
+     * Returns the identity map of the session open on the current thread.
+     *
+     * @return the identity map of the current session, or {@code null} if none is open
+     */
+    static IdentityMap currentIdentityMap() {
+        DaoSession session = CURRENT.get();
+        return session == null ? null : session.identityMap;
+    }
+
+    /**
+     * Registers an entity written through a DAO in the current session, if any.
+     *
+     * @param type   the type of the entity, must not be null
+     * @param uuid   the unique identifier of the entity, must not be null
+     * @param entity the entity, must not be null
+     */
+    static <T> void attach(@NotNull Class<T> type, @NotNull UUID uuid, @NotNull T entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        IdentityMap identityMap = currentIdentityMap();
+        if (identityMap != null) identityMap.put(type, uuid, entity);
+    }
+
+    /**
+     * Forgets an entity deleted through a DAO from the current session, if any.
+     *
+     * @param type the type of the entity, must not be null
+     * @param uuid the unique identifier of the entity, must not be null
+     */
+    static void detach(@NotNull Class<?> type, @NotNull UUID uuid) {
+        IdentityMap identityMap = currentIdentityMap();
+        if (identityMap != null) identityMap.remove(type, uuid);
+    }
+}
@@ -0,0 +1,335 @@
+package com.lucasbmmn.timetracker.data.dao;
+
+import com.lucasbmmn.timetracker.data.database.Uuids;
+import com.lucasbmmn.timetracker.model.*;
+import org.intellij.lang.annotations.Language;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Date;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Maps the rows of a query to entities whose parents are referenced by id and loaded lazily.
+ *
+ * <p>Queries select the columns of their table with a prefix ({@code c_} for clients,
+ * {@code p_} for projects, {@code s_} for task statuses, {@code ty_} for task types, {@code t_}
+ * for tasks and {@code e_} for time entries) using the column lists declared in this class,
+ * along with the id of the parent. Parents are not joined: each one becomes a {@link Ref}
+ * loaded on first use, and the first reference of the mapper resolved loads all the parents
+ * it met with one bulk query, see {@link RefLoader}. Listing tasks or entries therefore only
+ * reads their own table, and the parents are only loaded when a caller walks to them. Task
+ * statuses and types are the exception: they are taken from the {@link ReferenceData}
+ * cache.</p>
+ *
+ * <p>Entities are resolved through the identity map of the current {@link DaoSession}, so a
+ * row whose entity is already loaded is not mapped again. Without a session, the mapper keeps
+ * the entities it built in its own identity map, so a new one should be used for each
+ * query. Time entries are not kept in its own map since no other row refers to them, so
+ * streaming a whole entry table only retains its tasks and projects.</p>
+ *
+ * <p>Clients and projects can also be read into immutable rows, which the query cache can
+ * share between callers, and then mapped to entities of their own.</p>
+ */
+final class EntityRowMapper {
+    @Language("SQL")
+    static final String CLIENT_COLUMNS = "c.id AS c_id, c.company AS c_company, " +
+            "c.name AS c_name, c.email AS c_email, c.phone_number AS c_phone_number, " +
+            "c.timezone AS c_timezone";
+
+    @Language("SQL")
+    static final String STATUS_COLUMNS = "s.id AS s_id, s.label AS s_label";
+
+    @Language("SQL")
+    static final String TYPE_COLUMNS = "ty.id AS ty_id, ty.label AS ty_label";
+
+    @Language("SQL")
+    static final String PROJECT_COLUMNS = "p.id AS p_id, p.name AS p_name, " +
+            "p.description AS p_description, p.estimated_time AS p_estimated_time, " +
+            "p.hourly_rate AS p_hourly_rate, p.fixed_price AS p_fixed_price, " +
+            "p.created_at AS p_created_at, p.deadline AS p_deadline, " +
+            "p.client_id AS p_client_id";
+
+    @Language("SQL")
+    static final String TASK_COLUMNS = "t.id AS t_id, t.name AS t_name, " +
+            "t.description AS t_description, t.estimated_time AS t_estimated_time, " +
+            "t.created_at AS t_created_at, t.task_status_id AS s_id, t.task_type_id AS ty_id, " +
+            "t.project_id AS t_project_id";
+
+    private final IdentityMap identityMap;
+    private final boolean sessionBound;
+    private final RefLoader<Client> clients =
+            new RefLoader<>(ids -> new ClientDao().getByIds(ids));
+    private final RefLoader<Project> projects =
+            new RefLoader<>(ids -> new ProjectDao().getByIds(ids));
+    private final RefLoader<Task> tasks = new RefLoader<>(ids -> new TaskDao().getByIds(ids));
+
+    /**
+     * Constructs a new {@code EntityRowMapper} object sharing the identity map of the current
+     * {@link DaoSession}, or using its own if no session is open.
+     */
+    EntityRowMapper() {
+        IdentityMap sessionMap = DaoSession.currentIdentityMap();
+        this.identityMap = sessionMap == null ? new IdentityMap() : sessionMap;
+        this.sessionBound = sessionMap != null;
+    }
+
+    /**
+     * Maps the {@code c_} columns of the current row to a {@link Client}.
+     *
+     * @param rs the {@code ResultSet} positioned at the current row; must not be {@code null}
+     * @return the client of the row, or {@code null} if the row has none
+     * @throws SQLException if a column cannot be read
+     */
+    Client client(ResultSet rs) throws SQLException {
+        UUID uuid = Uuids.read(rs, "c_id");
+        if (uuid == null) return null;
+
+        Client client = this.identityMap.get(Client.class, uuid);
+        if (client == null) {
+            client = new Client(
+                    uuid,
+                    rs.getString("c_company"),
+                    rs.getString("c_name"),
+                    rs.getString("c_email"),
+                    rs.getString("c_phone_number"),
+                    rs.getString("c_timezone")
+            );
+            this.identityMap.put(Client.class, uuid, client);
+        }
+        return client;
+    }
+
+    /**
+     * Reads the {@code c_} columns of the current row.
+     *
+     * @param rs the {@code ResultSet} positioned at the current row; must not be {@code null}
+     * @return the columns of the client of the row, or {@code null} if the row has none
+     * @throws SQLException if a column cannot be read
+     */
+    static ClientRow clientRow(ResultSet rs) throws SQLException {
+        UUID uuid = Uuids.read(rs, "c_id");
+        if (uuid == null) return null;
+        return new ClientRow(uuid, rs.getString("c_company"), rs.getString("c_name"),
+                rs.getString("c_email"), rs.getString("c_phone_number"),
+                rs.getString("c_timezone"));
+    }
+
+    /**
+     * Maps a row read by {@link #clientRow(ResultSet)} to a {@link Client}.
+     *
+     * @param row the columns of the client; must not be {@code null}
+     * @return the client of the row
+     */
+    Client client(ClientRow row) {
+        Client client = this.identityMap.get(Client.class, row.id());
+        if (client == null) {
+            client = new Client(row.id(), row.company(), row.name(), row.email(),
+                    row.phoneNumber(), row.timezone());
+            this.identityMap.put(Client.class, row.id(), client);
+        }
+        return client;
+    }
+
+    /**
+     * Maps the {@code p_} columns of the current row to a {@link Project} referencing its client.
+     *
+     * @param rs the {@code ResultSet} positioned at the current row; must not be {@code null}
+     * @return the project of the row, or {@code null} if the row has none
+     * @throws SQLException if a column cannot be read
+     */
+    Project project(ResultSet rs) throws SQLException {
+        UUID uuid = Uuids.read(rs, "p_id");
+        if (uuid == null) return null;
+
+        Project project = this.identityMap.get(Project.class, uuid);
+        if (project == null) {
+            project = new Project(
+                    uuid,
+                    null,
+                    rs.getString("p_name"),
+                    rs.getString("p_description"),
+                    duration(rs, "p_estimated_time"),
+                    rs.getDouble("p_hourly_rate"),
+                    rs.getDouble("p_fixed_price"),
+                    rs.getDate("p_created_at"),
+                    rs.getDate("p_deadline")
+            );
+            project.setClientRef(this.ref(Client.class, Uuids.read(rs, "p_client_id"),
+                    this.clients));
+            this.identityMap.put(Project.class, uuid, project);
+        }
+        return project;
+    }
+
+    /**
+     * Reads the {@code p_} columns of the current row.
+     *
+     * @param rs the {@code ResultSet} positioned at the current row; must not be {@code null}
+     * @return the columns of the project of the row, or {@code null} if the row has none
+     * @throws SQLException if a column cannot be read
+     */
+    static ProjectRow projectRow(ResultSet rs) throws SQLException {
+        UUID uuid = Uuids.read(rs, "p_id");
+        if (uuid == null) return null;
+        long deadline = rs.getLong("p_deadline");
+        boolean noDeadline = rs.wasNull();
+        return new ProjectRow(uuid, rs.getString("p_name"), rs.getString("p_description"),
+                duration(rs, "p_estimated_time"), rs.getDouble("p_hourly_rate"),
+                rs.getDouble("p_fixed_price"), rs.getLong("p_created_at"),
+                noDeadline ? null : deadline, Uuids.read(rs, "p_client_id"));
+    }
+
+    /**
+     * Maps a row read by {@link #projectRow(ResultSet)} to a {@link Project} referencing its
+     * client.
+     *
+     * @param row the columns of the project; must not be {@code null}
+     * @return the project of the row
+     */
+    Project project(ProjectRow row) {
+        Project project = this.identityMap.get(Project.class, row.id());
+        if (project == null) {
+            project = new Project(
+                    row.id(),
+                    null,
+                    row.name(),
+                    row.description(),
+                    row.estimatedTime(),
+                    row.hourlyRate(),
+                    row.fixedPrice(),
+                    new Date(row.createdAt()),
+                    row.deadline() == null ? null : new Date(row.deadline())
+            );
+            project.setClientRef(this.ref(Client.class, row.clientId(), this.clients));
+            this.identityMap.put(Project.class, row.id(), project);
+        }
+        return project;
+    }
+
+    /**
+     * Resolves the {@code s_id} column of the current row to the cached {@link TaskStatus}.
+     *
+     * @param rs the {@code ResultSet} positioned at the current row; must not be {@code null}
+     * @return the task status of the row, or {@code null} if the row has none
+     * @throws SQLException if a column cannot be read
+     */
+    TaskStatus status(ResultSet rs) throws SQLException {
+        return ReferenceData.status(Uuids.read(rs, "s_id"));
+    }
+
+    /**
+     * Resolves the {@code ty_id} column of the current row to the cached {@link TaskType}.
+     *
+     * @param rs the {@code ResultSet} positioned at the current row; must not be {@code null}
+     * @return the task type of the row, or {@code null} if the row has none
+     * @throws SQLException if a column cannot be read
+     */
+    TaskType type(ResultSet rs) throws SQLException {
+        return ReferenceData.type(Uuids.read(rs, "ty_id"));
+    }
+
+    /**
+     * Maps the {@code t_} columns of the current row to a {@link Task} referencing its project,
+     * with its status and type.
+     *
+     * @param rs the {@code ResultSet} positioned at the current row; must not be {@code null}
+     * @return the task of the row, or {@code null} if the row has none
+     * @throws SQLException if a column cannot be read
+     */
+    Task task(ResultSet rs) throws SQLException {
+        UUID uuid = Uuids.read(rs, "t_id");
+        if (uuid == null) return null;
+
+        Task task = this.identityMap.get(Task.class, uuid);
+        if (task == null) {
+            task = new Task(
+                    uuid,
+                    this.ref(Project.class, Uuids.read(rs, "t_project_id"), this.projects),
+                    rs.getString("t_name"),
+                    rs.getString("t_description"),
+                    duration(rs, "t_estimated_time"),
+                    this.status(rs),
+                    this.type(rs),
+                    rs.getDate("t_created_at")
+            );
+            this.identityMap.put(Task.class, uuid, task);
+        }
+        return task;
+    }
+
+    /**
+     * Maps the {@code e_} columns of the current row to a {@link TaskTimeEntry} referencing its
+     * task.
+     *
+     * @param rs the {@code ResultSet} positioned at the current row; must not be {@code null}
+     * @return the time entry of the row
+     * @throws SQLException if a column cannot be read
+     */
+    TaskTimeEntry taskTimeEntry(ResultSet rs) throws SQLException {
+        UUID uuid = Uuids.read(rs, "e_id");
+        TaskTimeEntry entry = this.identityMap.get(TaskTimeEntry.class, uuid);
+        if (entry == null) {
+            entry = new TaskTimeEntry(
+                    uuid,
+                    this.ref(Task.class, Uuids.read(rs, "e_task_id"), this.tasks),
+                    Duration.ofSeconds(rs.getLong("e_duration")),
+                    rs.getDate("e_created_at")
+            );
+            if (this.sessionBound) this.identityMap.put(TaskTimeEntry.class, uuid, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Maps the {@code e_} columns of the current row to a {@link ProjectTimeEntry} referencing
+     * its project.
+     *
+     * @param rs the {@code ResultSet} positioned at the current row; must not be {@code null}
+     * @return the time entry of the row
+     * @throws SQLException if a column cannot be read
+     */
+    ProjectTimeEntry projectTimeEntry(ResultSet rs) throws SQLException {
+        UUID uuid = Uuids.read(rs, "e_id");
+        ProjectTimeEntry entry = this.identityMap.get(ProjectTimeEntry.class, uuid);
+        if (entry == null) {
+            entry = new ProjectTimeEntry(
+                    uuid,
+                    this.ref(Project.class, Uuids.read(rs, "e_project_id"), this.projects),
+                    Duration.ofSeconds(rs.getLong("e_duration")),
+                    rs.getDate("e_created_at"),
+                    rs.getBoolean("e_is_billable")
+            );
+            if (this.sessionBound) this.identityMap.put(ProjectTimeEntry.class, uuid, entry);
+        }
+        return entry;
+    }
+
+    private <T> Ref<T> ref(Class<T> type, UUID uuid, RefLoader<T> loader) {
+        if (uuid == null) return null;
+        // A parent already loaded in the session is referenced as is
+        T loaded = this.identityMap.get(type, uuid);
+        return loaded != null ? Ref.of(uuid, loaded) : loader.ref(uuid);
+    }
+
+    private static Duration duration(ResultSet rs, String column) throws SQLException {
+        long seconds = rs.getLong(column);
+        return rs.wasNull() ? null : Duration.ofSeconds(seconds);
+    }
+
+    /**
+     * The columns of a client, immutable unlike the entity.
+     */
+    record ClientRow(UUID id, String company, String name, String email, String phoneNumber,
+                     String timezone) {
+    }
+
+    /**
+     * The columns of a project, immutable unlike the entity. Times are epoch milliseconds.
+     */
+    record ProjectRow(UUID id, String name, String description, Duration estimatedTime,
+                      double hourlyRate, double fixedPrice, long createdAt, Long deadline,
+                      UUID clientId) {
+    }
+}
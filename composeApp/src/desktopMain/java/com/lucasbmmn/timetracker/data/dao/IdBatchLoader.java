@@ -0,0 +1,85 @@
+package com.lucasbmmn.timetracker.data.dao;
+
+import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Loads the entities of a DAO by id with {@code IN (...)} queries of up to {@link #CHUNK_SIZE}
+ * ids, so that many ids are resolved in a few queries instead of one per id.
+ *
+ * <p>The ids of a query are padded to the next power of two by repeating the last one, so
+ * only a handful of SQL texts exist and their prepared statements stay cached.</p>
+ *
+ * @param <T> the type of the entities
+ */
+final class IdBatchLoader<T> {
+    /** Number of ids bound per query, well under the parameter limit of SQLite. */
+    static final int CHUNK_SIZE = 512;
+
+    private final String selectSql;
+    private final String idColumn;
+    private final Function<T, UUID> id;
+
+    /**
+     * Constructs a new {@code IdBatchLoader} object.
+     *
+     * @param selectSql the {@code SELECT} of the DAO, without {@code WHERE} clause
+     * @param idColumn  the id column in the query, with the alias of its table
+     * @param id        the id of an entity
+     */
+    IdBatchLoader(String selectSql, String idColumn, @NotNull Function<T, UUID> id) {
+        this.selectSql = selectSql;
+        this.idColumn = idColumn;
+        this.id = id;
+    }
+
+    /**
+     * Loads the entities with the given ids. Null and repeated ids are ignored.
+     *
+     * @param dbManager the database manager to query
+     * @param mapper    the mapper of the rows, shared by every query
+     * @param uuids     the ids to load; must not be {@code null}
+     * @return the entities found by id, in the order of the given ids
+     * @throws NullPointerException if {@code uuids} is {@code null}
+     */
+    @NotNull Map<UUID, T> load(DatabaseManager dbManager, DatabaseManager.RowMapper<T> mapper,
+                               @NotNull Collection<UUID> uuids) {
+        Objects.requireNonNull(uuids, "uuids must not be null");
+
+        Set<UUID> distinct = new LinkedHashSet<>(uuids);
+        distinct.remove(null);
+        List<UUID> ids = new ArrayList<>(distinct);
+
+        Map<UUID, T> found = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            Object[] params = new Object[Integer.highestOneBit(chunk.size() * 2 - 1)];
+            for (int i = 0; i < params.length; i++)
+                params[i] = chunk.get(Math.min(i, chunk.size() - 1));
+
+            String sql = this.selectSql + " WHERE " + this.idColumn + " IN (" +
+                    "?, ".repeat(params.length - 1) + "?)";
+            for (T entity : dbManager.executeQuery(sql, mapper, params))
+                found.put(this.id.apply(entity), entity);
+        }
+
+        Map<UUID, T> entities = new LinkedHashMap<>();
+        for (UUID uuid : ids) {
+            T entity = found.get(uuid);
+            if (entity != null) entities.put(uuid, entity);
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,70 @@
+package com.lucasbmmn.timetracker.data.dao;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps at most one instance per entity type and UUID.
+ *
+ * <p>Entities loaded through the same identity map are shared: every row referring to the same
+ * project resolves to the same {@code Project} object. An identity map is not thread-safe and
+ * is meant to be used by one thread at a time, see {@link DaoSession}.</p>
+ */
+final class IdentityMap {
+    private final Map<Class<?>, Map<UUID, Object>> entities = new HashMap<>();
+
+    /**
+     * Returns the instance registered for the given type and UUID.
+     *
+     * @param type the type of the entity, must not be null
+     * @param uuid the unique identifier of the entity, must not be null
+     * @return the registered instance, or {@code null} if none is registered
+     */
+    <T> T get(@NotNull Class<T> type, @NotNull UUID uuid) {
+        Map<UUID, Object> instances = this.entities.get(type);
+        return instances == null ? null : type.cast(instances.get(uuid));
+    }
+
+    /**
+     * Registers an instance for the given type and UUID, replacing the previous one.
+     *
+     * @param type   the type of the entity, must not be null
+     * @param uuid   the unique identifier of the entity, must not be null
+     * @param entity the instance to register, must not be null
+     */
+    <T> void put(@NotNull Class<T> type, @NotNull UUID uuid, @NotNull T entity) {
+        this.entities.computeIfAbsent(type, k -> new HashMap<>()).put(uuid, entity);
+    }
+
+    /**
+     * Unregisters the instance of the given type and UUID, if any.
+     *
+     * @param type the type of the entity, must not be null
+     * @param uuid the unique identifier of the entity, must not be null
+     */
+    void remove(@NotNull Class<?> type, @NotNull UUID uuid) {
+        Map<UUID, Object> instances = this.entities.get(type);
+        if (instances != null) instances.remove(uuid);
+    }
+
+    /**
+     * Returns the number of registered instances, all types included.
+     *
+     * @return the number of registered instances
+     */
+    int size() {
+        int size = 0;
+        for (Map<UUID, Object> instances : this.entities.values()) size += instances.size();
+        return size;
+    }
+
+    /**
+     * Unregisters every instance.
+     */
+    void clear() {
+        this.entities.clear();
+    }
+}
@@ -0,0 +1,150 @@
+package com.lucasbmmn.timetracker.data.dao;
+
+import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Keyset (seek) pagination over the {@code SELECT} of a DAO.
+ *
+ * <p>Entities with a creation date are returned newest first, ordered by
+ * {@code (created_at DESC, id DESC)}; the others are ordered by id. A page token holds the key
+ * of the last entity of the previous page and the next page starts right after it, so every
+ * page is read from an index in the same time whatever its position, unlike an
+ * {@code OFFSET}.</p>
+ *
+ * @param <T> the type of the entities
+ */
+final class KeysetPager<T> {
+    private static final String SEPARATOR = "|";
+
+    private final String table;
+    private final String firstPageSql;
+    private final String nextPageSql;
+    private final Function<T, Date> createdAt;
+    private final Function<T, UUID> id;
+
+    private KeysetPager(String table, String selectSql, String alias, Function<T, Date> createdAt,
+                        Function<T, UUID> id) {
+        this.table = table;
+        this.createdAt = createdAt;
+        this.id = id;
+        if (createdAt != null) {
+            String order = " ORDER BY " + alias + ".created_at DESC, " + alias + ".id DESC LIMIT ?";
+            this.firstPageSql = selectSql + order;
+            this.nextPageSql = selectSql + " WHERE (" + alias + ".created_at, " + alias +
+                    ".id) < (?, ?)" + order;
+        } else {
+            String order = " ORDER BY " + alias + ".id LIMIT ?";
+            this.firstPageSql = selectSql + order;
+            this.nextPageSql = selectSql + " WHERE " + alias + ".id > ?" + order;
+        }
+    }
+
+    /**
+     * Returns a pager ordering the entities newest first.
+     *
+     * @param table     the table of the entities
+     * @param selectSql the {@code SELECT} of the DAO, without {@code WHERE} clause
+     * @param alias     the alias of the table in the query
+     * @param createdAt the creation date of an entity
+     * @param id        the id of an entity
+     * @return the pager
+     */
+    static <T> KeysetPager<T> byCreationDate(String table, String selectSql, String alias,
+                                             @NotNull Function<T, Date> createdAt,
+                                             @NotNull Function<T, UUID> id) {
+        return new KeysetPager<>(table, selectSql, alias, createdAt, id);
+    }
+
+    /**
+     * Returns a pager ordering the entities by id.
+     *
+     * @param table     the table of the entities
+     * @param selectSql the {@code SELECT} of the DAO, without {@code WHERE} clause
+     * @param alias     the alias of the table in the query
+     * @param id        the id of an entity
+     * @return the pager
+     */
+    static <T> KeysetPager<T> byId(String table, String selectSql, String alias,
+                                   @NotNull Function<T, UUID> id) {
+        return new KeysetPager<>(table, selectSql, alias, null, id);
+    }
+
+    /**
+     * Retrieves the page following the given token.
+     *
+     * @param dbManager the database to read from
+     * @param mapper    the mapper of the rows
+     * @param pageSize  the maximum number of entities of the page, must be positive
+     * @param pageToken the token of the previous page, or {@code null} for the first page
+     * @return the page
+     * @throws IllegalArgumentException if the page size is not positive or the token is invalid
+     */
+    Page<T> getPage(DatabaseManager dbManager, DatabaseManager.RowMapper<T> mapper, int pageSize,
+                    String pageToken) {
+        if (pageSize < 1)
+            throw new IllegalArgumentException("The page size must be greater than 0: " +
+                    pageSize);
+
+        // One extra row tells whether another page follows
+        List<T> rows;
+        if (pageToken == null) {
+            rows = dbManager.executeQuery(this.firstPageSql, mapper, pageSize + 1);
+        } else {
+            Object[] key = this.decode(pageToken);
+            Object[] params = new Object[key.length + 1];
+            System.arraycopy(key, 0, params, 0, key.length);
+            params[key.length] = pageSize + 1;
+            rows = dbManager.executeQuery(this.nextPageSql, mapper, params);
+        }
+
+        if (rows.size() <= pageSize) return new Page<>(rows, null);
+
+        List<T> items = new ArrayList<>(rows.subList(0, pageSize));
+        return new Page<>(items, this.encode(items.getLast()));
+    }
+
+    /**
+     * Returns a fast estimate of the number of rows of the table, the highest rowid. It is exact
+     * until rows are deleted, and an upper bound afterward.
+     *
+     * @param dbManager the database to read from
+     * @return the estimated number of rows
+     */
+    long estimateCount(DatabaseManager dbManager) {
+        List<Long> max = dbManager.executeQuery("SELECT MAX(rowid) FROM " + this.table,
+                rs -> rs.getLong(1));
+        return max.isEmpty() ? 0 : max.getFirst();
+    }
+
+    private String encode(T entity) {
+        String key = this.id.apply(entity).toString();
+        if (this.createdAt != null) key = this.createdAt.apply(entity).getTime() + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Object[] decode(String pageToken) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(pageToken),
+                    StandardCharsets.UTF_8);
+            if (this.createdAt == null) return new Object[]{UUID.fromString(key)};
+
+            int separator = key.indexOf(SEPARATOR);
+            return new Object[]{
+                    Long.parseLong(key.substring(0, separator)),
+                    UUID.fromString(key.substring(separator + 1))
+            };
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid page token: " + pageToken, e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.lucasbmmn.timetracker.data.dao;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Page of entities returned by {@link Dao#getPage(int, String)}.
+ *
+ * @param items         the entities of the page, in the order of the DAO; never {@code null}
+ * @param nextPageToken the opaque token to pass to {@link Dao#getPage(int, String)} to get the
+ *                      following page, or {@code null} if this page is the last one
+ * @param <T>           the type of the entities
+ */
+public record Page<T>(@NotNull List<T> items, String nextPageToken) {
+    public Page {
+        Objects.requireNonNull(items, "items must not be null");
+        items = List.copyOf(items);
+    }
+
+    /**
+     * Returns whether another page follows this one.
+     *
+     * @return {@code true} if {@link #nextPageToken()} is not {@code null}
+     */
+    public boolean hasNext() {
+        return nextPageToken != null;
+    }
+}
@@ -1,22 +1,72 @@
 package com.lucasbmmn.timetracker.data.dao;
 
 import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.data.database.Uuids;
+import com.lucasbmmn.timetracker.model.Client;
 import com.lucasbmmn.timetracker.model.Project;
+import com.lucasbmmn.timetracker.model.ProjectSummary;
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.NotNull;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object that provides CRUD (Create, Read, Update, Delete) operations for
  * {@link ProjectDao}.
  */
 public class ProjectDao implements Dao<Project> {
+    @Language("SQL")
+    private static final String SELECT_SQL = "SELECT " + EntityRowMapper.PROJECT_COLUMNS +
+            " FROM Projects p";
+
+    @Language("SQL")
+    private static final String SUMMARY_SQL = """
+        SELECT p.id, p.name, p.client_id,
+            (SELECT COALESCE(SUM(d.billable_seconds + d.non_billable_seconds + d.task_seconds), 0)
+                FROM Daily_Project_Totals d WHERE d.project_id = p.id) AS total_seconds
+        FROM Projects p
+        ORDER BY p.name, p.id
+        """;
+
+    @Language("SQL")
+    private static final String INSERT_SQL =
+            "INSERT INTO Projects (id, client_id, name, description, " +
+            "estimated_time, hourly_rate, fixed_price, created_at, deadline) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Language("SQL")
+    private static final String INSERT_IF_ABSENT_SQL = INSERT_SQL + " ON CONFLICT(id) DO NOTHING";
+
+    @Language("SQL")
+    private static final String UPDATE_SQL = """
+        UPDATE Projects
+        SET client_id = ?,
+            name = ?,
+            description = ?,
+            estimated_time = ?,
+            hourly_rate  = ?,
+            fixed_price = ?,
+            created_at = ?,
+            deadline = ?
+        WHERE id = ?
+        """;
+
+    @Language("SQL")
+    private static final String DELETE_SQL = "DELETE FROM Projects WHERE id=?";
+
+    private static final KeysetPager<Project> PAGER = KeysetPager.byCreationDate(
+            "Projects", SELECT_SQL, "p", Project::getCreatedAt, Project::getUuid);
+    private static final IdBatchLoader<Project> LOADER = new IdBatchLoader<>(SELECT_SQL,
+            "p.id", Project::getUuid);
+
     private final DatabaseManager dbManager;
 
     /**
@@ -27,34 +77,66 @@ public class ProjectDao implements Dao<Project> {
     }
 
     /**
-     * Retrieves all {@code Project} from the data source.
+     * Retrieves all {@code Project} from the data source. The rows come from the query cache
+     * while the projects are unchanged, and are mapped to new entities on each call.
      *
      * @return a list of all {@code Project}; never {@code null}, may be empty
      */
     @Override
     public @NotNull List<Project> getAll() {
-        @Language("SQL")
-        String sql = "SELECT * FROM Projects";
-        return dbManager.executeQuery(sql, this::mapRow);
+        EntityRowMapper mapper = new EntityRowMapper();
+        List<Project> projects = new ArrayList<>();
+        for (EntityRowMapper.ProjectRow row : dbManager.executeCachedQuery(SELECT_SQL,
+                EntityRowMapper::projectRow))
+            projects.add(mapper.project(row));
+        return projects;
+    }
+
+    /**
+     * Retrieves all {@code Project} from the data source lazily, see {@link Dao#streamAll()}.
+     *
+     * @return a stream of all {@code Project}; never {@code null}, must be closed after use
+     */
+    @Override
+    public @NotNull Stream<Project> streamAll() {
+        return dbManager.streamQuery(SELECT_SQL, new EntityRowMapper()::project);
+    }
+
+    /**
+     * Retrieves one page of {@code Project}, newest first, see {@link Dao#getPage(int, String)}.
+     *
+     * @param pageSize  the maximum number of {@code Project} of the page; must be positive
+     * @param pageToken the token of the previous page, or {@code null} for the first page
+     * @return the page; never {@code null}
+     * @throws IllegalArgumentException if {@code pageSize} is not positive or {@code pageToken}
+     * is invalid
+     */
+    @Override
+    public @NotNull Page<Project> getPage(int pageSize, String pageToken) {
+        return PAGER.getPage(dbManager, new EntityRowMapper()::project, pageSize, pageToken);
+    }
+
+    /**
+     * Returns a fast estimate of the number of {@code Project} in the data source.
+     *
+     * @return the estimated number of {@code Project}
+     */
+    @Override
+    public long estimateCount() {
+        return PAGER.estimateCount(dbManager);
     }
 
     /**
      * Retrieves an {@code Project} by its unique identifier represented as a String.
      *
      * @param uuid the unique identifier of the {@code Project}
-     * @return the {@code Project} matching the given UUID, or {@code null} if none found
+     * @return the {@code Project} matching the given UUID, or {@code null} if none found or
+     * {@code uuid} is not a valid UUID
      */
     @Override
     public Project getById(String uuid) {
         Project res = null;
-
-        if (uuid != null) {
-            @Language("SQL")
-            String sql = "SELECT * FROM Projects WHERE id=?";
-            List<Project> projects = dbManager.executeQuery(sql, this::mapRow, uuid);
-
-            if (!projects.isEmpty()) res = projects.getFirst();
-        }
+        if (uuid != null) res = this.getById(Uuids.parseOrNull(uuid));
         return res;
     }
 
@@ -67,10 +149,51 @@ public class ProjectDao implements Dao<Project> {
     @Override
     public Project getById(UUID uuid) {
         Project res = null;
-        if (uuid != null) res = this.getById(uuid.toString());
+
+        if (uuid != null) {
+            @Language("SQL")
+            String sql = SELECT_SQL + " WHERE p.id=?";
+            List<Project> projects = dbManager.executeQuery(sql,
+                    new EntityRowMapper()::project, uuid);
+
+            if (!projects.isEmpty()) res = projects.getFirst();
+        }
         return res;
     }
 
+    /**
+     * Retrieves the {@code Project} with the given unique identifiers, see
+     * {@link Dao#getByIds(Collection)}.
+     *
+     * @param uuids the unique identifiers of the {@code Project}; must not be {@code null}
+     * @return the {@code Project} found by id, in the order of the given ids; never {@code null}
+     * @throws NullPointerException if {@code uuids} is {@code null}
+     */
+    @Override
+    public @NotNull Map<UUID, Project> getByIds(@NotNull Collection<UUID> uuids) {
+        return LOADER.load(dbManager, new EntityRowMapper()::project, uuids);
+    }
+
+    /**
+     * Retrieves the summaries of every project, with the time logged on each project and its
+     * tasks.
+     *
+     * <p>The rows are read directly into {@link ProjectSummary} records: neither the projects
+     * nor their clients are built, and the totals come from the daily totals instead of the
+     * time entries. The result comes from the query cache while the projects and their totals
+     * are unchanged.</p>
+     *
+     * @return the summaries ordered by project name; never {@code null}, unmodifiable
+     */
+    public @NotNull List<ProjectSummary> getSummaries() {
+        return dbManager.executeCachedQuery(SUMMARY_SQL, rs -> new ProjectSummary(
+                Uuids.read(rs, "id"),
+                rs.getString("name"),
+                Uuids.read(rs, "client_id"),
+                Duration.ofSeconds(rs.getLong("total_seconds"))
+        ));
+    }
+
     /**
      * Inserts a new {@code Project} into the data source.
      *
@@ -81,24 +204,11 @@ public class ProjectDao implements Dao<Project> {
     public void insert(@NotNull Project entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        this.insertClient(entity);
-
-        @Language("SQL")
-        String sql = "INSERT INTO Projects (id, client_id, name, description, estimated_time, " +
-                "hourly_rate, fixed_price, created_at, deadline) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        dbManager.executeUpdate(
-                sql,
-                entity.getUuid(),
-                entity.getClient() == null ? null : entity.getClient().getUuid(),
-                entity.getName(),
-                entity.getDescription(),
-                entity.getEstimatedTime() == null ? null : entity.getEstimatedTime().toSeconds(),
-                entity.getHourlyRate(),
-                entity.getFixedPrice(),
-                entity.getCreatedAt().getTime(),
-                entity.getDeadline() == null ? null : entity.getDeadline().getTime()
-        );
+        dbManager.runInTransaction(() -> {
+            this.insertClient(List.of(entity));
+            dbManager.executeUpdate(INSERT_SQL, this.insertParams(entity));
+        });
+        DaoSession.attach(Project.class, entity.getUuid(), entity);
     }
 
     /**
@@ -111,9 +221,8 @@ public class ProjectDao implements Dao<Project> {
     public void delete(@NotNull Project entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        @Language("SQL")
-        String sql = "DELETE FROM Projects WHERE id=?";
-        dbManager.executeUpdate(sql, entity.getUuid());
+        dbManager.executeUpdate(DELETE_SQL, entity.getUuid());
+        DaoSession.detach(Project.class, entity.getUuid());
     }
 
     /**
@@ -126,24 +235,120 @@ public class ProjectDao implements Dao<Project> {
     public void update(@NotNull Project entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        this.insertClient(entity);
-
-        @Language("SQL")
-        String sql = """
-            UPDATE Projects
-            SET client_id = ?,
-                name = ?,
-                description = ?,
-                estimated_time = ?,
-                hourly_rate  = ?,
-                fixed_price = ?,
-                created_at = ?,
-                deadline = ?
-            WHERE id = ?
-            """;
-        dbManager.executeUpdate(
-                sql,
-                entity.getClient() == null ? null : entity.getClient().getUuid(),
+        dbManager.runInTransaction(() -> {
+            this.insertClient(List.of(entity));
+            dbManager.executeUpdate(UPDATE_SQL, this.updateParams(entity));
+        });
+        DaoSession.attach(Project.class, entity.getUuid(), entity);
+    }
+
+    /**
+     * Inserts new {@code Project} into the data source in a single transaction.
+     *
+     * @param entities the {@code Project} to insert; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void insertAll(@NotNull Collection<Project> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.runInTransaction(() -> {
+            this.insertClient(entities);
+            dbManager.executeBatch(INSERT_SQL, entities.stream().map(this::insertParams).toList());
+        });
+        for (Project entity : entities) DaoSession.attach(Project.class, entity.getUuid(), entity);
+    }
+
+    /**
+     * Deletes existing {@code Project} from the data source in a single transaction.
+     *
+     * @param entities the {@code Project} to delete; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void deleteAll(@NotNull Collection<Project> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.executeBatch(DELETE_SQL, entities.stream()
+                .map(entity -> new Object[]{
+                        Objects.requireNonNull(entity, "entity must not be null").getUuid()
+                })
+                .toList());
+        for (Project entity : entities) DaoSession.detach(Project.class, entity.getUuid());
+    }
+
+    /**
+     * Updates existing {@code Project} in the data source in a single transaction.
+     *
+     * @param entities the {@code Project} to update; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void updateAll(@NotNull Collection<Project> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.runInTransaction(() -> {
+            this.insertClient(entities);
+            dbManager.executeBatch(UPDATE_SQL, entities.stream().map(this::updateParams).toList());
+        });
+        for (Project entity : entities) DaoSession.attach(Project.class, entity.getUuid(), entity);
+    }
+
+    /**
+     * Inserts the given {@code Project} that are not in the data source yet and leaves the
+     * existing ones untouched, without reading them first. Their missing parents are inserted
+     * the same way. Used to save the parents of other entities.
+     *
+     * @param entities the {@code Project} to insert; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    void insertIfAbsent(@NotNull Collection<Project> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.runInTransaction(() -> {
+            this.insertClient(entities);
+            dbManager.executeBatch(INSERT_IF_ABSENT_SQL,
+                    entities.stream().map(this::insertParams).toList());
+        });
+    }
+
+    /**
+     * Returns the parameters of {@link #INSERT_SQL} for the given {@code Project}.
+     *
+     * @param entity the {@code Project} to insert; must not be {@code null}
+     * @return the parameters of the insert statement
+     * @throws NullPointerException if {@code entity} is {@code null}
+     */
+    private Object[] insertParams(@NotNull Project entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return new Object[]{
+                entity.getUuid(),
+                entity.getClientId(),
+                entity.getName(),
+                entity.getDescription(),
+                entity.getEstimatedTime() == null ? null : entity.getEstimatedTime().toSeconds(),
+                entity.getHourlyRate(),
+                entity.getFixedPrice(),
+                entity.getCreatedAt().getTime(),
+                entity.getDeadline() == null ? null : entity.getDeadline().getTime()
+        };
+    }
+
+    /**
+     * Returns the parameters of {@link #UPDATE_SQL} for the given {@code Project}.
+     *
+     * @param entity the {@code Project} to update; must not be {@code null}
+     * @return the parameters of the update statement
+     * @throws NullPointerException if {@code entity} is {@code null}
+     */
+    private Object[] updateParams(@NotNull Project entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return new Object[]{
+                entity.getClientId(),
                 entity.getName(),
                 entity.getDescription(),
                 entity.getEstimatedTime() == null ? null : entity.getEstimatedTime().toSeconds(),
@@ -152,56 +357,26 @@ public class ProjectDao implements Dao<Project> {
                 entity.getCreatedAt().getTime(),
                 entity.getDeadline() == null ? null : entity.getDeadline().getTime(),
                 entity.getUuid()
-        );
-    }
-
-    /**
-     * Maps the current row of the given {@link ResultSet} to a {@link Project} object.
-     *
-     * <p>This method reads the relevant columns from the {@code ResultSet} and constructs
-     * a new {@code Project} instance with the retrieved data.</p>
-     *
-     * @param rs the {@code ResultSet} positioned at the current row; must not be {@code null}
-     * @return a {@code Project} object populated with data from the current row of the result set
-     * @throws RuntimeException if a {@link SQLException} occurs while accessing the result set
-     */
-    private Project mapRow(ResultSet rs) {
-        try {
-            ClientDao clientDao = new ClientDao();
-            Duration duration = rs.getObject("estimated_time") == null ?
-                    null : Duration.ofSeconds(rs.getLong("estimated_time"));
-            return new Project(
-                    UUID.fromString(rs.getString("id")),
-                    clientDao.getById(rs.getString("client_id")),
-                    rs.getString("name"),
-                    rs.getString("description"),
-                    duration,
-                    rs.getLong("hourly_rate"),
-                    rs.getLong("fixed_price"),
-                    rs.getDate("created_at"),
-                    rs.getDate("deadline")
-            );
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        };
     }
 
     /**
-     * Inserts project's client into the database.
+     * Inserts the clients of the given projects that are not in the database yet, in a single
+     * statement execution per distinct client.
      *
-     * @param project Project whose client we want to insert into the database, must not be
-     * {@code null}
-     * @throws NullPointerException if the Project is {@code null}
+     * @param projects Projects whose client we want to insert into the database, must not be
+     * {@code null} nor contain {@code null}
+     * @throws NullPointerException if the collection or one of the projects is {@code null}
      */
-    private void insertClient(@NotNull Project project) {
-        Objects.requireNonNull(project, "project must not be null");
-
-        if (project.getClient() != null) {
-            ClientDao clientDao = new ClientDao();
-            // ClientDao.getById returns null if the client is not in the database
-            if (clientDao.getById(project.getClient().getUuid()) == null) {
-                clientDao.insert(project.getClient());
-            }
+    private void insertClient(@NotNull Collection<Project> projects) {
+        Map<UUID, Client> clients = new LinkedHashMap<>();
+        for (Project project : projects) {
+            Objects.requireNonNull(project, "project must not be null");
+            // A client that is not loaded was read from the database, so it already exists
+            if (project.getClientRef() != null && project.getClientRef().isResolved())
+                clients.putIfAbsent(project.getClientId(), project.getClient());
         }
+
+        new ClientDao().insertIfAbsent(clients.values());
     }
 }
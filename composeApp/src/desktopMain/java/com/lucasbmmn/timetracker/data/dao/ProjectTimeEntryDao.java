@@ -1,22 +1,60 @@
 package com.lucasbmmn.timetracker.data.dao;
 
 import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.data.database.Uuids;
+import com.lucasbmmn.timetracker.model.Project;
 import com.lucasbmmn.timetracker.model.ProjectTimeEntry;
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.NotNull;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object that provides CRUD (Create, Read, Update, Delete) operations for
  * {@link ProjectTimeEntry}.
  */
 public class ProjectTimeEntryDao implements Dao<ProjectTimeEntry> {
+    @Language("SQL")
+    private static final String SELECT_SQL = "SELECT e.id AS e_id, " +
+            "e.duration AS e_duration, e.created_at AS e_created_at, " +
+            "e.is_billable AS e_is_billable, e.project_id AS e_project_id " +
+            "FROM Project_Time_Entries e";
+
+    @Language("SQL")
+    private static final String INSERT_SQL =
+            "INSERT INTO Project_Time_Entries (id, project_id, duration, created_at, " +
+            "is_billable) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    @Language("SQL")
+    private static final String UPDATE_SQL = """
+        UPDATE Project_Time_Entries
+        SET project_id = ?,
+            duration = ?,
+            created_at = ?,
+            is_billable = ?
+        WHERE id = ?
+        """;
+
+    @Language("SQL")
+    private static final String DELETE_SQL = "DELETE FROM Project_Time_Entries WHERE id=?";
+
+    private static final KeysetPager<ProjectTimeEntry> PAGER = KeysetPager.byCreationDate(
+            "Project_Time_Entries", SELECT_SQL, "e", ProjectTimeEntry::getCreatedAt,
+            ProjectTimeEntry::getUuid);
+    private static final IdBatchLoader<ProjectTimeEntry> LOADER = new IdBatchLoader<>(SELECT_SQL,
+            "e.id", ProjectTimeEntry::getUuid);
+
+    private static final DaoListeners<ProjectTimeEntry> LISTENERS = new DaoListeners<>();
+
     private final DatabaseManager dbManager;
 
     /**
@@ -26,6 +64,26 @@ public class ProjectTimeEntryDao implements Dao<ProjectTimeEntry> {
         this.dbManager = new DatabaseManager();
     }
 
+    /**
+     * Registers a listener notified of the {@code ProjectTimeEntry} written through any
+     * {@code ProjectTimeEntryDao}, see {@link DaoListener}.
+     *
+     * @param listener the listener to register; must not be {@code null}
+     * @throws NullPointerException if {@code listener} is {@code null}
+     */
+    public static void addListener(@NotNull DaoListener<ProjectTimeEntry> listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * Unregisters a listener registered with {@link #addListener(DaoListener)}.
+     *
+     * @param listener the listener to unregister
+     */
+    public static void removeListener(DaoListener<ProjectTimeEntry> listener) {
+        LISTENERS.remove(listener);
+    }
+
     /**
      * Retrieves all {@code ProjectTimeEntry} from the data source.
      *
@@ -33,9 +91,101 @@ public class ProjectTimeEntryDao implements Dao<ProjectTimeEntry> {
      */
     @Override
     public @NotNull List<ProjectTimeEntry> getAll() {
-        @Language("SQL")
-        String sql = "SELECT * FROM Project_Time_Entries";
-        return dbManager.executeQuery(sql, this::mapRow);
+        return dbManager.executeQuery(SELECT_SQL, new EntityRowMapper()::projectTimeEntry);
+    }
+
+    /**
+     * Retrieves all {@code ProjectTimeEntry} from the data source lazily, see
+     * {@link Dao#streamAll()}.
+     *
+     * @return a stream of all {@code ProjectTimeEntry}; never {@code null}, must be closed
+     * after use
+     */
+    @Override
+    public @NotNull Stream<ProjectTimeEntry> streamAll() {
+        return dbManager.streamQuery(SELECT_SQL, new EntityRowMapper()::projectTimeEntry);
+    }
+
+    /**
+     * Retrieves one page of {@code ProjectTimeEntry}, newest first, see
+     * {@link Dao#getPage(int, String)}.
+     *
+     * @param pageSize  the maximum number of {@code ProjectTimeEntry} of the page; must be positive
+     * @param pageToken the token of the previous page, or {@code null} for the first page
+     * @return the page; never {@code null}
+     * @throws IllegalArgumentException if {@code pageSize} is not positive or {@code pageToken}
+     * is invalid
+     */
+    @Override
+    public @NotNull Page<ProjectTimeEntry> getPage(int pageSize, String pageToken) {
+        return PAGER.getPage(dbManager, new EntityRowMapper()::projectTimeEntry, pageSize,
+                pageToken);
+    }
+
+    /**
+     * Returns a fast estimate of the number of {@code ProjectTimeEntry} in the data source.
+     *
+     * @return the estimated number of {@code ProjectTimeEntry}
+     */
+    @Override
+    public long estimateCount() {
+        return PAGER.estimateCount(dbManager);
+    }
+
+    /**
+     * Retrieves the {@code ProjectTimeEntry} created in the given time range, oldest first. The
+     * entries are read lazily from the creation date index.
+     *
+     * @param from the start of the range, inclusive; must not be {@code null}
+     * @param to   the end of the range, exclusive; must not be {@code null}
+     * @return a stream of the matching {@code ProjectTimeEntry}; never {@code null}, must be
+     * closed after use
+     * @throws NullPointerException if {@code from} or {@code to} is {@code null}
+     * @throws IllegalArgumentException if {@code to} is before {@code from}
+     */
+    public @NotNull Stream<ProjectTimeEntry> findBetween(@NotNull Instant from,
+                                                         @NotNull Instant to) {
+        return this.findBetween(from, to, null, null);
+    }
+
+    /**
+     * Retrieves the {@code ProjectTimeEntry} created in the given time range, oldest first,
+     * optionally restricted to a project and to billable or non-billable entries.
+     *
+     * @param from     the start of the range, inclusive; must not be {@code null}
+     * @param to       the end of the range, exclusive; must not be {@code null}
+     * @param project  the project of the entries, or {@code null} for every project
+     * @param billable {@code true} for the billable entries only, {@code false} for the
+     *                 non-billable ones only, or {@code null} for both
+     * @return a stream of the matching {@code ProjectTimeEntry}; never {@code null}, must be
+     * closed after use
+     * @throws NullPointerException if {@code from} or {@code to} is {@code null}
+     * @throws IllegalArgumentException if {@code to} is before {@code from}
+     */
+    public @NotNull Stream<ProjectTimeEntry> findBetween(@NotNull Instant from,
+                                                         @NotNull Instant to, Project project,
+                                                         Boolean billable) {
+        Objects.requireNonNull(from, "from must not be null");
+        Objects.requireNonNull(to, "to must not be null");
+        if (to.isBefore(from))
+            throw new IllegalArgumentException("The end of the range must not be before its " +
+                    "start: " + from + " > " + to);
+
+        StringBuilder sql = new StringBuilder(SELECT_SQL)
+                .append(" WHERE e.created_at >= ? AND e.created_at < ?");
+        List<Object> params = new ArrayList<>(List.of(from.toEpochMilli(), to.toEpochMilli()));
+        if (project != null) {
+            sql.append(" AND e.project_id = ?");
+            params.add(project.getUuid());
+        }
+        if (billable != null) {
+            sql.append(" AND e.is_billable = ?");
+            params.add(billable ? 1 : 0);
+        }
+        sql.append(" ORDER BY e.created_at, e.id");
+
+        return dbManager.streamQuery(sql.toString(), new EntityRowMapper()::projectTimeEntry,
+                params.toArray());
     }
 
     /**
@@ -43,18 +193,12 @@ public class ProjectTimeEntryDao implements Dao<ProjectTimeEntry> {
      *
      * @param uuid the unique identifier of the {@code ProjectTimeEntry}
      * @return the {@code ProjectTimeEntry} matching the given UUID, or {@code null} if none found
+     * or {@code uuid} is not a valid UUID
      */
     @Override
     public ProjectTimeEntry getById(String uuid) {
         ProjectTimeEntry res = null;
-
-        if (uuid != null) {
-            @Language("SQL")
-            String sql = "SELECT * FROM Project_Time_Entries WHERE id=?";
-            List<ProjectTimeEntry> projectTimeEntries = dbManager.executeQuery(sql, this::mapRow, uuid);
-
-            if (!projectTimeEntries.isEmpty()) res = projectTimeEntries.getFirst();
-        }
+        if (uuid != null) res = this.getById(Uuids.parseOrNull(uuid));
         return res;
     }
 
@@ -67,10 +211,32 @@ public class ProjectTimeEntryDao implements Dao<ProjectTimeEntry> {
     @Override
     public ProjectTimeEntry getById(UUID uuid) {
         ProjectTimeEntry res = null;
-        if (uuid != null) res = this.getById(uuid.toString());
+
+        if (uuid != null) {
+            @Language("SQL")
+            String sql = SELECT_SQL + " WHERE e.id=?";
+            List<ProjectTimeEntry> projectTimeEntries = dbManager.executeQuery(sql,
+                    new EntityRowMapper()::projectTimeEntry, uuid);
+
+            if (!projectTimeEntries.isEmpty()) res = projectTimeEntries.getFirst();
+        }
         return res;
     }
 
+    /**
+     * Retrieves the {@code ProjectTimeEntry} with the given unique identifiers, see
+     * {@link Dao#getByIds(Collection)}.
+     *
+     * @param uuids the unique identifiers of the {@code ProjectTimeEntry}; must not be {@code null}
+     * @return the {@code ProjectTimeEntry} found by id, in the order of the given ids; never
+     * {@code null}
+     * @throws NullPointerException if {@code uuids} is {@code null}
+     */
+    @Override
+    public @NotNull Map<UUID, ProjectTimeEntry> getByIds(@NotNull Collection<UUID> uuids) {
+        return LOADER.load(dbManager, new EntityRowMapper()::projectTimeEntry, uuids);
+    }
+
     /**
      * Inserts a new {@code ProjectTimeEntry} into the data source.
      *
@@ -81,19 +247,12 @@ public class ProjectTimeEntryDao implements Dao<ProjectTimeEntry> {
     public void insert(@NotNull ProjectTimeEntry entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        this.insertProject(entity);
-
-        @Language("SQL")
-        String sql = "INSERT INTO Project_Time_Entries (id, project_id, duration, created_at, is_billable) " +
-                "VALUES (?, ?, ?, ?, ?)";
-        dbManager.executeUpdate(
-                sql,
-                entity.getUuid(),
-                entity.getProject().getUuid(),
-                entity.getDuration().getSeconds(),
-                entity.getCreatedAt().getTime(),
-                entity.isBillable() ? 1 : 0
-        );
+        dbManager.runInTransaction(() -> {
+            this.insertProject(List.of(entity));
+            dbManager.executeUpdate(INSERT_SQL, this.insertParams(entity));
+        });
+        DaoSession.attach(ProjectTimeEntry.class, entity.getUuid(), entity);
+        LISTENERS.fireInserted(dbManager, List.of(entity));
     }
 
     /**
@@ -106,9 +265,9 @@ public class ProjectTimeEntryDao implements Dao<ProjectTimeEntry> {
     public void delete(@NotNull ProjectTimeEntry entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        @Language("SQL")
-        String sql = "DELETE FROM Project_Time_Entries WHERE id=?";
-        dbManager.executeUpdate(sql, entity.getUuid());
+        dbManager.executeUpdate(DELETE_SQL, entity.getUuid());
+        DaoSession.detach(ProjectTimeEntry.class, entity.getUuid());
+        LISTENERS.fireDeleted(dbManager, List.of(entity));
     }
 
     /**
@@ -121,66 +280,130 @@ public class ProjectTimeEntryDao implements Dao<ProjectTimeEntry> {
     public void update(@NotNull ProjectTimeEntry entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        this.insertProject(entity);
-
-        @Language("SQL")
-        String sql = """
-            UPDATE Project_Time_Entries
-            SET project_id = ?,
-                duration = ?,
-                created_at = ?,
-                is_billable = ?
-            WHERE id = ?
-            """;
-        dbManager.executeUpdate(
-                sql,
-                entity.getProject().getUuid(),
-                entity.getDuration().getSeconds(),
-                entity.getCreatedAt().getTime(),
-                entity.isBillable() ? 1 : 0,
-                entity.getUuid()
-        );
+        dbManager.runInTransaction(() -> {
+            this.insertProject(List.of(entity));
+            dbManager.executeUpdate(UPDATE_SQL, this.updateParams(entity));
+        });
+        DaoSession.attach(ProjectTimeEntry.class, entity.getUuid(), entity);
+        LISTENERS.fireUpdated(dbManager, List.of(entity));
     }
 
     /**
-     * Maps the current row of the given {@link ResultSet} to a {@link ProjectTimeEntry} object.
+     * Inserts new {@code ProjectTimeEntry} into the data source in a single transaction.
      *
-     * <p>This method reads the relevant columns from the {@code ResultSet} and constructs
-     * a new {@code ProjectTimeEntry} instance with the retrieved data.</p>
+     * @param entities the {@code ProjectTimeEntry} to insert; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void insertAll(@NotNull Collection<ProjectTimeEntry> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.runInTransaction(() -> {
+            this.insertProject(entities);
+            dbManager.executeBatch(INSERT_SQL, entities.stream().map(this::insertParams).toList());
+        });
+        for (ProjectTimeEntry entity : entities)
+            DaoSession.attach(ProjectTimeEntry.class, entity.getUuid(), entity);
+        LISTENERS.fireInserted(dbManager, entities);
+    }
+
+    /**
+     * Deletes existing {@code ProjectTimeEntry} from the data source in a single transaction.
      *
-     * @param rs the {@code ResultSet} positioned at the current row; must not be {@code null}
-     * @return a {@code ProjectTimeEntry} object populated with data from the current row of the result set
-     * @throws RuntimeException if a {@link SQLException} occurs while accessing the result set
+     * @param entities the {@code ProjectTimeEntry} to delete; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
      */
-    private ProjectTimeEntry mapRow(ResultSet rs) {
-        try {
-            ProjectDao projectDao = new ProjectDao();
-            return new ProjectTimeEntry(
-                    UUID.fromString(rs.getString("id")),
-                    projectDao.getById(rs.getString("project_id")),
-                    Duration.ofSeconds(rs.getLong("duration")),
-                    rs.getDate("created_at"),
-                    rs.getBoolean("is_billable")
-            );
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+    @Override
+    public void deleteAll(@NotNull Collection<ProjectTimeEntry> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.executeBatch(DELETE_SQL, entities.stream()
+                .map(entity -> new Object[]{
+                        Objects.requireNonNull(entity, "entity must not be null").getUuid()
+                })
+                .toList());
+        for (ProjectTimeEntry entity : entities)
+            DaoSession.detach(ProjectTimeEntry.class, entity.getUuid());
+        LISTENERS.fireDeleted(dbManager, entities);
+    }
+
+    /**
+     * Updates existing {@code ProjectTimeEntry} in the data source in a single transaction.
+     *
+     * @param entities the {@code ProjectTimeEntry} to update; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void updateAll(@NotNull Collection<ProjectTimeEntry> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.runInTransaction(() -> {
+            this.insertProject(entities);
+            dbManager.executeBatch(UPDATE_SQL, entities.stream().map(this::updateParams).toList());
+        });
+        for (ProjectTimeEntry entity : entities)
+            DaoSession.attach(ProjectTimeEntry.class, entity.getUuid(), entity);
+        LISTENERS.fireUpdated(dbManager, entities);
     }
 
+
     /**
-     * Inserts ProjectTimeEntry's project into the database
+     * Returns the parameters of {@link #INSERT_SQL} for the given {@code ProjectTimeEntry}.
      *
-     * @param projectTimeEntry ProjectTimeEntry whose project we want to insert into the database,
-     *                         must not be null
-     * @throws NullPointerException if the ProjectTimeEntry is null
+     * @param entity the {@code ProjectTimeEntry} to insert; must not be {@code null}
+     * @return the parameters of the insert statement
+     * @throws NullPointerException if {@code entity} is {@code null}
      */
-    private void insertProject(@NotNull ProjectTimeEntry projectTimeEntry) {
-        Objects.requireNonNull(projectTimeEntry, "projectTimeEntry must not be null");
+    private Object[] insertParams(@NotNull ProjectTimeEntry entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return new Object[]{
+                entity.getUuid(),
+                entity.getProjectId(),
+                entity.getDuration().getSeconds(),
+                entity.getCreatedAt().getTime(),
+                entity.isBillable() ? 1 : 0
+        };
+    }
 
-        ProjectDao projectDao = new ProjectDao();
-        // ProjectDao.getById returns null if the project is not in the database
-        if (projectDao.getById(projectTimeEntry.getProject().getUuid()) == null) {
-            projectDao.insert(projectTimeEntry.getProject());
+    /**
+     * Returns the parameters of {@link #UPDATE_SQL} for the given {@code ProjectTimeEntry}.
+     *
+     * @param entity the {@code ProjectTimeEntry} to update; must not be {@code null}
+     * @return the parameters of the update statement
+     * @throws NullPointerException if {@code entity} is {@code null}
+     */
+    private Object[] updateParams(@NotNull ProjectTimeEntry entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return new Object[]{
+                entity.getProjectId(),
+                entity.getDuration().getSeconds(),
+                entity.getCreatedAt().getTime(),
+                entity.isBillable() ? 1 : 0,
+                entity.getUuid()
+        };
+    }
+
+    /**
+     * Inserts the projects of the given ProjectTimeEntry that are not in the database yet, with
+     * one batch per table.
+     *
+     * @param projectTimeEntries ProjectTimeEntry whose project we want to insert into the
+     *                           database, must not be null nor contain null
+     * @throws NullPointerException if the collection or one of the ProjectTimeEntry is null
+     */
+    private void insertProject(@NotNull Collection<ProjectTimeEntry> projectTimeEntries) {
+        Map<UUID, Project> projects = new LinkedHashMap<>();
+        for (ProjectTimeEntry projectTimeEntry : projectTimeEntries) {
+            Objects.requireNonNull(projectTimeEntry, "projectTimeEntry must not be null");
+            // A project that is not loaded was read from the database, so it already exists
+            if (projectTimeEntry.getProjectRef().isResolved())
+                projects.putIfAbsent(projectTimeEntry.getProjectId(),
+                        projectTimeEntry.getProject());
         }
+
+        new ProjectDao().insertIfAbsent(projects.values());
     }
 }
@@ -0,0 +1,64 @@
+package com.lucasbmmn.timetracker.data.dao;
+
+import com.lucasbmmn.timetracker.model.Ref;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Creates the lazy {@link Ref} to the parents met by one {@link EntityRowMapper}, and loads
+ * them together.
+ *
+ * <p>Rows referring to the same parent share the same reference. The first reference resolved
+ * loads every parent referenced so far and not loaded yet with a single bulk query, and
+ * resolves all their references, so walking the parents of a whole result costs one query
+ * instead of one per parent.</p>
+ *
+ * @param <T> the type of the parents
+ */
+final class RefLoader<T> {
+    private final Function<Collection<UUID>, Map<UUID, T>> loader;
+    private final Map<UUID, Ref<T>> refs = new HashMap<>();
+    private final Set<UUID> pending = new LinkedHashSet<>();
+
+    /**
+     * Constructs a new {@code RefLoader} object.
+     *
+     * @param loader the bulk loader of the parents by id, such as {@link Dao#getByIds}
+     */
+    RefLoader(@NotNull Function<Collection<UUID>, Map<UUID, T>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Returns the lazy reference to the parent with the given id.
+     *
+     * @param uuid the id of the parent
+     * @return the reference, or {@code null} if {@code uuid} is {@code null}
+     */
+    synchronized Ref<T> ref(UUID uuid) {
+        if (uuid == null) return null;
+        return this.refs.computeIfAbsent(uuid, id -> {
+            this.pending.add(id);
+            return Ref.lazy(id, this::resolve);
+        });
+    }
+
+    private synchronized T resolve(UUID uuid) {
+        if (this.pending.contains(uuid)) {
+            Map<UUID, T> loaded = this.loader.apply(new ArrayList<>(this.pending));
+            this.pending.clear();
+            loaded.forEach((id, parent) -> this.refs.get(id).complete(parent));
+        }
+        // Completed by this batch or by an earlier one, null if the parent no longer exists
+        Ref<T> ref = this.refs.get(uuid);
+        return ref.isResolved() ? ref.get() : null;
+    }
+}
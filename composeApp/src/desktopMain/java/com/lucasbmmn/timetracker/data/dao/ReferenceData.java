@@ -0,0 +1,111 @@
+package com.lucasbmmn.timetracker.data.dao;
+
+import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.model.TaskStatus;
+import com.lucasbmmn.timetracker.model.TaskType;
+
+import java.util.*;
+
+/**
+ * Cache of the task statuses and task types, the reference data every task points to.
+ *
+ * <p>Both tables hold a handful of rows, so they are loaded whole on first use and kept in
+ * memory: tasks are mapped with the cached instances instead of joining the tables, and
+ * {@link TaskStatusDao} and {@link TaskTypeDao} read from the cache. Every task with a given
+ * status shares the same {@code TaskStatus} instance.</p>
+ *
+ * <p>Writes through these two DAOs drop the cache, once when they are made and once when their
+ * transaction commits, and it is loaded again on next use. So does a reset of the database,
+ * detected with {@link DatabaseManager#getEpoch()}. An id missing from the cache, such as one
+ * written without the DAOs, loads the cache again before being reported as missing.</p>
+ */
+final class ReferenceData {
+    private static final Object LOCK = new Object();
+
+    private static volatile Snapshot snapshot;
+    /** Bumped by each invalidation, so that a load started before it is not kept. */
+    private static long version;
+
+    private ReferenceData() {
+    }
+
+    /**
+     * Returns the task status with the given id, or {@code null} if there is none.
+     */
+    static TaskStatus status(UUID id) {
+        if (id == null) return null;
+
+        TaskStatus status = current().statuses.get(id);
+        return status != null ? status : load().statuses.get(id);
+    }
+
+    /**
+     * Returns the task type with the given id, or {@code null} if there is none.
+     */
+    static TaskType type(UUID id) {
+        if (id == null) return null;
+
+        TaskType type = current().types.get(id);
+        return type != null ? type : load().types.get(id);
+    }
+
+    /**
+     * Returns every task status, in the order of the table.
+     */
+    static List<TaskStatus> statuses() {
+        return new ArrayList<>(current().statuses.values());
+    }
+
+    /**
+     * Returns every task type, in the order of the table.
+     */
+    static List<TaskType> types() {
+        return new ArrayList<>(current().types.values());
+    }
+
+    /**
+     * Drops the cache now and once the transaction of the caller commits, as the caller is
+     * writing statuses or types.
+     */
+    static void invalidate(DatabaseManager dbManager) {
+        invalidate();
+        dbManager.afterCommit(ReferenceData::invalidate);
+    }
+
+    private static void invalidate() {
+        synchronized (LOCK) {
+            version++;
+            snapshot = null;
+        }
+    }
+
+    private static Snapshot current() {
+        Snapshot current = snapshot;
+        return current != null && current.epoch == DatabaseManager.getEpoch() ? current : load();
+    }
+
+    private static Snapshot load() {
+        long loadVersion;
+        synchronized (LOCK) {
+            loadVersion = version;
+        }
+        long epoch = DatabaseManager.getEpoch();
+
+        Map<UUID, TaskStatus> statuses = new LinkedHashMap<>();
+        for (TaskStatus status : new TaskStatusDao().load()) statuses.put(status.getUuid(), status);
+        Map<UUID, TaskType> types = new LinkedHashMap<>();
+        for (TaskType type : new TaskTypeDao().load()) types.put(type.getUuid(), type);
+
+        Snapshot loaded = new Snapshot(epoch, Collections.unmodifiableMap(statuses),
+                Collections.unmodifiableMap(types));
+        synchronized (LOCK) {
+            // Otherwise written meanwhile, the next call loads again
+            if (version == loadVersion) snapshot = loaded;
+        }
+        return loaded;
+    }
+
+    private record Snapshot(long epoch, Map<UUID, TaskStatus> statuses,
+                            Map<UUID, TaskType> types) {
+    }
+}
@@ -0,0 +1,129 @@
+package com.lucasbmmn.timetracker.data.dao;
+
+import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.data.database.Uuids;
+import com.lucasbmmn.timetracker.model.DailyProjectTotal;
+import com.lucasbmmn.timetracker.model.DailyTaskTotal;
+import com.lucasbmmn.timetracker.model.Project;
+import com.lucasbmmn.timetracker.model.Task;
+import org.intellij.lang.annotations.Language;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Data Access Object reading the daily totals of the time entries.
+ *
+ * <p>The totals are stored in the {@code Daily_Task_Totals} and {@code Daily_Project_Totals}
+ * tables, which triggers update on every insert, update and delete of a time entry. Reading the
+ * totals of a period therefore costs one row per day and project or task, whatever the number
+ * of entries. Days are UTC days, an entry created before 1970 counting on the day it was
+ * created.</p>
+ */
+public class RollupDao {
+    @Language("SQL")
+    private static final String PROJECT_TOTALS_SQL = "SELECT day, project_id, " +
+            "billable_seconds, non_billable_seconds, task_seconds FROM Daily_Project_Totals " +
+            "WHERE day BETWEEN ? AND ?";
+
+    @Language("SQL")
+    private static final String TASK_TOTALS_SQL = "SELECT day, task_id, seconds " +
+            "FROM Daily_Task_Totals WHERE task_id = ? AND day BETWEEN ? AND ? ORDER BY day";
+
+    /** Recomputes the totals, also run by the migration that rounded the days down. */
+    private static final String REBUILD_SCRIPT = "files/database/rollups.sql";
+
+    private final DatabaseManager dbManager;
+
+    /**
+     * Constructs a new {@code RollupDao} object.
+     */
+    public RollupDao() {
+        this.dbManager = new DatabaseManager();
+    }
+
+    /**
+     * Retrieves the daily totals of every project between two days.
+     *
+     * @param from the first day, inclusive; must not be {@code null}
+     * @param to   the last day, inclusive; must not be {@code null}
+     * @return the totals ordered by day then project; never {@code null}, a day without entry
+     * for a project has no total
+     * @throws NullPointerException if {@code from} or {@code to} is {@code null}
+     */
+    public @NotNull List<DailyProjectTotal> getDailyProjectTotals(@NotNull LocalDate from,
+                                                                  @NotNull LocalDate to) {
+        Objects.requireNonNull(from, "from must not be null");
+        Objects.requireNonNull(to, "to must not be null");
+
+        return dbManager.executeQuery(PROJECT_TOTALS_SQL + " ORDER BY day, project_id",
+                RollupDao::projectTotal, from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * Retrieves the daily totals of a project between two days.
+     *
+     * @param project the project; must not be {@code null}
+     * @param from    the first day, inclusive; must not be {@code null}
+     * @param to      the last day, inclusive; must not be {@code null}
+     * @return the totals ordered by day; never {@code null}, a day without entry has no total
+     * @throws NullPointerException if {@code project}, {@code from} or {@code to} is
+     * {@code null}
+     */
+    public @NotNull List<DailyProjectTotal> getDailyProjectTotals(@NotNull Project project,
+                                                                  @NotNull LocalDate from,
+                                                                  @NotNull LocalDate to) {
+        Objects.requireNonNull(project, "project must not be null");
+        Objects.requireNonNull(from, "from must not be null");
+        Objects.requireNonNull(to, "to must not be null");
+
+        return dbManager.executeQuery(PROJECT_TOTALS_SQL + " AND project_id = ? ORDER BY day",
+                RollupDao::projectTotal, from.toEpochDay(), to.toEpochDay(), project.getUuid());
+    }
+
+    /**
+     * Retrieves the daily totals of a task between two days.
+     *
+     * @param task the task; must not be {@code null}
+     * @param from the first day, inclusive; must not be {@code null}
+     * @param to   the last day, inclusive; must not be {@code null}
+     * @return the totals ordered by day; never {@code null}, a day without entry has no total
+     * @throws NullPointerException if {@code task}, {@code from} or {@code to} is {@code null}
+     */
+    public @NotNull List<DailyTaskTotal> getDailyTaskTotals(@NotNull Task task,
+                                                            @NotNull LocalDate from,
+                                                            @NotNull LocalDate to) {
+        Objects.requireNonNull(task, "task must not be null");
+        Objects.requireNonNull(from, "from must not be null");
+        Objects.requireNonNull(to, "to must not be null");
+
+        return dbManager.executeQuery(TASK_TOTALS_SQL, rs -> new DailyTaskTotal(
+                LocalDate.ofEpochDay(rs.getLong("day")),
+                Uuids.read(rs, "task_id"),
+                Duration.ofSeconds(rs.getLong("seconds"))
+        ), task.getUuid(), from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * Recomputes every daily total from the time entries, in a single transaction. The triggers
+     * keep the totals up to date, this is only needed if the tables were changed without them.
+     */
+    public void rebuild() {
+        dbManager.executeScript(REBUILD_SCRIPT);
+    }
+
+    private static DailyProjectTotal projectTotal(ResultSet rs) throws SQLException {
+        return new DailyProjectTotal(
+                LocalDate.ofEpochDay(rs.getLong("day")),
+                Uuids.read(rs, "project_id"),
+                Duration.ofSeconds(rs.getLong("billable_seconds")),
+                Duration.ofSeconds(rs.getLong("non_billable_seconds")),
+                Duration.ofSeconds(rs.getLong("task_seconds"))
+        );
+    }
+}
@@ -1,22 +1,75 @@
 package com.lucasbmmn.timetracker.data.dao;
 
 import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.data.database.Uuids;
+import com.lucasbmmn.timetracker.model.Project;
 import com.lucasbmmn.timetracker.model.Task;
+import com.lucasbmmn.timetracker.model.TaskStatus;
+import com.lucasbmmn.timetracker.model.TaskSummary;
+import com.lucasbmmn.timetracker.model.TaskType;
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.NotNull;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object that provides CRUD (Create, Read, Update, Delete) operations for
  * {@link TaskDao}.
  */
 public class TaskDao implements Dao<Task> {
+    @Language("SQL")
+    private static final String SELECT_SQL = "SELECT " + EntityRowMapper.TASK_COLUMNS +
+            " FROM Tasks t";
+
+    @Language("SQL")
+    private static final String SUMMARY_SQL = """
+        SELECT t.id, t.name, t.project_id,
+            (SELECT COALESCE(SUM(d.seconds), 0) FROM Daily_Task_Totals d WHERE d.task_id = t.id)
+                AS total_seconds
+        FROM Tasks t
+        WHERE t.project_id = ?
+        ORDER BY t.name, t.id
+        """;
+
+    @Language("SQL")
+    private static final String INSERT_SQL =
+            "INSERT INTO Tasks (id, project_id, task_status_id, task_type_id, " +
+            "name, description, estimated_time, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Language("SQL")
+    private static final String INSERT_IF_ABSENT_SQL = INSERT_SQL + " ON CONFLICT(id) DO NOTHING";
+
+    @Language("SQL")
+    private static final String UPDATE_SQL = """
+        UPDATE Tasks
+        SET project_id = ?,
+            task_status_id = ?,
+            task_type_id = ?,
+            name = ?,
+            description = ?,
+            estimated_time = ?,
+            created_at = ?
+        WHERE id = ?
+        """;
+
+    @Language("SQL")
+    private static final String DELETE_SQL = "DELETE FROM Tasks WHERE id=?";
+
+    private static final KeysetPager<Task> PAGER = KeysetPager.byCreationDate(
+            "Tasks", SELECT_SQL, "t", Task::getCreatedAt, Task::getUuid);
+    private static final IdBatchLoader<Task> LOADER = new IdBatchLoader<>(SELECT_SQL,
+            "t.id", Task::getUuid);
+
+    private static final DaoListeners<Task> LISTENERS = new DaoListeners<>();
+
     private final DatabaseManager dbManager;
 
     /**
@@ -26,6 +79,26 @@ public class TaskDao implements Dao<Task> {
         this.dbManager = new DatabaseManager();
     }
 
+    /**
+     * Registers a listener notified of the {@code Task} written through any
+     * {@code TaskDao}, see {@link DaoListener}.
+     *
+     * @param listener the listener to register; must not be {@code null}
+     * @throws NullPointerException if {@code listener} is {@code null}
+     */
+    public static void addListener(@NotNull DaoListener<Task> listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * Unregisters a listener registered with {@link #addListener(DaoListener)}.
+     *
+     * @param listener the listener to unregister
+     */
+    public static void removeListener(DaoListener<Task> listener) {
+        LISTENERS.remove(listener);
+    }
+
     /**
      * Retrieves all {@code Task} from the data source.
      *
@@ -33,28 +106,54 @@ public class TaskDao implements Dao<Task> {
      */
     @Override
     public @NotNull List<Task> getAll() {
-        @Language("SQL")
-        String sql = "SELECT * FROM Tasks";
-        return dbManager.executeQuery(sql, this::mapRow);
+        return dbManager.executeQuery(SELECT_SQL, new EntityRowMapper()::task);
+    }
+
+    /**
+     * Retrieves all {@code Task} from the data source lazily, see {@link Dao#streamAll()}.
+     *
+     * @return a stream of all {@code Task}; never {@code null}, must be closed after use
+     */
+    @Override
+    public @NotNull Stream<Task> streamAll() {
+        return dbManager.streamQuery(SELECT_SQL, new EntityRowMapper()::task);
+    }
+
+    /**
+     * Retrieves one page of {@code Task}, newest first, see {@link Dao#getPage(int, String)}.
+     *
+     * @param pageSize  the maximum number of {@code Task} of the page; must be positive
+     * @param pageToken the token of the previous page, or {@code null} for the first page
+     * @return the page; never {@code null}
+     * @throws IllegalArgumentException if {@code pageSize} is not positive or {@code pageToken}
+     * is invalid
+     */
+    @Override
+    public @NotNull Page<Task> getPage(int pageSize, String pageToken) {
+        return PAGER.getPage(dbManager, new EntityRowMapper()::task, pageSize, pageToken);
+    }
+
+    /**
+     * Returns a fast estimate of the number of {@code Task} in the data source.
+     *
+     * @return the estimated number of {@code Task}
+     */
+    @Override
+    public long estimateCount() {
+        return PAGER.estimateCount(dbManager);
     }
 
     /**
      * Retrieves an {@code Task} by its unique identifier represented as a String.
      *
      * @param uuid the unique identifier of the {@code Task}
-     * @return the {@code Task} matching the given UUID, or {@code null} if none found
+     * @return the {@code Task} matching the given UUID, or {@code null} if none found or
+     * {@code uuid} is not a valid UUID
      */
     @Override
     public Task getById(String uuid) {
         Task res = null;
-
-        if (uuid != null) {
-            @Language("SQL")
-            String sql = "SELECT * FROM Tasks WHERE id=?";
-            List<Task> tasks = dbManager.executeQuery(sql, this::mapRow, uuid);
-
-            if (!tasks.isEmpty()) res = tasks.getFirst();
-        }
+        if (uuid != null) res = this.getById(Uuids.parseOrNull(uuid));
         return res;
     }
 
@@ -67,10 +166,53 @@ public class TaskDao implements Dao<Task> {
     @Override
     public Task getById(UUID uuid) {
         Task res = null;
-        if (uuid != null) res = this.getById(uuid.toString());
+
+        if (uuid != null) {
+            @Language("SQL")
+            String sql = SELECT_SQL + " WHERE t.id=?";
+            List<Task> tasks = dbManager.executeQuery(sql,
+                    new EntityRowMapper()::task, uuid);
+
+            if (!tasks.isEmpty()) res = tasks.getFirst();
+        }
         return res;
     }
 
+    /**
+     * Retrieves the {@code Task} with the given unique identifiers, see
+     * {@link Dao#getByIds(Collection)}.
+     *
+     * @param uuids the unique identifiers of the {@code Task}; must not be {@code null}
+     * @return the {@code Task} found by id, in the order of the given ids; never {@code null}
+     * @throws NullPointerException if {@code uuids} is {@code null}
+     */
+    @Override
+    public @NotNull Map<UUID, Task> getByIds(@NotNull Collection<UUID> uuids) {
+        return LOADER.load(dbManager, new EntityRowMapper()::task, uuids);
+    }
+
+    /**
+     * Retrieves the summaries of the tasks of a project, with the time logged on each task.
+     *
+     * <p>The rows are read directly into {@link TaskSummary} records: neither the tasks nor
+     * their project are built, and the totals come from the daily totals instead of the time
+     * entries. The result comes from the query cache while the tasks and their totals are
+     * unchanged.</p>
+     *
+     * @param project the project of the tasks; must not be {@code null}
+     * @return the summaries ordered by task name; never {@code null}, unmodifiable
+     * @throws NullPointerException if {@code project} is {@code null}
+     */
+    public @NotNull List<TaskSummary> getSummaries(@NotNull Project project) {
+        Objects.requireNonNull(project, "project must not be null");
+        return dbManager.executeCachedQuery(SUMMARY_SQL, rs -> new TaskSummary(
+                Uuids.read(rs, "id"),
+                rs.getString("name"),
+                Uuids.read(rs, "project_id"),
+                Duration.ofSeconds(rs.getLong("total_seconds"))
+        ), project.getUuid());
+    }
+
     /**
      * Inserts a new {@code Task} into the data source.
      *
@@ -81,23 +223,12 @@ public class TaskDao implements Dao<Task> {
     public void insert(@NotNull Task entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        this.insertRelatedEntities(entity);
-
-        @Language("SQL")
-        String sql = "INSERT INTO Tasks (id, project_id, task_status_id, task_type_id, name, " +
-                "description, estimated_time, created_at) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-        dbManager.executeUpdate(
-                sql,
-                entity.getUuid(),
-                entity.getProject().getUuid(),
-                entity.getStatus() == null ? null : entity.getStatus().getUuid(),
-                entity.getType() == null ? null : entity.getType().getUuid(),
-                entity.getName(),
-                entity.getDescription(),
-                entity.getEstimatedTime() == null ? null : entity.getEstimatedTime().toSeconds(),
-                entity.getCreatedAt().getTime()
-        );
+        dbManager.runInTransaction(() -> {
+            this.insertRelatedEntities(List.of(entity));
+            dbManager.executeUpdate(INSERT_SQL, this.insertParams(entity));
+        });
+        DaoSession.attach(Task.class, entity.getUuid(), entity);
+        LISTENERS.fireInserted(dbManager, List.of(entity));
     }
 
     /**
@@ -110,9 +241,9 @@ public class TaskDao implements Dao<Task> {
     public void delete(@NotNull Task entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        @Language("SQL")
-        String sql = "DELETE FROM Tasks WHERE id=?";
-        dbManager.executeUpdate(sql, entity.getUuid());
+        dbManager.executeUpdate(DELETE_SQL, entity.getUuid());
+        DaoSession.detach(Task.class, entity.getUuid());
+        LISTENERS.fireDeleted(dbManager, List.of(entity));
     }
 
     /**
@@ -125,23 +256,123 @@ public class TaskDao implements Dao<Task> {
     public void update(@NotNull Task entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        this.insertRelatedEntities(entity);
-
-        @Language("SQL")
-        String sql = """
-            UPDATE Tasks
-            SET project_id = ?,
-                task_status_id = ?,
-                task_type_id = ?,
-                name = ?,
-                description = ?,
-                estimated_time = ?,
-                created_at = ?
-            WHERE id = ?
-            """;
-        dbManager.executeUpdate(
-                sql,
-                entity.getProject().getUuid(),
+        dbManager.runInTransaction(() -> {
+            this.insertRelatedEntities(List.of(entity));
+            dbManager.executeUpdate(UPDATE_SQL, this.updateParams(entity));
+        });
+        DaoSession.attach(Task.class, entity.getUuid(), entity);
+        LISTENERS.fireUpdated(dbManager, List.of(entity));
+    }
+
+    /**
+     * Inserts new {@code Task} into the data source in a single transaction.
+     *
+     * @param entities the {@code Task} to insert; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void insertAll(@NotNull Collection<Task> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.runInTransaction(() -> {
+            this.insertRelatedEntities(entities);
+            dbManager.executeBatch(INSERT_SQL, entities.stream().map(this::insertParams).toList());
+        });
+        for (Task entity : entities) DaoSession.attach(Task.class, entity.getUuid(), entity);
+        LISTENERS.fireInserted(dbManager, entities);
+    }
+
+    /**
+     * Deletes existing {@code Task} from the data source in a single transaction.
+     *
+     * @param entities the {@code Task} to delete; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void deleteAll(@NotNull Collection<Task> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.executeBatch(DELETE_SQL, entities.stream()
+                .map(entity -> new Object[]{
+                        Objects.requireNonNull(entity, "entity must not be null").getUuid()
+                })
+                .toList());
+        for (Task entity : entities) DaoSession.detach(Task.class, entity.getUuid());
+        LISTENERS.fireDeleted(dbManager, entities);
+    }
+
+    /**
+     * Updates existing {@code Task} in the data source in a single transaction.
+     *
+     * @param entities the {@code Task} to update; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void updateAll(@NotNull Collection<Task> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.runInTransaction(() -> {
+            this.insertRelatedEntities(entities);
+            dbManager.executeBatch(UPDATE_SQL, entities.stream().map(this::updateParams).toList());
+        });
+        for (Task entity : entities) DaoSession.attach(Task.class, entity.getUuid(), entity);
+        LISTENERS.fireUpdated(dbManager, entities);
+    }
+
+    /**
+     * Inserts the given {@code Task} that are not in the data source yet and leaves the
+     * existing ones untouched, without reading them first. Their missing parents are inserted
+     * the same way. Used to save the parents of other entities.
+     *
+     * @param entities the {@code Task} to insert; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    void insertIfAbsent(@NotNull Collection<Task> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.runInTransaction(() -> {
+            this.insertRelatedEntities(entities);
+            dbManager.executeBatch(INSERT_IF_ABSENT_SQL,
+                    entities.stream().map(this::insertParams).toList());
+        });
+    }
+
+    /**
+     * Returns the parameters of {@link #INSERT_SQL} for the given {@code Task}.
+     *
+     * @param entity the {@code Task} to insert; must not be {@code null}
+     * @return the parameters of the insert statement
+     * @throws NullPointerException if {@code entity} is {@code null}
+     */
+    private Object[] insertParams(@NotNull Task entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return new Object[]{
+                entity.getUuid(),
+                entity.getProjectId(),
+                entity.getStatus() == null ? null : entity.getStatus().getUuid(),
+                entity.getType() == null ? null : entity.getType().getUuid(),
+                entity.getName(),
+                entity.getDescription(),
+                entity.getEstimatedTime() == null ? null : entity.getEstimatedTime().toSeconds(),
+                entity.getCreatedAt().getTime()
+        };
+    }
+
+    /**
+     * Returns the parameters of {@link #UPDATE_SQL} for the given {@code Task}.
+     *
+     * @param entity the {@code Task} to update; must not be {@code null}
+     * @return the parameters of the update statement
+     * @throws NullPointerException if {@code entity} is {@code null}
+     */
+    private Object[] updateParams(@NotNull Task entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return new Object[]{
+                entity.getProjectId(),
                 entity.getStatus() == null ? null : entity.getStatus().getUuid(),
                 entity.getType() == null ? null : entity.getType().getUuid(),
                 entity.getName(),
@@ -149,71 +380,34 @@ public class TaskDao implements Dao<Task> {
                 entity.getEstimatedTime() == null ? null : entity.getEstimatedTime().toSeconds(),
                 entity.getCreatedAt().getTime(),
                 entity.getUuid()
-        );
-    }
-
-    /**
-     * Maps the current row of the given {@link ResultSet} to a {@link TaskDao} object.
-     *
-     * <p>This method reads the relevant columns from the {@code ResultSet} and constructs
-     * a new {@code TaskDao} instance with the retrieved data.</p>
-     *
-     * @param rs the {@code ResultSet} positioned at the current row; must not be {@code null}
-     * @return a {@code TaskDao} object populated with data from the current row of the result set
-     * @throws RuntimeException if a {@link SQLException} occurs while accessing the result set
-     */
-    private Task mapRow(ResultSet rs) {
-        ProjectDao projectDao = new ProjectDao();
-        TaskStatusDao taskStatusDao = new TaskStatusDao();
-        TaskTypeDao taskTypeDao = new TaskTypeDao();
-        try {
-            Duration duration = rs.getObject("estimated_time") == null ?
-                    null : Duration.ofSeconds(rs.getLong("estimated_time"));
-            return new Task(
-                    UUID.fromString(rs.getString("id")),
-                    projectDao.getById(rs.getString("project_id")),
-                    rs.getString("name"),
-                    rs.getString("description"),
-                    duration,
-                    taskStatusDao.getById(rs.getString("task_status_id")),
-                    taskTypeDao.getById(rs.getString("task_type_id")),
-                    rs.getDate("created_at")
-            );
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        };
     }
 
     /**
-     * Inserts task's project, status and type into the database.
+     * Inserts the projects, statuses and types of the given tasks that are not in the database
+     * yet, with one batch per table.
      *
-     * @param task Task whose project, status and type we want to insert into the database,
-     * must not be {@code null}
-     * @throws NullPointerException if the task is {@code null}
+     * @param tasks Tasks whose project, status and type we want to insert into the database,
+     * must not be {@code null} nor contain {@code null}
+     * @throws NullPointerException if the collection or one of the tasks is {@code null}
      */
-    private void insertRelatedEntities(@NotNull Task task) {
-        Objects.requireNonNull(task, "task must not be null");
-
-        ProjectDao projectDao = new ProjectDao();
-        // ProjectDao.getById returns null if the project is not in the database
-        if (projectDao.getById(task.getProject().getUuid()) == null) {
-            projectDao.insert(task.getProject());
+    private void insertRelatedEntities(@NotNull Collection<Task> tasks) {
+        Map<UUID, Project> projects = new LinkedHashMap<>();
+        Map<UUID, TaskStatus> statuses = new LinkedHashMap<>();
+        Map<UUID, TaskType> types = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            Objects.requireNonNull(task, "task must not be null");
+            // A project that is not loaded was read from the database, so it already exists
+            if (task.getProjectRef().isResolved())
+                projects.putIfAbsent(task.getProjectId(), task.getProject());
+            if (task.getStatus() != null)
+                statuses.putIfAbsent(task.getStatus().getUuid(), task.getStatus());
+            if (task.getType() != null)
+                types.putIfAbsent(task.getType().getUuid(), task.getType());
         }
 
-        if (task.getStatus() != null) {
-            TaskStatusDao taskStatusDao = new TaskStatusDao();
-            // TaskStatusDao.getById returns null if the TaskStatus is not in the database
-            if (taskStatusDao.getById(task.getStatus().getUuid()) == null) {
-                taskStatusDao.insert(task.getStatus());
-            }
-        }
-
-        if (task.getType() != null) {
-            TaskTypeDao taskTypeDao = new TaskTypeDao();
-            // TaskTypeDao.getById returns null if the TaskType is not in the database
-            if (taskTypeDao.getById(task.getType().getUuid()) == null) {
-                taskTypeDao.insert(task.getType());
-            }
-        }
+        new ProjectDao().insertIfAbsent(projects.values());
+        new TaskStatusDao().insertIfAbsent(statuses.values());
+        new TaskTypeDao().insertIfAbsent(types.values());
     }
 }
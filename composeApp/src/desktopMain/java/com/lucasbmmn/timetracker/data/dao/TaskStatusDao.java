@@ -1,21 +1,49 @@
 package com.lucasbmmn.timetracker.data.dao;
 
 import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.data.database.Uuids;
 import com.lucasbmmn.timetracker.model.TaskStatus;
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.NotNull;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object that provides CRUD (Create, Read, Update, Delete) operations for
  * {@link TaskStatusDao}.
  */
 public class TaskStatusDao implements Dao<TaskStatus> {
+    @Language("SQL")
+    private static final String SELECT_SQL = "SELECT " + EntityRowMapper.STATUS_COLUMNS +
+            " FROM Task_Statuses s";
+
+    @Language("SQL")
+    private static final String INSERT_SQL = "INSERT INTO Task_Statuses (id, label) " +
+            "VALUES (?, ?)";
+
+    @Language("SQL")
+    private static final String INSERT_IF_ABSENT_SQL = INSERT_SQL + " ON CONFLICT(id) DO NOTHING";
+
+    @Language("SQL")
+    private static final String UPDATE_SQL = """
+        UPDATE Task_Statuses
+        SET label = ?
+        WHERE id = ?
+        """;
+
+    @Language("SQL")
+    private static final String DELETE_SQL = "DELETE FROM Task_Statuses WHERE id=?";
+
+    private static final KeysetPager<TaskStatus> PAGER = KeysetPager.byId(
+            "Task_Statuses", SELECT_SQL, "s", TaskStatus::getUuid);
+
     private final DatabaseManager dbManager;
 
     /**
@@ -26,48 +54,94 @@ public class TaskStatusDao implements Dao<TaskStatus> {
     }
 
     /**
-     * Retrieves all {@code TaskStatus} from the data source.
+     * Retrieves all {@code TaskStatus} from the {@link ReferenceData} cache.
      *
      * @return a list of all {@code TaskStatus}; never {@code null}, may be empty
      */
     @Override
     public @NotNull List<TaskStatus> getAll() {
-        @Language("SQL")
-        String sql = "SELECT * FROM Task_Statuses";
-        return dbManager.executeQuery(sql, this::mapRow);
+        return ReferenceData.statuses();
+    }
+
+    /**
+     * Retrieves all {@code TaskStatus} from the data source lazily, see {@link Dao#streamAll()}.
+     *
+     * @return a stream of all {@code TaskStatus}; never {@code null}, must be closed after use
+     */
+    @Override
+    public @NotNull Stream<TaskStatus> streamAll() {
+        return dbManager.streamQuery(SELECT_SQL, new EntityRowMapper()::status);
+    }
+
+    /**
+     * Retrieves one page of {@code TaskStatus}, ordered by id, see
+     * {@link Dao#getPage(int, String)}.
+     *
+     * @param pageSize  the maximum number of {@code TaskStatus} of the page; must be positive
+     * @param pageToken the token of the previous page, or {@code null} for the first page
+     * @return the page; never {@code null}
+     * @throws IllegalArgumentException if {@code pageSize} is not positive or {@code pageToken}
+     * is invalid
+     */
+    @Override
+    public @NotNull Page<TaskStatus> getPage(int pageSize, String pageToken) {
+        return PAGER.getPage(dbManager, new EntityRowMapper()::status, pageSize, pageToken);
+    }
+
+    /**
+     * Returns a fast estimate of the number of {@code TaskStatus} in the data source.
+     *
+     * @return the estimated number of {@code TaskStatus}
+     */
+    @Override
+    public long estimateCount() {
+        return PAGER.estimateCount(dbManager);
     }
 
     /**
      * Retrieves an {@code TaskStatus} by its unique identifier represented as a String.
      *
      * @param uuid the unique identifier of the {@code TaskStatus}
-     * @return the {@code TaskStatus} matching the given UUID, or {@code null} if none found
+     * @return the {@code TaskStatus} matching the given UUID, or {@code null} if none found or
+     * {@code uuid} is not a valid UUID
      */
     @Override
     public TaskStatus getById(String uuid) {
         TaskStatus res = null;
-
-        if (uuid != null) {
-            @Language("SQL")
-            String sql = "SELECT * FROM Task_Statuses WHERE id=?";
-            List<TaskStatus> taskStatuses = dbManager.executeQuery(sql, this::mapRow, uuid);
-
-            if (!taskStatuses.isEmpty()) res = taskStatuses.getFirst();
-        }
+        if (uuid != null) res = this.getById(Uuids.parseOrNull(uuid));
         return res;
     }
 
     /**
-     * Retrieves an {@code TaskStatus} by its unique identifier represented as a {@link UUID}.
+     * Retrieves an {@code TaskStatus} by its unique identifier represented as a {@link UUID}, from
+     * the {@link ReferenceData} cache.
      *
      * @param uuid the unique identifier of the {@code TaskStatus}
      * @return the {@code TaskStatus} matching the given UUID, or {@code null} if none found
      */
     @Override
     public TaskStatus getById(UUID uuid) {
-        TaskStatus res = null;
-        if (uuid != null) res = this.getById(uuid.toString());
-        return res;
+        return ReferenceData.status(uuid);
+    }
+
+    /**
+     * Retrieves the {@code TaskStatus} with the given unique identifiers, see
+     * {@link Dao#getByIds(Collection)}.
+     *
+     * @param uuids the unique identifiers of the {@code TaskStatus}; must not be {@code null}
+     * @return the {@code TaskStatus} found by id, in the order of the given ids; never {@code null}
+     * @throws NullPointerException if {@code uuids} is {@code null}
+     */
+    @Override
+    public @NotNull Map<UUID, TaskStatus> getByIds(@NotNull Collection<UUID> uuids) {
+        Objects.requireNonNull(uuids, "uuids must not be null");
+
+        Map<UUID, TaskStatus> entities = new LinkedHashMap<>();
+        for (UUID uuid : uuids) {
+            TaskStatus entity = ReferenceData.status(uuid);
+            if (entity != null) entities.put(uuid, entity);
+        }
+        return entities;
     }
 
     /**
@@ -80,14 +154,9 @@ public class TaskStatusDao implements Dao<TaskStatus> {
     public void insert(@NotNull TaskStatus entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        @Language("SQL")
-        String sql = "INSERT INTO Task_Statuses (id, label) " +
-                "VALUES (?, ?)";
-        dbManager.executeUpdate(
-                sql,
-                entity.getUuid(),
-                entity.getLabel()
-        );
+        dbManager.executeUpdate(INSERT_SQL, this.insertParams(entity));
+        ReferenceData.invalidate(dbManager);
+        DaoSession.attach(TaskStatus.class, entity.getUuid(), entity);
     }
 
     /**
@@ -100,9 +169,9 @@ public class TaskStatusDao implements Dao<TaskStatus> {
     public void delete(@NotNull TaskStatus entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        @Language("SQL")
-        String sql = "DELETE FROM Task_Statuses WHERE id=?";
-        dbManager.executeUpdate(sql, entity.getUuid());
+        dbManager.executeUpdate(DELETE_SQL, entity.getUuid());
+        ReferenceData.invalidate(dbManager);
+        DaoSession.detach(TaskStatus.class, entity.getUuid());
     }
 
     /**
@@ -115,37 +184,122 @@ public class TaskStatusDao implements Dao<TaskStatus> {
     public void update(@NotNull TaskStatus entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        @Language("SQL")
-        String sql = """
-            UPDATE Task_Statuses
-            SET label = ?
-            WHERE id = ?
-            """;
-        dbManager.executeUpdate(
-                sql,
-                entity.getLabel(),
-                entity.getUuid()
-        );
+        dbManager.executeUpdate(UPDATE_SQL, this.updateParams(entity));
+        ReferenceData.invalidate(dbManager);
+        DaoSession.attach(TaskStatus.class, entity.getUuid(), entity);
     }
 
     /**
-     * Maps the current row of the given {@link ResultSet} to a {@link TaskStatusDao} object.
+     * Inserts new {@code TaskStatus} into the data source in a single transaction.
      *
-     * <p>This method reads the relevant columns from the {@code ResultSet} and constructs
-     * a new {@code TaskStatusDao} instance with the retrieved data.</p>
+     * @param entities the {@code TaskStatus} to insert; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void insertAll(@NotNull Collection<TaskStatus> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.executeBatch(INSERT_SQL, entities.stream().map(this::insertParams).toList());
+        ReferenceData.invalidate(dbManager);
+        for (TaskStatus entity : entities)
+            DaoSession.attach(TaskStatus.class, entity.getUuid(), entity);
+    }
+
+    /**
+     * Deletes existing {@code TaskStatus} from the data source in a single transaction.
      *
-     * @param rs the {@code ResultSet} positioned at the current row; must not be {@code null}
-     * @return a {@code TaskStatusDao} object populated with data from the current row of the result set
-     * @throws RuntimeException if a {@link SQLException} occurs while accessing the result set
+     * @param entities the {@code TaskStatus} to delete; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
      */
-    private TaskStatus mapRow(ResultSet rs) {
-        try {
-            return new TaskStatus(
-                    UUID.fromString(rs.getString("id")),
-                    rs.getString("label")
-            );
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+    @Override
+    public void deleteAll(@NotNull Collection<TaskStatus> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.executeBatch(DELETE_SQL, entities.stream()
+                .map(entity -> new Object[]{
+                        Objects.requireNonNull(entity, "entity must not be null").getUuid()
+                })
+                .toList());
+        ReferenceData.invalidate(dbManager);
+        for (TaskStatus entity : entities) DaoSession.detach(TaskStatus.class, entity.getUuid());
+    }
+
+    /**
+     * Updates existing {@code TaskStatus} in the data source in a single transaction.
+     *
+     * @param entities the {@code TaskStatus} to update; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void updateAll(@NotNull Collection<TaskStatus> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.executeBatch(UPDATE_SQL, entities.stream().map(this::updateParams).toList());
+        ReferenceData.invalidate(dbManager);
+        for (TaskStatus entity : entities)
+            DaoSession.attach(TaskStatus.class, entity.getUuid(), entity);
+    }
+
+    /**
+     * Inserts the given {@code TaskStatus} that are not in the data source yet and leaves the
+     * existing ones untouched, without reading them first. Used to save the
+     * parents of other entities.
+     *
+     * @param entities the {@code TaskStatus} to insert; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    void insertIfAbsent(@NotNull Collection<TaskStatus> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        int[] counts = dbManager.executeBatch(INSERT_IF_ABSENT_SQL,
+                entities.stream().map(this::insertParams).toList());
+        // Usually all present already, the cache is still valid then
+        if (Arrays.stream(counts).anyMatch(count -> count != 0))
+            ReferenceData.invalidate(dbManager);
+    }
+
+    /**
+     * Reads every {@code TaskStatus} from the data source, without going through the cache nor the
+     * current {@link DaoSession}, to fill the {@link ReferenceData} cache.
+     *
+     * @return every {@code TaskStatus}, in the order of the table; never {@code null}
+     */
+    List<TaskStatus> load() {
+        return dbManager.executeQuery(SELECT_SQL, rs -> new TaskStatus(Uuids.read(rs, "s_id"),
+                rs.getString("s_label")));
+    }
+
+    /**
+     * Returns the parameters of {@link #INSERT_SQL} for the given {@code TaskStatus}.
+     *
+     * @param entity the {@code TaskStatus} to insert; must not be {@code null}
+     * @return the parameters of the insert statement
+     * @throws NullPointerException if {@code entity} is {@code null}
+     */
+    private Object[] insertParams(@NotNull TaskStatus entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return new Object[]{
+                entity.getUuid(),
+                entity.getLabel()
+        };
+    }
+
+    /**
+     * Returns the parameters of {@link #UPDATE_SQL} for the given {@code TaskStatus}.
+     *
+     * @param entity the {@code TaskStatus} to update; must not be {@code null}
+     * @return the parameters of the update statement
+     * @throws NullPointerException if {@code entity} is {@code null}
+     */
+    private Object[] updateParams(@NotNull TaskStatus entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return new Object[]{
+                entity.getLabel(),
+                entity.getUuid()
+        };
     }
-}
+}
\ No newline at end of file
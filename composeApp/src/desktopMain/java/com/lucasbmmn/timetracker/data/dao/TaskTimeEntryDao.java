@@ -1,22 +1,58 @@
 package com.lucasbmmn.timetracker.data.dao;
 
 import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.data.database.Uuids;
+import com.lucasbmmn.timetracker.model.Project;
+import com.lucasbmmn.timetracker.model.Task;
 import com.lucasbmmn.timetracker.model.TaskTimeEntry;
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.NotNull;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object that provides CRUD (Create, Read, Update, Delete) operations for
  * {@link TaskTimeEntryDao}.
  */
 public class TaskTimeEntryDao implements Dao<TaskTimeEntry> {
+    @Language("SQL")
+    private static final String SELECT_SQL = "SELECT e.id AS e_id, " +
+            "e.duration AS e_duration, e.created_at AS e_created_at, " +
+            "e.task_id AS e_task_id FROM Task_Time_Entries e";
+
+    @Language("SQL")
+    private static final String INSERT_SQL =
+            "INSERT INTO Task_Time_Entries (id, task_id, duration, created_at) " +
+            "VALUES (?, ?, ?, ?)";
+
+    @Language("SQL")
+    private static final String UPDATE_SQL = """
+        UPDATE Task_Time_Entries
+        SET task_id = ?,
+            duration = ?,
+            created_at = ?
+        WHERE id = ?
+        """;
+
+    @Language("SQL")
+    private static final String DELETE_SQL = "DELETE FROM Task_Time_Entries WHERE id=?";
+
+    private static final KeysetPager<TaskTimeEntry> PAGER = KeysetPager.byCreationDate(
+            "Task_Time_Entries", SELECT_SQL, "e", TaskTimeEntry::getCreatedAt,
+            TaskTimeEntry::getUuid);
+    private static final IdBatchLoader<TaskTimeEntry> LOADER = new IdBatchLoader<>(SELECT_SQL,
+            "e.id", TaskTimeEntry::getUuid);
+
+    private static final DaoListeners<TaskTimeEntry> LISTENERS = new DaoListeners<>();
+
     private final DatabaseManager dbManager;
 
     /**
@@ -26,6 +62,26 @@ public class TaskTimeEntryDao implements Dao<TaskTimeEntry> {
         this.dbManager = new DatabaseManager();
     }
 
+    /**
+     * Registers a listener notified of the {@code TaskTimeEntry} written through any
+     * {@code TaskTimeEntryDao}, see {@link DaoListener}.
+     *
+     * @param listener the listener to register; must not be {@code null}
+     * @throws NullPointerException if {@code listener} is {@code null}
+     */
+    public static void addListener(@NotNull DaoListener<TaskTimeEntry> listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * Unregisters a listener registered with {@link #addListener(DaoListener)}.
+     *
+     * @param listener the listener to unregister
+     */
+    public static void removeListener(DaoListener<TaskTimeEntry> listener) {
+        LISTENERS.remove(listener);
+    }
+
     /**
      * Retrieves all {@code TaskTimeEntry} from the data source.
      *
@@ -33,28 +89,132 @@ public class TaskTimeEntryDao implements Dao<TaskTimeEntry> {
      */
     @Override
     public @NotNull List<TaskTimeEntry> getAll() {
-        @Language("SQL")
-        String sql = "SELECT * FROM Task_Time_Entries";
-        return dbManager.executeQuery(sql, this::mapRow);
+        return dbManager.executeQuery(SELECT_SQL, new EntityRowMapper()::taskTimeEntry);
+    }
+
+    /**
+     * Retrieves all {@code TaskTimeEntry} from the data source lazily, see {@link Dao#streamAll()}.
+     *
+     * @return a stream of all {@code TaskTimeEntry}; never {@code null}, must be closed after use
+     */
+    @Override
+    public @NotNull Stream<TaskTimeEntry> streamAll() {
+        return dbManager.streamQuery(SELECT_SQL, new EntityRowMapper()::taskTimeEntry);
+    }
+
+    /**
+     * Retrieves one page of {@code TaskTimeEntry}, newest first, see
+     * {@link Dao#getPage(int, String)}.
+     *
+     * @param pageSize  the maximum number of {@code TaskTimeEntry} of the page; must be positive
+     * @param pageToken the token of the previous page, or {@code null} for the first page
+     * @return the page; never {@code null}
+     * @throws IllegalArgumentException if {@code pageSize} is not positive or {@code pageToken}
+     * is invalid
+     */
+    @Override
+    public @NotNull Page<TaskTimeEntry> getPage(int pageSize, String pageToken) {
+        return PAGER.getPage(dbManager, new EntityRowMapper()::taskTimeEntry, pageSize, pageToken);
+    }
+
+    /**
+     * Returns a fast estimate of the number of {@code TaskTimeEntry} in the data source.
+     *
+     * @return the estimated number of {@code TaskTimeEntry}
+     */
+    @Override
+    public long estimateCount() {
+        return PAGER.estimateCount(dbManager);
+    }
+
+    /**
+     * Retrieves the {@code TaskTimeEntry} created in the given time range, oldest first. The
+     * entries are read lazily from the creation date index.
+     *
+     * @param from the start of the range, inclusive; must not be {@code null}
+     * @param to   the end of the range, exclusive; must not be {@code null}
+     * @return a stream of the matching {@code TaskTimeEntry}; never {@code null}, must be closed
+     * after use
+     * @throws NullPointerException if {@code from} or {@code to} is {@code null}
+     * @throws IllegalArgumentException if {@code to} is before {@code from}
+     */
+    public @NotNull Stream<TaskTimeEntry> findBetween(@NotNull Instant from, @NotNull Instant to) {
+        return this.findBetween(from, to, null, null);
+    }
+
+    /**
+     * Retrieves the {@code TaskTimeEntry} of a task created in the given time range, oldest
+     * first.
+     *
+     * @param from the start of the range, inclusive; must not be {@code null}
+     * @param to   the end of the range, exclusive; must not be {@code null}
+     * @param task the task of the entries; must not be {@code null}
+     * @return a stream of the matching {@code TaskTimeEntry}; never {@code null}, must be closed
+     * after use
+     * @throws NullPointerException if {@code from}, {@code to} or {@code task} is {@code null}
+     * @throws IllegalArgumentException if {@code to} is before {@code from}
+     */
+    public @NotNull Stream<TaskTimeEntry> findBetween(@NotNull Instant from, @NotNull Instant to,
+                                                      @NotNull Task task) {
+        Objects.requireNonNull(task, "task must not be null");
+        return this.findBetween(from, to, null, task);
+    }
+
+    /**
+     * Retrieves the {@code TaskTimeEntry} of the tasks of a project created in the given time
+     * range, oldest first.
+     *
+     * @param from    the start of the range, inclusive; must not be {@code null}
+     * @param to      the end of the range, exclusive; must not be {@code null}
+     * @param project the project of the tasks of the entries; must not be {@code null}
+     * @return a stream of the matching {@code TaskTimeEntry}; never {@code null}, must be closed
+     * after use
+     * @throws NullPointerException if {@code from}, {@code to} or {@code project} is
+     * {@code null}
+     * @throws IllegalArgumentException if {@code to} is before {@code from}
+     */
+    public @NotNull Stream<TaskTimeEntry> findBetween(@NotNull Instant from, @NotNull Instant to,
+                                                      @NotNull Project project) {
+        Objects.requireNonNull(project, "project must not be null");
+        return this.findBetween(from, to, project, null);
+    }
+
+    private Stream<TaskTimeEntry> findBetween(Instant from, Instant to, Project project,
+                                              Task task) {
+        Objects.requireNonNull(from, "from must not be null");
+        Objects.requireNonNull(to, "to must not be null");
+        if (to.isBefore(from))
+            throw new IllegalArgumentException("The end of the range must not be before its " +
+                    "start: " + from + " > " + to);
+
+        StringBuilder sql = new StringBuilder(SELECT_SQL)
+                .append(" WHERE e.created_at >= ? AND e.created_at < ?");
+        List<Object> params = new ArrayList<>(List.of(from.toEpochMilli(), to.toEpochMilli()));
+        if (task != null) {
+            sql.append(" AND e.task_id = ?");
+            params.add(task.getUuid());
+        }
+        if (project != null) {
+            sql.append(" AND e.task_id IN (SELECT id FROM Tasks WHERE project_id = ?)");
+            params.add(project.getUuid());
+        }
+        sql.append(" ORDER BY e.created_at, e.id");
+
+        return dbManager.streamQuery(sql.toString(), new EntityRowMapper()::taskTimeEntry,
+                params.toArray());
     }
 
     /**
      * Retrieves an {@code TaskTimeEntry} by its unique identifier represented as a String.
      *
      * @param uuid the unique identifier of the {@code TaskTimeEntry}
-     * @return the {@code TaskTimeEntry} matching the given UUID, or {@code null} if none found
+     * @return the {@code TaskTimeEntry} matching the given UUID, or {@code null} if none found or
+     * {@code uuid} is not a valid UUID
      */
     @Override
     public TaskTimeEntry getById(String uuid) {
         TaskTimeEntry res = null;
-
-        if (uuid != null) {
-            @Language("SQL")
-            String sql = "SELECT * FROM Task_Time_Entries WHERE id=?";
-            List<TaskTimeEntry> taskTimeEntries = dbManager.executeQuery(sql, this::mapRow, uuid);
-
-            if (!taskTimeEntries.isEmpty()) res = taskTimeEntries.getFirst();
-        }
+        if (uuid != null) res = this.getById(Uuids.parseOrNull(uuid));
         return res;
     }
 
@@ -67,10 +227,32 @@ public class TaskTimeEntryDao implements Dao<TaskTimeEntry> {
     @Override
     public TaskTimeEntry getById(UUID uuid) {
         TaskTimeEntry res = null;
-        if (uuid != null) res = this.getById(uuid.toString());
+
+        if (uuid != null) {
+            @Language("SQL")
+            String sql = SELECT_SQL + " WHERE e.id=?";
+            List<TaskTimeEntry> taskTimeEntries = dbManager.executeQuery(sql,
+                    new EntityRowMapper()::taskTimeEntry, uuid);
+
+            if (!taskTimeEntries.isEmpty()) res = taskTimeEntries.getFirst();
+        }
         return res;
     }
 
+    /**
+     * Retrieves the {@code TaskTimeEntry} with the given unique identifiers, see
+     * {@link Dao#getByIds(Collection)}.
+     *
+     * @param uuids the unique identifiers of the {@code TaskTimeEntry}; must not be {@code null}
+     * @return the {@code TaskTimeEntry} found by id, in the order of the given ids; never
+     * {@code null}
+     * @throws NullPointerException if {@code uuids} is {@code null}
+     */
+    @Override
+    public @NotNull Map<UUID, TaskTimeEntry> getByIds(@NotNull Collection<UUID> uuids) {
+        return LOADER.load(dbManager, new EntityRowMapper()::taskTimeEntry, uuids);
+    }
+
     /**
      * Inserts a new {@code TaskTimeEntry} into the data source.
      *
@@ -81,18 +263,12 @@ public class TaskTimeEntryDao implements Dao<TaskTimeEntry> {
     public void insert(@NotNull TaskTimeEntry entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        this.insertTask(entity);
-
-        @Language("SQL")
-        String sql = "INSERT INTO Task_Time_Entries (id, task_id, duration, created_at) " +
-                "VALUES (?, ?, ?, ?)";
-        dbManager.executeUpdate(
-                sql,
-                entity.getUuid(),
-                entity.getTask().getUuid(),
-                entity.getDuration().getSeconds(),
-                entity.getCreatedAt().getTime()
-        );
+        dbManager.runInTransaction(() -> {
+            this.insertTask(List.of(entity));
+            dbManager.executeUpdate(INSERT_SQL, this.insertParams(entity));
+        });
+        DaoSession.attach(TaskTimeEntry.class, entity.getUuid(), entity);
+        LISTENERS.fireInserted(dbManager, List.of(entity));
     }
 
     /**
@@ -105,9 +281,9 @@ public class TaskTimeEntryDao implements Dao<TaskTimeEntry> {
     public void delete(@NotNull TaskTimeEntry entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        @Language("SQL")
-        String sql = "DELETE FROM Task_Time_Entries WHERE id=?";
-        dbManager.executeUpdate(sql, entity.getUuid());
+        dbManager.executeUpdate(DELETE_SQL, entity.getUuid());
+        DaoSession.detach(TaskTimeEntry.class, entity.getUuid());
+        LISTENERS.fireDeleted(dbManager, List.of(entity));
     }
 
     /**
@@ -120,63 +296,127 @@ public class TaskTimeEntryDao implements Dao<TaskTimeEntry> {
     public void update(@NotNull TaskTimeEntry entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        this.insertTask(entity);
-
-        @Language("SQL")
-        String sql = """
-            UPDATE Task_Time_Entries
-            SET task_id = ?,
-                duration = ?,
-                created_at = ?
-            WHERE id = ?
-            """;
-        dbManager.executeUpdate(
-                sql,
-                entity.getTask().getUuid(),
-                entity.getDuration().getSeconds(),
-                entity.getCreatedAt().getTime(),
-                entity.getUuid()
-        );
+        dbManager.runInTransaction(() -> {
+            this.insertTask(List.of(entity));
+            dbManager.executeUpdate(UPDATE_SQL, this.updateParams(entity));
+        });
+        DaoSession.attach(TaskTimeEntry.class, entity.getUuid(), entity);
+        LISTENERS.fireUpdated(dbManager, List.of(entity));
     }
 
     /**
-     * Maps the current row of the given {@link ResultSet} to a {@link TaskTimeEntryDao} object.
+     * Inserts new {@code TaskTimeEntry} into the data source in a single transaction.
      *
-     * <p>This method reads the relevant columns from the {@code ResultSet} and constructs
-     * a new {@code TaskTimeEntryDao} instance with the retrieved data.</p>
+     * @param entities the {@code TaskTimeEntry} to insert; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void insertAll(@NotNull Collection<TaskTimeEntry> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.runInTransaction(() -> {
+            this.insertTask(entities);
+            dbManager.executeBatch(INSERT_SQL, entities.stream().map(this::insertParams).toList());
+        });
+        for (TaskTimeEntry entity : entities)
+            DaoSession.attach(TaskTimeEntry.class, entity.getUuid(), entity);
+        LISTENERS.fireInserted(dbManager, entities);
+    }
+
+    /**
+     * Deletes existing {@code TaskTimeEntry} from the data source in a single transaction.
      *
-     * @param rs the {@code ResultSet} positioned at the current row; must not be {@code null}
-     * @return a {@code TaskTimeEntryDao} object populated with data from the current row of the result set
-     * @throws RuntimeException if a {@link SQLException} occurs while accessing the result set
+     * @param entities the {@code TaskTimeEntry} to delete; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
      */
-    private TaskTimeEntry mapRow(ResultSet rs) {
-        TaskDao taskDao = new TaskDao();
-        try {
-            return new TaskTimeEntry(
-                    UUID.fromString(rs.getString("id")),
-                    taskDao.getById(rs.getString("task_id")),
-                    Duration.ofSeconds(rs.getLong("duration")),
-                    rs.getDate("created_at")
-            );
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+    @Override
+    public void deleteAll(@NotNull Collection<TaskTimeEntry> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.executeBatch(DELETE_SQL, entities.stream()
+                .map(entity -> new Object[]{
+                        Objects.requireNonNull(entity, "entity must not be null").getUuid()
+                })
+                .toList());
+        for (TaskTimeEntry entity : entities)
+            DaoSession.detach(TaskTimeEntry.class, entity.getUuid());
+        LISTENERS.fireDeleted(dbManager, entities);
     }
 
     /**
-     * Inserts TaskTimeEntry's task into the database
+     * Updates existing {@code TaskTimeEntry} in the data source in a single transaction.
      *
-     * @param taskTimeEntry TaskTimeEntry whose task we want to insert into the database, must not
-     *                     be null
-     * @throws NullPointerException if the TaskTimeEntry is null
+     * @param entities the {@code TaskTimeEntry} to update; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
      */
-    private void insertTask(@NotNull TaskTimeEntry taskTimeEntry) {
-        Objects.requireNonNull(taskTimeEntry, "taskTimeEntry must not be null");
+    @Override
+    public void updateAll(@NotNull Collection<TaskTimeEntry> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.runInTransaction(() -> {
+            this.insertTask(entities);
+            dbManager.executeBatch(UPDATE_SQL, entities.stream().map(this::updateParams).toList());
+        });
+        for (TaskTimeEntry entity : entities)
+            DaoSession.attach(TaskTimeEntry.class, entity.getUuid(), entity);
+        LISTENERS.fireUpdated(dbManager, entities);
+    }
+
+
+    /**
+     * Returns the parameters of {@link #INSERT_SQL} for the given {@code TaskTimeEntry}.
+     *
+     * @param entity the {@code TaskTimeEntry} to insert; must not be {@code null}
+     * @return the parameters of the insert statement
+     * @throws NullPointerException if {@code entity} is {@code null}
+     */
+    private Object[] insertParams(@NotNull TaskTimeEntry entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return new Object[]{
+                entity.getUuid(),
+                entity.getTaskId(),
+                entity.getDuration().getSeconds(),
+                entity.getCreatedAt().getTime()
+        };
+    }
 
-        TaskDao taskDao = new TaskDao();
-        // TaskDao.getById returns null if the task is not in the database
-        if (taskDao.getById(taskTimeEntry.getTask().getUuid()) == null) {
-            taskDao.insert(taskTimeEntry.getTask());
+    /**
+     * Returns the parameters of {@link #UPDATE_SQL} for the given {@code TaskTimeEntry}.
+     *
+     * @param entity the {@code TaskTimeEntry} to update; must not be {@code null}
+     * @return the parameters of the update statement
+     * @throws NullPointerException if {@code entity} is {@code null}
+     */
+    private Object[] updateParams(@NotNull TaskTimeEntry entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return new Object[]{
+                entity.getTaskId(),
+                entity.getDuration().getSeconds(),
+                entity.getCreatedAt().getTime(),
+                entity.getUuid()
+        };
+    }
+
+    /**
+     * Inserts the tasks of the given TaskTimeEntry that are not in the database yet, with one
+     * batch per table.
+     *
+     * @param taskTimeEntries TaskTimeEntry whose task we want to insert into the database, must
+     *                        not be null nor contain null
+     * @throws NullPointerException if the collection or one of the TaskTimeEntry is null
+     */
+    private void insertTask(@NotNull Collection<TaskTimeEntry> taskTimeEntries) {
+        Map<UUID, Task> tasks = new LinkedHashMap<>();
+        for (TaskTimeEntry taskTimeEntry : taskTimeEntries) {
+            Objects.requireNonNull(taskTimeEntry, "taskTimeEntry must not be null");
+            // A task that is not loaded was read from the database, so it already exists
+            if (taskTimeEntry.getTaskRef().isResolved())
+                tasks.putIfAbsent(taskTimeEntry.getTaskId(), taskTimeEntry.getTask());
         }
+
+        new TaskDao().insertIfAbsent(tasks.values());
     }
 }
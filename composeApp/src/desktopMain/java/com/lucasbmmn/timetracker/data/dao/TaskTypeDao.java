@@ -1,22 +1,49 @@
 package com.lucasbmmn.timetracker.data.dao;
 
 import com.lucasbmmn.timetracker.data.database.DatabaseManager;
-import com.lucasbmmn.timetracker.model.TaskStatus;
+import com.lucasbmmn.timetracker.data.database.Uuids;
 import com.lucasbmmn.timetracker.model.TaskType;
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.NotNull;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object that provides CRUD (Create, Read, Update, Delete) operations for
  * {@link TaskTypeDao}.
  */
 public class TaskTypeDao implements Dao<TaskType> {
+    @Language("SQL")
+    private static final String SELECT_SQL = "SELECT " + EntityRowMapper.TYPE_COLUMNS +
+            " FROM Task_Types ty";
+
+    @Language("SQL")
+    private static final String INSERT_SQL = "INSERT INTO Task_Types (id, label) " +
+            "VALUES (?, ?)";
+
+    @Language("SQL")
+    private static final String INSERT_IF_ABSENT_SQL = INSERT_SQL + " ON CONFLICT(id) DO NOTHING";
+
+    @Language("SQL")
+    private static final String UPDATE_SQL = """
+        UPDATE Task_Types
+        SET label = ?
+        WHERE id = ?
+        """;
+
+    @Language("SQL")
+    private static final String DELETE_SQL = "DELETE FROM Task_Types WHERE id=?";
+
+    private static final KeysetPager<TaskType> PAGER = KeysetPager.byId(
+            "Task_Types", SELECT_SQL, "ty", TaskType::getUuid);
+
     private final DatabaseManager dbManager;
 
     /**
@@ -27,48 +54,93 @@ public class TaskTypeDao implements Dao<TaskType> {
     }
 
     /**
-     * Retrieves all {@code TaskType} from the data source.
+     * Retrieves all {@code TaskType} from the {@link ReferenceData} cache.
      *
      * @return a list of all {@code TaskType}; never {@code null}, may be empty
      */
     @Override
     public @NotNull List<TaskType> getAll() {
-        @Language("SQL")
-        String sql = "SELECT * FROM Task_Types";
-        return dbManager.executeQuery(sql, this::mapRow);
+        return ReferenceData.types();
+    }
+
+    /**
+     * Retrieves all {@code TaskType} from the data source lazily, see {@link Dao#streamAll()}.
+     *
+     * @return a stream of all {@code TaskType}; never {@code null}, must be closed after use
+     */
+    @Override
+    public @NotNull Stream<TaskType> streamAll() {
+        return dbManager.streamQuery(SELECT_SQL, new EntityRowMapper()::type);
+    }
+
+    /**
+     * Retrieves one page of {@code TaskType}, ordered by id, see {@link Dao#getPage(int, String)}.
+     *
+     * @param pageSize  the maximum number of {@code TaskType} of the page; must be positive
+     * @param pageToken the token of the previous page, or {@code null} for the first page
+     * @return the page; never {@code null}
+     * @throws IllegalArgumentException if {@code pageSize} is not positive or {@code pageToken}
+     * is invalid
+     */
+    @Override
+    public @NotNull Page<TaskType> getPage(int pageSize, String pageToken) {
+        return PAGER.getPage(dbManager, new EntityRowMapper()::type, pageSize, pageToken);
+    }
+
+    /**
+     * Returns a fast estimate of the number of {@code TaskType} in the data source.
+     *
+     * @return the estimated number of {@code TaskType}
+     */
+    @Override
+    public long estimateCount() {
+        return PAGER.estimateCount(dbManager);
     }
 
     /**
      * Retrieves an {@code TaskType} by its unique identifier represented as a String.
      *
      * @param uuid the unique identifier of the {@code TaskType}
-     * @return the {@code TaskType} matching the given UUID, or {@code null} if none found
+     * @return the {@code TaskType} matching the given UUID, or {@code null} if none found or
+     * {@code uuid} is not a valid UUID
      */
     @Override
     public TaskType getById(String uuid) {
         TaskType res = null;
-
-        if (uuid != null){
-            @Language("SQL")
-            String sql = "SELECT * FROM Task_Types WHERE id=?";
-            List<TaskType> taskTypes = this.dbManager.executeQuery(sql, this::mapRow, uuid);
-
-            if (!taskTypes.isEmpty()) res = taskTypes.getFirst();
-        }
+        if (uuid != null) res = this.getById(Uuids.parseOrNull(uuid));
         return res;
     }
 
     /**
-     * Retrieves an {@code TaskType} by its unique identifier represented as a {@link UUID}.
+     * Retrieves an {@code TaskType} by its unique identifier represented as a {@link UUID}, from
+     * the {@link ReferenceData} cache.
      *
      * @param uuid the unique identifier of the {@code TaskType}
      * @return the {@code TaskType} matching the given UUID, or {@code null} if none found
      */
     @Override
     public TaskType getById(UUID uuid) {
-        TaskType res = null;
-        if (uuid != null) res = this.getById(uuid.toString());
-        return res;
+        return ReferenceData.type(uuid);
+    }
+
+    /**
+     * Retrieves the {@code TaskType} with the given unique identifiers, see
+     * {@link Dao#getByIds(Collection)}.
+     *
+     * @param uuids the unique identifiers of the {@code TaskType}; must not be {@code null}
+     * @return the {@code TaskType} found by id, in the order of the given ids; never {@code null}
+     * @throws NullPointerException if {@code uuids} is {@code null}
+     */
+    @Override
+    public @NotNull Map<UUID, TaskType> getByIds(@NotNull Collection<UUID> uuids) {
+        Objects.requireNonNull(uuids, "uuids must not be null");
+
+        Map<UUID, TaskType> entities = new LinkedHashMap<>();
+        for (UUID uuid : uuids) {
+            TaskType entity = ReferenceData.type(uuid);
+            if (entity != null) entities.put(uuid, entity);
+        }
+        return entities;
     }
 
     /**
@@ -81,14 +153,9 @@ public class TaskTypeDao implements Dao<TaskType> {
     public void insert(@NotNull TaskType entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        @Language("SQL")
-        String sql = "INSERT INTO Task_Types (id, label) " +
-                "VALUES (?, ?)";
-        dbManager.executeUpdate(
-                sql,
-                entity.getUuid(),
-                entity.getLabel()
-        );
+        dbManager.executeUpdate(INSERT_SQL, this.insertParams(entity));
+        ReferenceData.invalidate(dbManager);
+        DaoSession.attach(TaskType.class, entity.getUuid(), entity);
     }
 
     /**
@@ -101,9 +168,9 @@ public class TaskTypeDao implements Dao<TaskType> {
     public void delete(@NotNull TaskType entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        @Language("SQL")
-        String sql = "DELETE FROM Task_Types WHERE id=?";
-        dbManager.executeUpdate(sql, entity.getUuid());
+        dbManager.executeUpdate(DELETE_SQL, entity.getUuid());
+        ReferenceData.invalidate(dbManager);
+        DaoSession.detach(TaskType.class, entity.getUuid());
     }
 
     /**
@@ -116,37 +183,122 @@ public class TaskTypeDao implements Dao<TaskType> {
     public void update(@NotNull TaskType entity) {
         Objects.requireNonNull(entity, "entity must not be null");
 
-        @Language("SQL")
-        String sql = """
-            UPDATE Task_Types
-            SET label = ?
-            WHERE id = ?
-            """;
-        dbManager.executeUpdate(
-                sql,
-                entity.getLabel(),
-                entity.getUuid()
-        );
+        dbManager.executeUpdate(UPDATE_SQL, this.updateParams(entity));
+        ReferenceData.invalidate(dbManager);
+        DaoSession.attach(TaskType.class, entity.getUuid(), entity);
+    }
+
+    /**
+     * Inserts new {@code TaskType} into the data source in a single transaction.
+     *
+     * @param entities the {@code TaskType} to insert; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void insertAll(@NotNull Collection<TaskType> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.executeBatch(INSERT_SQL, entities.stream().map(this::insertParams).toList());
+        ReferenceData.invalidate(dbManager);
+        for (TaskType entity : entities)
+            DaoSession.attach(TaskType.class, entity.getUuid(), entity);
+    }
+
+    /**
+     * Deletes existing {@code TaskType} from the data source in a single transaction.
+     *
+     * @param entities the {@code TaskType} to delete; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void deleteAll(@NotNull Collection<TaskType> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.executeBatch(DELETE_SQL, entities.stream()
+                .map(entity -> new Object[]{
+                        Objects.requireNonNull(entity, "entity must not be null").getUuid()
+                })
+                .toList());
+        ReferenceData.invalidate(dbManager);
+        for (TaskType entity : entities) DaoSession.detach(TaskType.class, entity.getUuid());
     }
 
     /**
-     * Maps the current row of the given {@link ResultSet} to a {@link TaskTypeDao} object.
+     * Updates existing {@code TaskType} in the data source in a single transaction.
      *
-     * <p>This method reads the relevant columns from the {@code ResultSet} and constructs
-     * a new {@code TaskTypeDao} instance with the retrieved data.</p>
+     * @param entities the {@code TaskType} to update; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
+     */
+    @Override
+    public void updateAll(@NotNull Collection<TaskType> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        dbManager.executeBatch(UPDATE_SQL, entities.stream().map(this::updateParams).toList());
+        ReferenceData.invalidate(dbManager);
+        for (TaskType entity : entities)
+            DaoSession.attach(TaskType.class, entity.getUuid(), entity);
+    }
+
+    /**
+     * Inserts the given {@code TaskType} that are not in the data source yet and leaves the
+     * existing ones untouched, without reading them first. Used to save the
+     * parents of other entities.
      *
-     * @param rs the {@code ResultSet} positioned at the current row; must not be {@code null}
-     * @return a {@code TaskTypeDao} object populated with data from the current row of the result set
-     * @throws RuntimeException if a {@link SQLException} occurs while accessing the result set
+     * @param entities the {@code TaskType} to insert; must not be {@code null} nor contain
+     *                 {@code null}
+     * @throws NullPointerException if {@code entities} or one of its elements is {@code null}
      */
-    private TaskType mapRow(ResultSet rs) {
-        try {
-            return new TaskType(
-                    UUID.fromString(rs.getString("id")),
-                    rs.getString("label")
-            );
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+    void insertIfAbsent(@NotNull Collection<TaskType> entities) {
+        Objects.requireNonNull(entities, "entities must not be null");
+
+        int[] counts = dbManager.executeBatch(INSERT_IF_ABSENT_SQL,
+                entities.stream().map(this::insertParams).toList());
+        // Usually all present already, the cache is still valid then
+        if (Arrays.stream(counts).anyMatch(count -> count != 0))
+            ReferenceData.invalidate(dbManager);
+    }
+
+    /**
+     * Reads every {@code TaskType} from the data source, without going through the cache nor the
+     * current {@link DaoSession}, to fill the {@link ReferenceData} cache.
+     *
+     * @return every {@code TaskType}, in the order of the table; never {@code null}
+     */
+    List<TaskType> load() {
+        return dbManager.executeQuery(SELECT_SQL, rs -> new TaskType(Uuids.read(rs, "ty_id"),
+                rs.getString("ty_label")));
+    }
+
+    /**
+     * Returns the parameters of {@link #INSERT_SQL} for the given {@code TaskType}.
+     *
+     * @param entity the {@code TaskType} to insert; must not be {@code null}
+     * @return the parameters of the insert statement
+     * @throws NullPointerException if {@code entity} is {@code null}
+     */
+    private Object[] insertParams(@NotNull TaskType entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return new Object[]{
+                entity.getUuid(),
+                entity.getLabel()
+        };
+    }
+
+    /**
+     * Returns the parameters of {@link #UPDATE_SQL} for the given {@code TaskType}.
+     *
+     * @param entity the {@code TaskType} to update; must not be {@code null}
+     * @return the parameters of the update statement
+     * @throws NullPointerException if {@code entity} is {@code null}
+     */
+    private Object[] updateParams(@NotNull TaskType entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return new Object[]{
+                entity.getLabel(),
+                entity.getUuid()
+        };
     }
-}
+}
\ No newline at end of file
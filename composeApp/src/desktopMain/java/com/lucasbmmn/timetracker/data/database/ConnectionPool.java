@@ -0,0 +1,323 @@
+package com.lucasbmmn.timetracker.data.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool of long-lived SQLite connections made of a single writer connection and a fixed number
+ * of reader connections.
+ *
+ * <p>SQLite only allows one writer at a time, so every write goes through the writer
+ * connection, guarded by a reentrant lock. Reads are spread over the reader connections, which
+ * are opened lazily. A thread that already holds a reader gets the same connection back when it
+ * asks for another one (nested queries issued by row mappers), and a thread that holds the
+ * writer reads through the writer so it sees its own uncommitted changes.</p>
+ *
+ * <p>Each connection owns a {@link StatementCache}, so the small fixed set of SQL statements
+ * used by the DAOs is only compiled once per connection, and is configured with a
+ * {@link DatabaseProfile} when it is opened.</p>
+ */
+public class ConnectionPool implements AutoCloseable {
+    /**
+     * Number of reader connections used when none is specified.
+     */
+    public static final int DEFAULT_READER_COUNT = 4;
+
+    private static final long ACQUIRE_TIMEOUT_SECONDS = 30;
+
+    private final String url;
+    private final int readerCount;
+    private final int statementCacheCapacity;
+    private final DatabaseProfile profile;
+    private final Map<Connection, StatementCache> statementCaches;
+    private final BlockingDeque<Connection> idleReaders;
+    private final List<Connection> openedReaders;
+    private final ThreadLocal<ReaderLease> currentReader;
+    private final ReentrantLock writerLock;
+    private Connection writer;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new {@code ConnectionPool} object. No connection is opened until it is
+     * first needed.
+     *
+     * @param url         the JDBC url of the database, must not be null
+     * @param readerCount the maximum number of reader connections, must be positive
+     * @throws NullPointerException if the url is null
+     * @throws IllegalArgumentException if the reader count is not positive
+     */
+    public ConnectionPool(@NotNull String url, int readerCount) {
+        this(url, readerCount, StatementCache.DEFAULT_CAPACITY, DatabaseProfile.BALANCED);
+    }
+
+    /**
+     * Constructs a new {@code ConnectionPool} object. No connection is opened until it is
+     * first needed.
+     *
+     * @param url                    the JDBC url of the database, must not be null
+     * @param readerCount            the maximum number of reader connections, must be positive
+     * @param statementCacheCapacity the number of prepared statements cached per connection,
+     *                               must be positive
+     * @param profile                the settings applied to each connection, must not be null
+     * @throws NullPointerException if the url or the profile is null
+     * @throws IllegalArgumentException if the reader count or the cache capacity is not positive
+     */
+    public ConnectionPool(@NotNull String url, int readerCount, int statementCacheCapacity,
+                          @NotNull DatabaseProfile profile) {
+        Objects.requireNonNull(url, "url must not be null");
+        Objects.requireNonNull(profile, "profile must not be null");
+        if (readerCount < 1)
+            throw new IllegalArgumentException("The reader count must be greater than 0: " +
+                    readerCount);
+        if (statementCacheCapacity < 1)
+            throw new IllegalArgumentException("The statement cache capacity must be greater " +
+                    "than 0: " + statementCacheCapacity);
+        this.url = url;
+        this.readerCount = readerCount;
+        this.statementCacheCapacity = statementCacheCapacity;
+        this.profile = profile;
+        this.statementCaches = new ConcurrentHashMap<>();
+        this.idleReaders = new LinkedBlockingDeque<>(readerCount);
+        this.openedReaders = new ArrayList<>(readerCount);
+        this.currentReader = new ThreadLocal<>();
+        this.writerLock = new ReentrantLock();
+    }
+
+    /**
+     * Returns the maximum number of reader connections of this pool.
+     *
+     * @return the maximum number of reader connections
+     */
+    public int getReaderCount() {
+        return readerCount;
+    }
+
+    /**
+     * Returns the settings applied to the connections of this pool.
+     *
+     * @return the profile of this pool
+     */
+    public @NotNull DatabaseProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Returns the statement cache attached to a connection of this pool.
+     *
+     * @param connection a connection obtained from this pool, must not be null
+     * @return the statement cache of the connection
+     * @throws IllegalArgumentException if the connection does not belong to this pool
+     */
+    public @NotNull StatementCache getStatementCache(@NotNull Connection connection) {
+        StatementCache cache = this.statementCaches.get(connection);
+        if (cache == null)
+            throw new IllegalArgumentException("The connection does not belong to this pool");
+        return cache;
+    }
+
+    /**
+     * Returns the hit and miss counters summed over the statement caches of every open
+     * connection.
+     *
+     * @return the statement cache statistics of this pool
+     */
+    public @NotNull StatementCacheStats getStatementCacheStats() {
+        long hits = 0;
+        long misses = 0;
+        for (StatementCache cache : this.statementCaches.values()) {
+            hits += cache.getHits();
+            misses += cache.getMisses();
+        }
+        return new StatementCacheStats(hits, misses);
+    }
+
+    /**
+     * Borrows a connection to read from the database. The connection must be given back with
+     * {@link #releaseReader(Connection)} on the same thread.
+     *
+     * @return a connection to read from
+     * @throws SQLException if a connection cannot be opened or none becomes available in time
+     */
+    public @NotNull Connection acquireReader() throws SQLException {
+        this.ensureOpen();
+        if (this.writerLock.isHeldByCurrentThread()) return this.writer;
+
+        ReaderLease lease = this.currentReader.get();
+        if (lease == null) {
+            lease = new ReaderLease(this.takeReader());
+            this.currentReader.set(lease);
+        }
+        lease.depth++;
+        return lease.connection;
+    }
+
+    /**
+     * Gives back a connection obtained from {@link #acquireReader()}.
+     *
+     * @param connection the connection to give back
+     */
+    public void releaseReader(Connection connection) {
+        if (connection == null || connection == this.writer) return;
+
+        ReaderLease lease = this.currentReader.get();
+        if (lease != null && lease.connection == connection && --lease.depth == 0) {
+            this.currentReader.remove();
+            if (this.closed) this.closeQuietly(connection);
+            else this.idleReaders.offerFirst(connection);
+        }
+    }
+
+    /**
+     * Locks and returns the writer connection. The lock is reentrant and must be released with
+     * {@link #releaseWriter()} on the same thread.
+     *
+     * @return the writer connection
+     * @throws SQLException if the writer connection cannot be opened
+     */
+    public @NotNull Connection acquireWriter() throws SQLException {
+        this.ensureOpen();
+        this.writerLock.lock();
+        try {
+            if (this.writer == null) this.writer = this.open();
+            return this.writer;
+        } catch (SQLException | RuntimeException e) {
+            this.writerLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Locks and returns the writer connection if no thread holds it, without waiting. It must
+     * then be released with {@link #releaseWriter()}.
+     *
+     * @return the writer connection, or {@code null} if it is held by a thread, the current one
+     * included
+     * @throws SQLException if the writer connection cannot be opened
+     */
+    public Connection tryAcquireWriter() throws SQLException {
+        this.ensureOpen();
+        if (this.writerLock.isHeldByCurrentThread() || !this.writerLock.tryLock()) return null;
+        try {
+            if (this.writer == null) this.writer = this.open();
+            return this.writer;
+        } catch (SQLException | RuntimeException e) {
+            this.writerLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns whether the current thread holds the writer connection.
+     *
+     * @return true if the writer connection is locked by the current thread
+     */
+    public boolean isWriterHeldByCurrentThread() {
+        return this.writerLock.isHeldByCurrentThread();
+    }
+
+    /**
+     * Releases the writer connection locked by {@link #acquireWriter()} or
+     * {@link #tryAcquireWriter()}.
+     */
+    public void releaseWriter() {
+        this.writerLock.unlock();
+    }
+
+    /**
+     * Closes every connection of the pool. Readers currently borrowed are closed when they are
+     * given back.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+
+        synchronized (this.openedReaders) {
+            Connection reader;
+            while ((reader = this.idleReaders.poll()) != null) this.closeQuietly(reader);
+        }
+
+        this.writerLock.lock();
+        try {
+            if (this.writer != null) this.closeQuietly(this.writer);
+            this.writer = null;
+        } finally {
+            this.writerLock.unlock();
+        }
+    }
+
+    private Connection takeReader() throws SQLException {
+        // Most recently used reader first, its statement cache is the warmest
+        Connection reader = this.idleReaders.pollFirst();
+        if (reader != null) return reader;
+
+        synchronized (this.openedReaders) {
+            if (this.openedReaders.size() < this.readerCount) {
+                reader = this.open();
+                this.openedReaders.add(reader);
+                return reader;
+            }
+        }
+
+        try {
+            reader = this.idleReaders.pollFirst(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        if (reader == null)
+            throw new SQLException("No database connection available after " +
+                    ACQUIRE_TIMEOUT_SECONDS + " seconds");
+        return reader;
+    }
+
+    private Connection open() throws SQLException {
+        Connection connection = DriverManager.getConnection(this.url);
+        try {
+            this.profile.apply(connection);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        this.statementCaches.put(connection,
+                new StatementCache(connection, this.statementCacheCapacity));
+        return connection;
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (this.closed) throw new SQLException("The connection pool is closed");
+    }
+
+    private void closeQuietly(Connection connection) {
+        StatementCache cache = this.statementCaches.remove(connection);
+        if (cache != null) cache.clear();
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // The connection is discarded anyway
+        }
+    }
+
+    /**
+     * Reader connection borrowed by a thread, with the number of nested acquisitions.
+     */
+    private static final class ReaderLease {
+        private final Connection connection;
+        private int depth;
+
+        private ReaderLease(Connection connection) {
+            this.connection = connection;
+        }
+    }
+}
@@ -1,18 +1,158 @@
 package com.lucasbmmn.timetracker.data.database;
 
 import com.lucasbmmn.timetracker.util.AppDataManager;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.sql.*;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class DatabaseManager {
     public static final String PATH = AppDataManager.getAppDataPath() + File.separator +
             "TimeTracker.db";
     public static final String URL = "jdbc:sqlite:" + PATH;
 
+    private static final int BATCH_CHUNK_SIZE = 1000;
+    private static final int STREAM_FETCH_SIZE = 500;
+    /** How long the query cache trusts the last {@code PRAGMA data_version} it read. */
+    static final Duration DATA_VERSION_INTERVAL = Duration.ofMillis(50);
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseManager.class);
+    /** Callbacks waiting for the commit of the transaction open by each thread. */
+    private static final ThreadLocal<List<Runnable>> AFTER_COMMIT = new ThreadLocal<>();
+    /** Bumped when the whole content of the database is replaced, see {@link #getEpoch()}. */
+    private static final AtomicLong EPOCH = new AtomicLong();
+    private static final QueryCache QUERY_CACHE = new QueryCache(QueryCache.DEFAULT_MAX_ROWS);
+    /** When {@code PRAGMA data_version} was last read, in {@link System#nanoTime()}. */
+    private static final AtomicLong DATA_VERSION_READ =
+            new AtomicLong(System.nanoTime() - DATA_VERSION_INTERVAL.toNanos());
+
+    private static int readerCount = ConnectionPool.DEFAULT_READER_COUNT;
+    private static DatabaseProfile profile = DatabaseProfile.BALANCED;
+    private static ConnectionPool pool;
+    private static boolean shutdownHookRegistered = false;
+
+    /**
+     * Sets the number of reader connections kept open by the shared connection pool. The
+     * current pool, if any, is closed and a new one is opened on the next database access.
+     *
+     * @param readers the maximum number of reader connections, must be positive
+     * @throws IllegalArgumentException if the reader count is not positive
+     */
+    public static synchronized void configurePool(int readers) {
+        if (readers < 1)
+            throw new IllegalArgumentException("The reader count must be greater than 0: " +
+                    readers);
+        readerCount = readers;
+        closePool();
+    }
+
+    /**
+     * Sets the settings applied to every database connection. The current pool, if any, is
+     * closed and the new profile is applied to the connections opened on the next database
+     * access.
+     *
+     * @param databaseProfile the profile to use, must not be null
+     * @throws NullPointerException if the profile is null
+     */
+    public static synchronized void configureProfile(@NotNull DatabaseProfile databaseProfile) {
+        Objects.requireNonNull(databaseProfile, "databaseProfile must not be null");
+        profile = databaseProfile;
+        closePool();
+    }
+
+    /**
+     * Returns the settings applied to every database connection.
+     *
+     * @return the current profile
+     */
+    public static synchronized @NotNull DatabaseProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Closes every pooled connection. A new pool is opened on the next database access.
+     */
+    public static synchronized void closePool() {
+        if (pool != null) pool.close();
+        pool = null;
+    }
+
+    /**
+     * Returns the prepared statement cache counters of the shared connection pool.
+     *
+     * @return the statement cache statistics, all zero if the pool is not open
+     */
+    public static synchronized StatementCacheStats getStatementCacheStats() {
+        return pool == null ? new StatementCacheStats(0, 0) : pool.getStatementCacheStats();
+    }
+
+    /**
+     * Returns the counters of the query result cache used by
+     * {@link #executeCachedQuery(String, RowMapper, Object...)}.
+     *
+     * @return the query cache statistics
+     */
+    public static QueryCacheStats getQueryCacheStats() {
+        return QUERY_CACHE.getStats();
+    }
+
+    /**
+     * Drops every result of the query cache, after the database was written without the
+     * {@code DatabaseManager}.
+     */
+    static void invalidateQueryCache() {
+        QUERY_CACHE.invalidateAll();
+    }
+
+    /**
+     * Returns a counter bumped each time the whole content of the database is replaced, by
+     * {@link #resetDatabase()}. Caches of database rows compare it to the value they were
+     * loaded at, since such changes are not made through the DAOs.
+     *
+     * @return the current epoch of the database
+     */
+    public static long getEpoch() {
+        return EPOCH.get();
+    }
+
+    /**
+     * Returns the connection pool shared by every {@code DatabaseManager}, opening it if needed.
+     *
+     * @return the shared connection pool
+     */
+    static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            pool = new ConnectionPool(URL, readerCount, StatementCache.DEFAULT_CAPACITY, profile);
+            if (!shutdownHookRegistered) {
+                // A single hook, as hooks run concurrently: queued writes need the pool
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    WriteQueue.closeDefault();
+                    closePool();
+                }));
+                shutdownHookRegistered = true;
+            }
+        }
+        return pool;
+    }
+
     public boolean databaseExists() {
         boolean doesExist = false;
 
@@ -24,63 +164,422 @@ public class DatabaseManager {
     }
 
     public List<String> listTables() {
-        List<String> tables = new ArrayList<>();
+        List<String> tables = this.executeQuery(
+                "SELECT name FROM sqlite_master WHERE type='table';",
+                rs -> rs.getString("name")
+        );
 
-        try (
-                Connection connection = DriverManager.getConnection(this.URL);
-                Statement statement = connection.createStatement()
-                ) {
-            statement.setQueryTimeout(30);
+        return Collections.unmodifiableList(tables);
+    }
+
+    public void resetDatabase() {
+        try {
+            // Tables are dropped in any order, which foreign keys would prevent
+            this.executeUpdate("PRAGMA foreign_keys = OFF");
+            try {
+                for (String table : this.listTables()) this.executeUpdate("DROP TABLE " + table);
+            } finally {
+                this.executeUpdate("PRAGMA foreign_keys = ON");
+            }
+            this.executeUpdate("PRAGMA user_version = 0");
+            DatabaseSetup dbSetup = new DatabaseSetup();
+            dbSetup.InitializeDatabase();
+        } finally {
+            EPOCH.incrementAndGet();
+        }
+    }
+
+    public <T> List<T> executeQuery(String sql, RowMapper<T> mapper, Object... params) {
+        ConnectionPool connectionPool = getPool();
+        Connection connection = null;
+
+        try {
+            connection = connectionPool.acquireReader();
+            return this.withStatement(connectionPool, connection, sql, statement -> {
+                bind(statement, params);
+                List<T> results = new ArrayList<>();
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) results.add(mapper.mapRow(rs));
+                }
+                return results;
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            connectionPool.releaseReader(connection);
+        }
+    }
 
-            ResultSet rs = statement.executeQuery("SELECT name FROM sqlite_master WHERE type='table';");
+    /**
+     * Executes a query, or returns its result from the query cache if the tables it reads did
+     * not change since it last ran with the same parameters. The tables are those named after
+     * {@code FROM} or {@code JOIN}, see {@link QueryCache}.
+     *
+     * <p>A cached result and its objects are shared by every caller, so they must not be
+     * changed: the rows are to be changed through a write, which makes the result stale. The
+     * same SQL must always be used with the same mapper. The cache is not used, and the query
+     * just runs, while the current thread holds the writer connection, as it may see writes not
+     * committed yet. Writes made by other processes are detected with
+     * {@code PRAGMA data_version}, read at most every {@link #DATA_VERSION_INTERVAL}.</p>
+     *
+     * @param sql    the SQL of the query
+     * @param mapper the mapper applied to each row
+     * @param params the parameters of the query
+     * @return the mapped rows; unmodifiable
+     * @throws RuntimeException if a {@link SQLException} occurs
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> executeCachedQuery(String sql, RowMapper<T> mapper, Object... params) {
+        if (!this.checkDataVersion()) {
+            QUERY_CACHE.bypassed();
+            return Collections.unmodifiableList(this.executeQuery(sql, mapper, params));
+        }
+
+        QueryCache.Key key = new QueryCache.Key(sql, params);
+        List<?> cached = QUERY_CACHE.get(key);
+        if (cached != null) return (List<T>) cached;
 
-            while (rs.next()) {
-                tables.add(rs.getString("name"));
+        QueryCache.Stamp stamp = QUERY_CACHE.stamp(sql);
+        List<T> rows = Collections.unmodifiableList(this.executeQuery(sql, mapper, params));
+        QUERY_CACHE.put(key, stamp, rows);
+        return rows;
+    }
+
+    /**
+     * Executes a query and maps its rows lazily, one at a time, as the returned stream is
+     * consumed. The reader connection and the {@code ResultSet} stay open until the stream is
+     * closed, so it must be used in a try-with-resources block on the thread that created it.
+     *
+     * @param sql    the SQL of the query
+     * @param mapper the mapper applied to each row
+     * @param params the parameters of the query
+     * @return a sequential stream of the mapped rows, to close after use
+     * @throws RuntimeException if a {@link SQLException} occurs, while opening the query or while
+     * reading a row
+     */
+    public <T> Stream<T> streamQuery(String sql, RowMapper<T> mapper, Object... params) {
+        ConnectionPool connectionPool = getPool();
+        Connection connection = null;
+        StatementCache cache = null;
+        PreparedStatement statement = null;
+
+        try {
+            connection = connectionPool.acquireReader();
+            cache = connectionPool.getStatementCache(connection);
+            statement = cache.acquire(sql);
+            bind(statement, params);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            ResultSet rs = statement.executeQuery();
+
+            RowCursor<T> cursor = new RowCursor<>(rs, mapper);
+            Connection streamConnection = connection;
+            StatementCache streamCache = cache;
+            PreparedStatement streamStatement = statement;
+            return StreamSupport.stream(cursor, false).onClose(() -> {
+                try {
+                    rs.close();
+                    if (cursor.failed) streamCache.discard(streamStatement);
+                    else streamCache.release(sql, streamStatement);
+                } catch (SQLException e) {
+                    streamCache.discard(streamStatement);
+                    throw new RuntimeException(e);
+                } finally {
+                    connectionPool.releaseReader(streamConnection);
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            if (statement != null) cache.discard(statement);
+            connectionPool.releaseReader(connection);
+            if (e instanceof SQLException) throw new RuntimeException(e);
+            throw (RuntimeException) e;
+        }
+    }
+
+    /**
+     * Runs the statements of a script from the resources in a single transaction. The script is
+     * read like a migration script, see {@link MigrationRunner}.
+     *
+     * @param resource the path of the script in the resources; must not be {@code null}
+     * @throws NullPointerException if {@code resource} is {@code null}
+     * @throws RuntimeException if the script cannot be read or a {@link SQLException} occurs,
+     * the transaction is then rolled back
+     */
+    public void executeScript(@NotNull String resource) {
+        Objects.requireNonNull(resource, "resource must not be null");
+        List<String> statements = MigrationRunner.splitStatements(
+                MigrationRunner.readScript(DatabaseManager.class.getClassLoader(), resource));
+
+        this.runInTransaction(() -> {
+            for (String sql : statements) this.executeUpdate(sql);
+        });
+    }
+
+    public int executeUpdate(String sql, Object... params) {
+        ConnectionPool connectionPool = getPool();
+
+        try {
+            Connection connection = connectionPool.acquireWriter();
+            try {
+                int count = this.withStatement(connectionPool, connection, sql, statement -> {
+                    bind(statement, params);
+                    return statement.executeUpdate();
+                });
+                this.written(sql, count != 0);
+                return count;
+            } finally {
+                connectionPool.releaseWriter();
             }
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+    }
 
-        return Collections.unmodifiableList(tables);
+    /**
+     * Executes the same statement once per parameter array using JDBC batching, inside a single
+     * transaction. If a transaction is already open on the current thread, the batch joins it.
+     *
+     * @param sql        the SQL of the statement
+     * @param paramsList the parameters of each execution
+     * @return the number of rows changed by each execution
+     * @throws RuntimeException if a {@link SQLException} occurs, the whole batch is then rolled
+     * back
+     */
+    public int[] executeBatch(String sql, List<Object[]> paramsList) {
+        if (paramsList.isEmpty()) return new int[0];
+
+        return this.callInTransaction(() -> {
+            ConnectionPool connectionPool = getPool();
+            int[] counts = new int[paramsList.size()];
+
+            try {
+                Connection connection = connectionPool.acquireWriter();
+                try {
+                    this.withStatement(connectionPool, connection, sql, statement -> {
+                        int executed = 0;
+                        for (Object[] params : paramsList) {
+                            bind(statement, params);
+                            statement.addBatch();
+                            if (++executed % BATCH_CHUNK_SIZE == 0 || executed == counts.length) {
+                                int[] chunk = statement.executeBatch();
+                                System.arraycopy(chunk, 0, counts, executed - chunk.length,
+                                        chunk.length);
+                            }
+                        }
+                        return counts;
+                    });
+                    this.written(sql, Arrays.stream(counts).anyMatch(count -> count != 0));
+                } finally {
+                    connectionPool.releaseWriter();
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+            return counts;
+        });
     }
 
-    public void resetDatabase() {
-        for (String table : this.listTables()) this.executeUpdate("DROP TABLE " + table);
-        DatabaseSetup dbSetup = new DatabaseSetup();
-        dbSetup.InitializeDatabase();
+    /**
+     * Runs the given work inside a transaction on the writer connection. Every statement
+     * executed by the current thread during the work is part of the transaction, which is
+     * committed when the work returns and rolled back if it throws. If a transaction is already
+     * open on the current thread, the work joins it.
+     *
+     * @param work the work to run
+     * @throws RuntimeException if a {@link SQLException} occurs
+     */
+    public void runInTransaction(Runnable work) {
+        this.callInTransaction(() -> {
+            work.run();
+            return null;
+        });
     }
 
-    public <T> List<T> executeQuery(String sql, RowMapper<T> mapper, Object... params) {
-        List<T> results = new ArrayList<>();
+    /**
+     * Runs the given work inside a transaction and returns its result, see
+     * {@link #runInTransaction(Runnable)}.
+     *
+     * @param work the work to run
+     * @return the result of the work
+     * @throws RuntimeException if a {@link SQLException} occurs
+     */
+    public <R> R callInTransaction(Supplier<R> work) {
+        ConnectionPool connectionPool = getPool();
+        List<Runnable> callbacks = new ArrayList<>();
+        R result;
 
-        try (
-                Connection connection = DriverManager.getConnection(URL);
-                PreparedStatement statement = connection.prepareStatement(sql)
-                ) {
-            for (int i = 0; i < params.length; i++) statement.setObject(i + 1, params[i]);
-            ResultSet rs = statement.executeQuery();
+        try {
+            Connection connection = connectionPool.acquireWriter();
+            try {
+                // Joins the transaction already open by this thread
+                if (!connection.getAutoCommit()) return work.get();
 
-            while (rs.next()) results.add(mapper.mapRow(rs));
+                connection.setAutoCommit(false);
+                AFTER_COMMIT.set(callbacks);
+                try {
+                    result = work.get();
+                    connection.commit();
+                } catch (RuntimeException | Error e) {
+                    try {
+                        connection.rollback();
+                    } catch (SQLException rollbackException) {
+                        e.addSuppressed(rollbackException);
+                    }
+                    throw e;
+                } finally {
+                    AFTER_COMMIT.remove();
+                    connection.setAutoCommit(true);
+                }
+            } finally {
+                connectionPool.releaseWriter();
+            }
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
 
-        return results;
+        for (Runnable callback : callbacks) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                // Committed already, the transaction must not look failed
+                LOGGER.error("A callback run after a commit failed", e);
+            }
+        }
+        return result;
     }
 
-    public int executeUpdate(String sql, Object... params) {
-        try (
-                Connection connection = DriverManager.getConnection(URL);
-                PreparedStatement statement = connection.prepareStatement(sql)
-                ) {
-            for (int i = 0; i < params.length; i++) statement.setObject(i + 1, params[i]);
-            return statement.executeUpdate();
+    /**
+     * Runs the given callback once the transaction open by the current thread is committed, or
+     * right away if no transaction is open. The callback is dropped if the transaction is rolled
+     * back. Callbacks run in registration order, after the writer connection is released. A
+     * callback that throws is logged: it neither fails the committed transaction nor prevents
+     * the next callbacks from running.
+     *
+     * @param callback the callback to run; must not be {@code null}
+     * @throws NullPointerException if {@code callback} is {@code null}
+     */
+    public void afterCommit(@NotNull Runnable callback) {
+        Objects.requireNonNull(callback, "callback must not be null");
+
+        List<Runnable> callbacks = AFTER_COMMIT.get();
+        if (callbacks != null) callbacks.add(callback);
+        else callback.run();
+    }
+
+    /**
+     * Makes stale the cached query results depending on what the given statement wrote, now and
+     * once its transaction commits: readers may cache what they read meanwhile, before the
+     * commit. Statements that changed no row are ignored, unless they are not data changes.
+     */
+    private void written(String sql, boolean changed) {
+        if (!changed && QueryCache.isDataChange(sql)) return;
+        QUERY_CACHE.written(sql, this);
+        this.afterCommit(() -> QUERY_CACHE.written(sql, this));
+    }
+
+    /**
+     * Reads {@code PRAGMA data_version} on the writer connection, whose value only changes
+     * when another connection commits, and drops the query cache if it changed. The value is
+     * read at most every {@link #DATA_VERSION_INTERVAL}, and not while another thread holds
+     * the writer connection: the cache tracks the writes of this process itself, only those of
+     * other processes wait for the next read.
+     *
+     * @return false if the current thread holds the writer connection, the cache must then not
+     * be used
+     */
+    private boolean checkDataVersion() {
+        ConnectionPool connectionPool = getPool();
+        if (connectionPool.isWriterHeldByCurrentThread()) return false;
+
+        long now = System.nanoTime();
+        long lastRead = DATA_VERSION_READ.get();
+        if (now - lastRead < DATA_VERSION_INTERVAL.toNanos() ||
+                !DATA_VERSION_READ.compareAndSet(lastRead, now))
+            return true;
+
+        try {
+            Connection connection = connectionPool.tryAcquireWriter();
+            if (connection == null) {
+                // Committing, read again by the next query
+                DATA_VERSION_READ.compareAndSet(now, lastRead);
+                return true;
+            }
+            try {
+                long dataVersion = this.withStatement(connectionPool, connection,
+                        "PRAGMA data_version", statement -> {
+                            try (ResultSet rs = statement.executeQuery()) {
+                                rs.next();
+                                return rs.getLong(1);
+                            }
+                        });
+                QUERY_CACHE.checkDataVersion(connection, dataVersion);
+                return true;
+            } finally {
+                connectionPool.releaseWriter();
+            }
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Borrows the cached statement for the given SQL on a pooled connection and runs the given
+     * work with it. The statement goes back to the cache afterward, or is closed if the work
+     * failed.
+     */
+    private <R> R withStatement(ConnectionPool connectionPool, Connection connection, String sql,
+                                StatementWork<R> work) throws SQLException {
+        StatementCache cache = connectionPool.getStatementCache(connection);
+        PreparedStatement statement = cache.acquire(sql);
+        try {
+            R result = work.run(statement);
+            cache.release(sql, statement);
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            cache.discard(statement);
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the rows of an open {@code ResultSet} as they are requested.
+     */
+    private static final class RowCursor<T> extends Spliterators.AbstractSpliterator<T> {
+        private final ResultSet rs;
+        private final RowMapper<T> mapper;
+        private boolean failed;
+
+        private RowCursor(ResultSet rs, RowMapper<T> mapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.rs = rs;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                if (this.rs.isClosed() || !this.rs.next()) return false;
+                action.accept(this.mapper.mapRow(this.rs));
+                return true;
+            } catch (SQLException e) {
+                this.failed = true;
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Object[] params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            // Ids are stored as 16-byte blobs
+            if (params[i] instanceof UUID uuid) statement.setBytes(i + 1, Uuids.toBytes(uuid));
+            else statement.setObject(i + 1, params[i]);
+        }
+    }
+
     public interface RowMapper<T> {
         T mapRow(ResultSet rs) throws SQLException;
     }
+
+    private interface StatementWork<R> {
+        R run(PreparedStatement statement) throws SQLException;
+    }
 }
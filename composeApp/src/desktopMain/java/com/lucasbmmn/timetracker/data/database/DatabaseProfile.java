@@ -0,0 +1,109 @@
+package com.lucasbmmn.timetracker.data.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Set of SQLite {@code PRAGMA} settings applied to every pooled connection when it is opened.
+ *
+ * <p>Every profile uses write-ahead logging, so readers never block the writer nor the other
+ * way around, keeps temporary tables in memory and enforces foreign keys. They differ in how
+ * often SQLite syncs to disk and how much memory it may use:</p>
+ * <ul>
+ *     <li>{@link #DURABLE} syncs on every commit, nothing committed is lost on power
+ *     failure;</li>
+ *     <li>{@link #BALANCED} syncs at checkpoints only, the last commits may be lost on power
+ *     failure but the database is never corrupted;</li>
+ *     <li>{@link #FAST_IMPORT} never syncs and uses large caches, for bulk imports that can be
+ *     run again if the machine crashes.</li>
+ * </ul>
+ */
+public enum DatabaseProfile {
+    DURABLE("durable", "FULL", 8_000, 0),
+    BALANCED("balanced", "NORMAL", 16_000, 64L * 1024 * 1024),
+    FAST_IMPORT("fast-import", "OFF", 64_000, 256L * 1024 * 1024);
+
+    /**
+     * Time in milliseconds a connection waits for a lock held by another connection before
+     * failing.
+     */
+    public static final int BUSY_TIMEOUT_MILLIS = 5_000;
+
+    private final String profileName;
+    private final String synchronous;
+    private final int cacheSizeKib;
+    private final long mmapSize;
+
+    DatabaseProfile(String profileName, String synchronous, int cacheSizeKib, long mmapSize) {
+        this.profileName = profileName;
+        this.synchronous = synchronous;
+        this.cacheSizeKib = cacheSizeKib;
+        this.mmapSize = mmapSize;
+    }
+
+    /**
+     * Returns the profile with the given name.
+     *
+     * @param name the name of the profile, as returned by {@link #getProfileName()}, must not be
+     *             null
+     * @return the matching profile
+     * @throws NullPointerException if the name is null
+     * @throws IllegalArgumentException if no profile has this name
+     */
+    public static @NotNull DatabaseProfile fromName(@NotNull String name) {
+        Objects.requireNonNull(name, "name must not be null");
+        for (DatabaseProfile profile : values()) {
+            if (profile.profileName.equalsIgnoreCase(name.trim())) return profile;
+        }
+        throw new IllegalArgumentException("Unknown database profile: " + name);
+    }
+
+    /**
+     * Returns the name of this profile, as used in configuration and on the command line.
+     *
+     * @return the name of this profile
+     */
+    public @NotNull String getProfileName() {
+        return profileName;
+    }
+
+    /**
+     * Returns the {@code PRAGMA} statements of this profile, in the order they are applied.
+     *
+     * @return the statements of this profile
+     */
+    public @NotNull List<String> getPragmas() {
+        return List.of(
+                "PRAGMA busy_timeout = " + BUSY_TIMEOUT_MILLIS,
+                "PRAGMA journal_mode = WAL",
+                "PRAGMA synchronous = " + this.synchronous,
+                // A negative cache size is in KiB instead of pages
+                "PRAGMA cache_size = -" + this.cacheSizeKib,
+                "PRAGMA mmap_size = " + this.mmapSize,
+                "PRAGMA temp_store = MEMORY",
+                "PRAGMA foreign_keys = ON"
+        );
+    }
+
+    /**
+     * Applies this profile to a connection.
+     *
+     * @param connection the connection to configure, must not be null
+     * @throws SQLException if a statement fails
+     */
+    public void apply(@NotNull Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String pragma : this.getPragmas()) statement.execute(pragma);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return profileName;
+    }
+}
@@ -2,18 +2,22 @@ package com.lucasbmmn.timetracker.data.database;
 
 import com.lucasbmmn.timetracker.util.AppDataManager;
 
-import java.io.*;
-import java.nio.charset.StandardCharsets;
+import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.Scanner;
 import java.util.UUID;
 
 public class DatabaseSetup {
+    /**
+     * Creates the database if it does not exist and runs the pending schema migrations.
+     *
+     * @return {@code true} if the database was created, {@code false} if it already existed
+     */
     public boolean InitializeDatabase() {
         boolean isInitialized = false;
 
@@ -25,44 +29,13 @@ public class DatabaseSetup {
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
-
-            createDatabase();
-            insertDefaultValues();
             isInitialized = true;
         }
 
-        return isInitialized;
-    }
-
-    private void createDatabase() {
-        String url = "jdbc:sqlite:" + AppDataManager.getAppDataPath() + File.separator + "TimeTracker.db";
-        String sqlFilePath = "files" + File.separator + "database" + File.separator + "schema.sql";
-
-        try (InputStream is = DatabaseSetup.class.getClassLoader().getResourceAsStream(sqlFilePath)) {
-            if (is == null) throw new RuntimeException("schema.sql not found in resources");
-            Scanner scanner = new Scanner(is, StandardCharsets.UTF_8);
-            String sqlFile = scanner.useDelimiter("\\A").next();
-
-            String[] sqlStatements = sqlFile.split(";");
+        new MigrationRunner().migrate();
+        if (isInitialized) insertDefaultValues();
 
-            try (
-                    Connection connection = DriverManager.getConnection(url);
-                    Statement statement = connection.createStatement()
-                ) {
-                statement.setQueryTimeout(30);
-
-                for (String sql : sqlStatements) {
-                    String trimmedSql = sql.trim();
-                    if (!trimmedSql.isEmpty() && !trimmedSql.startsWith("--")) {
-                        statement.addBatch(trimmedSql);
-                    }
-                }
-
-                statement.executeBatch();
-            }
-        } catch (SQLException | IOException e) {
-            throw new RuntimeException(e);
-        }
+        return isInitialized;
     }
 
     private void insertDefaultValues() {
@@ -75,13 +48,14 @@ public class DatabaseSetup {
             ) {
             statement.setQueryTimeout(30);
 
+            // Ids are 16-byte blobs, written as hexadecimal literals
             for (String taskStatus : defaultTaskStatuses) {
-                String uuid = UUID.randomUUID().toString();
-                statement.executeUpdate("INSERT INTO Task_Statuses (id, label) VALUES ('" + uuid + "', '" + taskStatus + "')");
+                String uuid = UUID.randomUUID().toString().replace("-", "");
+                statement.executeUpdate("INSERT INTO Task_Statuses (id, label) VALUES (X'" + uuid + "', '" + taskStatus + "')");
             }
             for (String taskType : defaultTaskTypes) {
-                String uuid = UUID.randomUUID().toString();
-                statement.executeUpdate("INSERT INTO Task_Types (id, label) VALUES ('" + uuid + "', '" + taskType + "')");
+                String uuid = UUID.randomUUID().toString().replace("-", "");
+                statement.executeUpdate("INSERT INTO Task_Types (id, label) VALUES (X'" + uuid + "', '" + taskType + "')");
             }
         } catch (SQLException e) {
             throw new RuntimeException(e);
@@ -0,0 +1,257 @@
+package com.lucasbmmn.timetracker.data.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Brings the database schema up to date by running the migration scripts it has not run yet.
+ *
+ * <p>Migrations are the resources {@code files/database/migrations/V1.sql},
+ * {@code V2.sql}, ... numbered without gaps. The version of the database is stored in
+ * {@code PRAGMA user_version}; each pending migration runs in its own transaction on the writer
+ * connection together with the version bump, so a failing script leaves the database at the
+ * previous version.</p>
+ *
+ * <p>A line {@code .read <resource>}, as in the {@code sqlite3} shell, is replaced by the script
+ * of the given resource, so that a script can share statements with the application.</p>
+ *
+ * <p>Foreign keys are not enforced while a migration runs, so that a script can rebuild a table
+ * other tables reference; they are checked once the script has run instead, and a violation fails
+ * the migration.</p>
+ *
+ * <p>Databases created before migrations existed have tables but a version of 0. They already
+ * contain the initial schema, so they are treated as version 1.</p>
+ */
+public class MigrationRunner {
+    private static final String MIGRATIONS_PATH = "files/database/migrations/";
+
+    private final ClassLoader classLoader;
+    private final int targetVersion;
+
+    /**
+     * Constructs a new {@code MigrationRunner} object reading the migration scripts of the
+     * application.
+     */
+    public MigrationRunner() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a new {@code MigrationRunner} object that stops at the given version, to build
+     * the schema of an older database.
+     *
+     * @param targetVersion the last version to migrate to
+     */
+    MigrationRunner(int targetVersion) {
+        this.classLoader = MigrationRunner.class.getClassLoader();
+        this.targetVersion = targetVersion;
+    }
+
+    /**
+     * Returns the schema version of the database.
+     *
+     * @return the value of {@code PRAGMA user_version}
+     * @throws RuntimeException if a {@link SQLException} occurs
+     */
+    public int getCurrentVersion() {
+        ConnectionPool connectionPool = DatabaseManager.getPool();
+
+        try {
+            Connection connection = connectionPool.acquireWriter();
+            try {
+                return readVersion(connection);
+            } finally {
+                connectionPool.releaseWriter();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the version of the most recent migration script this runner migrates to.
+     *
+     * @return the number of migration scripts
+     */
+    public int getLatestVersion() {
+        int version = 0;
+        while (version < this.targetVersion &&
+                this.classLoader.getResource(scriptPath(version + 1)) != null) version++;
+        return version;
+    }
+
+    /**
+     * Runs every migration newer than the database version, in order.
+     *
+     * @return the number of migrations applied
+     * @throws RuntimeException if a script cannot be read or a {@link SQLException} occurs, the
+     * failing migration is then rolled back
+     */
+    public int migrate() {
+        ConnectionPool connectionPool = DatabaseManager.getPool();
+        int latestVersion = this.getLatestVersion();
+        int applied = 0;
+
+        try {
+            Connection connection = connectionPool.acquireWriter();
+            try {
+                int version = readVersion(connection);
+                if (version == 0 && hasTables(connection)) {
+                    // Database created before migrations, it already has the initial schema
+                    version = 1;
+                    writeVersion(connection, version);
+                }
+
+                while (version < latestVersion) {
+                    version++;
+                    this.apply(connection, version);
+                    applied++;
+                }
+            } finally {
+                connectionPool.releaseWriter();
+                // Written without the DatabaseManager, which tracks the written tables
+                if (applied > 0) DatabaseManager.invalidateQueryCache();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return applied;
+    }
+
+    private void apply(Connection connection, int version) throws SQLException {
+        List<String> statements = splitStatements(this.readScript(version));
+
+        // Ignored inside a transaction, so switched before it begins
+        setForeignKeys(connection, false);
+        try {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : statements) statement.execute(sql);
+                checkForeignKeys(connection);
+                writeVersion(connection, version);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackException) {
+                    e.addSuppressed(rollbackException);
+                }
+                throw new SQLException("Migration V" + version + " failed", e);
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } finally {
+            setForeignKeys(connection, true);
+        }
+    }
+
+    private String readScript(int version) {
+        return readScript(this.classLoader, scriptPath(version));
+    }
+
+    /**
+     * Reads a script from the resources, replacing its {@code .read <resource>} lines by the
+     * scripts they name.
+     */
+    static String readScript(ClassLoader classLoader, String path) {
+        String script;
+        try (InputStream is = classLoader.getResourceAsStream(path)) {
+            if (is == null) throw new RuntimeException(path + " not found in resources");
+            script = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        StringBuilder expanded = new StringBuilder();
+        for (String line : script.split("\\R")) {
+            String trimmedLine = line.trim();
+            if (trimmedLine.startsWith(".read "))
+                expanded.append(readScript(classLoader, trimmedLine.substring(6).trim()));
+            else
+                expanded.append(line).append('\n');
+        }
+        return expanded.toString();
+    }
+
+    /**
+     * Splits a script into statements on the semicolons ending a line, skipping the comment
+     * lines. The statements inside the {@code BEGIN ... END} body of a trigger do not end it,
+     * a trigger ends on the line {@code END;}.
+     */
+    static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+
+        for (String line : script.split("\\R")) {
+            String trimmedLine = line.trim();
+            if (trimmedLine.isEmpty() || trimmedLine.startsWith("--")) continue;
+
+            current.append(line).append('\n');
+            boolean inTrigger = current.toString().stripLeading().toUpperCase()
+                    .startsWith("CREATE TRIGGER");
+            boolean ends = inTrigger ? trimmedLine.equalsIgnoreCase("END;")
+                    : trimmedLine.endsWith(";");
+            if (ends) {
+                statements.add(current.toString().trim());
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) statements.add(current.toString().trim());
+        return statements;
+    }
+
+    private static @NotNull String scriptPath(int version) {
+        return MIGRATIONS_PATH + "V" + version + ".sql";
+    }
+
+    private static int readVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void writeVersion(Connection connection, int version) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            // PRAGMA does not accept bound parameters
+            statement.execute("PRAGMA user_version = " + version);
+        }
+    }
+
+    private static void setForeignKeys(Connection connection, boolean enabled)
+            throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA foreign_keys = " + (enabled ? "ON" : "OFF"));
+        }
+    }
+
+    /**
+     * Fails if a row references a missing row, the migration having run without enforcing the
+     * foreign keys.
+     */
+    private static void checkForeignKeys(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("PRAGMA foreign_key_check")) {
+            if (rs.next())
+                throw new SQLException("Foreign key violation in table " + rs.getString("table") +
+                        " referencing " + rs.getString("parent"));
+        }
+    }
+
+    private static boolean hasTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT 1 FROM sqlite_master WHERE type='table' LIMIT 1")) {
+            return rs.next();
+        }
+    }
+}
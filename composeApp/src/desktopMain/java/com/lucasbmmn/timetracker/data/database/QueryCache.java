@@ -0,0 +1,296 @@
+package com.lucasbmmn.timetracker.data.database;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Least recently used cache of query results, keyed by SQL text and parameters, used by
+ * {@link DatabaseManager#executeCachedQuery(String, DatabaseManager.RowMapper, Object...)}.
+ *
+ * <p>Each table has a version counter, bumped when a statement writes to it. A result is
+ * stored with the versions of the tables its query reads, named after {@code FROM} or
+ * {@code JOIN}, and is only served while they are unchanged. A write also bumps the tables
+ * the database changes along with the written one: those written by its triggers, and those
+ * whose foreign keys cascade from it. Statements other than {@code INSERT}, {@code UPDATE} and
+ * {@code DELETE}, changes detected with {@code PRAGMA data_version} and resets of the database
+ * drop every result.</p>
+ *
+ * <p>The cache is bounded by the total number of rows it holds. A result larger than the
+ * whole cache is not kept.</p>
+ */
+final class QueryCache {
+    /**
+     * Number of rows kept in the cache when none is specified.
+     */
+    static final int DEFAULT_MAX_ROWS = 10_000;
+
+    private static final Pattern READ_TABLE = Pattern.compile(
+            "\\b(?:FROM|JOIN)\\s+[\"`\\[]?(\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern WRITTEN_TABLE = Pattern.compile(
+            "\\s*(?:INSERT(?:\\s+OR\\s+\\w+)?\\s+INTO|REPLACE\\s+INTO|UPDATE(?:\\s+OR\\s+\\w+)?" +
+                    "|DELETE\\s+FROM)\\s+[\"`\\[]?(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    private final int maxRows;
+    private final LinkedHashMap<Key, Entry> entries;
+    private final Map<String, Long> tableVersions;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+    /** Bumped when every result is dropped, stale results are then told apart from new ones. */
+    private long version;
+    private long epoch;
+    private int rowCount;
+    private Object dataVersionConnection;
+    private long dataVersion;
+    /** Tables changed along with each table, {@code null} until loaded. */
+    private Map<String, Set<String>> dependents;
+
+    /**
+     * Constructs a new {@code QueryCache} object.
+     *
+     * @param maxRows the maximum number of rows kept, must be positive
+     * @throws IllegalArgumentException if the maximum is not positive
+     */
+    QueryCache(int maxRows) {
+        if (maxRows < 1)
+            throw new IllegalArgumentException("The maximum row count must be greater than 0: " +
+                    maxRows);
+        this.maxRows = maxRows;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.tableVersions = new HashMap<>();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.evictions = new AtomicLong();
+        this.epoch = DatabaseManager.getEpoch();
+    }
+
+    /**
+     * Returns whether the given statement is an {@code INSERT}, {@code UPDATE} or
+     * {@code DELETE}, whose written table is known.
+     */
+    static boolean isDataChange(String sql) {
+        return WRITTEN_TABLE.matcher(sql).lookingAt();
+    }
+
+    /**
+     * Returns the cached result of the given query, or {@code null} if it is not cached or
+     * a table it reads changed since.
+     */
+    synchronized List<?> get(Key key) {
+        this.checkEpoch();
+        Entry entry = this.entries.get(key);
+        if (entry != null && this.isCurrent(entry.stamp)) {
+            this.hits.incrementAndGet();
+            return entry.rows;
+        }
+
+        if (entry != null) this.remove(key);
+        this.misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Counts a query that could not use the cache.
+     */
+    void bypassed() {
+        this.misses.incrementAndGet();
+    }
+
+    /**
+     * Returns the current versions of the tables read by the given query. It must be taken
+     * before the query runs, so that a write made meanwhile makes the result stale.
+     */
+    synchronized Stamp stamp(String sql) {
+        this.checkEpoch();
+        Set<String> tables = new LinkedHashSet<>();
+        Matcher matcher = READ_TABLE.matcher(sql);
+        while (matcher.find()) tables.add(matcher.group(1).toLowerCase(Locale.ROOT));
+
+        String[] names = tables.toArray(new String[0]);
+        long[] versions = new long[names.length];
+        for (int i = 0; i < names.length; i++)
+            versions[i] = this.tableVersions.getOrDefault(names[i], 0L);
+        return new Stamp(this.version, names, versions);
+    }
+
+    /**
+     * Caches the result of a query, read after the given stamp was taken. The least recently
+     * used results are evicted to make room for it.
+     */
+    synchronized void put(Key key, Stamp stamp, List<?> rows) {
+        this.checkEpoch();
+        // Already stale, or would evict everything else
+        if (!this.isCurrent(stamp) || rows.size() > this.maxRows) return;
+
+        this.remove(key);
+        this.entries.put(key, new Entry(stamp, rows));
+        this.rowCount += rows.size();
+
+        Iterator<Map.Entry<Key, Entry>> eldest = this.entries.entrySet().iterator();
+        while (this.rowCount > this.maxRows) {
+            this.rowCount -= eldest.next().getValue().rows.size();
+            eldest.remove();
+            this.evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Makes stale the results depending on what the given statement wrote.
+     *
+     * @param sql       the SQL of the statement
+     * @param dbManager the database manager used to load the triggers and foreign keys
+     */
+    void written(String sql, DatabaseManager dbManager) {
+        Matcher matcher = WRITTEN_TABLE.matcher(sql);
+        if (!matcher.lookingAt()) {
+            // Schema changes and pragmas, their effects are not tracked
+            this.invalidateAll();
+            return;
+        }
+
+        String table = matcher.group(1).toLowerCase(Locale.ROOT);
+        Set<String> changed = this.changedWith(table, dbManager);
+        synchronized (this) {
+            for (String changedTable : changed)
+                this.tableVersions.merge(changedTable, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Drops every result if the value of {@code PRAGMA data_version} read on the given
+     * connection differs from the last one, as another connection then wrote to the database.
+     */
+    synchronized void checkDataVersion(Object connection, long value) {
+        // A new connection starts counting again
+        if (connection != this.dataVersionConnection || value != this.dataVersion)
+            this.invalidateAll();
+        this.dataVersionConnection = connection;
+        this.dataVersion = value;
+    }
+
+    /**
+     * Drops every cached result.
+     */
+    synchronized void invalidateAll() {
+        this.version++;
+        this.entries.clear();
+        this.rowCount = 0;
+        this.dependents = null;
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of the cache.
+     */
+    QueryCacheStats getStats() {
+        return new QueryCacheStats(this.hits.get(), this.misses.get(), this.evictions.get());
+    }
+
+    private void checkEpoch() {
+        long currentEpoch = DatabaseManager.getEpoch();
+        if (currentEpoch != this.epoch) {
+            this.epoch = currentEpoch;
+            this.invalidateAll();
+        }
+    }
+
+    private boolean isCurrent(Stamp stamp) {
+        if (stamp.version != this.version) return false;
+        for (int i = 0; i < stamp.tables.length; i++)
+            if (stamp.versions[i] != this.tableVersions.getOrDefault(stamp.tables[i], 0L))
+                return false;
+        return true;
+    }
+
+    private void remove(Key key) {
+        Entry removed = this.entries.remove(key);
+        if (removed != null) this.rowCount -= removed.rows.size();
+    }
+
+    /**
+     * Returns the given table and every table the database changes when it is written,
+     * following triggers and cascading foreign keys transitively.
+     */
+    private Set<String> changedWith(String table, DatabaseManager dbManager) {
+        Map<String, Set<String>> loaded;
+        long loadVersion;
+        synchronized (this) {
+            this.checkEpoch();
+            loaded = this.dependents;
+            loadVersion = this.version;
+        }
+        if (loaded == null) {
+            loaded = loadDependents(dbManager);
+            synchronized (this) {
+                // Otherwise the schema may have changed meanwhile, the next write loads again
+                if (this.version == loadVersion) this.dependents = loaded;
+            }
+        }
+
+        Set<String> changed = new LinkedHashSet<>();
+        Deque<String> pending = new ArrayDeque<>(List.of(table));
+        while (!pending.isEmpty()) {
+            String next = pending.pop();
+            if (changed.add(next)) pending.addAll(loaded.getOrDefault(next, Set.of()));
+        }
+        return changed;
+    }
+
+    private static Map<String, Set<String>> loadDependents(DatabaseManager dbManager) {
+        Map<String, Set<String>> dependents = new HashMap<>();
+
+        List<String[]> triggers = dbManager.executeQuery(
+                "SELECT tbl_name, sql FROM sqlite_master WHERE type = 'trigger'",
+                rs -> new String[]{rs.getString("tbl_name"), rs.getString("sql")});
+        for (String[] trigger : triggers) {
+            // Statements of the body, the header names the event and not a written table
+            String sql = trigger[1];
+            int body = sql.toUpperCase(Locale.ROOT).indexOf("BEGIN");
+            Matcher matcher = WRITTEN_TABLE.matcher(body < 0 ? "" : sql.substring(body + 5));
+            Set<String> written = dependents.computeIfAbsent(
+                    trigger[0].toLowerCase(Locale.ROOT), key -> new LinkedHashSet<>());
+            while (matcher.find()) written.add(matcher.group(1).toLowerCase(Locale.ROOT));
+        }
+
+        List<String[]> foreignKeys = dbManager.executeQuery(
+                "SELECT m.name AS child, f.\"table\" AS parent FROM sqlite_master m " +
+                        "JOIN pragma_foreign_key_list(m.name) f WHERE m.type = 'table' " +
+                        "AND (f.on_delete NOT IN ('NO ACTION', 'RESTRICT') " +
+                        "OR f.on_update NOT IN ('NO ACTION', 'RESTRICT'))",
+                rs -> new String[]{rs.getString("parent"), rs.getString("child")});
+        for (String[] foreignKey : foreignKeys)
+            dependents.computeIfAbsent(foreignKey[0].toLowerCase(Locale.ROOT),
+                    key -> new LinkedHashSet<>()).add(foreignKey[1].toLowerCase(Locale.ROOT));
+
+        return dependents;
+    }
+
+    /**
+     * Identifies a query by its SQL text and parameters.
+     */
+    record Key(String sql, List<Object> params) {
+        Key(String sql, Object[] params) {
+            this(sql, Arrays.asList(params.clone()));
+        }
+    }
+
+    /**
+     * Versions of the tables read by a query, when it ran.
+     */
+    record Stamp(long version, String[] tables, long[] versions) {
+    }
+
+    private record Entry(Stamp stamp, List<?> rows) {
+    }
+}
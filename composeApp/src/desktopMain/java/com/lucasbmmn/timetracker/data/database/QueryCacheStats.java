@@ -0,0 +1,21 @@
+package com.lucasbmmn.timetracker.data.database;
+
+/**
+ * Hit, miss and eviction counters of the query result cache.
+ *
+ * @param hits      the number of queries answered from the cache
+ * @param misses    the number of queries that had to run, including those that could not use
+ *                  the cache
+ * @param evictions the number of results dropped to make room for newer ones
+ */
+public record QueryCacheStats(long hits, long misses, long evictions) {
+    /**
+     * Returns the proportion of queries answered from the cache.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if no query was made
+     */
+    public double hitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
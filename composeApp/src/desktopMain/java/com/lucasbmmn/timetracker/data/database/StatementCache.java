@@ -0,0 +1,152 @@
+package com.lucasbmmn.timetracker.data.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Least recently used cache of {@link PreparedStatement} attached to a single pooled
+ * {@link Connection}, keyed by SQL text.
+ *
+ * <p>A statement is removed from the cache while it is borrowed and put back when it is
+ * released, so a statement is never shared by two callers. If the same SQL is borrowed again
+ * while in use (nested queries), a new statement is prepared and the extra one is closed when
+ * released.</p>
+ *
+ * <p>A cache is only used by the thread currently holding its connection, so it is not
+ * synchronized. Its counters can be read from any thread.</p>
+ */
+public class StatementCache {
+    /**
+     * Number of statements kept per connection when none is specified.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final Connection connection;
+    private final int capacity;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    /**
+     * Constructs a new {@code StatementCache} object.
+     *
+     * @param connection the connection the statements are prepared on, must not be null
+     * @param capacity   the maximum number of idle statements kept, must be positive
+     * @throws NullPointerException if the connection is null
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public StatementCache(@NotNull Connection connection, int capacity) {
+        Objects.requireNonNull(connection, "connection must not be null");
+        if (capacity < 1)
+            throw new IllegalArgumentException("The capacity must be greater than 0: " + capacity);
+        this.connection = connection;
+        this.capacity = capacity;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Borrows a prepared statement for the given SQL, preparing it if it is not cached.
+     * The statement must be given back with {@link #release(String, PreparedStatement)}.
+     *
+     * @param sql the SQL of the statement, must not be null
+     * @return a prepared statement with no parameter set
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public @NotNull PreparedStatement acquire(@NotNull String sql) throws SQLException {
+        PreparedStatement statement = this.statements.remove(sql);
+        if (statement != null && !statement.isClosed()) {
+            this.hits.incrementAndGet();
+        } else {
+            this.misses.incrementAndGet();
+            statement = this.connection.prepareStatement(sql);
+        }
+        return statement;
+    }
+
+    /**
+     * Gives back a statement borrowed with {@link #acquire(String)}. Its parameters are
+     * cleared and the least recently used statement is closed if the cache is full.
+     *
+     * @param sql       the SQL the statement was borrowed for, must not be null
+     * @param statement the statement to give back
+     */
+    public void release(@NotNull String sql, PreparedStatement statement) {
+        if (statement == null) return;
+
+        try {
+            if (statement.isClosed()) return;
+            statement.clearParameters();
+        } catch (SQLException e) {
+            closeQuietly(statement);
+            return;
+        }
+
+        if (this.statements.containsKey(sql)) {
+            // The same statement was borrowed twice, keep only one
+            closeQuietly(statement);
+            return;
+        }
+
+        this.statements.put(sql, statement);
+        if (this.statements.size() > this.capacity) {
+            Iterator<Map.Entry<String, PreparedStatement>> eldest =
+                    this.statements.entrySet().iterator();
+            closeQuietly(eldest.next().getValue());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Closes a statement borrowed with {@link #acquire(String)} instead of giving it back,
+     * typically after an error left it in an unknown state.
+     *
+     * @param statement the statement to discard
+     */
+    public void discard(PreparedStatement statement) {
+        if (statement != null) closeQuietly(statement);
+    }
+
+    /**
+     * Closes every cached statement.
+     */
+    public void clear() {
+        for (PreparedStatement statement : this.statements.values()) closeQuietly(statement);
+        this.statements.clear();
+    }
+
+    /**
+     * Returns the number of statements found in the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Returns the number of statements that had to be prepared.
+     *
+     * @return the number of cache misses
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // The statement is discarded anyway
+        }
+    }
+}
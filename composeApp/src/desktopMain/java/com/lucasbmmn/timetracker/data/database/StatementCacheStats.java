@@ -0,0 +1,19 @@
+package com.lucasbmmn.timetracker.data.database;
+
+/**
+ * Hit and miss counters of prepared statement caches.
+ *
+ * @param hits   the number of statements reused from a cache
+ * @param misses the number of statements that had to be prepared
+ */
+public record StatementCacheStats(long hits, long misses) {
+    /**
+     * Returns the proportion of statements reused from a cache.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if no statement was requested
+     */
+    public double hitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,77 @@
+package com.lucasbmmn.timetracker.data.database;
+
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Conversions between {@link UUID} and the 16-byte {@code BLOB} the ids are stored as.
+ *
+ * <p>The bytes are the most significant half followed by the least significant half, both big
+ * endian, so blobs sort like the canonical text form of the ids. {@link DatabaseManager} binds
+ * every {@code UUID} parameter this way.</p>
+ */
+public final class Uuids {
+    private static final int BYTES = 16;
+
+    private Uuids() {
+    }
+
+    /**
+     * Returns the 16 bytes of a UUID.
+     *
+     * @param uuid the UUID; must not be {@code null}
+     * @return the bytes of the UUID
+     */
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(BYTES)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Returns the UUID stored in 16 bytes.
+     *
+     * @param bytes the bytes of the UUID, or {@code null}
+     * @return the UUID, or {@code null} if {@code bytes} is {@code null}
+     * @throws IllegalArgumentException if {@code bytes} is not 16 bytes long
+     */
+    public static UUID fromBytes(byte[] bytes) {
+        if (bytes == null) return null;
+        if (bytes.length != BYTES)
+            throw new IllegalArgumentException("A UUID must be 16 bytes long: " + bytes.length);
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Reads the UUID stored in a column of the current row.
+     *
+     * @param rs     the {@code ResultSet} positioned at the current row; must not be
+     *               {@code null}
+     * @param column the label of the column
+     * @return the UUID, or {@code null} if the column is {@code NULL}
+     * @throws SQLException if the column cannot be read
+     */
+    public static UUID read(ResultSet rs, String column) throws SQLException {
+        return fromBytes(rs.getBytes(column));
+    }
+
+    /**
+     * Parses the text form of a UUID.
+     *
+     * @param uuid the text form of the UUID, or {@code null}
+     * @return the UUID, or {@code null} if {@code uuid} is {@code null} or not a valid UUID
+     */
+    public static UUID parseOrNull(String uuid) {
+        if (uuid == null) return null;
+        try {
+            return UUID.fromString(uuid);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
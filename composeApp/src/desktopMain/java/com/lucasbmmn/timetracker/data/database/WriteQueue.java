@@ -0,0 +1,292 @@
+package com.lucasbmmn.timetracker.data.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Queue of database writes run by a single writer thread, which commits them in groups.
+ *
+ * <p>Writes are run in the order they were submitted. The writer takes the oldest write, waits
+ * at most the maximum latency for others to arrive, and runs up to the maximum batch of them in
+ * one transaction: the cost of a commit, which dominates small writes, is shared by the whole
+ * group. The future of each write completes once its group is committed, on the writer thread:
+ * the actions depending on it should be short or use the asynchronous methods of the future.</p>
+ *
+ * <p>If a write of a group fails, the group is rolled back and its writes are run again each in
+ * its own transaction, so that only the failing write fails. Writes may thus run twice and
+ * should only change the database. A write submitted by another write runs at once in the
+ * current group instead of waiting behind it, and its future completes, or fails, with the
+ * group.</p>
+ */
+public final class WriteQueue implements AutoCloseable {
+    public static final int DEFAULT_MAX_BATCH = 256;
+    public static final Duration DEFAULT_MAX_LATENCY = Duration.ofMillis(2);
+
+    /** Put in the queue by {@link #close()} to stop the writer thread. */
+    private static final Write<Void> CLOSE = new Write<>(() -> null);
+
+    private static WriteQueue defaultQueue;
+
+    private final DatabaseManager dbManager = new DatabaseManager();
+    private final BlockingQueue<Write<?>> queue = new LinkedBlockingQueue<>();
+    private final int maxBatch;
+    private final long maxLatencyNanos;
+    private final Thread writer;
+    private final AtomicLong groupCount = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+    /** The writes submitted by the writes of the group being committed, writer thread only. */
+    private final List<Write<?>> nested = new ArrayList<>();
+    private boolean committing;
+    private boolean closed;
+
+    /**
+     * Constructs a new {@code WriteQueue} object with the default maximum batch and latency, and
+     * starts its writer thread.
+     */
+    public WriteQueue() {
+        this(DEFAULT_MAX_BATCH, DEFAULT_MAX_LATENCY);
+    }
+
+    /**
+     * Constructs a new {@code WriteQueue} object and starts its writer thread.
+     *
+     * @param maxBatch   the maximum number of writes committed together; must be positive
+     * @param maxLatency how long the oldest write waits for others to join its group; must not
+     *                   be {@code null} nor negative
+     * @throws NullPointerException if {@code maxLatency} is {@code null}
+     * @throws IllegalArgumentException if {@code maxBatch} is not positive or {@code maxLatency}
+     * is negative
+     */
+    public WriteQueue(int maxBatch, @NotNull Duration maxLatency) {
+        Objects.requireNonNull(maxLatency, "maxLatency must not be null");
+        if (maxBatch <= 0)
+            throw new IllegalArgumentException("The maximum batch must be positive: " + maxBatch);
+        if (maxLatency.isNegative())
+            throw new IllegalArgumentException("The maximum latency must not be negative: " +
+                    maxLatency);
+        this.maxBatch = maxBatch;
+        this.maxLatencyNanos = maxLatency.toNanos();
+        // A platform thread: a group commit runs in native code, which would pin a virtual
+        // thread to its carrier for the whole transaction
+        this.writer = Thread.ofPlatform().name("db-writer").daemon(true).start(this::drain);
+    }
+
+    /**
+     * Returns the queue shared by the application, created on first use. It is closed when the
+     * JVM shuts down, after its pending writes are committed, see {@link #closeDefault()}.
+     *
+     * @return the default queue; never {@code null}
+     */
+    public static synchronized @NotNull WriteQueue getDefault() {
+        if (defaultQueue == null) defaultQueue = new WriteQueue();
+        return defaultQueue;
+    }
+
+    /**
+     * Closes the default queue if it was created, waiting for its pending writes to be
+     * committed. Run by the shutdown hook of {@link DatabaseManager} before the connection pool
+     * is closed.
+     */
+    static void closeDefault() {
+        WriteQueue queue;
+        synchronized (WriteQueue.class) {
+            queue = defaultQueue;
+        }
+        if (queue != null) queue.close();
+    }
+
+    /**
+     * Submits a write returning a result.
+     *
+     * @param write the write to run; must not be {@code null}
+     * @param <R>   the type of the result
+     * @return a future completed with the result once the write is committed, or with the
+     * exception of the write if it failed
+     * @throws NullPointerException if {@code write} is {@code null}
+     * @throws IllegalStateException if the queue is closed
+     */
+    public <R> @NotNull CompletableFuture<R> submit(@NotNull Supplier<R> write) {
+        Objects.requireNonNull(write, "write must not be null");
+
+        Write<R> command = new Write<>(write);
+        if (Thread.currentThread() == this.writer && this.committing) {
+            // Submitted by a write, waiting for its own group would never end
+            try {
+                command.run();
+            } catch (RuntimeException | Error e) {
+                command.future.completeExceptionally(e);
+                throw e;
+            }
+            this.nested.add(command);
+        } else {
+            synchronized (this) {
+                if (this.closed) throw new IllegalStateException("The write queue is closed");
+                this.queue.add(command);
+            }
+        }
+        return command.future;
+    }
+
+    /**
+     * Submits a write without result.
+     *
+     * @param write the write to run; must not be {@code null}
+     * @return a future completed once the write is committed, or with the exception of the
+     * write if it failed
+     * @throws NullPointerException if {@code write} is {@code null}
+     * @throws IllegalStateException if the queue is closed
+     */
+    public @NotNull CompletableFuture<Void> execute(@NotNull Runnable write) {
+        Objects.requireNonNull(write, "write must not be null");
+        return this.submit(() -> {
+            write.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns the number of transactions committed so far.
+     *
+     * @return the number of groups committed
+     */
+    public long getGroupCount() {
+        return this.groupCount.get();
+    }
+
+    /**
+     * Returns the number of writes committed so far.
+     *
+     * @return the number of writes committed
+     */
+    public long getWriteCount() {
+        return this.writeCount.get();
+    }
+
+    /**
+     * Stops accepting writes, then waits for the writer thread to commit the writes already
+     * submitted. Closing a closed queue has no effect.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (this.closed) return;
+            this.closed = true;
+            this.queue.add(CLOSE);
+        }
+
+        boolean interrupted = false;
+        while (this.writer.isAlive()) {
+            try {
+                this.writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private void drain() {
+        List<Write<?>> group = new ArrayList<>(this.maxBatch);
+        boolean closing = false;
+
+        while (!closing) {
+            try {
+                Write<?> next = this.queue.take();
+                long deadline = System.nanoTime() + this.maxLatencyNanos;
+                while (next != null) {
+                    if (next == CLOSE) {
+                        closing = true;
+                        break;
+                    }
+                    group.add(next);
+                    if (group.size() == this.maxBatch) break;
+
+                    long remaining = deadline - System.nanoTime();
+                    next = remaining > 0 ? this.queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : this.queue.poll();
+                }
+            } catch (InterruptedException e) {
+                // Nothing interrupts the writer but close()
+                closing = true;
+            }
+
+            if (!group.isEmpty()) {
+                this.commit(group);
+                group.clear();
+            }
+        }
+    }
+
+    private void commit(List<Write<?>> group) {
+        boolean[] committed = {false};
+        this.committing = true;
+        try {
+            this.dbManager.runInTransaction(() -> {
+                for (Write<?> write : group) write.run();
+                this.dbManager.afterCommit(() -> committed[0] = true);
+            });
+        } catch (RuntimeException | Error e) {
+            // Thrown after the commit, the writes went through all the same
+            if (!committed[0]) {
+                this.committing = false;
+                this.rollBack(group, e);
+                return;
+            }
+        } finally {
+            this.committing = false;
+        }
+
+        List<Write<?>> nested = new ArrayList<>(this.nested);
+        this.nested.clear();
+        this.groupCount.incrementAndGet();
+        this.writeCount.addAndGet(group.size() + nested.size());
+        // Nested writes first: a write returning the future of one finds it completed
+        for (Write<?> write : nested) write.complete();
+        for (Write<?> write : group) write.complete();
+    }
+
+    private void rollBack(List<Write<?>> group, Throwable e) {
+        // Rolled back with the group that submitted them
+        for (Write<?> write : this.nested) write.future.completeExceptionally(e);
+        this.nested.clear();
+
+        if (group.size() == 1) {
+            group.getFirst().future.completeExceptionally(e);
+        } else {
+            // Runs the writes alone to only fail the failing ones
+            for (Write<?> write : group) this.commit(List.of(write));
+        }
+    }
+
+    /**
+     * A write waiting in the queue, and the future of its result.
+     */
+    private static final class Write<R> {
+        private final Supplier<R> work;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+        /** Set by the writer thread once run, handed to the future once committed. */
+        private R result;
+
+        private Write(Supplier<R> work) {
+            this.work = work;
+        }
+
+        private void run() {
+            this.result = this.work.get();
+        }
+
+        private void complete() {
+            this.future.complete(this.result);
+        }
+    }
+}
@@ -221,6 +221,7 @@ public class Client {
      */
     @Override
     public boolean equals(Object o) {
+        if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Client client = (Client) o;
         return Objects.equals(getUuid(), client.getUuid()) && Objects.equals(getCompany(), client.getCompany()) && Objects.equals(getName(), client.getName()) && Objects.equals(getEmail(), client.getEmail()) && Objects.equals(getPhoneNumber(), client.getPhoneNumber()) && Objects.equals(getTimezone(), client.getTimezone());
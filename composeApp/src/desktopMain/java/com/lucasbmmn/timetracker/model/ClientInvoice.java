@@ -0,0 +1,52 @@
+package com.lucasbmmn.timetracker.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents what a client owes over a billing period, project by project.
+ *
+ * <p>The days of the period are the days of the client's timezone, or UTC days for the projects
+ * without client.</p>
+ *
+ * @param client   the billed client, or {@code null} for the projects without client
+ * @param from     the first day of the period, inclusive
+ * @param to       the last day of the period, inclusive
+ * @param projects the amounts owed for each project of the client; never {@code null}
+ */
+public record ClientInvoice(Client client, @NotNull LocalDate from, @NotNull LocalDate to,
+                            @NotNull List<ProjectInvoice> projects) {
+    public ClientInvoice {
+        Objects.requireNonNull(from, "from must not be null");
+        Objects.requireNonNull(to, "to must not be null");
+        Objects.requireNonNull(projects, "projects must not be null");
+        projects = List.copyOf(projects);
+    }
+
+    /**
+     * Returns the billable time logged on every project of the client during the period.
+     *
+     * @return the sum of the billable durations of the projects
+     */
+    public @NotNull Duration billable() {
+        Duration billable = Duration.ZERO;
+        for (ProjectInvoice project : projects) billable = billable.plus(project.billable());
+        return billable;
+    }
+
+    /**
+     * Returns the whole amount owed by the client.
+     *
+     * @return the sum of the totals of the projects
+     */
+    public @NotNull BigDecimal total() {
+        BigDecimal total = BigDecimal.ZERO.setScale(2);
+        for (ProjectInvoice project : projects) total = total.add(project.total());
+        return total;
+    }
+}
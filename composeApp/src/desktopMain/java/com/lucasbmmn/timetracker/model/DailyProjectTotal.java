@@ -0,0 +1,33 @@
+package com.lucasbmmn.timetracker.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Represents the time spent on a project during one UTC day.
+ *
+ * <p>The billable and non-billable durations are the sums of the {@link ProjectTimeEntry} of
+ * the project created that day. The task duration is the sum of the {@link TaskTimeEntry} of
+ * the tasks of the project created that day, which carry no billable flag.</p>
+ *
+ * @param day         the UTC day of the total
+ * @param projectId   the uuid of the project
+ * @param billable    the billable time logged on the project that day
+ * @param nonBillable the non-billable time logged on the project that day
+ * @param tasks       the time logged on the tasks of the project that day
+ */
+public record DailyProjectTotal(@NotNull LocalDate day, @NotNull UUID projectId,
+                                @NotNull Duration billable, @NotNull Duration nonBillable,
+                                @NotNull Duration tasks) {
+    /**
+     * Returns the whole time spent on the project that day.
+     *
+     * @return the sum of the billable, non-billable and task durations
+     */
+    public @NotNull Duration total() {
+        return billable.plus(nonBillable).plus(tasks);
+    }
+}
@@ -0,0 +1,19 @@
+package com.lucasbmmn.timetracker.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Represents the time spent on a task during one UTC day, the sum of the durations of its
+ * {@link TaskTimeEntry} created that day.
+ *
+ * @param day      the UTC day of the total
+ * @param taskId   the uuid of the task
+ * @param duration the time spent on the task that day
+ */
+public record DailyTaskTotal(@NotNull LocalDate day, @NotNull UUID taskId,
+                             @NotNull Duration duration) {
+}
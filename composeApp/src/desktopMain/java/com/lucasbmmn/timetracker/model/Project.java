@@ -16,7 +16,7 @@ import java.util.UUID;
 public class Project {
     @NotNull
     private final UUID uuid;
-    private  Client client;
+    private  Ref<Client> client;
     @NotNull
     private String name;
     @NotNull
@@ -39,12 +39,12 @@ public class Project {
     }
 
     /**
-     * Returns the client associated with the project.
+     * Returns the client associated with the project, loading it if it is referenced lazily.
      *
      * @return the client
      */
     public Client getClient() {
-        return client;
+        return client == null ? null : client.get();
     }
 
     /**
@@ -53,6 +53,34 @@ public class Project {
      * @param client the client to set
      */
     public void setClient(Client client) {
+        this.client = client == null ? null : Ref.of(client.getUuid(), client);
+    }
+
+    /**
+     * Returns the id of the client associated with the project, without loading the client.
+     *
+     * @return the id of the client, or {@code null} if there is none
+     */
+    public UUID getClientId() {
+        return client == null ? null : client.getId();
+    }
+
+    /**
+     * Returns the reference to the client associated with the project.
+     *
+     * @return the reference to the client, or {@code null} if there is none
+     */
+    public Ref<Client> getClientRef() {
+        return client;
+    }
+
+    /**
+     * Sets the reference to the client associated with the project, which may load the client
+     * lazily.
+     *
+     * @param client the reference to the client, or {@code null} for none
+     */
+    public void setClientRef(Ref<Client> client) {
         this.client = client;
     }
 
@@ -221,7 +249,7 @@ public class Project {
                    Date deadline) {
         Objects.requireNonNull(uuid, "uuid must not be null");
         this.uuid = uuid;
-        this.client = client;
+        this.setClient(client);
         this.setName(name);
         this.setDescription(description);
         this.estimatedTime = estimatedTime;
@@ -283,9 +311,10 @@ public class Project {
      */
     @Override
     public boolean equals(Object o) {
+        if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Project project = (Project) o;
-        return Double.compare(getHourlyRate(), project.getHourlyRate()) == 0 && Double.compare(getFixedPrice(), project.getFixedPrice()) == 0 && Objects.equals(getUuid(), project.getUuid()) && Objects.equals(getClient(), project.getClient()) && Objects.equals(getName(), project.getName()) && Objects.equals(getDescription(), project.getDescription()) && Objects.equals(getEstimatedTime(), project.getEstimatedTime()) && Objects.equals(getCreatedAt(), project.getCreatedAt()) && Objects.equals(getDeadline(), project.getDeadline());
+        return Double.compare(getHourlyRate(), project.getHourlyRate()) == 0 && Double.compare(getFixedPrice(), project.getFixedPrice()) == 0 && Objects.equals(getUuid(), project.getUuid()) && Objects.equals(getClientId(), project.getClientId()) && Objects.equals(getName(), project.getName()) && Objects.equals(getDescription(), project.getDescription()) && Objects.equals(getEstimatedTime(), project.getEstimatedTime()) && Objects.equals(getCreatedAt(), project.getCreatedAt()) && Objects.equals(getDeadline(), project.getDeadline());
     }
 
     /**
@@ -295,6 +324,6 @@ public class Project {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(getUuid(), getClient(), getName(), getDescription(), getEstimatedTime(), getHourlyRate(), getFixedPrice(), getCreatedAt(), getDeadline());
+        return Objects.hash(getUuid(), getClientId(), getName(), getDescription(), getEstimatedTime(), getHourlyRate(), getFixedPrice(), getCreatedAt(), getDeadline());
     }
 }
@@ -0,0 +1,41 @@
+package com.lucasbmmn.timetracker.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Represents what is owed for a project over a billing period.
+ *
+ * <p>The hourly amount is the billable time of the period multiplied by the hourly rate of the
+ * project. The fixed amount is the fixed price of the project, charged in the period holding its
+ * deadline, or its creation date if it has no deadline. Amounts have two decimal places.</p>
+ *
+ * @param project      the billed project
+ * @param billable     the billable time logged on the project during the period
+ * @param nonBillable  the non-billable time logged on the project during the period
+ * @param hourlyAmount the amount owed for the billable time
+ * @param fixedAmount  the fixed price charged during the period, or zero
+ */
+public record ProjectInvoice(@NotNull Project project, @NotNull Duration billable,
+                             @NotNull Duration nonBillable, @NotNull BigDecimal hourlyAmount,
+                             @NotNull BigDecimal fixedAmount) {
+    public ProjectInvoice {
+        Objects.requireNonNull(project, "project must not be null");
+        Objects.requireNonNull(billable, "billable must not be null");
+        Objects.requireNonNull(nonBillable, "nonBillable must not be null");
+        Objects.requireNonNull(hourlyAmount, "hourlyAmount must not be null");
+        Objects.requireNonNull(fixedAmount, "fixedAmount must not be null");
+    }
+
+    /**
+     * Returns the whole amount owed for the project.
+     *
+     * @return the sum of the hourly and fixed amounts
+     */
+    public @NotNull BigDecimal total() {
+        return hourlyAmount.add(fixedAmount);
+    }
+}
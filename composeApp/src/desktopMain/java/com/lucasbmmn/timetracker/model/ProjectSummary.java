@@ -0,0 +1,20 @@
+package com.lucasbmmn.timetracker.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Represents the few columns of a project shown in a list, read directly from a query without
+ * building the {@link Project} and its client.
+ *
+ * @param id       the uuid of the project
+ * @param name     the name of the project
+ * @param clientId the uuid of the client of the project, or {@code null} if it has none
+ * @param total    the time logged on the project, the sum of its {@link ProjectTimeEntry} and
+ *                 of the {@link TaskTimeEntry} of its tasks
+ */
+public record ProjectSummary(@NotNull UUID id, @NotNull String name, UUID clientId,
+                             @NotNull Duration total) {
+}
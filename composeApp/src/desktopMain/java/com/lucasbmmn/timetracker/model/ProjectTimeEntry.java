@@ -17,7 +17,7 @@ public class ProjectTimeEntry {
     @NotNull
     private final UUID uuid;
     @NotNull
-    private Project project;
+    private Ref<Project> project;
     @NotNull
     private Duration duration;
     @NotNull
@@ -35,13 +35,14 @@ public class ProjectTimeEntry {
     }
 
     /**
-     * Gets the project associated with this time entry.
+     * Gets the project associated with this time entry, loading it if it is referenced
+     * lazily.
      *
      * @return the project for this time entry, never null
      */
     @NotNull
     public Project getProject() {
-        return project;
+        return project.get();
     }
 
     /**
@@ -51,6 +52,37 @@ public class ProjectTimeEntry {
      * @throws NullPointerException if the project is null
      */
     public void setProject(@NotNull Project project) {
+        Objects.requireNonNull(project, "project must not be null");
+        this.project = Ref.of(project.getUuid(), project);
+    }
+
+    /**
+     * Returns the id of the project of this time entry, without loading the project.
+     *
+     * @return the id of the project, never null
+     */
+    @NotNull
+    public UUID getProjectId() {
+        return project.getId();
+    }
+
+    /**
+     * Returns the reference to the project of this time entry.
+     *
+     * @return the reference to the project, never null
+     */
+    @NotNull
+    public Ref<Project> getProjectRef() {
+        return project;
+    }
+
+    /**
+     * Sets the reference to the project of this time entry, which may load the project lazily.
+     *
+     * @param project the reference to the project, must not be null
+     * @throws NullPointerException if the reference is null
+     */
+    public void setProjectRef(@NotNull Ref<Project> project) {
         Objects.requireNonNull(project, "project must not be null");
         this.project = project;
     }
@@ -139,6 +171,30 @@ public class ProjectTimeEntry {
         this.isBillable = isBillable;
     }
 
+    /**
+     * Constructs a ProjectTimeEntry with an existing UUID and a reference to its project, which
+     * may load the project lazily. This constructor is typically used when loading time entries
+     * from a database.
+     *
+     * @param uuid       the unique identifier for the time entry, must not be null
+     * @param project    the reference to the associated project, must not be null
+     * @param duration   the duration of the time entry, must not be null
+     * @param createdAt  the date/time when the entry was created, must not be null
+     * @param isBillable whether the time is billable {@code true} if billable, {@code false}
+     *                   otherwise
+     * @throws NullPointerException if the uuid, project, duration or creation date is null
+     */
+    public ProjectTimeEntry(@NotNull UUID uuid, @NotNull Ref<Project> project,
+                            @NotNull Duration duration, @NotNull Date createdAt,
+                            boolean isBillable) {
+        Objects.requireNonNull(uuid, "uuid must not be null");
+        this.uuid = uuid;
+        this.setProjectRef(project);
+        this.setDuration(duration);
+        this.setCreatedAt(createdAt);
+        this.isBillable = isBillable;
+    }
+
     /**
      * Constructs a new ProjectTimeEntry with a generated UUID.
      * This constructor is typically used when creating new task types.
@@ -181,9 +237,10 @@ public class ProjectTimeEntry {
      */
     @Override
     public boolean equals(Object o) {
+        if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ProjectTimeEntry that = (ProjectTimeEntry) o;
-        return isBillable() == that.isBillable() && Objects.equals(getUuid(), that.getUuid()) && Objects.equals(getProject(), that.getProject()) && Objects.equals(getDuration(), that.getDuration()) && Objects.equals(getCreatedAt(), that.getCreatedAt());
+        return isBillable() == that.isBillable() && Objects.equals(getUuid(), that.getUuid()) && Objects.equals(getProjectId(), that.getProjectId()) && Objects.equals(getDuration(), that.getDuration()) && Objects.equals(getCreatedAt(), that.getCreatedAt());
     }
 
     /**
@@ -193,6 +250,6 @@ public class ProjectTimeEntry {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(getUuid(), getProject(), getDuration(), getCreatedAt(), isBillable());
+        return Objects.hash(getUuid(), getProjectId(), getDuration(), getCreatedAt(), isBillable());
     }
 }
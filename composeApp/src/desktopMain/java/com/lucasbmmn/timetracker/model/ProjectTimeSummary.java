@@ -0,0 +1,30 @@
+package com.lucasbmmn.timetracker.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Represents the time spent on a project over a period.
+ *
+ * <p>The billable and non-billable durations are the sums of the {@link ProjectTimeEntry} of
+ * the project created during the period. The task duration is the sum of the
+ * {@link TaskTimeEntry} of the tasks of the project created during the period.</p>
+ *
+ * @param projectId   the uuid of the project
+ * @param billable    the billable time logged on the project
+ * @param nonBillable the non-billable time logged on the project
+ * @param tasks       the time logged on the tasks of the project
+ */
+public record ProjectTimeSummary(@NotNull UUID projectId, @NotNull Duration billable,
+                                 @NotNull Duration nonBillable, @NotNull Duration tasks) {
+    /**
+     * Returns the whole time spent on the project.
+     *
+     * @return the sum of the billable, non-billable and task durations
+     */
+    public @NotNull Duration total() {
+        return billable.plus(nonBillable).plus(tasks);
+    }
+}
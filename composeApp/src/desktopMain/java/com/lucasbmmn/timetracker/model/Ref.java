@@ -0,0 +1,130 @@
+package com.lucasbmmn.timetracker.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Reference from an entity to its parent, holding the id of the parent and loading the parent
+ * itself only when it is first requested.
+ *
+ * <p>A reference is either resolved from the start, when the parent is given, or lazy, when it
+ * is loaded from the database: the id is then known and the parent is fetched by its resolver
+ * on the first call to {@link #get()}. Reading the id never loads the parent, so views that
+ * only need ids do not load the parents of the entities they show.</p>
+ *
+ * @param <T> the type of the parent
+ */
+public final class Ref<T> {
+    @NotNull
+    private final UUID id;
+    private Function<UUID, T> resolver;
+    private volatile T value;
+
+    private Ref(@NotNull UUID id, T value, Function<UUID, T> resolver) {
+        this.id = id;
+        this.value = value;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Returns a resolved reference to the given parent.
+     *
+     * @param id    the id of the parent, must not be null
+     * @param value the parent, must not be null
+     * @return the reference
+     * @throws NullPointerException if the id or the parent is null
+     */
+    public static <T> @NotNull Ref<T> of(@NotNull UUID id, @NotNull T value) {
+        Objects.requireNonNull(id, "id must not be null");
+        Objects.requireNonNull(value, "value must not be null");
+        return new Ref<>(id, value, null);
+    }
+
+    /**
+     * Returns a reference loading the parent with the given resolver on first use.
+     *
+     * @param id       the id of the parent, must not be null
+     * @param resolver the function loading the parent from its id, must not be null
+     * @return the reference
+     * @throws NullPointerException if the id or the resolver is null
+     */
+    public static <T> @NotNull Ref<T> lazy(@NotNull UUID id, @NotNull Function<UUID, T> resolver) {
+        Objects.requireNonNull(id, "id must not be null");
+        Objects.requireNonNull(resolver, "resolver must not be null");
+        return new Ref<>(id, null, resolver);
+    }
+
+    /**
+     * Returns the id of the parent, without loading it.
+     *
+     * @return the id of the parent
+     */
+    public @NotNull UUID getId() {
+        return id;
+    }
+
+    /**
+     * Returns the parent, loading it on the first call if the reference is lazy.
+     *
+     * @return the parent, never null
+     * @throws IllegalStateException if the parent no longer exists
+     */
+    public @NotNull T get() {
+        T resolved = this.value;
+        if (resolved != null) return resolved;
+
+        synchronized (this) {
+            if (this.value == null) {
+                T loaded = this.resolver.apply(this.id);
+                // The resolver may have completed this reference with the others of its batch
+                if (this.value == null) {
+                    if (loaded == null)
+                        throw new IllegalStateException("The referenced entity no longer " +
+                                "exists: " + this.id);
+                    this.value = loaded;
+                }
+                this.resolver = null;
+            }
+            return this.value;
+        }
+    }
+
+    /**
+     * Resolves a lazy reference with its parent, loaded along with the parents of other
+     * references so that they need no query of their own. Has no effect if the reference is
+     * already resolved.
+     *
+     * <p>Does not lock the reference, so a loader may complete a batch of references while
+     * another thread waits in {@link #get()} for one of them.</p>
+     *
+     * @param value the parent, must not be null
+     * @throws NullPointerException if the parent is null
+     */
+    public void complete(@NotNull T value) {
+        Objects.requireNonNull(value, "value must not be null");
+        if (this.value == null) this.value = value;
+    }
+
+    /**
+     * Returns whether the parent is loaded, so that {@link #get()} returns it without a query.
+     *
+     * @return {@code true} if the parent is loaded
+     */
+    public boolean isResolved() {
+        return this.value != null;
+    }
+
+    /**
+     * Returns a string representation of the reference, with the parent if it is loaded.
+     *
+     * @return a string representation of the reference
+     */
+    @Override
+    public String toString() {
+        T resolved = this.value;
+        return resolved != null ? resolved.toString() : "Ref{id=" + id + '}';
+    }
+}
@@ -15,7 +15,7 @@ public class Task {
     @NotNull
     private final UUID uuid;
     @NotNull
-    private Project project;
+    private Ref<Project> project;
     @NotNull
     private String name;
     @NotNull
@@ -37,13 +37,13 @@ public class Task {
     }
 
     /**
-     * Gets the project to which this task belongs.
+     * Gets the project to which this task belongs, loading it if it is referenced lazily.
      *
      * @return the project, never null
      */
     @NotNull
     public Project getProject() {
-        return project;
+        return project.get();
     }
 
     /**
@@ -53,6 +53,37 @@ public class Task {
      * @throws NullPointerException if the project is null
      */
     public void setProject(@NotNull Project project) {
+        Objects.requireNonNull(project, "project must not be null");
+        this.project = Ref.of(project.getUuid(), project);
+    }
+
+    /**
+     * Returns the id of the project of this task, without loading the project.
+     *
+     * @return the id of the project, never null
+     */
+    @NotNull
+    public UUID getProjectId() {
+        return project.getId();
+    }
+
+    /**
+     * Returns the reference to the project of this task.
+     *
+     * @return the reference to the project, never null
+     */
+    @NotNull
+    public Ref<Project> getProjectRef() {
+        return project;
+    }
+
+    /**
+     * Sets the reference to the project of this task, which may load the project lazily.
+     *
+     * @param project the reference to the project, must not be null
+     * @throws NullPointerException if the reference is null
+     */
+    public void setProjectRef(@NotNull Ref<Project> project) {
         Objects.requireNonNull(project, "project must not be null");
         this.project = project;
     }
@@ -207,6 +238,35 @@ public class Task {
         this.setCreatedAt(createdAt);
     }
 
+    /**
+     * Constructs a Task with an existing UUID and a reference to its project, which may load
+     * the project lazily. This constructor is typically used when loading tasks from a database.
+     *
+     * @param uuid          the unique identifier, must not be null
+     * @param project       the reference to the project the task belongs to, must not be null
+     * @param name          the task name, must not be null
+     * @param description   the task description, must not be null
+     * @param estimatedTime the estimated duration
+     * @param status        the task status
+     * @param type          the task type
+     * @param createdAt     the creation timestamp, must not be null
+     * @throws NullPointerException if the uuid, project, name, description or creation date is
+     * null
+     */
+    public Task(@NotNull UUID uuid, @NotNull Ref<Project> project, @NotNull String name,
+                @NotNull String description, Duration estimatedTime, TaskStatus status,
+                TaskType type, @NotNull Date createdAt) {
+        Objects.requireNonNull(uuid, "uuid must not be null");
+        this.uuid = uuid;
+        this.setProjectRef(project);
+        this.setName(name);
+        this.setDescription(description);
+        this.estimatedTime = estimatedTime;
+        this.setStatus(status);
+        this.setType(type);
+        this.setCreatedAt(createdAt);
+    }
+
     /**
      * Constructs a new Task with a generated UUID.
      * This constructor is typically used when creating new task types.
@@ -253,9 +313,10 @@ public class Task {
      */
     @Override
     public boolean equals(Object o) {
+        if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Task task = (Task) o;
-        return Objects.equals(getUuid(), task.getUuid()) && Objects.equals(getProject(), task.getProject()) && Objects.equals(getName(), task.getName()) && Objects.equals(getDescription(), task.getDescription()) && Objects.equals(getEstimatedTime(), task.getEstimatedTime()) && Objects.equals(getStatus(), task.getStatus()) && Objects.equals(getType(), task.getType()) && Objects.equals(getCreatedAt(), task.getCreatedAt());
+        return Objects.equals(getUuid(), task.getUuid()) && Objects.equals(getProjectId(), task.getProjectId()) && Objects.equals(getName(), task.getName()) && Objects.equals(getDescription(), task.getDescription()) && Objects.equals(getEstimatedTime(), task.getEstimatedTime()) && Objects.equals(getStatus(), task.getStatus()) && Objects.equals(getType(), task.getType()) && Objects.equals(getCreatedAt(), task.getCreatedAt());
     }
 
     /**
@@ -265,6 +326,6 @@ public class Task {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(getUuid(), getProject(), getName(), getDescription(), getEstimatedTime(), getStatus(), getType(), getCreatedAt());
+        return Objects.hash(getUuid(), getProjectId(), getName(), getDescription(), getEstimatedTime(), getStatus(), getType(), getCreatedAt());
     }
 }
@@ -129,6 +129,7 @@ public class TaskStatus {
      */
     @Override
     public boolean equals(Object o) {
+        if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         TaskStatus that = (TaskStatus) o;
         return Objects.equals(getUuid(), that.getUuid()) && Objects.equals(getLabel(), that.getLabel());
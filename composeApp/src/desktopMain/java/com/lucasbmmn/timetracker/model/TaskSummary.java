@@ -0,0 +1,19 @@
+package com.lucasbmmn.timetracker.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Represents the few columns of a task shown in a list, read directly from a query without
+ * building the {@link Task} and its project.
+ *
+ * @param id        the uuid of the task
+ * @param name      the name of the task
+ * @param projectId the uuid of the project of the task
+ * @param total     the time logged on the task, the sum of its {@link TaskTimeEntry}
+ */
+public record TaskSummary(@NotNull UUID id, @NotNull String name, @NotNull UUID projectId,
+                          @NotNull Duration total) {
+}
@@ -16,7 +16,7 @@ public class TaskTimeEntry {
     @NotNull
     private final UUID uuid;
     @NotNull
-    private Task task;
+    private Ref<Task> task;
     @NotNull
     private Duration duration;
     @NotNull
@@ -33,13 +33,13 @@ public class TaskTimeEntry {
     }
 
     /**
-     * Gets the task associated with this time entry.
+     * Gets the task associated with this time entry, loading it if it is referenced lazily.
      *
      * @return the task for this time entry, never null
      */
     @NotNull
     public Task getTask() {
-        return task;
+        return task.get();
     }
 
     /**
@@ -49,6 +49,37 @@ public class TaskTimeEntry {
      * @throws NullPointerException if the null is null
      */
     public void setTask(@NotNull Task task) {
+        Objects.requireNonNull(task, "task must not be null");
+        this.task = Ref.of(task.getUuid(), task);
+    }
+
+    /**
+     * Returns the id of the task of this time entry, without loading the task.
+     *
+     * @return the id of the task, never null
+     */
+    @NotNull
+    public UUID getTaskId() {
+        return task.getId();
+    }
+
+    /**
+     * Returns the reference to the task of this time entry.
+     *
+     * @return the reference to the task, never null
+     */
+    @NotNull
+    public Ref<Task> getTaskRef() {
+        return task;
+    }
+
+    /**
+     * Sets the reference to the task of this time entry, which may load the task lazily.
+     *
+     * @param task the reference to the task, must not be null
+     * @throws NullPointerException if the reference is null
+     */
+    public void setTaskRef(@NotNull Ref<Task> task) {
         Objects.requireNonNull(task, "task must not be null");
         this.task = task;
     }
@@ -116,6 +147,26 @@ public class TaskTimeEntry {
         this.setCreatedAt(createdAt);
     }
 
+    /**
+     * Constructs a TaskTimeEntry with an existing UUID and a reference to its task, which may
+     * load the task lazily. This constructor is typically used when loading time entries from a
+     * database.
+     *
+     * @param uuid the unique identifier for this time entry, must not be null
+     * @param task the reference to the task of this time entry, must not be null
+     * @param duration the duration of time spent on the task, must not be null
+     * @param createdAt the timestamp when this entry was created, must not be null
+     * @throws NullPointerException if the uuid, task, duration or creation timestamp is null
+     */
+    public TaskTimeEntry(@NotNull UUID uuid, @NotNull Ref<Task> task, @NotNull Duration duration,
+                         @NotNull Date createdAt) {
+        Objects.requireNonNull(uuid, "uuid must not be null");
+        this.uuid = uuid;
+        this.setTaskRef(task);
+        this.setDuration(duration);
+        this.setCreatedAt(createdAt);
+    }
+
     /**
      * Constructs a new TaskTimeEntry with a generated UUID.
      * This constructor is typically used when creating new time entries.
@@ -154,9 +205,10 @@ public class TaskTimeEntry {
      */
     @Override
     public boolean equals(Object o) {
+        if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         TaskTimeEntry that = (TaskTimeEntry) o;
-        return Objects.equals(getUuid(), that.getUuid()) && Objects.equals(getTask(), that.getTask()) && Objects.equals(getDuration(), that.getDuration()) && Objects.equals(getCreatedAt(), that.getCreatedAt());
+        return Objects.equals(getUuid(), that.getUuid()) && Objects.equals(getTaskId(), that.getTaskId()) && Objects.equals(getDuration(), that.getDuration()) && Objects.equals(getCreatedAt(), that.getCreatedAt());
     }
 
     /**
@@ -166,6 +218,6 @@ public class TaskTimeEntry {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(getUuid(), getTask(), getDuration(), getCreatedAt());
+        return Objects.hash(getUuid(), getTaskId(), getDuration(), getCreatedAt());
     }
 }
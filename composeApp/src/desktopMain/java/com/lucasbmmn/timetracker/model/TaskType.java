@@ -130,6 +130,7 @@ public class TaskType {
      */
     @Override
     public boolean equals(Object o) {
+        if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         TaskType taskType = (TaskType) o;
         return Objects.equals(getUuid(), taskType.getUuid()) && Objects.equals(getLabel(), taskType.getLabel());
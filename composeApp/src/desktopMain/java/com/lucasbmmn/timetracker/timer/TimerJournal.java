@@ -0,0 +1,129 @@
+package com.lucasbmmn.timetracker.timer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Append-only file of the events of the running timers, read back after a crash.
+ *
+ * <p>Records are binary: a type byte, the id of the time entry and the time in epoch
+ * milliseconds, plus the id of the task for a {@link #START}, so a heartbeat takes 25 bytes.
+ * Each record is written with a single write, which the operating system keeps if the
+ * application crashes. A record cut short by a crash is ignored when the file is read.</p>
+ */
+final class TimerJournal implements AutoCloseable {
+    static final byte START = 1;
+    static final byte HEARTBEAT = 2;
+    static final byte STOP = 3;
+
+    private static final int EVENT_BYTES = 1 + 16 + 8;
+    private static final int START_BYTES = EVENT_BYTES + 16;
+
+    private final Path path;
+    private FileChannel channel;
+
+    /**
+     * Opens the journal at the given path to append to it, creating it if needed.
+     */
+    TimerJournal(Path path) throws IOException {
+        this.path = path;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        this.channel = open(path);
+    }
+
+    /**
+     * Reads the records of the journal at the given path, in the order they were appended.
+     *
+     * @return the records, empty if there is no journal
+     */
+    static List<Record> read(Path path) throws IOException {
+        List<Record> records = new ArrayList<>();
+        if (!Files.exists(path)) return records;
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        while (buffer.remaining() >= EVENT_BYTES) {
+            byte type = buffer.get(buffer.position());
+            int size = type == START ? START_BYTES : EVENT_BYTES;
+            // Cut short by a crash, or not a record
+            if (buffer.remaining() < size || type < START || type > STOP) break;
+
+            buffer.get();
+            UUID entryId = new UUID(buffer.getLong(), buffer.getLong());
+            UUID taskId = type == START ? new UUID(buffer.getLong(), buffer.getLong()) : null;
+            records.add(new Record(type, entryId, taskId, buffer.getLong()));
+        }
+        return records;
+    }
+
+    void append(Record record) throws IOException {
+        ByteBuffer buffer = encode(List.of(record));
+        while (buffer.hasRemaining()) this.channel.write(buffer);
+    }
+
+    /**
+     * Replaces the content of the journal with the given records. The new content is written to
+     * another file first and moved over the journal, so a crash leaves either one or the other.
+     */
+    void rewrite(List<Record> records) throws IOException {
+        Path temporary = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+        try (FileChannel temporaryChannel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = encode(records);
+            while (buffer.hasRemaining()) temporaryChannel.write(buffer);
+            temporaryChannel.force(true);
+        }
+
+        this.channel.close();
+        Files.move(temporary, this.path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        this.channel = open(this.path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private static ByteBuffer encode(List<Record> records) {
+        int size = 0;
+        for (Record record : records) size += record.type() == START ? START_BYTES : EVENT_BYTES;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (Record record : records) {
+            buffer.put(record.type());
+            buffer.putLong(record.entryId().getMostSignificantBits());
+            buffer.putLong(record.entryId().getLeastSignificantBits());
+            if (record.type() == START) {
+                buffer.putLong(record.taskId().getMostSignificantBits());
+                buffer.putLong(record.taskId().getLeastSignificantBits());
+            }
+            buffer.putLong(record.time());
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * An event of a timer.
+     *
+     * @param type    {@link #START}, {@link #HEARTBEAT} or {@link #STOP}
+     * @param entryId the id of the time entry of the timer
+     * @param taskId  the id of the timed task for a {@link #START}, {@code null} otherwise
+     * @param time    the time of the event, in epoch milliseconds
+     */
+    record Record(byte type, UUID entryId, UUID taskId, long time) {
+    }
+}
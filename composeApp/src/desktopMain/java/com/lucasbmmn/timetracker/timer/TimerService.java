@@ -0,0 +1,380 @@
+package com.lucasbmmn.timetracker.timer;
+
+import com.lucasbmmn.timetracker.data.dao.TaskDao;
+import com.lucasbmmn.timetracker.data.dao.TaskTimeEntryDao;
+import com.lucasbmmn.timetracker.data.database.WriteQueue;
+import com.lucasbmmn.timetracker.model.Task;
+import com.lucasbmmn.timetracker.model.TaskTimeEntry;
+import com.lucasbmmn.timetracker.util.AppDataManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times tasks live without writing to the database every second.
+ *
+ * <p>A running timer is a {@link TaskTimeEntry} kept in memory. Every heartbeat, the current time
+ * of each timer is appended to a journal file; every flush interval, the entries of the running
+ * timers are written to the database with the duration of their last heartbeat, and the journal
+ * is compacted. Stopping a timer writes its final duration at once.</p>
+ *
+ * <p>If the application stops without stopping its timers, the next service reads the journal
+ * when it is constructed and saves each of these timers as stopped at its last heartbeat, so at
+ * most one heartbeat of time is lost.</p>
+ *
+ * <p>A scheduled heartbeat or flush that fails is logged and tried again on its next run; the
+ * failure is kept until a run succeeds, see {@link #getFailure()}. A timer whose task was
+ * deleted is dropped by the next flush, as its entry can no longer be saved.</p>
+ */
+public class TimerService implements AutoCloseable {
+    public static final Path DEFAULT_JOURNAL =
+            Path.of(AppDataManager.getAppDataPath() + File.separator + "timers.journal");
+    public static final Duration DEFAULT_HEARTBEAT = Duration.ofSeconds(1);
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMinutes(1);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimerService.class);
+
+    private final TaskDao taskDao = new TaskDao();
+    private final TaskTimeEntryDao entryDao = new TaskTimeEntryDao();
+    private final Clock clock;
+    private final TimerJournal journal;
+    private final List<TaskTimeEntry> recoveredEntries;
+    private final Map<UUID, RunningTimer> timers = new LinkedHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private volatile RuntimeException failure;
+
+    /**
+     * Constructs a new {@code TimerService} object with the default journal, heartbeat and flush
+     * interval, after saving the timers left running in the journal.
+     *
+     * @throws RuntimeException if the journal cannot be read or written, or the timers left
+     * running cannot be saved
+     */
+    public TimerService() {
+        this(DEFAULT_JOURNAL, DEFAULT_HEARTBEAT, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Constructs a new {@code TimerService} object, after saving the timers left running in the
+     * journal.
+     *
+     * @param journal       the path of the journal file; must not be {@code null}
+     * @param heartbeat     the interval between two heartbeats; must be positive
+     * @param flushInterval the interval between two writes to the database; must be positive
+     * @throws NullPointerException if an argument is {@code null}
+     * @throws IllegalArgumentException if {@code heartbeat} or {@code flushInterval} is not
+     * positive
+     * @throws RuntimeException if the journal cannot be read or written, or the timers left
+     * running cannot be saved
+     */
+    public TimerService(@NotNull Path journal, @NotNull Duration heartbeat,
+                        @NotNull Duration flushInterval) {
+        this(journal, heartbeat, flushInterval, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a new {@code TimerService} object reading the time from the given clock.
+     */
+    TimerService(@NotNull Path journal, @NotNull Duration heartbeat,
+                 @NotNull Duration flushInterval, @NotNull Clock clock) {
+        Objects.requireNonNull(journal, "journal must not be null");
+        Objects.requireNonNull(heartbeat, "heartbeat must not be null");
+        Objects.requireNonNull(flushInterval, "flushInterval must not be null");
+        Objects.requireNonNull(clock, "clock must not be null");
+        if (heartbeat.isNegative() || heartbeat.isZero())
+            throw new IllegalArgumentException("The heartbeat must be positive: " + heartbeat);
+        if (flushInterval.isNegative() || flushInterval.isZero())
+            throw new IllegalArgumentException("The flush interval must be positive: " +
+                    flushInterval);
+        this.clock = clock;
+
+        try {
+            this.recoveredEntries = this.recover(TimerJournal.read(journal));
+            this.journal = new TimerJournal(journal);
+            // Everything in it is now saved
+            this.journal.rewrite(List.of());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "timer-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleAtFixedRate(() -> this.runScheduled(this::heartbeat),
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        this.scheduler.scheduleAtFixedRate(() -> this.runScheduled(this::flush),
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the entries of the timers the journal had left running, saved in the database when
+     * this service was constructed.
+     *
+     * @return the recovered entries; never {@code null}, empty if the timers were all stopped
+     */
+    public @NotNull List<TaskTimeEntry> getRecoveredEntries() {
+        return this.recoveredEntries;
+    }
+
+    /**
+     * Returns the failure of the last scheduled heartbeat or flush. While it is not
+     * {@code null}, the running timers may lose more than a heartbeat of time if the
+     * application stops.
+     *
+     * @return the exception of the last scheduled run, or {@code null} if it succeeded
+     */
+    public @Nullable RuntimeException getFailure() {
+        return this.failure;
+    }
+
+    /**
+     * Starts timing a task.
+     *
+     * @param task the task to time; must not be {@code null}
+     * @return the entry of the timer, with a duration of zero until it is saved
+     * @throws NullPointerException if {@code task} is {@code null}
+     * @throws RuntimeException if the journal cannot be written
+     */
+    public synchronized @NotNull TaskTimeEntry start(@NotNull Task task) {
+        Objects.requireNonNull(task, "task must not be null");
+        long now = this.clock.millis();
+        RunningTimer timer =
+                new RunningTimer(new TaskTimeEntry(task, Duration.ZERO, new Date(now)));
+
+        this.append(new TimerJournal.Record(TimerJournal.START, timer.entry.getUuid(),
+                task.getUuid(), now));
+        this.timers.put(timer.entry.getUuid(), timer);
+        return timer.entry;
+    }
+
+    /**
+     * Stops a timer and saves its entry with its final duration.
+     *
+     * @param entry the entry of the timer, as returned by {@link #start(Task)}; must not be
+     *              {@code null}
+     * @return the saved entry
+     * @throws NullPointerException if {@code entry} is {@code null}
+     * @throws IllegalArgumentException if {@code entry} is not the entry of a running timer
+     * @throws RuntimeException if the entry cannot be saved or the journal cannot be written
+     */
+    public synchronized @NotNull TaskTimeEntry stop(@NotNull TaskTimeEntry entry) {
+        Objects.requireNonNull(entry, "entry must not be null");
+        RunningTimer timer = this.timers.get(entry.getUuid());
+        if (timer == null)
+            throw new IllegalArgumentException("No timer is running for the entry: " +
+                    entry.getUuid());
+
+        long now = this.clock.millis();
+        timer.lastBeat = now;
+        this.save(List.of(timer));
+        // Only once saved, the journal recovers the timer until then
+        this.append(new TimerJournal.Record(TimerJournal.STOP, entry.getUuid(), null, now));
+        this.timers.remove(entry.getUuid());
+        return timer.entry;
+    }
+
+    /**
+     * Returns the entries of the running timers, in the order they were started.
+     *
+     * @return the running entries; never {@code null}
+     */
+    public synchronized @NotNull List<TaskTimeEntry> getRunning() {
+        List<TaskTimeEntry> entries = new ArrayList<>(this.timers.size());
+        for (RunningTimer timer : this.timers.values()) entries.add(timer.entry);
+        return entries;
+    }
+
+    /**
+     * Stops the heartbeats and saves the running timers, which the next service recovers as
+     * stopped at their last heartbeat. Use {@link #stop(TaskTimeEntry)} to stop them now.
+     *
+     * @throws RuntimeException if the timers cannot be saved or the journal cannot be closed
+     */
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+        synchronized (this) {
+            this.heartbeat();
+            this.flush();
+            try {
+                this.journal.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Appends the current time of every running timer to the journal.
+     */
+    synchronized void heartbeat() {
+        if (this.timers.isEmpty()) return;
+
+        long now = this.clock.millis();
+        for (RunningTimer timer : this.timers.values()) {
+            this.append(new TimerJournal.Record(TimerJournal.HEARTBEAT, timer.entry.getUuid(),
+                    null, now));
+            timer.lastBeat = now;
+        }
+    }
+
+    /**
+     * Saves the running timers with the duration of their last heartbeat, then compacts the
+     * journal down to the start and last heartbeat of each timer.
+     */
+    synchronized void flush() {
+        if (this.timers.isEmpty()) return;
+
+        // The entry of a deleted task would fail its foreign key on every flush
+        Set<UUID> taskIds = new HashSet<>();
+        for (RunningTimer timer : this.timers.values()) taskIds.add(timer.entry.getTaskId());
+        Set<UUID> existing = this.taskDao.getByIds(taskIds).keySet();
+        this.timers.values().removeIf(timer -> {
+            if (existing.contains(timer.entry.getTaskId())) return false;
+            LOGGER.warn("Dropped the timer {}, its task {} was deleted", timer.entry.getUuid(),
+                    timer.entry.getTaskId());
+            return true;
+        });
+        if (this.timers.isEmpty()) {
+            this.rewriteJournal(List.of());
+            return;
+        }
+
+        this.save(this.timers.values());
+        List<TimerJournal.Record> records = new ArrayList<>(2 * this.timers.size());
+        for (RunningTimer timer : this.timers.values()) {
+            UUID id = timer.entry.getUuid();
+            records.add(new TimerJournal.Record(TimerJournal.START, id,
+                    timer.entry.getTaskId(), timer.entry.getCreatedAt().getTime()));
+            records.add(new TimerJournal.Record(TimerJournal.HEARTBEAT, id, null,
+                    timer.lastBeat));
+        }
+        this.rewriteJournal(records);
+    }
+
+    /**
+     * Runs a scheduled task, which would not run again if it threw, and records its failure.
+     */
+    void runScheduled(Runnable task) {
+        try {
+            task.run();
+            this.failure = null;
+        } catch (RuntimeException e) {
+            // The journal still holds the timers, the next run tries again
+            if (this.failure == null) LOGGER.error("A scheduled timer update failed", e);
+            this.failure = e;
+        }
+    }
+
+    /**
+     * Writes the entries of the given timers with the duration of their last heartbeat, in one
+     * transaction.
+     */
+    private void save(Collection<RunningTimer> timers) {
+        List<TaskTimeEntry> inserted = new ArrayList<>();
+        List<TaskTimeEntry> updated = new ArrayList<>();
+        for (RunningTimer timer : timers) {
+            timer.entry.setDuration(Duration.ofMillis(
+                    timer.lastBeat - timer.entry.getCreatedAt().getTime()));
+            (timer.saved ? updated : inserted).add(timer.entry);
+        }
+
+        try {
+            WriteQueue.getDefault().execute(() -> {
+                if (!inserted.isEmpty()) this.entryDao.insertAll(inserted);
+                if (!updated.isEmpty()) this.entryDao.updateAll(updated);
+            }).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+        for (RunningTimer timer : timers) timer.saved = true;
+    }
+
+    /**
+     * Saves the timers the journal has no stop for, as stopped at their last heartbeat.
+     *
+     * @return the saved entries
+     */
+    private List<TaskTimeEntry> recover(List<TimerJournal.Record> records) {
+        List<UUID> taskIds = new ArrayList<>();
+        for (TimerJournal.Record record : records)
+            if (record.type() == TimerJournal.START) taskIds.add(record.taskId());
+        Map<UUID, Task> tasks = this.taskDao.getByIds(taskIds);
+
+        Map<UUID, RunningTimer> running = new LinkedHashMap<>();
+        for (TimerJournal.Record record : records) {
+            switch (record.type()) {
+                case TimerJournal.START -> {
+                    Task task = tasks.get(record.taskId());
+                    // A timer of a deleted task has nothing to save
+                    if (task == null) continue;
+                    RunningTimer timer = new RunningTimer(new TaskTimeEntry(record.entryId(),
+                            task, Duration.ZERO, new Date(record.time())));
+                    timer.lastBeat = record.time();
+                    running.put(record.entryId(), timer);
+                }
+                case TimerJournal.HEARTBEAT -> {
+                    RunningTimer timer = running.get(record.entryId());
+                    if (timer != null) timer.lastBeat = Math.max(timer.lastBeat, record.time());
+                }
+                default -> running.remove(record.entryId());
+            }
+        }
+        if (running.isEmpty()) return List.of();
+
+        // Saved by a flush before the crash, or not yet
+        Set<UUID> saved = this.entryDao.getByIds(running.keySet()).keySet();
+        for (RunningTimer timer : running.values())
+            timer.saved = saved.contains(timer.entry.getUuid());
+        this.save(running.values());
+
+        List<TaskTimeEntry> entries = new ArrayList<>(running.size());
+        for (RunningTimer timer : running.values()) entries.add(timer.entry);
+        return Collections.unmodifiableList(entries);
+    }
+
+    private void rewriteJournal(List<TimerJournal.Record> records) {
+        try {
+            this.journal.rewrite(records);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void append(TimerJournal.Record record) {
+        try {
+            this.journal.append(record);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * The entry of a running timer and the time of its last heartbeat.
+     */
+    private static final class RunningTimer {
+        private final TaskTimeEntry entry;
+        private long lastBeat;
+        private boolean saved;
+
+        private RunningTimer(TaskTimeEntry entry) {
+            this.entry = entry;
+            this.lastBeat = entry.getCreatedAt().getTime();
+        }
+    }
+}
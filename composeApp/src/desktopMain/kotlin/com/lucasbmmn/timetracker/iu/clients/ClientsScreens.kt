@@ -28,6 +28,7 @@ import androidx.compose.material.icons.rounded.AlternateEmail
 import androidx.compose.material.icons.rounded.Call
 import androidx.compose.material.icons.rounded.Language
 import androidx.compose.runtime.Composable
+import androidx.compose.runtime.DisposableEffect
 import androidx.compose.runtime.getValue
 import androidx.compose.runtime.mutableStateOf
 import androidx.compose.runtime.remember
@@ -54,6 +55,10 @@ fun ClientsScreen(viewModel: ClientsViewModel = remember { ClientsViewModel() })
     val clients = viewModel.clients
     var clientBeingEdited by remember { mutableStateOf<Client?>(null) }
 
+    DisposableEffect(viewModel) {
+        onDispose { viewModel.close() }
+    }
+
     if (clientBeingEdited == null) {
         val verticalScrollState = rememberScrollState()
         val horizontalScrollState = rememberScrollState()
@@ -66,6 +71,12 @@ fun ClientsScreen(viewModel: ClientsViewModel = remember { ClientsViewModel() })
                     .horizontalScroll(horizontalScrollState)
                     .padding(16.dp)
             ) {
+                viewModel.error?.let { error ->
+                    Text(
+                        text = error,
+                        color = theme.error,
+                    )
+                }
                 clients.forEach { client ->
                     Client(
                         client = client,
@@ -1,36 +1,84 @@
 package com.lucasbmmn.timetracker.iu.clients
 
+import androidx.compose.runtime.getValue
 import androidx.compose.runtime.mutableStateListOf
+import androidx.compose.runtime.mutableStateOf
+import androidx.compose.runtime.setValue
+import com.lucasbmmn.timetracker.data.dao.AsyncDao
 import com.lucasbmmn.timetracker.data.dao.ClientDao
 import com.lucasbmmn.timetracker.model.Client
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.MainScope
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.future.await
+import kotlinx.coroutines.launch
+import org.slf4j.LoggerFactory
 
-class ClientsViewModel {
-    private val clientDao = ClientDao()
+class ClientsViewModel : AutoCloseable {
+    private val clientDao = AsyncDao(ClientDao())
+    // Resumes on the UI thread, the database calls run on the threads of the DAO
+    private val scope = MainScope()
 
     var clients = mutableStateListOf<Client>()
         private set
 
+    // Message of the last database call that failed, null once one succeeds
+    var error by mutableStateOf<String?>(null)
+        private set
+
     init {
-        this.loadClients()
+        this.scope.launch { reporting { loadClients() } }
     }
 
-    private fun loadClients() {
+    private suspend fun loadClients() {
+        val clients = this.clientDao.all.await()
         this.clients.clear()
-        this.clients.addAll(this.clientDao.all)
+        this.clients.addAll(clients)
     }
 
     fun addClient(client: Client) {
-        this.clientDao.insert(client)
-        this.loadClients()
+        this.write { clientDao.insert(client).await() }
     }
 
     fun deleteClient(client: Client) {
-        this.clientDao.delete(client)
-        this.loadClients()
+        this.write { clientDao.delete(client).await() }
     }
 
     fun editClient(newClient: Client) {
-        this.clientDao.update(newClient)
-        this.loadClients()
+        this.write { clientDao.update(newClient).await() }
+    }
+
+    // Cancels the pending calls, their results would update a screen no longer shown
+    override fun close() {
+        this.scope.cancel()
+    }
+
+    private fun write(write: suspend () -> Unit) {
+        this.scope.launch {
+            val failure = reporting(write)
+            // Shows what the database holds, whether the write went through or not
+            reporting { loadClients() }
+            if (failure != null) error = failure
+        }
+    }
+
+    // Runs a database call, reporting its failure instead of letting it reach the UI thread
+    private suspend fun reporting(call: suspend () -> Unit): String? {
+        try {
+            call()
+            this.error = null
+            return null
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            LOGGER.error("A database call of the clients screen failed", e)
+            val message = e.message ?: e.toString()
+            this.error = message
+            return message
+        }
+    }
+
+    private companion object {
+        private val LOGGER = LoggerFactory.getLogger(ClientsViewModel::class.java)
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+package com.lucasbmmn.timetracker.analytics;
+
+import com.lucasbmmn.timetracker.data.dao.ProjectTimeEntryDao;
+import com.lucasbmmn.timetracker.data.dao.RollupDao;
+import com.lucasbmmn.timetracker.data.dao.TaskTimeEntryDao;
+import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportAggregatorTest {
+    private final DatabaseManager dbManager = new DatabaseManager();
+
+    private static final LocalDate DAY1 = LocalDate.of(2021, 10, 5);
+    private static final LocalDate DAY7 = DAY1.plusDays(6);
+    private static final Instant FROM = DAY1.atStartOfDay().toInstant(ZoneOffset.UTC);
+    private static final Instant TO = FROM.plus(Duration.ofDays(7));
+
+    private final Project PROJECT1 = new Project(
+            UUID.fromString("b25179cf-32a1-4e0d-8f16-32d23eec0166"),
+            null,
+            "Website Redesign",
+            "Redesign the company website",
+            null,
+            75,
+            0,
+            new Date(1_633_046_400_000L),
+            null
+    );
+
+    private final Project PROJECT2 = new Project(
+            UUID.fromString("cd6e621b-b81d-4752-96f7-061f3ae5db24"),
+            null,
+            "Mobile App Development",
+            "Develop a mobile app for XYZ Ltd",
+            null,
+            85,
+            0,
+            new Date(1_633_132_800_000L),
+            null
+    );
+
+    private final Task TASK1 = new Task(
+            UUID.fromString("76ba6928-39d6-408a-821a-285a72f33b08"),
+            PROJECT1,
+            "Design Homepage",
+            "Design the homepage for the website",
+            null,
+            null,
+            null,
+            new Date(1_633_219_200_000L)
+    );
+
+    @BeforeEach
+    void setUp() {
+        dbManager.resetDatabase();
+
+        // Entries every 97 minutes over a week, alternating between kinds and projects
+        List<TaskTimeEntry> taskEntries = new ArrayList<>();
+        List<ProjectTimeEntry> projectEntries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Date createdAt = Date.from(FROM.plus(Duration.ofMinutes(97L * i)));
+            Duration duration = Duration.ofSeconds(60 + i);
+            if (i % 3 == 0) taskEntries.add(new TaskTimeEntry(TASK1, duration, createdAt));
+            else projectEntries.add(new ProjectTimeEntry(i % 2 == 0 ? PROJECT1 : PROJECT2,
+                    duration, createdAt, i % 3 == 1));
+        }
+        new TaskTimeEntryDao().insertAll(taskEntries);
+        new ProjectTimeEntryDao().insertAll(projectEntries);
+    }
+
+    @Test
+    void matchesSequentialAggregation() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try (TimeEntryStore store = TimeEntryStore.open()) {
+            ReportAggregator aggregator = new ReportAggregator(store, pool, 8);
+
+            assertEquals(store.summarizeProjects(FROM, TO), aggregator.summarizeProjects(FROM, TO));
+            assertEquals(store.summarizeTasks(FROM, TO), aggregator.summarizeTasks(FROM, TO));
+            assertEquals(new RollupDao().getDailyProjectTotals(DAY1, DAY7),
+                    aggregator.dailyProjectTotals(DAY1, DAY7));
+            assertThrows(IllegalArgumentException.class,
+                    () -> aggregator.dailyProjectTotals(DAY7, DAY1));
+            // Bounded instead of allocating sums for every day of ten millennia
+            assertThrows(IllegalArgumentException.class,
+                    () -> aggregator.dailyProjectTotals(DAY1, DAY7.plusYears(10_000)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void deterministic() {
+        ForkJoinPool singleThread = new ForkJoinPool(1);
+        ForkJoinPool manyThreads = new ForkJoinPool(8);
+        try (TimeEntryStore store = TimeEntryStore.open()) {
+            List<DailyProjectTotal> expected = new ReportAggregator(store, singleThread, 1)
+                    .dailyProjectTotals(DAY1, DAY7);
+            for (int minChunkRows : new int[]{1, 3, 50, 1000})
+                assertEquals(expected, new ReportAggregator(store, manyThreads, minChunkRows)
+                        .dailyProjectTotals(DAY1, DAY7));
+        } finally {
+            singleThread.shutdown();
+            manyThreads.shutdown();
+        }
+    }
+}
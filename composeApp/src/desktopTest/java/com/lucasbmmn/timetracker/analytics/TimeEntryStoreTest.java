@@ -0,0 +1,191 @@
+package com.lucasbmmn.timetracker.analytics;
+
+import com.lucasbmmn.timetracker.data.dao.ProjectDao;
+import com.lucasbmmn.timetracker.data.dao.ProjectTimeEntryDao;
+import com.lucasbmmn.timetracker.data.dao.TaskDao;
+import com.lucasbmmn.timetracker.data.dao.TaskTimeEntryDao;
+import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeEntryStoreTest {
+    private final DatabaseManager dbManager = new DatabaseManager();
+
+    private static final Instant FROM = Instant.parse("2021-10-05T00:00:00Z");
+    private static final Instant TO = Instant.parse("2021-10-06T00:00:00Z");
+
+    private final Project PROJECT1 = new Project(
+            UUID.fromString("b25179cf-32a1-4e0d-8f16-32d23eec0166"),
+            null,
+            "Website Redesign",
+            "Redesign the company website",
+            null,
+            75,
+            0,
+            new Date(1_633_046_400_000L),
+            null
+    );
+
+    private final Project PROJECT2 = new Project(
+            UUID.fromString("cd6e621b-b81d-4752-96f7-061f3ae5db24"),
+            null,
+            "Mobile App Development",
+            "Develop a mobile app for XYZ Ltd",
+            null,
+            85,
+            0,
+            new Date(1_633_132_800_000L),
+            null
+    );
+
+    private final Task TASK1 = new Task(
+            UUID.fromString("76ba6928-39d6-408a-821a-285a72f33b08"),
+            PROJECT1,
+            "Design Homepage",
+            "Design the homepage for the website",
+            null,
+            null,
+            null,
+            new Date(1_633_219_200_000L)
+    );
+
+    private final TaskTimeEntry TASK_ENTRY = new TaskTimeEntry(
+            UUID.fromString("d206549a-c7e0-4786-8ec6-e1702030cc63"),
+            TASK1,
+            Duration.ofSeconds(1800),
+            Date.from(Instant.parse("2021-10-05T09:00:00Z"))
+    );
+
+    private final ProjectTimeEntry BILLABLE_ENTRY = new ProjectTimeEntry(
+            UUID.fromString("3f1c1f4e-2d4b-4c55-9f3e-7a1b2c3d4e5f"),
+            PROJECT1,
+            Duration.ofSeconds(3600),
+            Date.from(Instant.parse("2021-10-05T10:00:00Z")),
+            true
+    );
+
+    private final ProjectTimeEntry NON_BILLABLE_ENTRY = new ProjectTimeEntry(
+            UUID.fromString("9a8b7c6d-5e4f-4a3b-8c2d-1e0f9a8b7c6d"),
+            PROJECT2,
+            Duration.ofSeconds(1200),
+            Date.from(Instant.parse("2021-10-05T11:00:00Z")),
+            false
+    );
+
+    // Outside of the range
+    private final ProjectTimeEntry LATER_ENTRY = new ProjectTimeEntry(
+            UUID.fromString("0c1d2e3f-4a5b-4c6d-8e7f-9a0b1c2d3e4f"),
+            PROJECT1,
+            Duration.ofSeconds(600),
+            Date.from(TO),
+            true
+    );
+
+    @BeforeEach
+    void setUp() {
+        dbManager.resetDatabase();
+    }
+
+    @Test
+    void load() {
+        new TaskTimeEntryDao().insert(TASK_ENTRY);
+        new ProjectTimeEntryDao().insertAll(List.of(BILLABLE_ENTRY, NON_BILLABLE_ENTRY,
+                LATER_ENTRY));
+
+        try (TimeEntryStore store = TimeEntryStore.open()) {
+            assertEquals(4, store.size());
+            assertEquals(Duration.ofSeconds(6600), store.total(FROM, TO));
+            assertEquals(List.of(
+                    new ProjectTimeSummary(PROJECT1.getUuid(), Duration.ofSeconds(3600),
+                            Duration.ZERO, Duration.ofSeconds(1800)),
+                    new ProjectTimeSummary(PROJECT2.getUuid(), Duration.ZERO,
+                            Duration.ofSeconds(1200), Duration.ZERO)
+            ), store.summarizeProjects(FROM, TO));
+            assertEquals(Map.of(TASK1.getUuid(), Duration.ofSeconds(1800)),
+                    store.summarizeTasks(FROM, TO));
+            assertThrows(IllegalArgumentException.class, () -> store.total(TO, FROM));
+        }
+    }
+
+    @Test
+    void followsDaoWrites() {
+        try (TimeEntryStore store = TimeEntryStore.open()) {
+            assertEquals(0, store.size());
+
+            new TaskTimeEntryDao().insert(TASK_ENTRY);
+            new ProjectTimeEntryDao().insertAll(List.of(BILLABLE_ENTRY, NON_BILLABLE_ENTRY));
+            assertEquals(3, store.size());
+            assertEquals(Duration.ofSeconds(6600), store.total(FROM, TO));
+
+            // Update, delete and task moved to another project
+            new ProjectTimeEntryDao().update(new ProjectTimeEntry(BILLABLE_ENTRY.getUuid(),
+                    PROJECT1, Duration.ofSeconds(60), BILLABLE_ENTRY.getCreatedAt(), false));
+            new ProjectTimeEntryDao().delete(NON_BILLABLE_ENTRY);
+            new TaskDao().update(new Task(TASK1.getUuid(), PROJECT2, TASK1.getName(),
+                    TASK1.getDescription(), null, null, null, TASK1.getCreatedAt()));
+            assertEquals(List.of(
+                    new ProjectTimeSummary(PROJECT1.getUuid(), Duration.ZERO,
+                            Duration.ofSeconds(60), Duration.ZERO),
+                    new ProjectTimeSummary(PROJECT2.getUuid(), Duration.ZERO, Duration.ZERO,
+                            Duration.ofSeconds(1800))
+            ), store.summarizeProjects(FROM, TO));
+
+            // Rolled back writes are ignored
+            assertThrows(IllegalStateException.class, () -> dbManager.runInTransaction(() -> {
+                new ProjectTimeEntryDao().insert(LATER_ENTRY);
+                throw new IllegalStateException();
+            }));
+            assertEquals(2, store.size());
+        }
+    }
+
+    @Test
+    void movesTaskRowsAfterRemovals() {
+        TaskTimeEntry secondEntry = new TaskTimeEntry(UUID.randomUUID(), TASK1,
+                Duration.ofSeconds(600), Date.from(Instant.parse("2021-10-05T12:00:00Z")));
+        TaskTimeEntry lastEntry = new TaskTimeEntry(UUID.randomUUID(), TASK1,
+                Duration.ofSeconds(300), Date.from(Instant.parse("2021-10-05T13:00:00Z")));
+        new TaskTimeEntryDao().insert(TASK_ENTRY);
+        new ProjectTimeEntryDao().insert(BILLABLE_ENTRY);
+
+        try (TimeEntryStore store = TimeEntryStore.open()) {
+            new TaskTimeEntryDao().insertAll(List.of(secondEntry, lastEntry));
+            // Fills the freed rows with the last ones, which stay rows of the task
+            new TaskTimeEntryDao().delete(TASK_ENTRY);
+            new TaskTimeEntryDao().update(new TaskTimeEntry(lastEntry.getUuid(), TASK1,
+                    Duration.ofSeconds(900), lastEntry.getCreatedAt()));
+            new TaskDao().update(new Task(TASK1.getUuid(), PROJECT2, TASK1.getName(),
+                    TASK1.getDescription(), null, null, null, TASK1.getCreatedAt()));
+
+            assertEquals(List.of(
+                    new ProjectTimeSummary(PROJECT1.getUuid(), Duration.ofSeconds(3600),
+                            Duration.ZERO, Duration.ZERO),
+                    new ProjectTimeSummary(PROJECT2.getUuid(), Duration.ZERO, Duration.ZERO,
+                            Duration.ofSeconds(1500))
+            ), store.summarizeProjects(FROM, TO));
+        }
+    }
+
+    @Test
+    void reload() {
+        new ProjectDao().insert(PROJECT1);
+        try (TimeEntryStore store = TimeEntryStore.open()) {
+            new ProjectTimeEntryDao().insert(BILLABLE_ENTRY);
+            assertEquals(1, store.size());
+
+            dbManager.resetDatabase();
+            store.reload();
+            assertEquals(0, store.size());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.lucasbmmn.timetracker.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidIndexTest {
+    @Test
+    void putGetRemove() {
+        UuidIndex index = new UuidIndex();
+        UUID key = UUID.randomUUID();
+
+        assertEquals(UuidIndex.ABSENT, index.get(key));
+        index.put(key, 3);
+        assertEquals(3, index.get(key));
+        index.put(key, 5);
+        assertEquals(5, index.get(key));
+        assertEquals(1, index.size());
+
+        assertEquals(5, index.remove(key));
+        assertEquals(UuidIndex.ABSENT, index.get(key));
+        assertEquals(UuidIndex.ABSENT, index.remove(key));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void matchesHashMap() {
+        Random random = new Random(42);
+        UuidIndex index = new UuidIndex();
+        Map<UUID, Integer> expected = new HashMap<>();
+        List<UUID> keys = new ArrayList<>();
+
+        // Enough keys to resize several times, removing some of them on the way
+        for (int i = 0; i < 10_000; i++) {
+            UUID key = new UUID(random.nextLong(), random.nextLong());
+            keys.add(key);
+            index.put(key, i);
+            expected.put(key, i);
+            if (i % 3 == 0) {
+                UUID removed = keys.get(random.nextInt(keys.size()));
+                int removedValue = expected.getOrDefault(removed, UuidIndex.ABSENT);
+                assertEquals(removedValue, index.remove(removed));
+                expected.remove(removed);
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        for (UUID key : keys)
+            assertEquals((int) expected.getOrDefault(key, UuidIndex.ABSENT), index.get(key));
+    }
+}
@@ -0,0 +1,163 @@
+package com.lucasbmmn.timetracker.billing;
+
+import com.lucasbmmn.timetracker.analytics.TimeEntryStore;
+import com.lucasbmmn.timetracker.data.dao.ClientDao;
+import com.lucasbmmn.timetracker.data.dao.ProjectDao;
+import com.lucasbmmn.timetracker.data.dao.ProjectTimeEntryDao;
+import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BillingEngineTest {
+    private final DatabaseManager dbManager = new DatabaseManager();
+    private final BillingEngine engine = new BillingEngine();
+
+    private static final LocalDate DAY1 = LocalDate.of(2021, 10, 5);
+    private static final LocalDate DAY2 = LocalDate.of(2021, 10, 6);
+
+    private final Client CLIENT1 = new Client(
+            UUID.fromString("1f71ee92-f47b-4dc4-8e4e-b47abafa978f"),
+            "XYZ Ltd",
+            "Jane Smith",
+            "jane.smith@xyzltd.com",
+            "0612345678",
+            "+02:00"
+    );
+
+    private final Project PROJECT1 = new Project(
+            UUID.fromString("b25179cf-32a1-4e0d-8f16-32d23eec0166"),
+            CLIENT1,
+            "Website Redesign",
+            "Redesign the company website",
+            null,
+            75,
+            0,
+            new Date(1_633_046_400_000L),
+            null
+    );
+
+    private final Project PROJECT2 = new Project(
+            UUID.fromString("cd6e621b-b81d-4752-96f7-061f3ae5db24"),
+            null,
+            "Mobile App Development",
+            "Develop a mobile app for XYZ Ltd",
+            null,
+            85.5,
+            1000,
+            new Date(1_633_132_800_000L),
+            Date.from(Instant.parse("2021-10-05T12:00:00Z"))
+    );
+
+    // 01:00 on DAY1 for CLIENT1
+    private final ProjectTimeEntry ENTRY1 = new ProjectTimeEntry(
+            UUID.fromString("3f1c1f4e-2d4b-4c55-9f3e-7a1b2c3d4e5f"),
+            PROJECT1,
+            Duration.ofSeconds(3600),
+            Date.from(Instant.parse("2021-10-04T23:00:00Z")),
+            true
+    );
+
+    // 00:30 on DAY2 for CLIENT1
+    private final ProjectTimeEntry ENTRY2 = new ProjectTimeEntry(
+            UUID.fromString("9a8b7c6d-5e4f-4a3b-8c2d-1e0f9a8b7c6d"),
+            PROJECT1,
+            Duration.ofSeconds(1800),
+            Date.from(Instant.parse("2021-10-05T22:30:00Z")),
+            true
+    );
+
+    private final ProjectTimeEntry ENTRY3 = new ProjectTimeEntry(
+            UUID.fromString("0c1d2e3f-4a5b-4c6d-8e7f-9a0b1c2d3e4f"),
+            PROJECT1,
+            Duration.ofSeconds(600),
+            Date.from(Instant.parse("2021-10-05T10:00:00Z")),
+            false
+    );
+
+    private final ProjectTimeEntry ENTRY4 = new ProjectTimeEntry(
+            UUID.fromString("5e6f7a8b-9c0d-4e1f-a2b3-c4d5e6f7a8b9"),
+            PROJECT2,
+            Duration.ofSeconds(1000),
+            Date.from(Instant.parse("2021-10-05T10:00:00Z")),
+            true
+    );
+
+    @BeforeEach
+    void setUp() {
+        dbManager.resetDatabase();
+        new ProjectTimeEntryDao().insertAll(List.of(ENTRY1, ENTRY2, ENTRY3, ENTRY4));
+    }
+
+    @Test
+    void bill() {
+        List<ClientInvoice> invoices = engine.bill(DAY1, DAY1);
+        assertEquals(2, invoices.size());
+
+        // Days of the client's timezone
+        ClientInvoice client1Invoice = invoices.stream()
+                .filter(invoice -> invoice.client() != null).findFirst().orElseThrow();
+        assertEquals(CLIENT1.getUuid(), client1Invoice.client().getUuid());
+        ProjectInvoice project1Invoice = client1Invoice.projects().getFirst();
+        assertEquals(Duration.ofSeconds(3600), project1Invoice.billable());
+        assertEquals(Duration.ofSeconds(600), project1Invoice.nonBillable());
+        assertEquals(new BigDecimal("75.00"), project1Invoice.hourlyAmount());
+        assertEquals(new BigDecimal("75.00"), client1Invoice.total());
+
+        // UTC days and fixed price due on the deadline
+        ClientInvoice noClientInvoice = invoices.stream()
+                .filter(invoice -> invoice.client() == null).findFirst().orElseThrow();
+        ProjectInvoice project2Invoice = noClientInvoice.projects().getFirst();
+        assertEquals(new BigDecimal("23.75"), project2Invoice.hourlyAmount());
+        assertEquals(new BigDecimal("1000.00"), project2Invoice.fixedAmount());
+        assertEquals(new BigDecimal("1023.75"), noClientInvoice.total());
+    }
+
+    @Test
+    void billClient() {
+        ClientInvoice invoice = engine.bill(CLIENT1, DAY2, DAY2);
+        assertEquals(1, invoice.projects().size());
+        assertEquals(new BigDecimal("37.50"), invoice.total());
+
+        assertTrue(engine.bill(CLIENT1, DAY2.plusDays(1), DAY2.plusDays(1)).projects().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> engine.bill(DAY2, DAY1));
+    }
+
+    @Test
+    void offsetBeyondTimezones() {
+        // Accepted by Client but not a valid offset, billed on UTC days
+        CLIENT1.setTimezone("+19:00");
+        new ClientDao().update(CLIENT1);
+
+        ClientInvoice invoice = engine.bill(CLIENT1, DAY1, DAY1);
+        assertEquals(Duration.ofSeconds(1800), invoice.projects().getFirst().billable());
+        assertEquals(2, engine.bill(DAY1, DAY1).size());
+    }
+
+    @Test
+    void billFromStore() {
+        try (TimeEntryStore store = TimeEntryStore.open()) {
+            BillingEngine storeEngine = new BillingEngine(store);
+            assertEquals(engine.bill(DAY1, DAY2), storeEngine.bill(DAY1, DAY2));
+            assertEquals(engine.bill(CLIENT1, DAY2, DAY2), storeEngine.bill(CLIENT1, DAY2, DAY2));
+        }
+    }
+
+    @Test
+    void noEntries() {
+        new ProjectTimeEntryDao().deleteAll(List.of(ENTRY1, ENTRY2, ENTRY3, ENTRY4));
+        new ProjectDao().delete(PROJECT2);
+
+        assertTrue(engine.bill(DAY1, DAY2).isEmpty());
+    }
+}
@@ -0,0 +1,72 @@
+package com.lucasbmmn.timetracker.data.dao;
+
+import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.model.Client;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncDaoTest {
+    private final DatabaseManager dbManager = new DatabaseManager();
+    private final AsyncDao<Client> dao = new AsyncDao<>(new ClientDao());
+
+    @BeforeEach
+    void setUp() {
+        dbManager.resetDatabase();
+    }
+
+    @Test
+    void writeThenRead() {
+        Client client = client(0);
+
+        List<Client> clients = dao.insert(client).thenCompose(ignored -> dao.getAll()).join();
+        assertEquals(List.of(client), clients);
+        assertEquals(client, dao.getById(client.getUuid()).join());
+        assertEquals(client, dao.getById(client.getUuid().toString()).join());
+    }
+
+    @Test
+    void writesRunInOrder() {
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Client client = client(i);
+            writes.add(dao.insert(client));
+            // Would delete nothing if it ran before the insert
+            if (i % 2 == 0) writes.add(dao.delete(client));
+        }
+        CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+
+        assertEquals(25, dao.getAll().join().size());
+    }
+
+    @Test
+    void failures() {
+        Client client = client(0);
+        dao.insert(client).join();
+
+        // Same id twice
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> dao.insert(client).get());
+        assertTrue(e.getCause() instanceof RuntimeException);
+        assertThrows(IllegalArgumentException.class, () -> {
+            try {
+                dao.getPage(0, null).get();
+            } catch (ExecutionException executionException) {
+                throw executionException.getCause();
+            }
+        });
+        assertThrows(NullPointerException.class, () -> dao.insert(null));
+    }
+
+    private static Client client(int i) {
+        return new Client(UUID.randomUUID(), "Company " + i, "Name " + i,
+                "client" + i + "@mail.com", "0612345678", "+01:00");
+    }
+}
@@ -5,7 +5,10 @@ import com.lucasbmmn.timetracker.model.Client;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -89,6 +92,37 @@ class ClientDaoTest {
         assertEquals(CLIENT2, dao.getById(CLIENT2.getUuid()));
     }
 
+    @Test
+    void getByIds() {
+        UUID unknown = UUID.fromString("8c7badbe-b10d-46bc-bd74-213da74e7cd5");
+        assertTrue(dao.getByIds(List.of(CLIENT1.getUuid(), unknown)).isEmpty());
+
+        dao.insert(CLIENT1);
+        dao.insert(CLIENT2);
+        Map<UUID, Client> clients = dao.getByIds(Arrays.asList(CLIENT2.getUuid(), unknown, null,
+                CLIENT1.getUuid(), CLIENT2.getUuid()));
+        assertEquals(List.of(CLIENT2.getUuid(), CLIENT1.getUuid()),
+                List.copyOf(clients.keySet()));
+        assertEquals(CLIENT1, clients.get(CLIENT1.getUuid()));
+        assertEquals(CLIENT2, clients.get(CLIENT2.getUuid()));
+        assertThrows(NullPointerException.class, () -> dao.getByIds(null));
+    }
+
+    @Test
+    void getByIdsInSeveralQueries() {
+        List<Client> inserted = new ArrayList<>();
+        for (int i = 0; i < 1200; i++)
+            inserted.add(new Client("Company " + i, "Client " + i, "client" + i + "@mail.com",
+                    "0600000000", "+00:00"));
+        dao.insertAll(inserted);
+
+        List<UUID> ids = new ArrayList<>();
+        for (Client client : inserted) ids.add(client.getUuid());
+        Map<UUID, Client> clients = dao.getByIds(ids);
+        assertEquals(ids, List.copyOf(clients.keySet()));
+        assertEquals(inserted.get(1199), clients.get(ids.get(1199)));
+    }
+
     @Test
     void insert() {
         assertNull(dao.getById(CLIENT1.getUuid()));
@@ -132,4 +166,19 @@ class ClientDaoTest {
         assertEquals(updatedClient1, dao.getById(CLIENT1.getUuid()));
         assertEquals(updatedClient2, dao.getById(CLIENT2.getUuid()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getPage() {
+        dao.insert(CLIENT2);
+        dao.insert(CLIENT1);
+
+        // Clients have no creation date, they are ordered by id
+        Page<Client> first = dao.getPage(1, null);
+        assertEquals(List.of(CLIENT1), first.items());
+        assertTrue(first.hasNext());
+
+        Page<Client> second = dao.getPage(1, first.nextPageToken());
+        assertEquals(List.of(CLIENT2), second.items());
+        assertFalse(second.hasNext());
+    }
+}
@@ -0,0 +1,128 @@
+package com.lucasbmmn.timetracker.data.dao;
+
+import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DaoSessionTest {
+    private final DatabaseManager dbManager = new DatabaseManager();
+
+    private final Client CLIENT1 = new Client(
+            UUID.fromString("1f71ee92-f47b-4dc4-8e4e-b47abafa978f"),
+            "XYZ Ltd",
+            "Jane Smith",
+            "jane.smith@xyzltd.com",
+            "0612345678",
+            "+02:00"
+    );
+
+    private final Project PROJECT1 = new Project(
+            UUID.fromString("b25179cf-32a1-4e0d-8f16-32d23eec0166"),
+            CLIENT1,
+            "Website Redesign",
+            "Redesign the company website",
+            Duration.ofSeconds(432000),
+            75,
+            0,
+            new Date(1_633_046_400_000L),
+            new Date(1_635_724_800_000L)
+    );
+
+    private final Task TASK1 = new Task(
+            UUID.fromString("76ba6928-39d6-408a-821a-285a72f33b08"),
+            PROJECT1,
+            "Design Homepage",
+            "Design the homepage for the website",
+            Duration.ofSeconds(72000),
+            null,
+            null,
+            new Date(1_633_219_200_000L)
+    );
+
+    private final TaskTimeEntry ENTRY1 = new TaskTimeEntry(
+            UUID.fromString("d206549a-c7e0-4786-8ec6-e1702030cc63"),
+            TASK1,
+            Duration.ofSeconds(1800),
+            new Date(1_633_392_000_000L)
+    );
+
+    private final ProjectTimeEntry ENTRY2 = new ProjectTimeEntry(
+            UUID.fromString("c0a9c32b-faac-4308-a671-02bf4944a335"),
+            PROJECT1,
+            Duration.ofSeconds(3600),
+            new Date(1_633_478_400_000L),
+            true
+    );
+
+    @BeforeEach
+    void setUp() {
+        dbManager.resetDatabase();
+        new TaskTimeEntryDao().insert(ENTRY1);
+        new ProjectTimeEntryDao().insert(ENTRY2);
+    }
+
+    @Test
+    void sharedInstancesInSession() {
+        try (DaoSession session = DaoSession.open()) {
+            List<TaskTimeEntry> taskEntries = new TaskTimeEntryDao().getAll();
+            List<ProjectTimeEntry> projectEntries = new ProjectTimeEntryDao().getAll();
+            Project project = new ProjectDao().getById(PROJECT1.getUuid());
+            Client client = new ClientDao().getById(CLIENT1.getUuid());
+
+            assertEquals(PROJECT1, project);
+            assertSame(project, taskEntries.getFirst().getTask().getProject());
+            assertSame(project, projectEntries.getFirst().getProject());
+            assertSame(client, project.getClient());
+            assertTrue(session.size() > 0);
+        }
+        assertFalse(DaoSession.isOpen());
+    }
+
+    @Test
+    void distinctInstancesWithoutSession() {
+        Project project1 = new ProjectDao().getById(PROJECT1.getUuid());
+        Project project2 = new ProjectDao().getById(PROJECT1.getUuid());
+
+        assertEquals(project1, project2);
+        assertNotSame(project1, project2);
+    }
+
+    @Test
+    void nestedSessions() {
+        try (DaoSession outer = DaoSession.open()) {
+            Project project = new ProjectDao().getById(PROJECT1.getUuid());
+            try (DaoSession inner = DaoSession.open()) {
+                assertSame(outer, inner);
+                assertSame(project, new ProjectDao().getById(PROJECT1.getUuid()));
+            }
+            assertTrue(DaoSession.isOpen());
+            assertSame(project, new ProjectDao().getById(PROJECT1.getUuid()));
+        }
+        assertFalse(DaoSession.isOpen());
+    }
+
+    @Test
+    void writesUpdateSession() {
+        ProjectDao dao = new ProjectDao();
+        try (DaoSession ignored = DaoSession.open()) {
+            Project loaded = dao.getById(PROJECT1.getUuid());
+
+            Project updated = new Project(PROJECT1.getUuid(), null, "Updated", "Updated",
+                    null, 10, 0, new Date(), null);
+            dao.update(updated);
+            assertSame(updated, dao.getById(PROJECT1.getUuid()));
+            assertNotSame(loaded, dao.getById(PROJECT1.getUuid()));
+
+            new ProjectTimeEntryDao().delete(ENTRY2);
+            assertNull(new ProjectTimeEntryDao().getById(ENTRY2.getUuid()));
+        }
+    }
+}
@@ -3,6 +3,10 @@ package com.lucasbmmn.timetracker.data.dao;
 import com.lucasbmmn.timetracker.data.database.DatabaseManager;
 import com.lucasbmmn.timetracker.model.Client;
 import com.lucasbmmn.timetracker.model.Project;
+import com.lucasbmmn.timetracker.model.ProjectSummary;
+import com.lucasbmmn.timetracker.model.ProjectTimeEntry;
+import com.lucasbmmn.timetracker.model.Task;
+import com.lucasbmmn.timetracker.model.TaskTimeEntry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -151,4 +155,28 @@ class ProjectDaoTest {
         assertEquals(updatedProject1, dao.getById(PROJECT1.getUuid()));
         assertEquals(updatedProject2, dao.getById(PROJECT2.getUuid()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSummaries() {
+        dao.insert(PROJECT1);
+        dao.insert(PROJECT2);
+        new ProjectTimeEntryDao().insert(new ProjectTimeEntry(PROJECT1, Duration.ofSeconds(3600),
+                new Date(1_633_219_200_000L), true));
+        Task task = new Task(PROJECT1, "Design Homepage", "Design the homepage", null, null,
+                null, new Date(1_633_219_200_000L));
+        new TaskDao().insert(task);
+        new TaskTimeEntryDao().insert(new TaskTimeEntry(task, Duration.ofSeconds(1800),
+                new Date(1_633_305_600_000L)));
+
+        assertEquals(List.of(
+                new ProjectSummary(PROJECT2.getUuid(), PROJECT2.getName(), null, Duration.ZERO),
+                new ProjectSummary(PROJECT1.getUuid(), PROJECT1.getName(), CLIENT1.getUuid(),
+                        Duration.ofSeconds(5400))
+        ), dao.getSummaries());
+
+        // The totals follow the entries
+        new ProjectTimeEntryDao().insert(new ProjectTimeEntry(PROJECT2, Duration.ofSeconds(600),
+                new Date(1_633_219_200_000L), false));
+        assertEquals(Duration.ofSeconds(600), dao.getSummaries().getFirst().total());
+    }
+}
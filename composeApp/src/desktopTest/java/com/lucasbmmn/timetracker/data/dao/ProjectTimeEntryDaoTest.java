@@ -8,9 +8,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -167,4 +169,26 @@ class ProjectTimeEntryDaoTest {
         assertEquals(updatedEntry1, dao.getById(ENTRY1.getUuid()));
         assertEquals(updatedEntry2, dao.getById(ENTRY2.getUuid()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findBetween() {
+        Instant from = ENTRY1.getCreatedAt().toInstant();
+        Instant to = ENTRY2.getCreatedAt().toInstant().plusMillis(1);
+
+        dao.insert(ENTRY1);
+        dao.insert(ENTRY2);
+
+        try (Stream<ProjectTimeEntry> entries = dao.findBetween(from, to)) {
+            assertEquals(List.of(ENTRY1, ENTRY2), entries.toList());
+        }
+        try (Stream<ProjectTimeEntry> entries = dao.findBetween(from, to, PROJECT2, null)) {
+            assertEquals(List.of(ENTRY2), entries.toList());
+        }
+        try (Stream<ProjectTimeEntry> entries = dao.findBetween(from, to, null, true)) {
+            assertEquals(List.of(ENTRY1), entries.toList());
+        }
+        try (Stream<ProjectTimeEntry> entries = dao.findBetween(from, to, PROJECT1, false)) {
+            assertEquals(0, entries.count());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.lucasbmmn.timetracker.data.dao;
+
+import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceDataTest {
+    private final DatabaseManager dbManager = new DatabaseManager();
+    private final TaskDao taskDao = new TaskDao();
+    private final TaskStatusDao statusDao = new TaskStatusDao();
+    private final TaskTypeDao typeDao = new TaskTypeDao();
+
+    private final TaskStatus STATUS = new TaskStatus(
+            UUID.fromString("695120ec-3575-4a2b-8b92-965484c360e5"),
+            "Blocked"
+    );
+
+    private final TaskType TYPE = new TaskType(
+            UUID.fromString("8c7badbe-b10d-46bc-bd74-213da74e7cd5"),
+            "Review"
+    );
+
+    private final Project PROJECT = new Project(
+            UUID.fromString("cd6e621b-b81d-4752-96f7-061f3ae5db24"),
+            null,
+            "Mobile App Development",
+            "Develop a mobile app for XYZ Ltd",
+            null,
+            85,
+            0,
+            new Date(1_633_132_800_000L),
+            null
+    );
+
+    private final Task TASK = new Task(
+            UUID.fromString("c235b9ec-b3c5-407d-be0f-8b5e5fdf3c0c"),
+            PROJECT,
+            "Develop Login Screen",
+            "Develop the login screen for the mobile app",
+            Duration.ofSeconds(7200),
+            STATUS,
+            TYPE,
+            new Date(1_633_219_200_000L)
+    );
+
+    @BeforeEach
+    void setUp() {
+        dbManager.resetDatabase();
+        statusDao.insert(STATUS);
+        typeDao.insert(TYPE);
+        new ProjectDao().insert(PROJECT);
+        taskDao.insert(TASK);
+    }
+
+    @Test
+    void tasksShareCachedInstances() {
+        Task first = taskDao.getById(TASK.getUuid());
+        Task second = taskDao.getAll().getFirst();
+
+        assertNotSame(first, second);
+        assertEquals(STATUS, first.getStatus());
+        assertSame(first.getStatus(), second.getStatus());
+        assertSame(first.getType(), second.getType());
+        assertSame(first.getStatus(), statusDao.getById(STATUS.getUuid()));
+    }
+
+    @Test
+    void writesRefreshTheCache() {
+        TaskStatus renamed = new TaskStatus(STATUS.getUuid(), "Waiting");
+        statusDao.update(renamed);
+        assertEquals("Waiting", taskDao.getById(TASK.getUuid()).getStatus().getLabel());
+
+        TaskType other = new TaskType("Bug");
+        typeDao.insert(other);
+        assertEquals(other, typeDao.getById(other.getUuid()));
+        assertTrue(typeDao.getAll().contains(other));
+
+        taskDao.delete(TASK);
+        typeDao.delete(TYPE);
+        assertNull(typeDao.getById(TYPE.getUuid()));
+    }
+
+    @Test
+    void rolledBackWriteRefreshesTheCache() {
+        TaskStatus renamed = new TaskStatus(STATUS.getUuid(), "Waiting");
+        assertThrows(IllegalStateException.class, () -> dbManager.runInTransaction(() -> {
+            statusDao.update(renamed);
+            throw new IllegalStateException();
+        }));
+
+        assertEquals("Blocked", statusDao.getById(STATUS.getUuid()).getLabel());
+    }
+
+    @Test
+    void rowWrittenWithoutTheDao() {
+        assertEquals(5, statusDao.getAll().size());
+        UUID id = UUID.randomUUID();
+        dbManager.executeUpdate("INSERT INTO Task_Statuses (id, label) VALUES (?, ?)", id,
+                "Archived");
+
+        // Not cached yet, loaded again before being reported missing
+        assertEquals("Archived", statusDao.getById(id).getLabel());
+        assertEquals(6, statusDao.getAll().size());
+    }
+
+    @Test
+    void resetDropsTheCache() {
+        List<TaskStatus> statuses = statusDao.getAll();
+        dbManager.resetDatabase();
+
+        assertEquals(4, statusDao.getAll().size());
+        assertFalse(statusDao.getAll().contains(STATUS));
+        assertNotEquals(statuses, statusDao.getAll());
+    }
+}
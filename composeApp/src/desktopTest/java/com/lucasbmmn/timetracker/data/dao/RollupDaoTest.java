@@ -0,0 +1,170 @@
+package com.lucasbmmn.timetracker.data.dao;
+
+import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollupDaoTest {
+    private final DatabaseManager dbManager = new DatabaseManager();
+    private final RollupDao dao = new RollupDao();
+
+    private static final LocalDate DAY1 = LocalDate.of(2021, 10, 5);
+    private static final LocalDate DAY2 = LocalDate.of(2021, 10, 6);
+
+    private final Project PROJECT1 = new Project(
+            UUID.fromString("b25179cf-32a1-4e0d-8f16-32d23eec0166"),
+            null,
+            "Website Redesign",
+            "Redesign the company website",
+            null,
+            75,
+            0,
+            new Date(1_633_046_400_000L),
+            null
+    );
+
+    private final Project PROJECT2 = new Project(
+            UUID.fromString("cd6e621b-b81d-4752-96f7-061f3ae5db24"),
+            null,
+            "Mobile App Development",
+            "Develop a mobile app for XYZ Ltd",
+            null,
+            85,
+            0,
+            new Date(1_633_132_800_000L),
+            null
+    );
+
+    private final Task TASK1 = new Task(
+            UUID.fromString("76ba6928-39d6-408a-821a-285a72f33b08"),
+            PROJECT1,
+            "Design Homepage",
+            "Design the homepage for the website",
+            null,
+            null,
+            null,
+            new Date(1_633_219_200_000L)
+    );
+
+    private final TaskTimeEntry TASK_ENTRY1 = new TaskTimeEntry(
+            UUID.fromString("d206549a-c7e0-4786-8ec6-e1702030cc63"),
+            TASK1,
+            Duration.ofSeconds(1800),
+            at(DAY1, 9)
+    );
+
+    private final TaskTimeEntry TASK_ENTRY2 = new TaskTimeEntry(
+            UUID.fromString("c0a9c32b-faac-4308-a671-02bf4944a335"),
+            TASK1,
+            Duration.ofSeconds(600),
+            at(DAY1, 15)
+    );
+
+    private final ProjectTimeEntry BILLABLE_ENTRY = new ProjectTimeEntry(
+            UUID.fromString("3f1c1f4e-2d4b-4c55-9f3e-7a1b2c3d4e5f"),
+            PROJECT1,
+            Duration.ofSeconds(3600),
+            at(DAY1, 10),
+            true
+    );
+
+    private final ProjectTimeEntry NON_BILLABLE_ENTRY = new ProjectTimeEntry(
+            UUID.fromString("9a8b7c6d-5e4f-4a3b-8c2d-1e0f9a8b7c6d"),
+            PROJECT1,
+            Duration.ofSeconds(1200),
+            at(DAY2, 10),
+            false
+    );
+
+    @BeforeEach
+    void setUp() {
+        dbManager.resetDatabase();
+    }
+
+    @Test
+    void totalsFollowEntries() {
+        new TaskTimeEntryDao().insertAll(List.of(TASK_ENTRY1, TASK_ENTRY2));
+        new ProjectTimeEntryDao().insertAll(List.of(BILLABLE_ENTRY, NON_BILLABLE_ENTRY));
+
+        assertEquals(List.of(new DailyTaskTotal(DAY1, TASK1.getUuid(), Duration.ofSeconds(2400))),
+                dao.getDailyTaskTotals(TASK1, DAY1, DAY2));
+        assertEquals(List.of(
+                new DailyProjectTotal(DAY1, PROJECT1.getUuid(), Duration.ofSeconds(3600),
+                        Duration.ZERO, Duration.ofSeconds(2400)),
+                new DailyProjectTotal(DAY2, PROJECT1.getUuid(), Duration.ZERO,
+                        Duration.ofSeconds(1200), Duration.ZERO)
+        ), dao.getDailyProjectTotals(PROJECT1, DAY1, DAY2));
+
+        // Update and delete
+        new TaskTimeEntryDao().update(new TaskTimeEntry(TASK_ENTRY2.getUuid(), TASK1,
+                Duration.ofSeconds(300), at(DAY2, 9)));
+        new ProjectTimeEntryDao().delete(NON_BILLABLE_ENTRY);
+
+        assertEquals(List.of(
+                new DailyTaskTotal(DAY1, TASK1.getUuid(), Duration.ofSeconds(1800)),
+                new DailyTaskTotal(DAY2, TASK1.getUuid(), Duration.ofSeconds(300))
+        ), dao.getDailyTaskTotals(TASK1, DAY1, DAY2));
+        assertEquals(List.of(
+                new DailyProjectTotal(DAY1, PROJECT1.getUuid(), Duration.ofSeconds(3600),
+                        Duration.ZERO, Duration.ofSeconds(1800)),
+                new DailyProjectTotal(DAY2, PROJECT1.getUuid(), Duration.ZERO,
+                        Duration.ZERO, Duration.ofSeconds(300))
+        ), dao.getDailyProjectTotals(PROJECT1, DAY1, DAY2));
+    }
+
+    @Test
+    void taskMovedToAnotherProject() {
+        new TaskTimeEntryDao().insert(TASK_ENTRY1);
+        new ProjectDao().insert(PROJECT2);
+
+        Task movedTask1 = new Task(TASK1.getUuid(), PROJECT2, TASK1.getName(),
+                TASK1.getDescription(), null, null, null, TASK1.getCreatedAt());
+        new TaskDao().update(movedTask1);
+
+        assertTrue(dao.getDailyProjectTotals(PROJECT1, DAY1, DAY2).isEmpty());
+        assertEquals(Duration.ofSeconds(1800),
+                dao.getDailyProjectTotals(PROJECT2, DAY1, DAY2).getFirst().tasks());
+    }
+
+    @Test
+    void rebuild() {
+        new TaskTimeEntryDao().insertAll(List.of(TASK_ENTRY1, TASK_ENTRY2));
+        new ProjectTimeEntryDao().insertAll(List.of(BILLABLE_ENTRY, NON_BILLABLE_ENTRY));
+        List<DailyProjectTotal> projectTotals = dao.getDailyProjectTotals(DAY1, DAY2);
+        List<DailyTaskTotal> taskTotals = dao.getDailyTaskTotals(TASK1, DAY1, DAY2);
+
+        dbManager.executeUpdate("DELETE FROM Daily_Project_Totals");
+        dao.rebuild();
+
+        assertEquals(projectTotals, dao.getDailyProjectTotals(DAY1, DAY2));
+        assertEquals(taskTotals, dao.getDailyTaskTotals(TASK1, DAY1, DAY2));
+    }
+
+    @Test
+    void dayBeforeEpoch() {
+        LocalDate day = LocalDate.of(1969, 12, 31);
+        new TaskTimeEntryDao().insert(new TaskTimeEntry(UUID.randomUUID(), TASK1,
+                Duration.ofSeconds(600), at(day, 12)));
+        List<DailyTaskTotal> totals =
+                List.of(new DailyTaskTotal(day, TASK1.getUuid(), Duration.ofSeconds(600)));
+
+        // Rounded down to its own day, not toward the epoch
+        assertEquals(totals, dao.getDailyTaskTotals(TASK1, day, day.plusDays(1)));
+        dao.rebuild();
+        assertEquals(totals, dao.getDailyTaskTotals(TASK1, day, day.plusDays(1)));
+    }
+
+    private static Date at(LocalDate day, int hour) {
+        return Date.from(day.atTime(hour, 0).toInstant(ZoneOffset.UTC));
+    }
+}
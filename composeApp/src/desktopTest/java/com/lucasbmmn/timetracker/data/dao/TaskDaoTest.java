@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import java.time.Duration;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -138,6 +139,25 @@ class TaskDaoTest {
         assertEquals(TASK2, dao.getById(TASK2.getUuid()));
     }
 
+    @Test
+    void getByIds() {
+        dao.insert(TASK1);
+        dao.insert(TASK2);
+        Task task3 = new Task(PROJECT2, "Develop Signup Screen",
+                "Develop the signup screen for the mobile app", null, null, null,
+                new Date(1_633_305_600_000L));
+        dao.insert(task3);
+
+        Map<UUID, Task> tasks = dao.getByIds(List.of(TASK1.getUuid(), TASK2.getUuid(),
+                task3.getUuid()));
+        assertEquals(3, tasks.size());
+        assertEquals(TASK1, tasks.get(TASK1.getUuid()));
+        assertEquals(TASK2, tasks.get(TASK2.getUuid()));
+        // Loaded together, the tasks share their project
+        assertSame(tasks.get(TASK2.getUuid()).getProject(),
+                tasks.get(task3.getUuid()).getProject());
+    }
+
     @Test
     void insert() {
         assertNull(dao.getById(TASK1.getUuid()));
@@ -181,4 +201,78 @@ class TaskDaoTest {
         assertEquals(updatedTask1, dao.getById(TASK1.getUuid()));
         assertEquals(updatedTask2, dao.getById(TASK2.getUuid()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void insertKeepsExistingParents() {
+        dao.insert(TASK1);
+
+        // The project is already saved, inserting a task must not overwrite it
+        Project renamedProject1 = new Project(PROJECT1.getUuid(), CLIENT1, "Renamed Project",
+                PROJECT1.getDescription(), PROJECT1.getEstimatedTime(), PROJECT1.getHourlyRate(),
+                PROJECT1.getFixedPrice(), PROJECT1.getCreatedAt(), PROJECT1.getDeadline());
+        Task task3 = new Task(UUID.randomUUID(), renamedProject1, "Task 3", "", null, STATUS1,
+                TYPE1, new Date());
+        dao.insert(task3);
+
+        assertEquals(1, new ProjectDao().getAll().size());
+        assertEquals(PROJECT1.getName(), new ProjectDao().getById(PROJECT1.getUuid()).getName());
+        assertEquals(1, new ClientDao().getAll().size());
+        assertEquals(task3.getName(), dao.getById(task3.getUuid()).getName());
+    }
+
+    @Test
+    void projectLoadedLazily() {
+        dao.insert(TASK1);
+
+        Task task = dao.getById(TASK1.getUuid());
+        assertEquals(PROJECT1.getUuid(), task.getProjectId());
+        assertFalse(task.getProjectRef().isResolved());
+
+        assertEquals(PROJECT1, task.getProject());
+        assertTrue(task.getProjectRef().isResolved());
+        assertFalse(task.getProject().getClientRef().isResolved());
+        assertEquals(CLIENT1, task.getProject().getClient());
+    }
+
+    @Test
+    void projectsLoadedTogether() {
+        dao.insert(TASK1);
+        dao.insert(TASK2);
+        Task task3 = new Task(PROJECT2, "Develop Signup Screen",
+                "Develop the signup screen for the mobile app", null, null, null,
+                new Date(1_633_305_600_000L));
+        dao.insert(task3);
+
+        Map<UUID, Task> tasks = dao.getByIds(List.of(TASK1.getUuid(), TASK2.getUuid(),
+                task3.getUuid()));
+        assertSame(tasks.get(TASK2.getUuid()).getProjectRef(),
+                tasks.get(task3.getUuid()).getProjectRef());
+
+        // Resolving one project loads every project of the query
+        assertEquals(PROJECT1, tasks.get(TASK1.getUuid()).getProject());
+        assertTrue(tasks.get(TASK2.getUuid()).getProjectRef().isResolved());
+        assertEquals(PROJECT2, tasks.get(TASK2.getUuid()).getProject());
+    }
+
+    @Test
+    void getSummaries() {
+        dao.insert(TASK1);
+        dao.insert(TASK2);
+        Task task3 = new Task(PROJECT1, "Build Homepage", "Build the homepage", null, null, null,
+                new Date(1_633_305_600_000L));
+        dao.insert(task3);
+        TaskTimeEntryDao entryDao = new TaskTimeEntryDao();
+        entryDao.insert(new TaskTimeEntry(TASK1, Duration.ofSeconds(1800),
+                new Date(1_633_219_200_000L)));
+        entryDao.insert(new TaskTimeEntry(TASK1, Duration.ofSeconds(600),
+                new Date(1_633_305_600_000L)));
+
+        assertEquals(List.of(
+                new TaskSummary(task3.getUuid(), task3.getName(), PROJECT1.getUuid(),
+                        Duration.ZERO),
+                new TaskSummary(TASK1.getUuid(), TASK1.getName(), PROJECT1.getUuid(),
+                        Duration.ofSeconds(2400))
+        ), dao.getSummaries(PROJECT1));
+        assertTrue(dao.getSummaries(PROJECT2).getFirst().total().isZero());
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -80,6 +81,16 @@ class TaskStatusDaoTest {
         assertEquals(STATUS2, dao.getById(STATUS2.getUuid()));
     }
 
+    @Test
+    void getByIds() {
+        dao.insert(STATUS1);
+        UUID unknown = UUID.fromString("8c7badbe-b10d-46bc-bd74-213da74e7cd5");
+
+        Map<UUID, TaskStatus> statuses = dao.getByIds(List.of(unknown, STATUS1.getUuid()));
+        assertEquals(Map.of(STATUS1.getUuid(), STATUS1), statuses);
+        assertThrows(NullPointerException.class, () -> dao.getByIds(null));
+    }
+
     @Test
     void insert() {
         assertNull(dao.getById(STATUS1.getUuid()));
@@ -6,9 +6,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -185,4 +187,106 @@ class TaskTimeEntryDaoTest {
         assertEquals(updatedEntry1, dao.getById(ENTRY1.getUuid()));
         assertEquals(updatedEntry2, dao.getById(ENTRY2.getUuid()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void insertAll() {
+        dao.insertAll(List.of());
+        assertEquals(0, dao.getAll().size());
+
+        dao.insertAll(List.of(ENTRY1, ENTRY2));
+        assertEquals(2, dao.getAll().size());
+        assertEquals(ENTRY1, dao.getById(ENTRY1.getUuid()));
+        assertEquals(ENTRY2, dao.getById(ENTRY2.getUuid()));
+        assertEquals(2, new TaskDao().getAll().size());
+
+        // A failing row rolls back the whole batch
+        TaskTimeEntry entry3 = new TaskTimeEntry(UUID.randomUUID(), TASK1,
+                Duration.ofSeconds(60), new Date());
+        assertThrows(RuntimeException.class, () -> dao.insertAll(List.of(entry3, ENTRY1)));
+        assertNull(dao.getById(entry3.getUuid()));
+        assertEquals(2, dao.getAll().size());
+    }
+
+    @Test
+    void deleteAll() {
+        dao.insertAll(List.of(ENTRY1, ENTRY2));
+
+        dao.deleteAll(List.of(ENTRY1, ENTRY2));
+        assertEquals(0, dao.getAll().size());
+    }
+
+    @Test
+    void updateAll() {
+        dao.insertAll(List.of(ENTRY1, ENTRY2));
+
+        TaskTimeEntry updatedEntry1 = new TaskTimeEntry(ENTRY1.getUuid(), TASK2, Duration.ofSeconds(5400), new Date());
+        TaskTimeEntry updatedEntry2 = new TaskTimeEntry(ENTRY2.getUuid(), TASK2, Duration.ofSeconds(9000), new Date());
+        dao.updateAll(List.of(updatedEntry1, updatedEntry2));
+
+        assertEquals(updatedEntry1, dao.getById(ENTRY1.getUuid()));
+        assertEquals(updatedEntry2, dao.getById(ENTRY2.getUuid()));
+    }
+
+    @Test
+    void streamAll() {
+        try (Stream<TaskTimeEntry> entries = dao.streamAll()) {
+            assertEquals(0, entries.count());
+        }
+
+        dao.insertAll(List.of(ENTRY1, ENTRY2));
+        try (Stream<TaskTimeEntry> entries = dao.streamAll()) {
+            List<TaskTimeEntry> list = entries.toList();
+            assertEquals(2, list.size());
+            assertTrue(list.contains(ENTRY1));
+            assertTrue(list.contains(ENTRY2));
+        }
+    }
+
+    @Test
+    void getPage() {
+        assertThrows(IllegalArgumentException.class, () -> dao.getPage(0, null));
+        assertThrows(IllegalArgumentException.class, () -> dao.getPage(10, "not a token"));
+
+        Page<TaskTimeEntry> empty = dao.getPage(10, null);
+        assertTrue(empty.items().isEmpty());
+        assertFalse(empty.hasNext());
+
+        // Two entries created at the same time are ordered by id
+        TaskTimeEntry entry3 = new TaskTimeEntry(
+                UUID.fromString("ffffffff-0000-4000-8000-000000000000"),
+                TASK1, Duration.ofSeconds(60), ENTRY2.getCreatedAt());
+        dao.insertAll(List.of(ENTRY1, ENTRY2, entry3));
+        assertEquals(3, dao.estimateCount());
+
+        Page<TaskTimeEntry> first = dao.getPage(2, null);
+        assertEquals(List.of(entry3, ENTRY2), first.items());
+        assertTrue(first.hasNext());
+
+        Page<TaskTimeEntry> second = dao.getPage(2, first.nextPageToken());
+        assertEquals(List.of(ENTRY1), second.items());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void findBetween() {
+        Instant from = ENTRY1.getCreatedAt().toInstant();
+        Instant to = ENTRY2.getCreatedAt().toInstant();
+        assertThrows(IllegalArgumentException.class, () -> dao.findBetween(to, from));
+
+        dao.insertAll(List.of(ENTRY1, ENTRY2));
+
+        // The end of the range is excluded
+        try (Stream<TaskTimeEntry> entries = dao.findBetween(from, to)) {
+            assertEquals(List.of(ENTRY1), entries.toList());
+        }
+        try (Stream<TaskTimeEntry> entries = dao.findBetween(from, to.plusMillis(1))) {
+            assertEquals(List.of(ENTRY1, ENTRY2), entries.toList());
+        }
+        try (Stream<TaskTimeEntry> entries = dao.findBetween(from, to.plusMillis(1), TASK2)) {
+            assertEquals(List.of(ENTRY2), entries.toList());
+        }
+        try (Stream<TaskTimeEntry> entries = dao.findBetween(from, to.plusMillis(1), PROJECT1)) {
+            assertEquals(List.of(ENTRY1), entries.toList());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.lucasbmmn.timetracker.data.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+    // Long enough for a blocked thread to show it is waiting
+    private static final long WAIT_MILLIS = 200;
+
+    @TempDir
+    Path directory;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ConnectionPool("jdbc:sqlite:" + directory.resolve("pool.db"), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void nestedReadersShareLease() throws Exception {
+        Connection outer = pool.acquireReader();
+        Connection inner = pool.acquireReader();
+        assertSame(outer, inner);
+
+        // Still leased by the outer acquisition, another thread has to wait for it
+        pool.releaseReader(inner);
+        CompletableFuture<Connection> other = onOtherThread(() -> {
+            Connection connection = pool.acquireReader();
+            pool.releaseReader(connection);
+            return connection;
+        });
+        assertThrows(TimeoutException.class, () -> other.get(WAIT_MILLIS, TimeUnit.MILLISECONDS));
+
+        pool.releaseReader(outer);
+        assertSame(outer, other.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void readersBlockAtCap() throws Exception {
+        Connection reader = pool.acquireReader();
+        CompletableFuture<Connection> other = onOtherThread(() -> {
+            Connection connection = pool.acquireReader();
+            pool.releaseReader(connection);
+            return connection;
+        });
+        assertThrows(TimeoutException.class, () -> other.get(WAIT_MILLIS, TimeUnit.MILLISECONDS));
+
+        pool.releaseReader(reader);
+        // Only one reader is ever opened, the waiting thread gets the released one
+        assertSame(reader, other.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void writerIsExclusive() throws Exception {
+        Connection writer = pool.acquireWriter();
+        assertTrue(pool.isWriterHeldByCurrentThread());
+        assertFalse(onOtherThread(pool::isWriterHeldByCurrentThread).get(5, TimeUnit.SECONDS));
+        assertSame(writer, pool.acquireWriter());
+        // Reads through the writer to see its own changes
+        assertSame(writer, pool.acquireReader());
+        // Held, even by the current thread
+        assertNull(pool.tryAcquireWriter());
+        assertNull(onOtherThread(pool::tryAcquireWriter).get(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Connection> other = onOtherThread(() -> {
+            Connection connection = pool.acquireWriter();
+            pool.releaseWriter();
+            return connection;
+        });
+        pool.releaseWriter();
+        assertThrows(TimeoutException.class, () -> other.get(WAIT_MILLIS, TimeUnit.MILLISECONDS));
+
+        pool.releaseWriter();
+        assertSame(writer, other.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void closeWithLeasedReader() throws Exception {
+        Connection reader = pool.acquireReader();
+        Connection writer = pool.acquireWriter();
+        pool.releaseWriter();
+
+        pool.close();
+        assertTrue(writer.isClosed());
+        // Closed once given back, not under the thread using it
+        assertFalse(reader.isClosed());
+        assertThrows(SQLException.class, pool::acquireReader);
+        assertThrows(SQLException.class, pool::acquireWriter);
+
+        pool.releaseReader(reader);
+        assertTrue(reader.isClosed());
+    }
+
+    private static <T> CompletableFuture<T> onOtherThread(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Thread.ofPlatform().daemon(true).start(() -> {
+            try {
+                future.complete(task.call());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+}
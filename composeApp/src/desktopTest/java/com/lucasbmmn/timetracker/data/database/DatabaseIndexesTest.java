@@ -0,0 +1,84 @@
+package com.lucasbmmn.timetracker.data.database;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseIndexesTest {
+    private final DatabaseManager dbManager = new DatabaseManager();
+
+    @BeforeEach
+    void setUp() {
+        dbManager.resetDatabase();
+    }
+
+    @Test
+    void projectsByClient() {
+        assertUsesIndex("idx_projects_client_id",
+                "SELECT * FROM Projects WHERE client_id=?", "client");
+    }
+
+    @Test
+    void tasksByProject() {
+        assertUsesIndex("idx_tasks_project_id",
+                "SELECT * FROM Tasks WHERE project_id=?", "project");
+    }
+
+    @Test
+    void taskTimeEntriesByTask() {
+        assertUsesIndex("idx_task_time_entries_task_id_created_at",
+                "SELECT * FROM Task_Time_Entries WHERE task_id=? AND created_at>=?", "task", 0L);
+    }
+
+    @Test
+    void projectTimeEntriesByProject() {
+        assertUsesIndex("idx_project_time_entries_project_id_created_at",
+                "SELECT * FROM Project_Time_Entries WHERE project_id=? ORDER BY created_at",
+                "project");
+    }
+
+    @Test
+    void timeEntriesByCreationDate() {
+        assertUsesIndex("idx_task_time_entries_created_at",
+                "SELECT * FROM Task_Time_Entries WHERE created_at BETWEEN ? AND ?", 0L, 1L);
+        assertUsesIndex("idx_project_time_entries_created_at",
+                "SELECT * FROM Project_Time_Entries WHERE created_at BETWEEN ? AND ?", 0L, 1L);
+    }
+
+    @Test
+    void newestFirstPages() {
+        assertUsesIndex("idx_task_time_entries_created_at",
+                "SELECT * FROM Task_Time_Entries WHERE (created_at, id) < (?, ?) " +
+                        "ORDER BY created_at DESC, id DESC LIMIT ?", 0L, "id", 100);
+        assertUsesIndex("idx_tasks_created_at",
+                "SELECT * FROM Tasks ORDER BY created_at DESC, id DESC LIMIT ?", 100);
+        assertUsesIndex("idx_projects_created_at",
+                "SELECT * FROM Projects ORDER BY created_at DESC, id DESC LIMIT ?", 100);
+    }
+
+    @Test
+    void existingDatabaseGetsMissingIndexes() {
+        // Database at the version before the indexes
+        MigrationRunnerTest.dropTables();
+        new MigrationRunner(1).migrate();
+        assertFalse(listIndexes().contains("idx_tasks_project_id"));
+
+        assertFalse(new DatabaseSetup().InitializeDatabase());
+        assertTrue(listIndexes().contains("idx_tasks_project_id"));
+    }
+
+    private void assertUsesIndex(String index, String sql, Object... params) {
+        List<String> plan = dbManager.executeQuery("EXPLAIN QUERY PLAN " + sql,
+                rs -> rs.getString("detail"), params);
+        assertTrue(plan.stream().anyMatch(detail -> detail.contains("USING INDEX " + index)),
+                "Expected " + index + " in query plan " + plan);
+    }
+
+    private List<String> listIndexes() {
+        return dbManager.executeQuery("SELECT name FROM sqlite_master WHERE type='index'",
+                rs -> rs.getString("name"));
+    }
+}
@@ -0,0 +1,114 @@
+package com.lucasbmmn.timetracker.data.database;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseManagerTest {
+    private final DatabaseManager dbManager = new DatabaseManager();
+
+    @BeforeEach
+    void setUp() {
+        dbManager.resetDatabase();
+    }
+
+    @Test
+    void statementCache() {
+        String sql = "SELECT label FROM Task_Statuses WHERE label=?";
+
+        // First execution may prepare the statement, the following ones must reuse it
+        dbManager.executeQuery(sql, rs -> rs.getString("label"), "Not Started");
+        StatementCacheStats before = DatabaseManager.getStatementCacheStats();
+
+        for (int i = 0; i < 10; i++) {
+            List<String> labels = dbManager.executeQuery(sql, rs -> rs.getString("label"),
+                    "Not Started");
+            assertEquals(List.of("Not Started"), labels);
+        }
+        StatementCacheStats after = DatabaseManager.getStatementCacheStats();
+
+        assertEquals(before.misses(), after.misses());
+        assertEquals(before.hits() + 10, after.hits());
+    }
+
+    @Test
+    void configurePool() {
+        assertThrows(IllegalArgumentException.class, () -> DatabaseManager.configurePool(0));
+
+        DatabaseManager.configurePool(1);
+        assertFalse(dbManager.listTables().isEmpty());
+
+        DatabaseManager.configurePool(ConnectionPool.DEFAULT_READER_COUNT);
+        assertFalse(dbManager.listTables().isEmpty());
+    }
+
+    @Test
+    void configureProfile() {
+        assertEquals(DatabaseProfile.BALANCED, DatabaseManager.getProfile());
+        assertEquals(List.of("wal"), dbManager.executeQuery("PRAGMA journal_mode",
+                rs -> rs.getString(1)));
+        assertEquals(List.of(1), dbManager.executeQuery("PRAGMA synchronous",
+                rs -> rs.getInt(1)));
+        assertEquals(List.of(1), dbManager.executeQuery("PRAGMA foreign_keys",
+                rs -> rs.getInt(1)));
+
+        try {
+            DatabaseManager.configureProfile(DatabaseProfile.fromName("fast-import"));
+            assertEquals(List.of(0), dbManager.executeQuery("PRAGMA synchronous",
+                    rs -> rs.getInt(1)));
+        } finally {
+            DatabaseManager.configureProfile(DatabaseProfile.BALANCED);
+        }
+        assertThrows(IllegalArgumentException.class, () -> DatabaseProfile.fromName("unknown"));
+    }
+
+    @Test
+    void foreignKeys() {
+        assertThrows(RuntimeException.class, () -> dbManager.executeUpdate(
+                "INSERT INTO Projects (id, client_id, name, description, created_at) " +
+                        "VALUES ('p', 'missing', 'Project', '', 0)"));
+    }
+
+    @Test
+    void streamQuery() {
+        String sql = "SELECT label FROM Task_Statuses ORDER BY label";
+
+        try (Stream<String> labels = dbManager.streamQuery(sql, rs -> rs.getString("label"))) {
+            assertEquals(List.of("Completed", "In Progress"), labels.limit(2).toList());
+        }
+
+        // Closing the stream gives the statement back to the cache
+        StatementCacheStats before = DatabaseManager.getStatementCacheStats();
+        try (Stream<String> labels = dbManager.streamQuery(sql, rs -> rs.getString("label"))) {
+            assertEquals(4, labels.count());
+        }
+        assertEquals(before.hits() + 1, DatabaseManager.getStatementCacheStats().hits());
+    }
+
+    @Test
+    void afterCommit() {
+        List<String> events = new ArrayList<>();
+
+        // Without transaction the callback runs right away
+        dbManager.afterCommit(() -> events.add("now"));
+        assertEquals(List.of("now"), events);
+
+        dbManager.runInTransaction(() -> {
+            dbManager.afterCommit(() -> events.add("committed"));
+            dbManager.runInTransaction(() -> dbManager.afterCommit(() -> events.add("nested")));
+            assertEquals(List.of("now"), events);
+        });
+        assertEquals(List.of("now", "committed", "nested"), events);
+
+        assertThrows(IllegalStateException.class, () -> dbManager.runInTransaction(() -> {
+            dbManager.afterCommit(() -> events.add("rolled back"));
+            throw new IllegalStateException();
+        }));
+        assertEquals(List.of("now", "committed", "nested"), events);
+    }
+}
@@ -0,0 +1,131 @@
+package com.lucasbmmn.timetracker.data.database;
+
+import com.lucasbmmn.timetracker.data.dao.TaskStatusDao;
+import com.lucasbmmn.timetracker.model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MigrationRunnerTest {
+    private final DatabaseManager dbManager = new DatabaseManager();
+    private final MigrationRunner runner = new MigrationRunner();
+
+    @BeforeEach
+    void setUp() {
+        dbManager.resetDatabase();
+    }
+
+    @Test
+    void newDatabaseIsUpToDate() {
+        assertTrue(runner.getLatestVersion() >= 2);
+        assertEquals(runner.getLatestVersion(), runner.getCurrentVersion());
+
+        // Nothing left to run
+        assertEquals(0, runner.migrate());
+        assertEquals(4, dbManager.executeQuery("SELECT label FROM Task_Statuses",
+                rs -> rs.getString("label")).size());
+    }
+
+    @Test
+    void legacyDatabase() {
+        // Database created before migrations: initial schema, no version
+        dropTables();
+        new MigrationRunner(1).migrate();
+        dbManager.executeUpdate("PRAGMA user_version = 0");
+
+        assertEquals(runner.getLatestVersion() - 1, runner.migrate());
+        assertEquals(runner.getLatestVersion(), runner.getCurrentVersion());
+        assertFalse(dbManager.executeQuery(
+                "SELECT name FROM sqlite_master WHERE name='idx_tasks_project_id'",
+                rs -> rs.getString("name")).isEmpty());
+    }
+
+    @Test
+    void textIdsBecomeBlobs() {
+        dropTables();
+        new MigrationRunner(4).migrate();
+        UUID id = UUID.randomUUID();
+        // Bound as a string, like the ids written before V5
+        dbManager.executeUpdate("INSERT INTO Task_Statuses (id, label) VALUES (?, ?)",
+                id.toString(), "Blocked");
+
+        runner.migrate();
+
+        assertEquals(List.of("blob"), dbManager.executeQuery(
+                "SELECT typeof(id) AS type FROM Task_Statuses", rs -> rs.getString("type")));
+        TaskStatus status = new TaskStatusDao().getById(id);
+        assertNotNull(status);
+        assertEquals("Blocked", status.getLabel());
+    }
+
+    @Test
+    void malformedIdFailsMigration() {
+        dropTables();
+        new MigrationRunner(4).migrate();
+        dbManager.executeUpdate("INSERT INTO Task_Statuses (id, label) VALUES (?, ?)",
+                "not-a-uuid", "Blocked");
+
+        // Would become a NULL id, rolled back instead
+        assertThrows(RuntimeException.class, runner::migrate);
+        assertEquals(4, runner.getCurrentVersion());
+        assertEquals(List.of("not-a-uuid"), dbManager.executeQuery(
+                "SELECT id FROM Task_Statuses WHERE label = 'Blocked'", rs -> rs.getString("id")));
+    }
+
+    @Test
+    void readIncludesScript() {
+        String script = MigrationRunner.readScript(MigrationRunner.class.getClassLoader(),
+                "files/database/migrations/V6.sql");
+
+        assertFalse(script.contains(".read"));
+        assertTrue(script.contains("DELETE FROM Daily_Task_Totals;"));
+    }
+
+    @Test
+    void splitStatements() {
+        String script = """
+                -- Comment
+                CREATE TABLE A (
+                    id TEXT PRIMARY KEY
+                );
+
+                CREATE INDEX idx_a ON A (id);
+                """;
+
+        assertEquals(List.of("CREATE TABLE A (\n    id TEXT PRIMARY KEY\n);",
+                "CREATE INDEX idx_a ON A (id);"), MigrationRunner.splitStatements(script));
+    }
+
+    @Test
+    void splitTriggers() {
+        String script = """
+                CREATE TRIGGER trg_a
+                AFTER INSERT ON A
+                BEGIN
+                    INSERT INTO B (id) VALUES (NEW.id);
+                    DELETE FROM C;
+                END;
+                DELETE FROM A;
+                """;
+
+        List<String> statements = MigrationRunner.splitStatements(script);
+        assertEquals(2, statements.size());
+        assertTrue(statements.getFirst().endsWith("END;"));
+        assertEquals("DELETE FROM A;", statements.get(1));
+    }
+
+    /**
+     * Drops every table, leaving an empty database at version 0.
+     */
+    static void dropTables() {
+        DatabaseManager dbManager = new DatabaseManager();
+        dbManager.executeUpdate("PRAGMA foreign_keys = OFF");
+        for (String table : dbManager.listTables()) dbManager.executeUpdate("DROP TABLE " + table);
+        dbManager.executeUpdate("PRAGMA foreign_keys = ON");
+        dbManager.executeUpdate("PRAGMA user_version = 0");
+    }
+}
@@ -0,0 +1,181 @@
+package com.lucasbmmn.timetracker.data.database;
+
+import com.lucasbmmn.timetracker.data.dao.ClientDao;
+import com.lucasbmmn.timetracker.data.dao.ProjectDao;
+import com.lucasbmmn.timetracker.data.dao.TaskDao;
+import com.lucasbmmn.timetracker.data.dao.TaskStatusDao;
+import com.lucasbmmn.timetracker.data.dao.TaskTimeEntryDao;
+import com.lucasbmmn.timetracker.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCacheTest {
+    private static final String CLIENT_NAMES = "SELECT name FROM Clients ORDER BY name";
+
+    private final DatabaseManager dbManager = new DatabaseManager();
+    private final ClientDao clientDao = new ClientDao();
+
+    private final Client CLIENT = new Client(
+            UUID.fromString("8c8b5ff4-6a8e-4a4b-9c6a-4f2ab1f6a2b1"),
+            "XYZ Ltd",
+            "Jane Smith",
+            "jane.smith@xyz.com",
+            "+1987654321",
+            "-05:00"
+    );
+
+    @BeforeEach
+    void setUp() {
+        dbManager.resetDatabase();
+        clientDao.insert(CLIENT);
+    }
+
+    @Test
+    void repeatedQueryHits() {
+        QueryCacheStats before = DatabaseManager.getQueryCacheStats();
+        List<String> first = names();
+        List<String> second = names();
+
+        assertEquals(List.of("Jane Smith"), first);
+        assertSame(first, second);
+        QueryCacheStats after = DatabaseManager.getQueryCacheStats();
+        assertEquals(before.hits() + 1, after.hits());
+        assertEquals(before.misses() + 1, after.misses());
+        assertThrows(UnsupportedOperationException.class, () -> first.add("John Doe"));
+    }
+
+    @Test
+    void writeMakesResultStale() {
+        List<String> cached = names();
+
+        // Another table, the result is still current
+        new TaskStatusDao().insert(new TaskStatus("Blocked"));
+        assertSame(cached, names());
+
+        clientDao.insert(new Client("ABC Corp", "John Doe", "john.doe@abc.com", "+1234567890",
+                "+01:00"));
+        assertEquals(List.of("Jane Smith", "John Doe"), names());
+
+        clientDao.delete(CLIENT);
+        assertEquals(List.of("John Doe"), names());
+    }
+
+    @Test
+    void tableWrittenByTrigger() {
+        Project project = new Project(CLIENT, "Website Redesign", "Redesign the website",
+                Duration.ofHours(10), 50, 0, new Date(1_633_132_800_000L), null);
+        new ProjectDao().insert(project);
+        Task task = new Task(project, "Design Mockups", "Create the mockups",
+                Duration.ofHours(2), null, null, new Date(1_633_219_200_000L));
+        new TaskDao().insert(task);
+
+        String sql = "SELECT COALESCE(SUM(seconds), 0) AS total FROM Daily_Task_Totals";
+        assertEquals(List.of(0L), dbManager.executeCachedQuery(sql, rs -> rs.getLong("total")));
+
+        new TaskTimeEntryDao().insert(new TaskTimeEntry(task, Duration.ofSeconds(1800),
+                new Date(1_633_219_200_000L)));
+        assertEquals(List.of(1800L), dbManager.executeCachedQuery(sql, rs -> rs.getLong("total")));
+    }
+
+    @Test
+    void externalWrite() throws Exception {
+        List<String> cached = names();
+
+        try (Connection connection = DriverManager.getConnection(DatabaseManager.URL);
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO Clients (id, company, name, email, " +
+                    "phone_number, timezone) VALUES (X'0f0e0d0c0b0a09080706050403020100', " +
+                    "'ABC Corp', 'John Doe', 'john.doe@abc.com', '+1234567890', '+00:00')");
+        }
+
+        // Seen once the data version is read again
+        Thread.sleep(DatabaseManager.DATA_VERSION_INTERVAL.toMillis() + 1);
+        assertNotSame(cached, names());
+        assertEquals(List.of("Jane Smith", "John Doe"), names());
+    }
+
+    @Test
+    void uncommittedWritesAreNotCached() {
+        names();
+        assertThrows(IllegalStateException.class, () -> dbManager.runInTransaction(() -> {
+            clientDao.delete(CLIENT);
+            // The writer connection is held, the query runs and sees the deletion
+            assertTrue(names().isEmpty());
+            throw new IllegalStateException();
+        }));
+
+        assertEquals(List.of("Jane Smith"), names());
+    }
+
+    @Test
+    void usedWhileOtherThreadWrites() throws Exception {
+        List<String> cached = names();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch read = new CountDownLatch(1);
+        Thread writer = Thread.ofPlatform().start(() -> dbManager.runInTransaction(() -> {
+            new TaskStatusDao().insert(new TaskStatus("Blocked"));
+            writing.countDown();
+            try {
+                read.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        writing.await();
+        Thread.sleep(DatabaseManager.DATA_VERSION_INTERVAL.toMillis() + 1);
+        assertSame(cached, names());
+        read.countDown();
+        writer.join();
+    }
+
+    @Test
+    void getAllReturnsOwnEntities() {
+        List<Client> first = clientDao.getAll();
+        first.getFirst().setName("John Doe");
+
+        List<Client> second = clientDao.getAll();
+        assertNotSame(first.getFirst(), second.getFirst());
+        assertEquals(List.of(CLIENT), second);
+        assertEquals(CLIENT.getName(), second.getFirst().getName());
+    }
+
+    @Test
+    void leastRecentlyUsedEviction() {
+        QueryCache cache = new QueryCache(3);
+        QueryCache.Key first = new QueryCache.Key("SELECT 1", new Object[]{1});
+        QueryCache.Key second = new QueryCache.Key("SELECT 1", new Object[]{2});
+        QueryCache.Key third = new QueryCache.Key("SELECT 1", new Object[]{3});
+
+        cache.put(first, cache.stamp("SELECT 1"), List.of(1, 1));
+        cache.put(second, cache.stamp("SELECT 1"), List.of(2));
+        assertNotNull(cache.get(first));
+        cache.put(third, cache.stamp("SELECT 1"), List.of(3));
+
+        assertNull(cache.get(second));
+        assertEquals(List.of(1, 1), cache.get(first));
+        assertEquals(List.of(3), cache.get(third));
+        assertEquals(1, cache.getStats().evictions());
+        assertEquals(0.75, cache.getStats().hitRatio());
+
+        // Larger than the whole cache
+        cache.put(second, cache.stamp("SELECT 1"), List.of(1, 2, 3, 4));
+        assertNull(cache.get(second));
+        assertThrows(IllegalArgumentException.class, () -> new QueryCache(0));
+    }
+
+    private List<String> names() {
+        return dbManager.executeCachedQuery(CLIENT_NAMES, rs -> rs.getString("name"));
+    }
+}
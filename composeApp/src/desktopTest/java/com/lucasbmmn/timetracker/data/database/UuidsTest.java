@@ -0,0 +1,44 @@
+package com.lucasbmmn.timetracker.data.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidsTest {
+    @Test
+    void roundTrip() {
+        UUID uuid = UUID.randomUUID();
+        byte[] bytes = Uuids.toBytes(uuid);
+
+        assertEquals(16, bytes.length);
+        assertEquals(uuid, Uuids.fromBytes(bytes));
+    }
+
+    @Test
+    void bytesSortLikeText() {
+        UUID low = UUID.fromString("0fffffff-ffff-ffff-ffff-ffffffffffff");
+        UUID high = UUID.fromString("f0000000-0000-0000-0000-000000000000");
+
+        // Unsigned comparison, like SQLite compares blobs
+        assertTrue(Arrays.compareUnsigned(Uuids.toBytes(low), Uuids.toBytes(high)) < 0);
+        assertTrue(low.toString().compareTo(high.toString()) < 0);
+    }
+
+    @Test
+    void fromBytes() {
+        assertNull(Uuids.fromBytes(null));
+        assertThrows(IllegalArgumentException.class, () -> Uuids.fromBytes(new byte[15]));
+    }
+
+    @Test
+    void parseOrNull() {
+        UUID uuid = UUID.randomUUID();
+
+        assertEquals(uuid, Uuids.parseOrNull(uuid.toString()));
+        assertNull(Uuids.parseOrNull("not a uuid"));
+        assertNull(Uuids.parseOrNull(null));
+    }
+}
@@ -0,0 +1,154 @@
+package com.lucasbmmn.timetracker.data.database;
+
+import com.lucasbmmn.timetracker.data.dao.TaskStatusDao;
+import com.lucasbmmn.timetracker.model.TaskStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteQueueTest {
+    private final DatabaseManager dbManager = new DatabaseManager();
+    private final TaskStatusDao dao = new TaskStatusDao();
+    private final WriteQueue queue = new WriteQueue(64, Duration.ofMillis(200));
+
+    @BeforeEach
+    void setUp() {
+        dbManager.resetDatabase();
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.close();
+    }
+
+    @Test
+    void groupCommit() {
+        int defaultCount = dao.getAll().size();
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            TaskStatus status = new TaskStatus(UUID.randomUUID(), "Status " + i);
+            writes.add(queue.execute(() -> dao.insert(status)));
+        }
+        CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+
+        assertEquals(defaultCount + 100, dao.getAll().size());
+        assertEquals(100, queue.getWriteCount());
+        // At most 64 writes per group, submitted well within the latency
+        assertTrue(queue.getGroupCount() < 10);
+    }
+
+    @Test
+    void submit() {
+        int defaultCount = dao.getAll().size();
+        TaskStatus status = new TaskStatus(UUID.randomUUID(), "Blocked");
+
+        int count = queue.submit(() -> {
+            dao.insert(status);
+            return dao.getAll().size();
+        }).join();
+        assertEquals(defaultCount + 1, count);
+    }
+
+    @Test
+    void failingWriteFailsAlone() {
+        TaskStatus existing = new TaskStatus(UUID.randomUUID(), "Existing");
+        dao.insert(existing);
+        TaskStatus first = new TaskStatus(UUID.randomUUID(), "First");
+        TaskStatus last = new TaskStatus(UUID.randomUUID(), "Last");
+
+        CompletableFuture<Void> firstWrite = queue.execute(() -> dao.insert(first));
+        CompletableFuture<Void> failingWrite = queue.execute(() -> dao.insert(existing));
+        CompletableFuture<Void> lastWrite = queue.execute(() -> dao.insert(last));
+
+        firstWrite.join();
+        lastWrite.join();
+        assertThrows(CompletionException.class, failingWrite::join);
+        assertEquals(first, dao.getById(first.getUuid()));
+        assertEquals(last, dao.getById(last.getUuid()));
+    }
+
+    @Test
+    void writeSubmittingWrite() {
+        TaskStatus status = new TaskStatus(UUID.randomUUID(), "Nested");
+
+        // Runs at once instead of waiting for the group it is part of
+        CompletableFuture<CompletableFuture<Void>> write = queue.submit(() -> {
+            CompletableFuture<Void> nested = queue.execute(() -> dao.insert(status));
+            assertFalse(nested.isDone());
+            return nested;
+        });
+        CompletableFuture<Void> nested = write.join();
+        // Completed with the group, not before
+        assertTrue(nested.isDone());
+        nested.join();
+        assertEquals(status, dao.getById(status.getUuid()));
+    }
+
+    @Test
+    void nestedWriteRolledBackWithGroup() {
+        TaskStatus existing = new TaskStatus(UUID.randomUUID(), "Existing");
+        dao.insert(existing);
+        TaskStatus status = new TaskStatus(UUID.randomUUID(), "Nested");
+        List<CompletableFuture<Void>> nested = new ArrayList<>();
+
+        CompletableFuture<Void> write = queue.execute(() -> {
+            nested.add(queue.execute(() -> dao.insert(status)));
+            dao.insert(existing);
+        });
+        assertThrows(CompletionException.class, write::join);
+        assertTrue(nested.getFirst().isCompletedExceptionally());
+        assertNull(dao.getById(status.getUuid()));
+    }
+
+    @Test
+    void failingCallbackKeepsCommit() {
+        TaskStatus status = new TaskStatus(UUID.randomUUID(), "Committed");
+        List<String> callbacks = new ArrayList<>();
+
+        queue.execute(() -> {
+            dao.insert(status);
+            dbManager.afterCommit(() -> {
+                throw new IllegalStateException("Failing callback");
+            });
+            dbManager.afterCommit(() -> callbacks.add("next"));
+        }).join();
+        assertEquals(List.of("next"), callbacks);
+        assertEquals(status, dao.getById(status.getUuid()));
+        assertEquals(1, queue.getWriteCount());
+    }
+
+    @Test
+    void close() {
+        TaskStatus status = new TaskStatus(UUID.randomUUID(), "Pending");
+        CompletableFuture<Void> write = queue.execute(() -> dao.insert(status));
+
+        queue.close();
+        assertTrue(write.isDone());
+        assertEquals(status, dao.getById(status.getUuid()));
+        assertThrows(IllegalStateException.class, () -> queue.execute(() -> { }));
+    }
+
+    @Test
+    void writerIsPlatformThread() {
+        // A group commit runs in native code, which would pin a virtual thread's carrier
+        assertFalse(queue.submit(() -> Thread.currentThread().isVirtual()).join());
+        assertTrue(queue.submit(() -> Thread.currentThread().isDaemon()).join());
+    }
+
+    @Test
+    void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new WriteQueue(0, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class,
+                () -> new WriteQueue(1, Duration.ofMillis(-1)));
+        assertThrows(NullPointerException.class, () -> new WriteQueue(1, null));
+    }
+}
@@ -0,0 +1,246 @@
+package com.lucasbmmn.timetracker.timer;
+
+import com.lucasbmmn.timetracker.data.dao.ProjectDao;
+import com.lucasbmmn.timetracker.data.dao.TaskDao;
+import com.lucasbmmn.timetracker.data.dao.TaskTimeEntryDao;
+import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.model.Project;
+import com.lucasbmmn.timetracker.model.Task;
+import com.lucasbmmn.timetracker.model.TaskTimeEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerServiceTest {
+    // Long enough for the scheduled heartbeats and flushes never to run during a test
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    private final DatabaseManager dbManager = new DatabaseManager();
+    private final TaskTimeEntryDao entryDao = new TaskTimeEntryDao();
+    private final ManualClock clock = new ManualClock(Instant.parse("2025-03-10T09:00:00Z"));
+
+    @TempDir
+    Path directory;
+    private Path journal;
+
+    private final Project PROJECT = new Project(
+            UUID.fromString("cd6e621b-b81d-4752-96f7-061f3ae5db24"),
+            null,
+            "Mobile App Development",
+            "Develop a mobile app for XYZ Ltd",
+            null,
+            85,
+            0,
+            new Date(1_633_132_800_000L),
+            null
+    );
+
+    private final Task TASK = new Task(
+            UUID.fromString("c235b9ec-b3c5-407d-be0f-8b5e5fdf3c0c"),
+            PROJECT,
+            "Develop Login Screen",
+            "Develop the login screen for the mobile app",
+            Duration.ofSeconds(7200),
+            null,
+            null,
+            new Date(1_633_219_200_000L)
+    );
+
+    @BeforeEach
+    void setUp() {
+        dbManager.resetDatabase();
+        new ProjectDao().insert(PROJECT);
+        new TaskDao().insert(TASK);
+        journal = directory.resolve("timers.journal");
+    }
+
+    @Test
+    void startStop() {
+        try (TimerService service = newService()) {
+            TaskTimeEntry entry = service.start(TASK);
+            assertEquals(List.of(entry), service.getRunning());
+            assertNull(entryDao.getById(entry.getUuid()));
+
+            clock.advance(Duration.ofSeconds(90));
+            service.stop(entry);
+
+            assertTrue(service.getRunning().isEmpty());
+            TaskTimeEntry saved = entryDao.getById(entry.getUuid());
+            assertNotNull(saved);
+            assertEquals(Duration.ofSeconds(90), saved.getDuration());
+            assertEquals(Date.from(Instant.parse("2025-03-10T09:00:00Z")), saved.getCreatedAt());
+            assertThrows(IllegalArgumentException.class, () -> service.stop(entry));
+        }
+    }
+
+    @Test
+    void flushSavesLastHeartbeat() {
+        try (TimerService service = newService()) {
+            TaskTimeEntry entry = service.start(TASK);
+            clock.advance(Duration.ofSeconds(10));
+            service.heartbeat();
+            clock.advance(Duration.ofSeconds(5));
+            service.flush();
+            assertEquals(Duration.ofSeconds(10), entryDao.getById(entry.getUuid()).getDuration());
+
+            clock.advance(Duration.ofSeconds(5));
+            service.heartbeat();
+            service.flush();
+            assertEquals(Duration.ofSeconds(20), entryDao.getById(entry.getUuid()).getDuration());
+            assertEquals(1, entryDao.getAll().size());
+        }
+    }
+
+    @Test
+    void recoverNeverSavedTimer() throws IOException {
+        // Left running, as if the application crashed
+        TimerService crashed = newService();
+        TaskTimeEntry entry = crashed.start(TASK);
+        clock.advance(Duration.ofSeconds(10));
+        crashed.heartbeat();
+        clock.advance(Duration.ofSeconds(3));
+        // Record cut short by the crash
+        Files.write(journal, new byte[]{2, 0, 0}, StandardOpenOption.APPEND);
+
+        try (TimerService service = newService()) {
+            assertEquals(1, service.getRecoveredEntries().size());
+            assertEquals(entry.getUuid(), service.getRecoveredEntries().getFirst().getUuid());
+            assertEquals(Duration.ofSeconds(10), entryDao.getById(entry.getUuid()).getDuration());
+            assertTrue(service.getRunning().isEmpty());
+        }
+
+        // Nothing left to recover
+        try (TimerService service = newService()) {
+            assertTrue(service.getRecoveredEntries().isEmpty());
+        }
+    }
+
+    @Test
+    void recoverSavedTimer() {
+        TimerService crashed = newService();
+        TaskTimeEntry entry = crashed.start(TASK);
+        clock.advance(Duration.ofSeconds(10));
+        crashed.heartbeat();
+        crashed.flush();
+        clock.advance(Duration.ofSeconds(10));
+        crashed.heartbeat();
+
+        try (TimerService service = newService()) {
+            assertEquals(1, service.getRecoveredEntries().size());
+            assertEquals(Duration.ofSeconds(20), entryDao.getById(entry.getUuid()).getDuration());
+            assertEquals(1, entryDao.getAll().size());
+        }
+    }
+
+    @Test
+    void stoppedTimersAreNotRecovered() {
+        TimerService crashed = newService();
+        crashed.stop(crashed.start(TASK));
+
+        try (TimerService service = newService()) {
+            assertTrue(service.getRecoveredEntries().isEmpty());
+            assertEquals(1, entryDao.getAll().size());
+        }
+    }
+
+    @Test
+    void closeSavesRunningTimers() {
+        TaskTimeEntry entry;
+        try (TimerService service = newService()) {
+            entry = service.start(TASK);
+            clock.advance(Duration.ofSeconds(30));
+        }
+        assertEquals(Duration.ofSeconds(30), entryDao.getById(entry.getUuid()).getDuration());
+
+        try (TimerService service = newService()) {
+            assertEquals(1, service.getRecoveredEntries().size());
+        }
+    }
+
+    @Test
+    void invalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TimerService(journal, Duration.ZERO, NEVER));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TimerService(journal, NEVER, Duration.ofSeconds(-1)));
+        assertThrows(NullPointerException.class, () -> new TimerService(null, NEVER, NEVER));
+    }
+
+    @Test
+    void timerOfDeletedTaskIsDropped() {
+        try (TimerService service = newService()) {
+            TaskTimeEntry entry = service.start(TASK);
+            new TaskDao().delete(TASK);
+
+            clock.advance(Duration.ofSeconds(30));
+            service.heartbeat();
+            // Saving its entry would fail the foreign key on every flush
+            service.flush();
+            assertTrue(service.getRunning().isEmpty());
+            assertNull(entryDao.getById(entry.getUuid()));
+        }
+    }
+
+    @Test
+    void scheduledFailureIsReported() {
+        try (TimerService service = newService()) {
+            assertNull(service.getFailure());
+            service.runScheduled(() -> {
+                throw new IllegalStateException("No space left on device");
+            });
+            assertEquals("No space left on device", service.getFailure().getMessage());
+
+            service.runScheduled(service::flush);
+            assertNull(service.getFailure());
+        }
+    }
+
+    private TimerService newService() {
+        return new TimerService(journal, NEVER, NEVER, clock);
+    }
+
+    /**
+     * Clock only moving forward when told to.
+     */
+    private static final class ManualClock extends Clock {
+        private Instant instant;
+
+        private ManualClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.lucasbmmn.timetracker.console;
+
+import com.lucasbmmn.timetracker.billing.BillingEngine;
+import com.lucasbmmn.timetracker.model.ClientInvoice;
+import com.lucasbmmn.timetracker.model.ProjectInvoice;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+public class BillingCommands {
+    public static void bill(String[] args) {
+        if (args.length != 2) {
+            System.out.println("bill error: wrong number of parameters, usage: bill <from> <to>\n");
+            return;
+        }
+
+        List<ClientInvoice> invoices;
+        try {
+            invoices = new BillingEngine().bill(LocalDate.parse(args[0]), LocalDate.parse(args[1]));
+        } catch (DateTimeParseException e) {
+            System.out.println("bill error: dates must be formatted as yyyy-mm-dd\n");
+            return;
+        } catch (IllegalArgumentException | DateTimeException e) {
+            System.out.println("bill error: " + e.getMessage() + '\n');
+            return;
+        }
+
+        if (invoices.isEmpty()) System.out.println("Nothing to bill.");
+        for (ClientInvoice invoice : invoices) {
+            String client = invoice.client() == null ? "No client"
+                    : invoice.client().getCompany() + " (" + invoice.client().getName() + ')';
+            System.out.println(client + ": " + invoice.total());
+            for (ProjectInvoice project : invoice.projects())
+                System.out.println("\t" + project.project().getName() + ": " +
+                        hours(project.billable()) + " billable, " + project.hourlyAmount() +
+                        " + " + project.fixedAmount() + " fixed = " + project.total());
+        }
+        System.out.println();
+    }
+
+    private static String hours(Duration duration) {
+        return duration.toHours() + "h" + String.format("%02d", duration.toMinutesPart());
+    }
+}
@@ -1,6 +1,8 @@
 package com.lucasbmmn.timetracker.console;
 
+import com.lucasbmmn.timetracker.data.dao.RollupDao;
 import com.lucasbmmn.timetracker.data.database.DatabaseManager;
+import com.lucasbmmn.timetracker.data.database.DatabaseProfile;
 import com.lucasbmmn.timetracker.data.database.DatabaseSetup;
 
 import java.util.List;
@@ -28,4 +30,25 @@ public class DbCommands {
         dbManager.resetDatabase();
         System.out.println("Database reset.\n");
     }
+
+    public static void profile(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Database profile: " + DatabaseManager.getProfile() + "\n");
+            return;
+        }
+
+        try {
+            DatabaseManager.configureProfile(DatabaseProfile.fromName(args[0]));
+            System.out.println("Database profile set to " + DatabaseManager.getProfile() + ".\n");
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage() + ". Available profiles: durable, balanced, " +
+                    "fast-import.\n");
+        }
+    }
+
+    public static void rebuildRollups(String[] args) {
+        RollupDao rollupDao = new RollupDao();
+        rollupDao.rebuild();
+        System.out.println("Daily totals rebuilt.\n");
+    }
 }
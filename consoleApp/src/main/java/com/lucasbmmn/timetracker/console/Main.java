@@ -23,6 +23,9 @@ public class Main {
                     case "create-db" -> DbCommands.createDatabase(commandArgs);
                     case "list-tables" -> DbCommands.listTables(commandArgs);
                     case "reset-db" -> DbCommands.resetDb(commandArgs);
+                    case "db-profile" -> DbCommands.profile(commandArgs);
+                    case "rebuild-rollups" -> DbCommands.rebuildRollups(commandArgs);
+                    case "bill" -> BillingCommands.bill(commandArgs);
                     case "exit", "quit" -> running = false;
                     default -> System.out.println("Unknown command. Type 'help' for a list of commands.");
                 }
@@ -39,6 +42,9 @@ public class Main {
               create-db       Create and init database
               list-tables     Lists of tables in the database
               reset-db        Reset database
+              db-profile      Show or set the database profile (durable, balanced, fast-import)
+              rebuild-rollups Recompute the daily totals of the time entries
+              bill            Show what each client owes between two days (bill <from> <to>)
               add-project     Add a new project
               list-projects   List all projects
               add-task        Add a new task
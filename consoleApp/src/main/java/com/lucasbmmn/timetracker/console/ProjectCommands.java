@@ -1,6 +1,7 @@
 package com.lucasbmmn.timetracker.console;
 
 import com.lucasbmmn.timetracker.data.dao.ClientDao;
+import com.lucasbmmn.timetracker.data.dao.Page;
 import com.lucasbmmn.timetracker.data.dao.ProjectDao;
 import com.lucasbmmn.timetracker.model.Client;
 import com.lucasbmmn.timetracker.model.Project;
@@ -10,6 +11,8 @@ import java.util.Arrays;
 import java.util.Date;
 
 public class ProjectCommands {
+    private static final int LIST_PAGE_SIZE = 100;
+
     public static void executeCommand(String[] args) {
         if (args.length != 0) {
             String[] otherArgs = args.length >= 2 ? Arrays.copyOfRange(args, 1, args.length) : null;
@@ -58,7 +61,11 @@ public class ProjectCommands {
     private static void list(String[] args) {
         ProjectDao dao = new ProjectDao();
         if (args == null) {
-            for (Project project : dao.getAll()) System.out.println(project);
+            Page<Project> page = dao.getPage(LIST_PAGE_SIZE, null);
+            for (Project project : page.items()) System.out.println(project);
+            if (page.hasNext())
+                System.out.println("Showing the " + LIST_PAGE_SIZE + " most recent projects out " +
+                        "of about " + dao.estimateCount() + '.');
         } else if (args.length == 1) {
             Project project = dao.getById(args[0]);
             if (project != null) System.out.println(project);